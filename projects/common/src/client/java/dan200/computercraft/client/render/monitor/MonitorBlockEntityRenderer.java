@@ -33,7 +33,7 @@
 
 import javax.annotation.Nullable;
 import java.nio.ByteBuffer;
-import java.util.function.Consumer;
+import java.util.BitSet;
 
 import static dan200.computercraft.client.render.text.FixedWidthFontRenderer.FONT_HEIGHT;
 import static dan200.computercraft.client.render.text.FixedWidthFontRenderer.FONT_WIDTH;
@@ -172,20 +172,40 @@ private static void renderTerminal(
             case VBO -> {
                 var backgroundBuffer = assertNonNull(renderState.backgroundBuffer);
                 var foregroundBuffer = assertNonNull(renderState.foregroundBuffer);
+                var rowQuads = DirectFixedWidthFontRenderer.getRowQuadCount(terminal);
                 if (redraw) {
-                    var size = DirectFixedWidthFontRenderer.getVertexCount(terminal);
+                    // Each row of the terminal is drawn to a fixed region of the buffer (padding with empty quads if
+                    // needed). This means we only need to redraw and upload the rows which have actually changed.
+                    var changed = renderState.getChangedRows(terminal, xMargin, yMargin);
 
                     // In an ideal world we could upload these both into one buffer. However, we can't render VBOs with
                     // and starting and ending offset, and so need to use two buffers instead.
 
-                    renderToBuffer(backgroundBuffer, size, sink ->
-                        DirectFixedWidthFontRenderer.drawTerminalBackground(sink, 0, 0, terminal, yMargin, yMargin, xMargin, xMargin));
-
-                    renderToBuffer(foregroundBuffer, size, sink -> {
-                        DirectFixedWidthFontRenderer.drawTerminalForeground(sink, 0, 0, terminal);
-                        // If the cursor is visible, we append it to the end of our buffer. When rendering, we can either
-                        // render n or n+1 quads and so toggle the cursor on and off.
-                        DirectFixedWidthFontRenderer.drawCursor(sink, 0, 0, terminal);
+                    // The background has an additional row above and below the terminal for the margins. These
+                    // depend on the first and last row of the terminal, so must be redrawn when those change.
+                    BitSet backgroundRows = null;
+                    if (changed != null) {
+                        backgroundRows = new BitSet(height + 2);
+                        for (var row = changed.nextSetBit(0); row >= 0; row = changed.nextSetBit(row + 1)) {
+                            backgroundRows.set(row + 1);
+                        }
+                        if (changed.get(0)) backgroundRows.set(0);
+                        if (changed.get(height - 1)) backgroundRows.set(height + 1);
+                    }
+
+                    renderRows(backgroundBuffer, height + 2, rowQuads, backgroundRows, (sink, row) ->
+                        DirectFixedWidthFontRenderer.drawTerminalBackgroundRow(sink, 0, 0, terminal, row - 1, yMargin, yMargin, xMargin, xMargin));
+
+                    // The foreground has an additional row at the end, containing the cursor. When rendering, we can
+                    // either include or skip this row and so toggle the cursor on and off. The cursor may have moved
+                    // without any text changing, so we always redraw it.
+                    if (changed != null) changed.set(height);
+                    renderRows(foregroundBuffer, height + 1, rowQuads, changed, (sink, row) -> {
+                        if (row < height) {
+                            DirectFixedWidthFontRenderer.drawTerminalForegroundRow(sink, 0, 0, terminal, row);
+                        } else {
+                            DirectFixedWidthFontRenderer.drawCursor(sink, 0, 0, terminal);
+                        }
                     });
                 }
 
@@ -209,9 +229,8 @@ private static void renderTerminal(
                 foregroundBuffer.drawWithShader(
                     matrix, RenderSystem.getProjectionMatrix(), RenderTypes.getTerminalShader(),
                     // As mentioned in the above comment, render the extra cursor quad if it is visible this frame. Each
-                    // // quad has an index count of 6.
-                    FixedWidthFontRenderer.isCursorVisible(terminal) && FrameInfo.getGlobalCursorBlink()
-                        ? foregroundBuffer.getIndexCount() + 6 : foregroundBuffer.getIndexCount()
+                    // quad has an index count of 6.
+                    height * rowQuads * 6 + (FixedWidthFontRenderer.isCursorVisible(terminal) && FrameInfo.getGlobalCursorBlink() ? 6 : 0)
                 );
 
                 // Clear state
@@ -226,13 +245,55 @@ private static void renderTerminal(
         }
     }
 
-    private static void renderToBuffer(DirectVertexBuffer vbo, int size, Consumer<DirectFixedWidthFontRenderer.QuadEmitter> draw) {
-        var sink = ShaderMod.get().getQuadEmitter(size, MonitorBlockEntityRenderer::getBuffer);
+    /**
+     * Draw some rows of the terminal to a vertex buffer.
+     * <p>
+     * Each row occupies a fixed number of quads in the buffer, so that individual rows can be redrawn and uploaded
+     * without touching the rest of the buffer.
+     *
+     * @param vbo         The buffer to draw to.
+     * @param rows        The total number of rows in the buffer.
+     * @param quadsPerRow The number of quads used by each row.
+     * @param changed     The rows to redraw, or {@code null} to draw the whole buffer from scratch.
+     * @param draw        The function to draw a single row.
+     */
+    private static void renderRows(DirectVertexBuffer vbo, int rows, int quadsPerRow, @Nullable BitSet changed, RowRenderer draw) {
+        var sink = ShaderMod.get().getQuadEmitter(rows * quadsPerRow, MonitorBlockEntityRenderer::getBuffer);
+        var buffer = sink.buffer();
+        var quadSize = sink.format().getVertexSize() * 4;
+
+        if (changed == null || vbo.getFormat() != sink.format()) {
+            for (var row = 0; row < rows; row++) renderRow(sink, row, quadsPerRow, quadSize, draw);
+
+            buffer.flip();
+            vbo.upload(buffer.limit() / sink.format().getVertexSize(), RenderTypes.TERMINAL.mode(), sink.format(), buffer);
+            return;
+        }
+
+        // Otherwise draw each run of consecutive changed rows, and copy them into the appropriate part of the buffer.
+        var rowSize = (long) quadsPerRow * quadSize;
+        var start = changed.nextSetBit(0);
+        while (start >= 0 && start < rows) {
+            var end = Math.min(changed.nextClearBit(start), rows);
+
+            buffer.clear();
+            for (var row = start; row < end; row++) renderRow(sink, row, quadsPerRow, quadSize, draw);
+
+            buffer.flip();
+            vbo.uploadRange(start * rowSize, buffer);
+
+            start = changed.nextSetBit(end);
+        }
+    }
+
+    private static void renderRow(DirectFixedWidthFontRenderer.QuadEmitter sink, int row, int quadsPerRow, int quadSize, RowRenderer draw) {
         var buffer = sink.buffer();
+        var start = buffer.position();
+        draw.draw(sink, row);
 
-        draw.accept(sink);
-        buffer.flip();
-        vbo.upload(buffer.limit() / sink.format().getVertexSize(), RenderTypes.TERMINAL.mode(), sink.format(), buffer);
+        var quads = (buffer.position() - start) / quadSize;
+        if (quads > quadsPerRow) throw new IllegalStateException("Drew " + quads + " quads, but expected at most " + quadsPerRow);
+        DirectFixedWidthFontRenderer.drawEmptyQuads(sink, quadsPerRow - quads);
     }
 
     private static void tboVertex(VertexConsumer builder, Matrix4f matrix, float x, float y) {
@@ -250,6 +311,11 @@ private static ByteBuffer getBuffer(int capacity) {
         return buffer;
     }
 
+    @FunctionalInterface
+    private interface RowRenderer {
+        void draw(DirectFixedWidthFontRenderer.QuadEmitter sink, int row);
+    }
+
     @Override
     public int getViewDistance() {
         return Config.monitorDistance;
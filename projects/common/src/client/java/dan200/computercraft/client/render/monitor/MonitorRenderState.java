@@ -8,6 +8,8 @@
 import com.mojang.blaze3d.platform.GlStateManager;
 import dan200.computercraft.client.render.vbo.DirectBuffers;
 import dan200.computercraft.client.render.vbo.DirectVertexBuffer;
+import dan200.computercraft.core.terminal.Palette;
+import dan200.computercraft.core.terminal.Terminal;
 import dan200.computercraft.shared.peripheral.monitor.ClientMonitor;
 import dan200.computercraft.shared.peripheral.monitor.MonitorRenderer;
 import net.minecraft.core.BlockPos;
@@ -17,6 +19,8 @@
 import org.lwjgl.opengl.GL31;
 
 import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -40,6 +44,15 @@ public class MonitorRenderState implements ClientMonitor.RenderState {
     public @Nullable DirectVertexBuffer backgroundBuffer;
     public @Nullable DirectVertexBuffer foregroundBuffer;
 
+    /**
+     * A copy of the terminal's contents when {@link #backgroundBuffer} and {@link #foregroundBuffer} were last drawn,
+     * used to determine which rows have changed.
+     */
+    private byte[] lastCells = new byte[0];
+    private final byte[] lastPalette = new byte[Palette.PALETTE_SIZE * 3];
+    private int lastWidth = -1, lastHeight = -1;
+    private float lastXMargin, lastYMargin;
+
     /**
      * Create the appropriate buffer if needed.
      *
@@ -82,6 +95,57 @@ public boolean createBuffer(MonitorRenderer renderer) {
         }
     }
 
+    /**
+     * Determine which rows of the terminal have changed since this was last called, and update our copy of the
+     * terminal's contents.
+     *
+     * @param terminal The terminal to check.
+     * @param xMargin  The size of the horizontal margin.
+     * @param yMargin  The size of the vertical margin.
+     * @return The set of changed rows, or {@code null} if the whole terminal should be redrawn (for instance, if the
+     * terminal has been resized or its palette has changed).
+     */
+    public @Nullable BitSet getChangedRows(Terminal terminal, float xMargin, float yMargin) {
+        int width = terminal.getWidth(), height = terminal.getHeight();
+        var redrawAll = width != lastWidth || height != lastHeight
+            || xMargin != lastXMargin || yMargin != lastYMargin;
+
+        if (redrawAll) {
+            lastCells = new byte[width * height * 2];
+            lastWidth = width;
+            lastHeight = height;
+            lastXMargin = xMargin;
+            lastYMargin = yMargin;
+        }
+
+        var palette = terminal.getPalette();
+        for (var i = 0; i < Palette.PALETTE_SIZE; i++) {
+            var colour = palette.getRenderColours(i);
+            for (var j = 0; j < 3; j++) {
+                if (lastPalette[i * 3 + j] == colour[j]) continue;
+                lastPalette[i * 3 + j] = colour[j];
+                redrawAll = true;
+            }
+        }
+
+        var cells = terminal.getCells();
+        var changed = new BitSet(height);
+        for (var y = 0; y < height; y++) {
+            if (updateLine(lastCells, y, cells, terminal.getLineOffset(y), width)) changed.set(y);
+        }
+
+        return redrawAll ? null : changed;
+    }
+
+    private static boolean updateLine(byte[] last, int y, byte[] cells, int offset, int width) {
+        var lineSize = width * 2;
+        var lastOffset = y * lineSize;
+        if (Arrays.equals(last, lastOffset, lastOffset + lineSize, cells, offset, offset + lineSize)) return false;
+
+        System.arraycopy(cells, offset, last, lastOffset, lineSize);
+        return true;
+    }
+
     private void addMonitor() {
         synchronized (allMonitors) {
             allMonitors.add(this);
@@ -113,6 +177,9 @@ private void deleteBuffers() {
             foregroundBuffer.close();
             foregroundBuffer = null;
         }
+
+        // Force the terminal to be redrawn next time.
+        lastWidth = lastHeight = -1;
     }
 
     @Override
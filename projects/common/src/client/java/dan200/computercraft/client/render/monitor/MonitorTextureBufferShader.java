@@ -10,8 +10,6 @@
 import dan200.computercraft.client.render.RenderTypes;
 import dan200.computercraft.client.render.text.FixedWidthFontRenderer;
 import dan200.computercraft.core.terminal.Terminal;
-import dan200.computercraft.core.terminal.TextBuffer;
-import dan200.computercraft.core.util.Colour;
 import net.minecraft.client.renderer.ShaderInstance;
 import net.minecraft.server.packs.resources.ResourceProvider;
 import org.lwjgl.opengl.GL13;
@@ -23,8 +21,6 @@
 import java.io.IOException;
 import java.nio.ByteBuffer;
 
-import static dan200.computercraft.client.render.text.FixedWidthFontRenderer.getColour;
-
 /**
  * The shader used for the monitor TBO renderer.
  * <p>
@@ -84,13 +80,16 @@ private Uniform getUniformChecked(String name) {
     public static void setTerminalData(ByteBuffer buffer, Terminal terminal) {
         int width = terminal.getWidth(), height = terminal.getHeight();
 
+        var cells = terminal.getCells();
+
         var pos = 0;
         for (var y = 0; y < height; y++) {
-            TextBuffer text = terminal.getLine(y), textColour = terminal.getTextColourLine(y), background = terminal.getBackgroundColourLine(y);
+            var offset = terminal.getLineOffset(y);
             for (var x = 0; x < width; x++) {
-                buffer.put(pos, (byte) (text.charAt(x) & 0xFF));
-                buffer.put(pos + 1, (byte) getColour(textColour.charAt(x), Colour.WHITE));
-                buffer.put(pos + 2, (byte) getColour(background.charAt(x), Colour.BLACK));
+                var colour = cells[offset + width + x];
+                buffer.put(pos, cells[offset + x]);
+                buffer.put(pos + 1, (byte) (15 - Terminal.getCellTextColour(colour)));
+                buffer.put(pos + 2, (byte) (15 - Terminal.getCellBackgroundColour(colour)));
                 pos += 3;
             }
         }
@@ -11,8 +11,6 @@
 import dan200.computercraft.client.render.RenderTypes;
 import dan200.computercraft.core.terminal.Palette;
 import dan200.computercraft.core.terminal.Terminal;
-import dan200.computercraft.core.terminal.TextBuffer;
-import dan200.computercraft.core.util.Colour;
 import org.lwjgl.system.MemoryUtil;
 
 import java.nio.ByteBuffer;
@@ -38,6 +36,8 @@
  * {@link FixedWidthFontRenderer}.
  */
 public final class DirectFixedWidthFontRenderer {
+    private static final byte[] EMPTY_COLOUR = new byte[4];
+
     private DirectFixedWidthFontRenderer() {
     }
 
@@ -57,31 +57,32 @@ private static void drawChar(QuadEmitter emitter, float x, float y, int index, b
         );
     }
 
-    private static void drawQuad(QuadEmitter emitter, float x, float y, float width, float height, Palette palette, char colourIndex) {
-        var colour = palette.getRenderColours(getColour(colourIndex, Colour.BLACK));
+    private static void drawQuad(QuadEmitter emitter, float x, float y, float width, float height, Palette palette, int colourIndex) {
+        var colour = palette.getRenderColours(15 - colourIndex);
         quad(emitter, x, y, x + width, y + height, 0f, colour, BACKGROUND_START, BACKGROUND_START, BACKGROUND_END, BACKGROUND_END);
     }
 
     private static void drawBackground(
-        QuadEmitter emitter, float x, float y, TextBuffer backgroundColour, Palette palette,
+        QuadEmitter emitter, float x, float y, byte[] cells, int offset, int width, Palette palette,
         float leftMarginSize, float rightMarginSize, float height
     ) {
+        var colours = offset + width;
         if (leftMarginSize > 0) {
-            drawQuad(emitter, x - leftMarginSize, y, leftMarginSize, height, palette, backgroundColour.charAt(0));
+            drawQuad(emitter, x - leftMarginSize, y, leftMarginSize, height, palette, Terminal.getCellBackgroundColour(cells[colours]));
         }
 
         if (rightMarginSize > 0) {
-            drawQuad(emitter, x + backgroundColour.length() * FONT_WIDTH, y, rightMarginSize, height, palette, backgroundColour.charAt(backgroundColour.length() - 1));
+            drawQuad(emitter, x + width * FONT_WIDTH, y, rightMarginSize, height, palette, Terminal.getCellBackgroundColour(cells[colours + width - 1]));
         }
 
         // Batch together runs of identical background cells.
         var blockStart = 0;
-        var blockColour = '\0';
-        for (var i = 0; i < backgroundColour.length(); i++) {
-            var colourIndex = backgroundColour.charAt(i);
+        var blockColour = -1;
+        for (var i = 0; i < width; i++) {
+            var colourIndex = Terminal.getCellBackgroundColour(cells[colours + i]);
             if (colourIndex == blockColour) continue;
 
-            if (blockColour != '\0') {
+            if (blockColour >= 0) {
                 drawQuad(emitter, x + blockStart * FONT_WIDTH, y, FONT_WIDTH * (i - blockStart), height, palette, blockColour);
             }
 
@@ -89,59 +90,94 @@ private static void drawBackground(
             blockStart = i;
         }
 
-        if (blockColour != '\0') {
-            drawQuad(emitter, x + blockStart * FONT_WIDTH, y, FONT_WIDTH * (backgroundColour.length() - blockStart), height, palette, blockColour);
+        if (blockColour >= 0) {
+            drawQuad(emitter, x + blockStart * FONT_WIDTH, y, FONT_WIDTH * (width - blockStart), height, palette, blockColour);
         }
     }
 
-    public static void drawString(QuadEmitter emitter, float x, float y, TextBuffer text, TextBuffer textColour, Palette palette) {
-        for (var i = 0; i < text.length(); i++) {
-            var colour = palette.getRenderColours(getColour(textColour.charAt(i), Colour.BLACK));
-
-            int index = text.charAt(i);
-            if (index > 255) index = '?';
-            drawChar(emitter, x + i * FONT_WIDTH, y, index, colour);
+    private static void drawLine(QuadEmitter emitter, float x, float y, byte[] cells, int offset, int width, Palette palette) {
+        for (var i = 0; i < width; i++) {
+            var colour = palette.getRenderColours(15 - Terminal.getCellTextColour(cells[offset + width + i]));
+            drawChar(emitter, x + i * FONT_WIDTH, y, cells[offset + i] & 0xFF, colour);
         }
-
     }
 
     public static void drawTerminalForeground(QuadEmitter emitter, float x, float y, Terminal terminal) {
-        var palette = terminal.getPalette();
         var height = terminal.getHeight();
 
         // The main text
-        for (var i = 0; i < height; i++) {
-            var rowY = y + FONT_HEIGHT * i;
-            drawString(
-                emitter, x, rowY, terminal.getLine(i), terminal.getTextColourLine(i),
-                palette
-            );
-        }
+        for (var i = 0; i < height; i++) drawTerminalForegroundRow(emitter, x, y, terminal, i);
+    }
+
+    /**
+     * Draw the text of a single row of the terminal. This emits at most {@link #getRowQuadCount(Terminal)} quads.
+     *
+     * @param emitter  The emitter to draw to.
+     * @param x        The x position of the terminal.
+     * @param y        The y position of the terminal.
+     * @param terminal The terminal to draw.
+     * @param row      The row to draw.
+     */
+    public static void drawTerminalForegroundRow(QuadEmitter emitter, float x, float y, Terminal terminal, int row) {
+        drawLine(
+            emitter, x, y + FONT_HEIGHT * row, terminal.getCells(), terminal.getLineOffset(row), terminal.getWidth(),
+            terminal.getPalette()
+        );
     }
 
     public static void drawTerminalBackground(
         QuadEmitter emitter, float x, float y, Terminal terminal,
         float topMarginSize, float bottomMarginSize, float leftMarginSize, float rightMarginSize
     ) {
-        var palette = terminal.getPalette();
         var height = terminal.getHeight();
 
-        // Top and bottom margins
-        drawBackground(
-            emitter, x, y - topMarginSize, terminal.getBackgroundColourLine(0), palette,
-            leftMarginSize, rightMarginSize, topMarginSize
-        );
+        // The top margin, main text, and then bottom margin.
+        for (var i = -1; i <= height; i++) {
+            drawTerminalBackgroundRow(
+                emitter, x, y, terminal, i,
+                topMarginSize, bottomMarginSize, leftMarginSize, rightMarginSize
+            );
+        }
+    }
 
-        drawBackground(
-            emitter, x, y + height * FONT_HEIGHT, terminal.getBackgroundColourLine(height - 1), palette,
-            leftMarginSize, rightMarginSize, bottomMarginSize
-        );
+    /**
+     * Draw the background of a single row of the terminal. This emits at most {@link #getRowQuadCount(Terminal)} quads.
+     * <p>
+     * The rows immediately above and below the terminal ({@code -1} and {@code terminal.getHeight()}) draw the top
+     * and bottom margins, and so depend on the first and last row of the terminal.
+     *
+     * @param emitter          The emitter to draw to.
+     * @param x                The x position of the terminal.
+     * @param y                The y position of the terminal.
+     * @param terminal         The terminal to draw.
+     * @param row              The row to draw, between {@code -1} and {@code terminal.getHeight()} (inclusive).
+     * @param topMarginSize    The size of the top margin.
+     * @param bottomMarginSize The size of the bottom margin.
+     * @param leftMarginSize   The size of the left margin.
+     * @param rightMarginSize  The size of the right margin.
+     */
+    public static void drawTerminalBackgroundRow(
+        QuadEmitter emitter, float x, float y, Terminal terminal, int row,
+        float topMarginSize, float bottomMarginSize, float leftMarginSize, float rightMarginSize
+    ) {
+        var palette = terminal.getPalette();
+        var width = terminal.getWidth();
+        var height = terminal.getHeight();
+        var cells = terminal.getCells();
 
-        // The main text
-        for (var i = 0; i < height; i++) {
-            var rowY = y + FONT_HEIGHT * i;
+        if (row < 0) {
             drawBackground(
-                emitter, x, rowY, terminal.getBackgroundColourLine(i), palette,
+                emitter, x, y - topMarginSize, cells, terminal.getLineOffset(0), width, palette,
+                leftMarginSize, rightMarginSize, topMarginSize
+            );
+        } else if (row >= height) {
+            drawBackground(
+                emitter, x, y + height * FONT_HEIGHT, cells, terminal.getLineOffset(height - 1), width, palette,
+                leftMarginSize, rightMarginSize, bottomMarginSize
+            );
+        } else {
+            drawBackground(
+                emitter, x, y + FONT_HEIGHT * row, cells, terminal.getLineOffset(row), width, palette,
                 leftMarginSize, rightMarginSize, FONT_HEIGHT
             );
         }
@@ -154,8 +190,25 @@ public static void drawCursor(QuadEmitter emitter, float x, float y, Terminal te
         }
     }
 
-    public static int getVertexCount(Terminal terminal) {
-        return (terminal.getHeight() + 2) * (terminal.getWidth() + 2) * 2;
+    /**
+     * Get the maximum number of quads which may be emitted by {@link #drawTerminalForegroundRow} or
+     * {@link #drawTerminalBackgroundRow}.
+     *
+     * @param terminal The terminal to draw.
+     * @return The maximum number of quads in a single row.
+     */
+    public static int getRowQuadCount(Terminal terminal) {
+        return terminal.getWidth() + 2;
+    }
+
+    /**
+     * Emit several empty (zero-sized) quads. This is used to pad out a partially filled section of a buffer.
+     *
+     * @param emitter The emitter to draw to.
+     * @param count   The number of quads to emit.
+     */
+    public static void drawEmptyQuads(QuadEmitter emitter, int count) {
+        for (var i = 0; i < count; i++) quad(emitter, 0, 0, 0, 0, 0, EMPTY_COLOUR, 0, 0, 0, 0);
     }
 
     private static void quad(QuadEmitter buffer, float x1, float y1, float x2, float y2, float z, byte[] rgba, float u1, float v1, float u2, float v2) {
@@ -79,31 +79,47 @@ public static void drawQuad(QuadEmitter emitter, float x, float y, float z, floa
         quad(emitter, x, y, x + width, y + height, z, colour, BACKGROUND_START, BACKGROUND_START, BACKGROUND_END, BACKGROUND_END, light);
     }
 
-    private static void drawQuad(QuadEmitter emitter, float x, float y, float width, float height, Palette palette, char colourIndex, int light) {
-        var colour = palette.getRenderColours(getColour(colourIndex, Colour.BLACK));
+    private static void drawQuad(QuadEmitter emitter, float x, float y, float width, float height, Palette palette, int colourIndex, int light) {
+        var colour = palette.getRenderColours(15 - colourIndex);
         drawQuad(emitter, x, y, 0, width, height, colour, light);
     }
 
+    /**
+     * Draw the background of one line of a terminal.
+     *
+     * @param emitter         The emitter to draw to.
+     * @param x               The x position of the line.
+     * @param y               The y position of the line.
+     * @param cells           The terminal's {@linkplain Terminal#getCells() contents}.
+     * @param offset          The {@linkplain Terminal#getLineOffset(int) offset} of this line.
+     * @param width           The width of the terminal.
+     * @param palette         The terminal's palette.
+     * @param leftMarginSize  The size of the left margin.
+     * @param rightMarginSize The size of the right margin.
+     * @param height          The height of this line.
+     * @param light           The lightmap value.
+     */
     private static void drawBackground(
-        QuadEmitter emitter, float x, float y, TextBuffer backgroundColour, Palette palette,
+        QuadEmitter emitter, float x, float y, byte[] cells, int offset, int width, Palette palette,
         float leftMarginSize, float rightMarginSize, float height, int light
     ) {
+        var colours = offset + width;
         if (leftMarginSize > 0) {
-            drawQuad(emitter, x - leftMarginSize, y, leftMarginSize, height, palette, backgroundColour.charAt(0), light);
+            drawQuad(emitter, x - leftMarginSize, y, leftMarginSize, height, palette, Terminal.getCellBackgroundColour(cells[colours]), light);
         }
 
         if (rightMarginSize > 0) {
-            drawQuad(emitter, x + backgroundColour.length() * FONT_WIDTH, y, rightMarginSize, height, palette, backgroundColour.charAt(backgroundColour.length() - 1), light);
+            drawQuad(emitter, x + width * FONT_WIDTH, y, rightMarginSize, height, palette, Terminal.getCellBackgroundColour(cells[colours + width - 1]), light);
         }
 
         // Batch together runs of identical background cells.
         var blockStart = 0;
-        var blockColour = '\0';
-        for (var i = 0; i < backgroundColour.length(); i++) {
-            var colourIndex = backgroundColour.charAt(i);
+        var blockColour = -1;
+        for (var i = 0; i < width; i++) {
+            var colourIndex = Terminal.getCellBackgroundColour(cells[colours + i]);
             if (colourIndex == blockColour) continue;
 
-            if (blockColour != '\0') {
+            if (blockColour >= 0) {
                 drawQuad(emitter, x + blockStart * FONT_WIDTH, y, FONT_WIDTH * (i - blockStart), height, palette, blockColour, light);
             }
 
@@ -111,8 +127,8 @@ private static void drawBackground(
             blockStart = i;
         }
 
-        if (blockColour != '\0') {
-            drawQuad(emitter, x + blockStart * FONT_WIDTH, y, FONT_WIDTH * (backgroundColour.length() - blockStart), height, palette, blockColour, light);
+        if (blockColour >= 0) {
+            drawQuad(emitter, x + blockStart * FONT_WIDTH, y, FONT_WIDTH * (width - blockStart), height, palette, blockColour, light);
         }
     }
 
@@ -127,17 +143,35 @@ public static void drawString(QuadEmitter emitter, float x, float y, TextBuffer
 
     }
 
+    /**
+     * Draw the text of one line of a terminal.
+     *
+     * @param emitter The emitter to draw to.
+     * @param x       The x position of the line.
+     * @param y       The y position of the line.
+     * @param cells   The terminal's {@linkplain Terminal#getCells() contents}.
+     * @param offset  The {@linkplain Terminal#getLineOffset(int) offset} of this line.
+     * @param width   The width of the terminal.
+     * @param palette The terminal's palette.
+     * @param light   The lightmap value.
+     */
+    private static void drawLine(QuadEmitter emitter, float x, float y, byte[] cells, int offset, int width, Palette palette, int light) {
+        for (var i = 0; i < width; i++) {
+            var colour = palette.getRenderColours(15 - Terminal.getCellTextColour(cells[offset + width + i]));
+            drawChar(emitter, x + i * FONT_WIDTH, y, cells[offset + i] & 0xFF, colour, light);
+        }
+    }
+
     public static void drawTerminalForeground(QuadEmitter emitter, float x, float y, Terminal terminal) {
         var palette = terminal.getPalette();
+        var width = terminal.getWidth();
         var height = terminal.getHeight();
+        var cells = terminal.getCells();
 
         // The main text
         for (var i = 0; i < height; i++) {
             var rowY = y + FONT_HEIGHT * i;
-            drawString(
-                emitter, x, rowY, terminal.getLine(i), terminal.getTextColourLine(i),
-                palette, FULL_BRIGHT_LIGHTMAP
-            );
+            drawLine(emitter, x, rowY, cells, terminal.getLineOffset(i), width, palette, FULL_BRIGHT_LIGHTMAP);
         }
     }
 
@@ -146,16 +180,18 @@ public static void drawTerminalBackground(
         float topMarginSize, float bottomMarginSize, float leftMarginSize, float rightMarginSize
     ) {
         var palette = terminal.getPalette();
+        var width = terminal.getWidth();
         var height = terminal.getHeight();
+        var cells = terminal.getCells();
 
         // Top and bottom margins
         drawBackground(
-            emitter, x, y - topMarginSize, terminal.getBackgroundColourLine(0), palette,
+            emitter, x, y - topMarginSize, cells, terminal.getLineOffset(0), width, palette,
             leftMarginSize, rightMarginSize, topMarginSize, FULL_BRIGHT_LIGHTMAP
         );
 
         drawBackground(
-            emitter, x, y + height * FONT_HEIGHT, terminal.getBackgroundColourLine(height - 1), palette,
+            emitter, x, y + height * FONT_HEIGHT, cells, terminal.getLineOffset(height - 1), width, palette,
             leftMarginSize, rightMarginSize, bottomMarginSize, FULL_BRIGHT_LIGHTMAP
         );
 
@@ -163,7 +199,7 @@ public static void drawTerminalBackground(
         for (var i = 0; i < height; i++) {
             var rowY = y + FONT_HEIGHT * i;
             drawBackground(
-                emitter, x, rowY, terminal.getBackgroundColourLine(i), palette,
+                emitter, x, rowY, cells, terminal.getLineOffset(i), width, palette,
                 leftMarginSize, rightMarginSize, FONT_HEIGHT, FULL_BRIGHT_LIGHTMAP
             );
         }
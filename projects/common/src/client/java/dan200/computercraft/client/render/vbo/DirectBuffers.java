@@ -58,6 +58,26 @@ public static void setBufferData(int type, int id, ByteBuffer buffer, int flags)
         }
     }
 
+    /**
+     * Replace part of a buffer's contents. Unlike {@link #setBufferData(int, int, ByteBuffer, int)}, this does not
+     * reallocate the buffer, and so the buffer must already be large enough.
+     *
+     * @param type   The buffer's type.
+     * @param id     The buffer's ID.
+     * @param offset The offset into the buffer to write to, in bytes.
+     * @param buffer The data to write.
+     */
+    public static void setBufferSubData(int type, int id, long offset, ByteBuffer buffer) {
+        if (HAS_DSA) {
+            GL45C.glNamedBufferSubData(id, offset, buffer);
+        } else {
+            if (type == GL15C.GL_ARRAY_BUFFER) BufferUploader.reset();
+            GlStateManager._glBindBuffer(type, id);
+            GL15C.glBufferSubData(type, offset, buffer);
+            GlStateManager._glBindBuffer(type, 0);
+        }
+    }
+
     public static void setEmptyBufferData(int type, int id, int flags) {
         if (HAS_DSA) {
             GL45C.glNamedBufferData(id, 0, flags);
@@ -59,6 +59,19 @@ public void upload(int vertexCount, VertexFormat.Mode mode, VertexFormat format,
         }
     }
 
+    /**
+     * Replace part of this buffer's vertex data, without reallocating the buffer. The buffer must have already been
+     * {@linkplain #upload(int, VertexFormat.Mode, VertexFormat, ByteBuffer) uploaded} with the same format, and be
+     * large enough to contain the new data.
+     *
+     * @param offset The offset into the buffer to write to, in bytes.
+     * @param buffer The vertex data to write.
+     */
+    public void uploadRange(long offset, ByteBuffer buffer) {
+        RenderSystem.assertOnRenderThread();
+        DirectBuffers.setBufferSubData(GL15.GL_ARRAY_BUFFER, vertexBufferId, offset, buffer);
+    }
+
     public void drawWithShader(Matrix4f modelView, Matrix4f projection, ShaderInstance shader, int indexCount) {
         this.indexCount = indexCount;
         drawWithShader(modelView, projection, shader);
@@ -9,16 +9,38 @@
 import dan200.computercraft.api.network.wired.WiredNode;
 import dan200.computercraft.api.peripheral.IPeripheral;
 import dan200.computercraft.core.util.Nullability;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.phys.Vec3;
 
 import java.util.*;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 final class WiredNetworkImpl implements WiredNetwork {
+    /**
+     * The maximum number of {@link DistanceTree}s to cache per network.
+     */
+    private static final int MAX_DISTANCE_TREES = 64;
+
     final ReadWriteLock lock = new ReentrantReadWriteLock();
     Set<WiredNodeImpl> nodes;
     private Map<String, IPeripheral> peripherals = new HashMap<>();
 
+    /**
+     * A cache of the distance from each node which has sent a packet to every other node in the network.
+     * <p>
+     * This is read and populated while holding the {@linkplain #lock read lock} (and so must be synchronised), and
+     * cleared when the network is modified, while holding the write lock.
+     *
+     * @see #transmitPacket(WiredNodeImpl, Packet, double, boolean)
+     */
+    private final Map<WiredNodeImpl, DistanceTree> distanceTrees = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<WiredNodeImpl, DistanceTree> eldest) {
+            return size() > MAX_DISTANCE_TREES;
+        }
+    });
+
     WiredNetworkImpl(WiredNodeImpl node) {
         nodes = new HashSet<>(1);
         nodes.add(node);
@@ -37,6 +59,7 @@ public boolean connect(WiredNode nodeU, WiredNode nodeV) {
         lock.writeLock().lock();
         try {
             if (nodes.isEmpty()) throw new IllegalStateException("Cannot add a connection to an empty network.");
+            distanceTrees.clear();
 
             var hasU = wiredU.network == this;
             var hasV = wiredV.network == this;
@@ -47,6 +70,8 @@ public boolean connect(WiredNode nodeU, WiredNode nodeV) {
                 var other = hasU ? wiredV.network : wiredU.network;
                 other.lock.writeLock().lock();
                 try {
+                    other.distanceTrees.clear();
+
                     // Cache several properties for iterating over later
                     var otherPeripherals = other.peripherals;
                     var thisPeripherals = otherPeripherals.isEmpty() ? peripherals : new HashMap<>(peripherals);
@@ -103,6 +128,7 @@ public boolean disconnect(WiredNode nodeU, WiredNode nodeV) {
             // If there was no connection to remove then split.
             if (!wiredU.neighbours.remove(wiredV)) return false;
             wiredV.neighbours.remove(wiredU);
+            distanceTrees.clear();
 
             // Determine if there is still some connection from u to v.
             // Note this is an inlining of reachableNodes which short-circuits
@@ -170,6 +196,7 @@ public boolean remove(WiredNode node) {
             if (nodes.size() <= 1) return false;
             if (wired.network != this) return false;
 
+            distanceTrees.clear();
             var neighbours = wired.neighbours;
 
             // Remove this node and move into a separate network.
@@ -344,13 +371,41 @@ public void updatePeripherals(WiredNode node, Map<String, IPeripheral> newPeriph
     }
 
     static void transmitPacket(WiredNodeImpl start, Packet packet, double range, boolean interdimensional) {
+        var level = start.element.getLevel();
+        if (level != packet.sender().getLevel()) {
+            // The sender is in a different dimension to its node! This should never happen, so don't bother caching.
+            computeDistances(start, Double.POSITIVE_INFINITY, true).transmit(packet, 0, range, interdimensional);
+            return;
+        }
+
+        var startDistance = start.element.getPosition().distanceTo(packet.sender().getPosition());
+
+        // Distances are all relative to the start node, so we can reuse them as long as the network hasn't changed
+        // (see where we clear distanceTrees), and no nodes have moved.
+        var trees = start.network.distanceTrees;
+        var tree = trees.get(start);
+        if (tree == null || !tree.isValid()) {
+            tree = computeDistances(start, 0, false);
+            trees.put(start, tree);
+        }
+
+        tree.transmit(packet, startDistance, range, interdimensional);
+    }
+
+    /**
+     * Compute the shortest distance from a node to every other node in the network.
+     *
+     * @param start                 The node to start from.
+     * @param startDistance         The initial distance of the start node.
+     * @param startInterdimensional Whether the start node is in a different dimension to the packet's sender.
+     * @return The distance to every node in the network.
+     */
+    private static DistanceTree computeDistances(WiredNodeImpl start, double startDistance, boolean startInterdimensional) {
         Map<WiredNodeImpl, TransmitPoint> points = new HashMap<>();
         var transmitTo = new TreeSet<TransmitPoint>();
 
         {
-            var startEntry = start.element.getLevel() != packet.sender().getLevel()
-                ? new TransmitPoint(start, Double.POSITIVE_INFINITY, true)
-                : new TransmitPoint(start, start.element.getPosition().distanceTo(packet.sender().getPosition()), false);
+            var startEntry = new TransmitPoint(start, startDistance, startInterdimensional);
             points.put(start, startEntry);
             transmitTo.add(startEntry);
         }
@@ -387,9 +442,7 @@ static void transmitPacket(WiredNodeImpl start, Packet packet, double range, boo
             }
         }
 
-        for (var point : points.values()) {
-            point.node.tryTransmit(packet, point.distance, point.interdimensional, range, interdimensional);
-        }
+        return new DistanceTree(points.values());
     }
 
     private void removeSingleNode(WiredNodeImpl wired, WiredNetworkImpl wiredNetwork) {
@@ -436,6 +489,53 @@ public int compareTo(TransmitPoint o) {
         }
     }
 
+    /**
+     * The distance from a single node to every other node in the network, as computed by
+     * {@link #computeDistances(WiredNodeImpl, double, boolean)}.
+     * <p>
+     * We also store the level and position of each node, in order to detect when nodes have moved.
+     */
+    private static final class DistanceTree {
+        private final WiredNodeImpl[] nodes;
+        private final double[] distances;
+        private final boolean[] interdimensional;
+        private final Level[] levels;
+        private final Vec3[] positions;
+
+        DistanceTree(Collection<TransmitPoint> points) {
+            var size = points.size();
+            nodes = new WiredNodeImpl[size];
+            distances = new double[size];
+            interdimensional = new boolean[size];
+            levels = new Level[size];
+            positions = new Vec3[size];
+
+            var i = 0;
+            for (var point : points) {
+                nodes[i] = point.node;
+                distances[i] = point.distance;
+                interdimensional[i] = point.interdimensional;
+                levels[i] = point.node.element.getLevel();
+                positions[i] = point.node.element.getPosition();
+                i++;
+            }
+        }
+
+        boolean isValid() {
+            for (var i = 0; i < nodes.length; i++) {
+                var element = nodes[i].element;
+                if (element.getLevel() != levels[i] || !element.getPosition().equals(positions[i])) return false;
+            }
+            return true;
+        }
+
+        void transmit(Packet packet, double startDistance, double range, boolean interdimensional) {
+            for (var i = 0; i < nodes.length; i++) {
+                nodes[i].tryTransmit(packet, startDistance + distances[i], this.interdimensional[i], range, interdimensional);
+            }
+        }
+    }
+
     private static WiredNodeImpl checkNode(WiredNode node) {
         if (node instanceof WiredNodeImpl) {
             return (WiredNodeImpl) node;
@@ -11,6 +11,7 @@
 import dan200.computercraft.shared.computer.core.ResourceMount;
 import dan200.computercraft.shared.computer.core.ServerContext;
 import dan200.computercraft.shared.computer.metrics.ComputerMBean;
+import dan200.computercraft.shared.details.ItemDetails;
 import dan200.computercraft.shared.peripheral.monitor.MonitorWatcher;
 import dan200.computercraft.shared.util.DropConsumer;
 import dan200.computercraft.shared.util.TickScheduler;
@@ -21,6 +22,7 @@
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.server.packs.resources.PreparableReloadListener;
+import net.minecraft.server.packs.resources.ResourceManagerReloadListener;
 import net.minecraft.world.entity.Entity;
 import net.minecraft.world.item.CreativeModeTab;
 import net.minecraft.world.item.CreativeModeTabs;
@@ -71,6 +73,7 @@ public static void onServerStopped() {
     private static void resetState() {
         ServerContext.close();
         NetworkUtils.reset();
+        ItemDetails.clearCache();
     }
 
     public static void onServerChunkUnload(LevelChunk chunk) {
@@ -115,6 +118,7 @@ public static void onDatapackReload(BiConsumer<String, PreparableReloadListener>
         addReload.accept("mounts", ResourceMount.RELOAD_LISTENER);
         addReload.accept("turtle_upgrades", TurtleUpgrades.instance());
         addReload.accept("pocket_upgrades", PocketUpgrades.instance());
+        addReload.accept("item_details", (ResourceManagerReloadListener) resources -> ItemDetails.clearCache());
     }
 
     public static boolean onEntitySpawn(Entity entity) {
@@ -51,6 +51,7 @@ public abstract class AbstractComputerBlockEntity extends BlockEntity implements
     private boolean fresh = false;
 
     private int invalidSides = 0;
+    private int invalidRedstoneSides = 0;
     private final ComponentAccess<IPeripheral> peripherals = PlatformHelper.get().createPeripheralAccess(this, d -> invalidSides |= 1 << d.ordinal());
 
     private LockCode lockCode = LockCode.NO_LOCK;
@@ -99,6 +100,17 @@ protected void serverTick() {
             }
         }
 
+        // Update any redstone inputs which have changed.
+        if (invalidRedstoneSides != 0) {
+            var pos = getBlockPos();
+            for (var direction : DirectionUtil.FACINGS) {
+                if (DirectionUtil.isSet(invalidRedstoneSides, direction)) {
+                    updateRedstoneInput(computer, direction, pos.relative(direction));
+                }
+            }
+            invalidRedstoneSides = 0;
+        }
+
         // If the computer isn't on and should be, then turn it on
         if (startOn || (fresh && on)) {
             computer.turnOn();
@@ -185,7 +197,8 @@ protected ComputerSide remapLocalSide(ComputerSide localSide) {
     /**
      * Update the redstone input on a particular side.
      * <p>
-     * This is called <em>immediately</em> when a neighbouring block changes (see {@link #neighborChanged(BlockPos)}).
+     * This is called from {@link #serverTick()}, after a side has been marked as invalid (such as in
+     * {@link #neighborChanged(BlockPos)}).
      *
      * @param computer  The current server computer.
      * @param dir       The direction to update in.
@@ -238,27 +251,33 @@ private void updateInputsImmediately(ServerComputer computer) {
             updateRedstoneInput(computer, dir, pos.relative(dir));
             refreshPeripheral(computer, dir);
         }
+        invalidRedstoneSides = 0;
     }
 
     /**
      * Called when a neighbour block changes.
      * <p>
-     * This finds the side the neighbour block is on, and updates the inputs accordingly.
+     * This finds the side the neighbour block is on, and marks its redstone input and peripheral as dirty (see
+     * {@link #invalidRedstoneSides} and {@link #invalidSides}). These are then refreshed when the block entity is
+     * {@linkplain #serverTick() next ticked}.
      * <p>
-     * We do <strong>NOT</strong> update the peripheral immediately. Blocks and block entities are sometimes
-     * inconsistent at the point where an update is received, and so we instead just mark that side as dirty (see
-     * {@link #invalidSides}) and refresh it {@linkplain #serverTick() next tick}.
+     * We do <strong>NOT</strong> update the peripheral immediately, as blocks and block entities are sometimes
+     * inconsistent at the point where an update is received. We also defer reading redstone inputs, as a single change
+     * (such as flipping a lever next to a line of computers) may send many updates in the same tick. Instead, each
+     * side is read at most once per tick, and the computer receives a single {@code redstone} event if any input
+     * changed.
+     * <p>
+     * As a result, a change in input may take up to a tick to be seen by the computer: changes made before block
+     * entities are ticked (such as by scheduled redstone ticks) are read in the same tick, while later ones are read
+     * in the next tick. This also means that inputs which change and then change back within a single tick (a
+     * "zero-tick pulse") are not seen at all.
      *
      * @param neighbour The position of the neighbour block.
      */
     public void neighborChanged(BlockPos neighbour) {
-        var computer = getServerComputer();
-        if (computer == null) return;
-
         for (var dir : DirectionUtil.FACINGS) {
-            var offset = getBlockPos().relative(dir);
-            if (offset.equals(neighbour)) {
-                updateRedstoneInput(computer, dir, offset);
+            if (getBlockPos().relative(dir).equals(neighbour)) {
+                invalidRedstoneSides |= 1 << dir.ordinal();
                 invalidSides |= 1 << dir.ordinal();
                 return;
             }
@@ -266,8 +285,8 @@ public void neighborChanged(BlockPos neighbour) {
 
         // If the position is not any adjacent one, update all inputs. This is pretty terrible, but some redstone mods
         // handle this incorrectly.
-        for (var dir : DirectionUtil.FACINGS) updateRedstoneInput(computer, dir, getBlockPos().relative(dir));
-        invalidSides = DirectionUtil.ALL_SIDES; // Mark all peripherals as dirty.
+        invalidRedstoneSides = DirectionUtil.ALL_SIDES;
+        invalidSides = DirectionUtil.ALL_SIDES;
     }
 
     /**
@@ -289,8 +308,8 @@ public void neighbourShapeChanged(Direction direction) {
     protected void updateRedstoneTo(Direction direction) {
         RedstoneUtil.propagateRedstoneOutput(getLevel(), getBlockPos(), direction);
 
-        var computer = getServerComputer();
-        if (computer != null) updateRedstoneInput(computer, direction, getBlockPos().relative(direction));
+        // Our output may have changed the neighbour's power (such as with redstone dust), so read this side again.
+        invalidRedstoneSides |= 1 << direction.ordinal();
     }
 
     /**
@@ -94,7 +94,10 @@ protected void tickServer() {
     }
 
     protected void onTerminalChanged() {
-        sendToAllInteracting(c -> new ComputerTerminalClientMessage(c, getTerminalState()));
+        // Players only start interacting with a computer after receiving a full snapshot of the terminal (see
+        // ComputerContainerData), so it is sufficient to send the changes from here on.
+        var state = TerminalState.createChanges(terminal);
+        sendToAllInteracting(c -> new ComputerTerminalClientMessage(c, state));
     }
 
     public TerminalState getTerminalState() {
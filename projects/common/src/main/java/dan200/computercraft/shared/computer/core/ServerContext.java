@@ -25,6 +25,7 @@
 import dan200.computercraft.shared.peripheral.modem.wireless.WirelessNetwork;
 import dan200.computercraft.shared.util.IDAssigner;
 import net.minecraft.SharedConstants;
+import net.minecraft.Util;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.world.level.storage.LevelResource;
 import org.slf4j.Logger;
@@ -77,7 +78,7 @@ private ServerContext(MinecraftServer server) {
             .apiFactories(ApiFactories.getAll())
             .genericMethods(GenericSources.getAllMethods())
             .build();
-        idAssigner = new IDAssigner(storageDir.resolve("ids.json"));
+        idAssigner = new IDAssigner(storageDir.resolve("ids.json"), Util.ioPool());
     }
 
     /**
@@ -99,6 +100,7 @@ public static void close() {
         if (instance == null) return;
 
         instance.registry.close();
+        instance.idAssigner.close();
         try {
             if (!instance.context.close(1, TimeUnit.SECONDS)) {
                 LOG.error("Failed to stop computers under deadline.");
@@ -11,6 +11,7 @@
 import dan200.computercraft.shared.computer.core.ServerContext;
 import dan200.computercraft.shared.computer.metrics.basic.Aggregate;
 import dan200.computercraft.shared.computer.metrics.basic.AggregatedMetric;
+import dan200.computercraft.shared.details.ItemDetails;
 import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
 import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
 import net.minecraft.server.MinecraftServer;
@@ -48,6 +49,9 @@ private ComputerMBean() {
             add(name, field.getValue(), attributes);
         }
 
+        attributes.add(addAttribute("itemDetailsCacheHits", "Item details cache hits", () -> ItemDetails.getCacheStats().hitCount()));
+        attributes.add(addAttribute("itemDetailsCacheMisses", "Item details cache misses", () -> ItemDetails.getCacheStats().missCount()));
+
         info = new MBeanInfo(
             ComputerMBean.class.getSimpleName(),
             "metrics about all computers on the server",
@@ -6,45 +6,129 @@
 
 import dan200.computercraft.core.terminal.Palette;
 import dan200.computercraft.core.terminal.Terminal;
-import dan200.computercraft.core.util.Colour;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.network.FriendlyByteBuf;
 
+import java.util.BitSet;
+
 public class NetworkedTerminal extends Terminal {
+    /**
+     * The lines which have changed since the last call to {@link #writeChanges(FriendlyByteBuf)}.
+     */
+    private final BitSet changedLines = new BitSet();
+
+    /**
+     * The palette as of the last call to {@link #writeChanges(FriendlyByteBuf)}, encoded with
+     * {@link Palette#encodeRGB8(double[])}.
+     */
+    private final int[] sentPalette = new int[Palette.PALETTE_SIZE];
+
     public NetworkedTerminal(int width, int height, boolean colour) {
         super(width, height, colour);
+        changedLines.set(0, height);
     }
 
     public NetworkedTerminal(int width, int height, boolean colour, Runnable changedCallback) {
         super(width, height, colour, changedCallback);
+        changedLines.set(0, height);
     }
 
     public synchronized void write(FriendlyByteBuf buffer) {
-        buffer.writeInt(cursorX);
-        buffer.writeInt(cursorY);
-        buffer.writeBoolean(cursorBlink);
-        buffer.writeByte(cursorBackgroundColour << 4 | cursorColour);
+        writeCursor(buffer);
+        // Our lines are stored in the same format as writeLine, so we can write them all at once.
+        buffer.writeBytes(cells, 0, getLineOffset(height));
+        for (var i = 0; i < Palette.PALETTE_SIZE; i++) writePaletteColour(buffer, i);
+    }
+
+    public synchronized void read(FriendlyByteBuf buffer) {
+        readCursor(buffer);
+        buffer.readBytes(cells, 0, getLineOffset(height));
+        for (var i = 0; i < Palette.PALETTE_SIZE; i++) readPaletteColour(buffer, i);
+        setAllLinesChanged();
+        setChanged();
+    }
 
-        for (var y = 0; y < height; y++) {
-            var text = this.text[y];
-            var textColour = this.textColour[y];
-            var backColour = backgroundColour[y];
-
-            for (var x = 0; x < width; x++) buffer.writeByte(text.charAt(x) & 0xFF);
-            for (var x = 0; x < width; x++) {
-                buffer.writeByte(getColour(
-                    backColour.charAt(x), Colour.BLACK) << 4 |
-                    getColour(textColour.charAt(x), Colour.WHITE)
-                );
+    /**
+     * Write the changes to this terminal since the last call to this method, clearing the set of changed lines.
+     * <p>
+     * The cursor is always written, followed by every line which has changed and any palette colours which differ from
+     * those previously sent. As lines are written in full (rather than as a diff against their previous contents),
+     * these changes may be applied to any copy of the terminal which matches the terminal as of the previous call, or
+     * any {@linkplain #write(FriendlyByteBuf) full snapshot} taken since then.
+     * <p>
+     * If every line has changed (for instance, the terminal was cleared or resized), then we write a full snapshot
+     * instead.
+     *
+     * @param buffer The buffer to write to.
+     * @return Whether a set of changes was written ({@code true}), or a full snapshot ({@code false}).
+     * @see #readChanges(FriendlyByteBuf)
+     */
+    public synchronized boolean writeChanges(FriendlyByteBuf buffer) {
+        if (changedLines.nextClearBit(0) >= height) {
+            write(buffer);
+            changedLines.clear();
+            for (var i = 0; i < Palette.PALETTE_SIZE; i++) sentPalette[i] = Palette.encodeRGB8(palette.getColour(i));
+            return false;
+        }
+
+        writeCursor(buffer);
+
+        buffer.writeVarInt(changedLines.cardinality());
+        for (var y = changedLines.nextSetBit(0); y >= 0 && y < height; y = changedLines.nextSetBit(y + 1)) {
+            buffer.writeVarInt(y);
+            writeLine(buffer, y);
+        }
+        changedLines.clear();
+
+        var changedPalette = 0;
+        for (var i = 0; i < Palette.PALETTE_SIZE; i++) {
+            var colour = Palette.encodeRGB8(palette.getColour(i));
+            if (sentPalette[i] != colour) {
+                changedPalette |= 1 << i;
+                sentPalette[i] = colour;
             }
         }
 
+        buffer.writeShort(changedPalette);
         for (var i = 0; i < Palette.PALETTE_SIZE; i++) {
-            for (var channel : palette.getColour(i)) buffer.writeByte((int) (channel * 0xFF) & 0xFF);
+            if ((changedPalette & (1 << i)) != 0) writePaletteColour(buffer, i);
         }
+
+        return true;
     }
 
-    public synchronized void read(FriendlyByteBuf buffer) {
+    /**
+     * Apply a set of changes written by {@link #writeChanges(FriendlyByteBuf)}.
+     *
+     * @param buffer The buffer to read from.
+     */
+    public synchronized void readChanges(FriendlyByteBuf buffer) {
+        readCursor(buffer);
+
+        var lines = buffer.readVarInt();
+        for (var i = 0; i < lines; i++) {
+            var y = buffer.readVarInt();
+            if (y < 0 || y >= height) throw new IllegalStateException("Line " + y + " is out of bounds");
+            readLine(buffer, y);
+            setLineChanged(y);
+        }
+
+        var changedPalette = buffer.readShort();
+        for (var i = 0; i < Palette.PALETTE_SIZE; i++) {
+            if ((changedPalette & (1 << i)) != 0) readPaletteColour(buffer, i);
+        }
+
+        setChanged();
+    }
+
+    private void writeCursor(FriendlyByteBuf buffer) {
+        buffer.writeInt(cursorX);
+        buffer.writeInt(cursorY);
+        buffer.writeBoolean(cursorBlink);
+        buffer.writeByte(cursorBackgroundColour << 4 | cursorColour);
+    }
+
+    private void readCursor(FriendlyByteBuf buffer) {
         cursorX = buffer.readInt();
         cursorY = buffer.readInt();
         cursorBlink = buffer.readBoolean();
@@ -52,27 +136,37 @@ public synchronized void read(FriendlyByteBuf buffer) {
         var cursorColour = buffer.readByte();
         cursorBackgroundColour = (cursorColour >> 4) & 0xF;
         this.cursorColour = cursorColour & 0xF;
+    }
 
-        for (var y = 0; y < height; y++) {
-            var text = this.text[y];
-            var textColour = this.textColour[y];
-            var backColour = backgroundColour[y];
+    private void writeLine(FriendlyByteBuf buffer, int y) {
+        // Each line is written as its text, followed by its colours, which matches how they are stored in the terminal.
+        buffer.writeBytes(cells, getLineOffset(y), width * 2);
+    }
 
-            for (var x = 0; x < width; x++) text.setChar(x, (char) (buffer.readByte() & 0xFF));
-            for (var x = 0; x < width; x++) {
-                var colour = buffer.readByte();
-                backColour.setChar(x, BASE_16.charAt((colour >> 4) & 0xF));
-                textColour.setChar(x, BASE_16.charAt(colour & 0xF));
-            }
-        }
+    private void readLine(FriendlyByteBuf buffer, int y) {
+        buffer.readBytes(cells, getLineOffset(y), width * 2);
+    }
 
-        for (var i = 0; i < Palette.PALETTE_SIZE; i++) {
-            var r = (buffer.readByte() & 0xFF) / 255.0;
-            var g = (buffer.readByte() & 0xFF) / 255.0;
-            var b = (buffer.readByte() & 0xFF) / 255.0;
-            palette.setColour(i, r, g, b);
-        }
-        setChanged();
+    private void writePaletteColour(FriendlyByteBuf buffer, int i) {
+        for (var channel : palette.getColour(i)) buffer.writeByte((int) (channel * 0xFF) & 0xFF);
+    }
+
+    private void readPaletteColour(FriendlyByteBuf buffer, int i) {
+        var r = (buffer.readByte() & 0xFF) / 255.0;
+        var g = (buffer.readByte() & 0xFF) / 255.0;
+        var b = (buffer.readByte() & 0xFF) / 255.0;
+        palette.setColour(i, r, g, b);
+    }
+
+    @Override
+    protected void setLineChanged(int y) {
+        changedLines.set(y);
+    }
+
+    @Override
+    protected void setAllLinesChanged() {
+        changedLines.clear();
+        changedLines.set(0, height);
     }
 
     public synchronized CompoundTag writeToNBT(CompoundTag nbt) {
@@ -82,9 +176,9 @@ public synchronized CompoundTag writeToNBT(CompoundTag nbt) {
         nbt.putInt("term_textColour", cursorColour);
         nbt.putInt("term_bgColour", cursorBackgroundColour);
         for (var n = 0; n < height; n++) {
-            nbt.putString("term_text_" + n, text[n].toString());
-            nbt.putString("term_textColour_" + n, textColour[n].toString());
-            nbt.putString("term_textBgColour_" + n, backgroundColour[n].toString());
+            nbt.putString("term_text_" + n, getLine(n).toString());
+            nbt.putString("term_textColour_" + n, getTextColourLine(n).toString());
+            nbt.putString("term_textBgColour_" + n, getBackgroundColourLine(n).toString());
         }
 
         var rgb8 = new int[Palette.PALETTE_SIZE];
@@ -102,17 +196,21 @@ public synchronized void readFromNBT(CompoundTag nbt) {
         cursorBackgroundColour = nbt.getInt("term_bgColour");
 
         for (var n = 0; n < height; n++) {
-            text[n].fill(' ');
+            var text = getLine(n);
+            var textColour = getTextColourLine(n);
+            var backgroundColour = getBackgroundColourLine(n);
+
+            text.fill(' ');
             if (nbt.contains("term_text_" + n)) {
-                text[n].write(nbt.getString("term_text_" + n));
+                text.write(nbt.getString("term_text_" + n));
             }
-            textColour[n].fill(BASE_16.charAt(cursorColour));
+            textColour.fill(BASE_16.charAt(cursorColour));
             if (nbt.contains("term_textColour_" + n)) {
-                textColour[n].write(nbt.getString("term_textColour_" + n));
+                textColour.write(nbt.getString("term_textColour_" + n));
             }
-            backgroundColour[n].fill(BASE_16.charAt(cursorBackgroundColour));
+            backgroundColour.fill(BASE_16.charAt(cursorBackgroundColour));
             if (nbt.contains("term_textBgColour_" + n)) {
-                backgroundColour[n].write(nbt.getString("term_textBgColour_" + n));
+                backgroundColour.write(nbt.getString("term_textBgColour_" + n));
             }
         }
 
@@ -126,6 +224,7 @@ public synchronized void readFromNBT(CompoundTag nbt) {
             }
 
         }
+        setAllLinesChanged();
         setChanged();
     }
 }
@@ -14,34 +14,69 @@
 /**
  * A snapshot of a terminal's state.
  * <p>
- * This is somewhat memory inefficient (we build a buffer, only to write it elsewhere), however it means we get a
- * complete and accurate description of a terminal, which avoids a lot of complexities with resizing terminals, dirty
- * states, etc...
+ * This is either a complete description of the terminal, or the {@linkplain #createChanges(NetworkedTerminal) set of
+ * changes} since the previous set of changes was sent. Complete snapshots are used when a player first starts watching
+ * a terminal, while changes are used for subsequent updates, avoiding sending the whole terminal when only a single
+ * line has been modified.
+ * <p>
+ * This is somewhat memory inefficient (we build a buffer, only to write it elsewhere), however it means we can build
+ * the state once and send it to multiple players.
  */
 public class TerminalState {
     private final boolean colour;
     private final int width;
     private final int height;
+    private final boolean changes;
     private final ByteBuf buffer;
 
     public TerminalState(NetworkedTerminal terminal) {
         colour = terminal.isColour();
         width = terminal.getWidth();
         height = terminal.getHeight();
+        changes = false;
 
         var buf = buffer = Unpooled.buffer();
         terminal.write(new FriendlyByteBuf(buf));
     }
 
+    private TerminalState(NetworkedTerminal terminal, boolean colour, int width, int height, ByteBuf buffer) {
+        this.colour = colour;
+        this.width = width;
+        this.height = height;
+        this.buffer = buffer;
+        changes = terminal.writeChanges(new FriendlyByteBuf(buffer));
+    }
+
     @Contract("null -> null; !null -> !null")
     public static @Nullable TerminalState create(@Nullable NetworkedTerminal terminal) {
         return terminal == null ? null : new TerminalState(terminal);
     }
 
+    /**
+     * Create a {@link TerminalState} containing the changes to a terminal since this method was last called.
+     * <p>
+     * The resulting state should be sent to every player who is currently watching this terminal. Players who start
+     * watching the terminal later should be sent a complete snapshot (with {@link #create(NetworkedTerminal)}) instead.
+     *
+     * @param terminal The terminal to get the changes from.
+     * @return The terminal's changes, or {@code null} if the terminal is null.
+     * @see NetworkedTerminal#writeChanges(FriendlyByteBuf)
+     */
+    @Contract("null -> null; !null -> !null")
+    public static @Nullable TerminalState createChanges(@Nullable NetworkedTerminal terminal) {
+        if (terminal == null) return null;
+
+        // Lock the terminal to ensure the size doesn't change while we're writing it.
+        synchronized (terminal) {
+            return new TerminalState(terminal, terminal.isColour(), terminal.getWidth(), terminal.getHeight(), Unpooled.buffer());
+        }
+    }
+
     public TerminalState(FriendlyByteBuf buf) {
         colour = buf.readBoolean();
         width = buf.readVarInt();
         height = buf.readVarInt();
+        changes = buf.readBoolean();
 
         var length = buf.readVarInt();
         buffer = buf.readBytes(length);
@@ -51,6 +86,7 @@ public void write(FriendlyByteBuf buf) {
         buf.writeBoolean(colour);
         buf.writeVarInt(width);
         buf.writeVarInt(height);
+        buf.writeBoolean(changes);
         buf.writeVarInt(buffer.readableBytes());
         buf.writeBytes(buffer, buffer.readerIndex(), buffer.readableBytes());
     }
@@ -59,12 +95,29 @@ public int size() {
         return buffer.readableBytes();
     }
 
+    /**
+     * Whether this state only contains the changes to a terminal, rather than a full snapshot. If so, this can only be
+     * {@linkplain #apply(NetworkedTerminal) applied} to an existing terminal, and cannot be used to
+     * {@linkplain #create() create} a new one.
+     *
+     * @return Whether this state is a set of changes.
+     */
+    public boolean isChanges() {
+        return changes;
+    }
+
     public void apply(NetworkedTerminal terminal) {
         terminal.resize(width, height);
-        terminal.read(new FriendlyByteBuf(buffer));
+        if (changes) {
+            terminal.readChanges(new FriendlyByteBuf(buffer));
+        } else {
+            terminal.read(new FriendlyByteBuf(buffer));
+        }
     }
 
     public NetworkedTerminal create() {
+        if (changes) throw new IllegalStateException("Cannot create a terminal from a set of changes");
+
         var terminal = new NetworkedTerminal(width, height, colour);
         terminal.read(new FriendlyByteBuf(buffer));
         return terminal;
@@ -4,31 +4,106 @@
 
 package dan200.computercraft.shared.details;
 
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
 import com.google.gson.JsonParseException;
 import dan200.computercraft.shared.platform.RegistryWrappers;
 import dan200.computercraft.shared.util.NBTUtil;
+import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.ListTag;
 import net.minecraft.nbt.Tag;
 import net.minecraft.network.chat.Component;
 import net.minecraft.world.item.EnchantedBookItem;
+import net.minecraft.world.item.Item;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.item.enchantment.EnchantmentHelper;
 
 import javax.annotation.Nullable;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Data providers for items.
+ * <p>
+ * Inventory-management programs tend to call {@code list} and {@code getItemDetail} on the same items over and over
+ * again, and computing these details (especially the NBT hash and lore) is relatively expensive. Instead, we cache the
+ * details for each item and NBT tag, and only recompute them when we see a new stack.
  */
 public class ItemDetails {
+    /**
+     * The maximum time we cache an item's details for. Most details only depend on the item and its NBT, which are part
+     * of the cache key. However, some may depend on other state (such as the server's tags, or mod-specific data), so
+     * we don't want to hold on to them forever.
+     */
+    private static final long CACHE_EXPIRY = 60;
+
+    /**
+     * Limit the cache to roughly 4MiB. Items with large NBT (such as books or shulker boxes) take up more of the cache,
+     * so we weigh each entry by the size of its NBT, plus {@link #ENTRY_WEIGHT} for the rest of its details.
+     */
+    private static final int MAX_CACHE_WEIGHT = 4 << 20;
+
+    /**
+     * The weight of an item without any NBT. This means we cache roughly 4096 items at most.
+     */
+    private static final int ENTRY_WEIGHT = 1024;
+
+    private static final Cache<Key, Details> cache = CacheBuilder.newBuilder()
+        .maximumWeight(MAX_CACHE_WEIGHT)
+        .<Key, Details>weigher((key, details) -> ENTRY_WEIGHT + NBTUtil.getNBTSize(key.tag()))
+        .expireAfterWrite(CACHE_EXPIRY, TimeUnit.SECONDS)
+        .recordStats()
+        .build();
+
     public static void fillBasic(Map<? super String, Object> data, ItemStack stack) {
-        data.put("name", DetailHelpers.getId(RegistryWrappers.ITEMS, stack.getItem()));
+        var details = getDetails(stack);
+        data.put("name", details.name());
         data.put("count", stack.getCount());
-        var hash = NBTUtil.getNBTHash(stack.getTag());
-        if (hash != null) data.put("nbt", hash);
+        if (details.nbtHash() != null) data.put("nbt", details.nbtHash());
     }
 
     public static void fill(Map<? super String, Object> data, ItemStack stack) {
+        data.putAll(getDetails(stack).details().get());
+    }
+
+    /**
+     * Clear the cache of item details. This should be called when anything which might affect an item's details (such
+     * as tags) is reloaded.
+     */
+    public static void clearCache() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Get statistics about the item details cache.
+     *
+     * @return The cache's statistics.
+     */
+    public static CacheStats getCacheStats() {
+        return cache.stats();
+    }
+
+    private static Details getDetails(ItemStack stack) {
+        var tag = stack.getTag();
+        var details = cache.getIfPresent(new Key(stack.getItem(), tag));
+        if (details != null) return details;
+
+        // Take a copy of the stack (and so of its tag), so changes to the original stack don't affect the cache.
+        var copy = stack.copyWithCount(1);
+        details = new Details(
+            DetailHelpers.getId(RegistryWrappers.ITEMS, copy.getItem()),
+            NBTUtil.getNBTHash(copy.getTag()),
+            Suppliers.memoize(() -> computeDetails(copy))
+        );
+        cache.put(new Key(copy.getItem(), copy.getTag()), details);
+        return details;
+    }
+
+    private static Map<String, Object> computeDetails(ItemStack stack) {
+        Map<String, Object> data = new HashMap<>();
         data.put("displayName", stack.getHoverName().getString());
         data.put("maxCount", stack.getMaxStackSize());
 
@@ -41,7 +116,7 @@ public static void fill(Map<? super String, Object> data, ItemStack stack) {
             data.put("durability", stack.getItem().getBarWidth(stack) / 13.0);
         }
 
-        data.put("tags", DetailHelpers.getTags(stack.getTags()));
+        data.put("tags", Collections.unmodifiableMap(DetailHelpers.getTags(stack.getTags())));
 
         // Include deprecated itemGroups field
         data.put("itemGroups", List.of());
@@ -67,11 +142,15 @@ public static void fill(Map<? super String, Object> data, ItemStack stack) {
         var hideFlags = tag != null ? tag.getInt("HideFlags") : 0;
 
         var enchants = getAllEnchants(stack, hideFlags);
-        if (!enchants.isEmpty()) data.put("enchantments", enchants);
+        if (!enchants.isEmpty()) data.put("enchantments", Collections.unmodifiableList(enchants));
 
         if (tag != null && tag.getBoolean("Unbreakable") && (hideFlags & 4) == 0) {
             data.put("unbreakable", true);
         }
+
+        // These details are shared between every caller, so make sure they (and any nested lists and maps) cannot be
+        // modified.
+        return Collections.unmodifiableMap(data);
     }
 
     @Nullable
@@ -125,11 +204,31 @@ private static void addEnchantments(ListTag rawEnchants, ArrayList<Map<String, O
         for (var entry : EnchantmentHelper.deserializeEnchantments(rawEnchants).entrySet()) {
             var enchantment = entry.getKey();
             var level = entry.getValue();
-            var enchant = new HashMap<String, Object>(3);
-            enchant.put("name", DetailHelpers.getId(RegistryWrappers.ENCHANTMENTS, enchantment));
-            enchant.put("level", level);
-            enchant.put("displayName", enchantment.getFullname(level).getString());
-            enchants.add(enchant);
+            enchants.add(Map.of(
+                "name", DetailHelpers.getId(RegistryWrappers.ENCHANTMENTS, enchantment),
+                "level", level,
+                "displayName", enchantment.getFullname(level).getString()
+            ));
         }
     }
+
+    /**
+     * The key for an item in the cache. Tags are compared by value rather than identity, as the same stack's tag may be
+     * modified in place, and two stacks of the same item will have different tag instances.
+     *
+     * @param item The item.
+     * @param tag  The item's NBT tag. This must not be modified once the key is added to the cache.
+     */
+    private record Key(Item item, @Nullable CompoundTag tag) {
+    }
+
+    /**
+     * The cached details about an item.
+     *
+     * @param name    The item's registry name.
+     * @param nbtHash The hash of the item's NBT.
+     * @param details The full details about the item, computed on demand.
+     */
+    private record Details(String name, @Nullable String nbtHash, Supplier<Map<String, Object>> details) {
+    }
 }
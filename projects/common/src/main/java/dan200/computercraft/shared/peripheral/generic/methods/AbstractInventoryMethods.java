@@ -10,11 +10,16 @@
 import dan200.computercraft.api.lua.LuaFunction;
 import dan200.computercraft.api.peripheral.GenericPeripheral;
 import dan200.computercraft.api.peripheral.IComputerAccess;
+import dan200.computercraft.api.peripheral.IPeripheral;
 import dan200.computercraft.api.peripheral.PeripheralType;
+import dan200.computercraft.core.apis.TableHelper;
+import dan200.computercraft.shared.config.ConfigSpec;
 
 import javax.annotation.Nullable;
-import java.util.Map;
-import java.util.Optional;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static dan200.computercraft.core.util.ArgumentHelpers.assertBetween;
 
 /**
  * Methods for interacting with inventories.
@@ -194,4 +199,146 @@ public abstract int pushItems(
     public abstract int pullItems(
         T to, IComputerAccess computer, String fromName, int fromSlot, Optional<Integer> limit, Optional<Integer> toSlot
     ) throws LuaException;
+
+    /**
+     * Move items between several connected inventories at once.
+     * <p>
+     * Each call to {@link #pushItems} or {@link #pullItems} waits for the next server tick, and so moving lots of
+     * items one call at a time can be very slow. This instead accepts a list of transfers, and performs as many of them
+     * as possible in a single tick.
+     * <p>
+     * Each transfer is a table with the following fields:
+     * - {@code from}: The name of the inventory to move items from. Defaults to this inventory.
+     * - {@code to}: The name of the inventory to move items to. Defaults to this inventory.
+     * - {@code slot}: The slot in the source inventory to move items from.
+     * - {@code count}: The maximum number of items to move. Defaults to the current stack limit.
+     * - {@code toSlot}: The slot in the target inventory to move to. If not given, the item will be inserted into any
+     * slot.
+     * <p>
+     * Every transfer is checked before any items are moved, so if one of them is invalid (for instance, an inventory
+     * does not exist), no items will be moved at all.
+     * <p>
+     * Transfers are then performed in order. If moving items takes too long, the remaining transfers are skipped, and
+     * the returned list will be shorter than the list of transfers. The skipped transfers should be submitted again in
+     * a later call.
+     *
+     * @param inventory The current inventory.
+     * @param computer  The current computer.
+     * @param transfers The list of transfers to perform.
+     * @return The number of items moved by each transfer.
+     * @throws LuaException If a peripheral to transfer to or from doesn't exist or isn't an inventory.
+     * @throws LuaException If a source or destination slot is out of range.
+     * @cc.treturn { number... } The number of items moved by each transfer which was performed.
+     * @cc.since 1.112.0
+     * @cc.usage Move the first 10 slots of one chest into another.
+     * <pre>{@code
+     * local chest_a = peripheral.wrap("minecraft:chest_0")
+     *
+     * local transfers = {}
+     * for slot = 1, 10 do
+     *   transfers[slot] = { to = "minecraft:chest_1", slot = slot }
+     * end
+     *
+     * local moved = chest_a.transferItems(transfers)
+     * print(("Performed %d of %d transfers"):format(#moved, #transfers))
+     * }</pre>
+     */
+    @LuaFunction(mainThread = true)
+    public abstract List<Integer> transferItems(T inventory, IComputerAccess computer, Map<?, ?> transfers) throws LuaException;
+
+    /**
+     * Find the inventory exposed by a peripheral.
+     *
+     * @param peripheral The peripheral to look up.
+     * @return The peripheral's inventory, or {@code null} if it is not an inventory.
+     */
+    protected abstract @Nullable T extractInventory(IPeripheral peripheral);
+
+    /**
+     * Move an item from one inventory to another.
+     *
+     * @param from     The inventory to move from.
+     * @param fromSlot The slot to move from.
+     * @param to       The inventory to move to.
+     * @param toSlot   The slot to move to. Use any number < 0 to represent any slot.
+     * @param limit    The max number to move. {@link Integer#MAX_VALUE} for no limit.
+     * @return The number of items moved.
+     */
+    protected abstract int moveItems(T from, int fromSlot, T to, int toSlot, int limit);
+
+    /**
+     * The shared implementation of {@link #transferItems(Object, IComputerAccess, Map)}.
+     *
+     * @param inventory The current inventory.
+     * @param computer  The current computer.
+     * @param transfers The list of transfers to perform.
+     * @return The number of items moved by each transfer.
+     * @throws LuaException If any transfer is invalid.
+     */
+    protected final List<Integer> transferItemsImpl(T inventory, IComputerAccess computer, Map<?, ?> transfers) throws LuaException {
+        // Validate every transfer before moving anything. Each inventory is only looked up once, no matter how many
+        // transfers use it.
+        Map<String, T> inventories = new HashMap<>();
+        var count = transfers.size();
+        List<Transfer<T>> toPerform = new ArrayList<>(count);
+        for (var i = 1; i <= count; i++) {
+            if (!(transfers.get((double) i) instanceof Map<?, ?> transfer)) {
+                throw new LuaException("Transfer " + i + " is not a table");
+            }
+
+            try {
+                toPerform.add(getTransfer(inventory, computer, inventories, transfer));
+            } catch (LuaException e) {
+                throw new LuaException("Transfer " + i + ": " + e.getMessage());
+            }
+        }
+
+        // Then perform as many transfers as we can within the computer's time budget. We always perform at least one
+        // transfer, so the computer can make progress.
+        var budget = TimeUnit.MILLISECONDS.toNanos(ConfigSpec.maxMainComputerTime.get());
+        var start = System.nanoTime();
+        List<Integer> moved = new ArrayList<>(toPerform.size());
+        for (var transfer : toPerform) {
+            if (!moved.isEmpty() && System.nanoTime() - start >= budget) break;
+
+            moved.add(transfer.limit() <= 0 ? 0 : Math.max(0, moveItems(
+                transfer.from(), transfer.fromSlot() - 1, transfer.to(), transfer.toSlot() - 1, transfer.limit()
+            )));
+        }
+
+        return moved;
+    }
+
+    private Transfer<T> getTransfer(T inventory, IComputerAccess computer, Map<String, T> inventories, Map<?, ?> transfer) throws LuaException {
+        var from = getInventory(inventory, computer, inventories, TableHelper.optStringField(transfer, "from", null), "Source");
+        var to = getInventory(inventory, computer, inventories, TableHelper.optStringField(transfer, "to", null), "Target");
+
+        var fromSlot = TableHelper.getIntField(transfer, "slot");
+        var limit = TableHelper.optIntField(transfer, "count", Integer.MAX_VALUE);
+        var toSlot = TableHelper.optIntField(transfer, "toSlot", 0);
+
+        assertBetween(fromSlot, 1, size(from), "From slot out of range (%s)");
+        if (transfer.get("toSlot") != null) assertBetween(toSlot, 1, size(to), "To slot out of range (%s)");
+
+        return new Transfer<>(from, fromSlot, to, toSlot, limit);
+    }
+
+    private T getInventory(T inventory, IComputerAccess computer, Map<String, T> inventories, @Nullable String name, String kind) throws LuaException {
+        if (name == null) return inventory;
+
+        var found = inventories.get(name);
+        if (found != null) return found;
+
+        var location = computer.getAvailablePeripheral(name);
+        if (location == null) throw new LuaException(kind + " '" + name + "' does not exist");
+
+        found = extractInventory(location);
+        if (found == null) throw new LuaException(kind + " '" + name + "' is not an inventory");
+
+        inventories.put(name, found);
+        return found;
+    }
+
+    private record Transfer<T>(T from, int fromSlot, T to, int toSlot, int limit) {
+    }
 }
@@ -4,11 +4,14 @@
 
 package dan200.computercraft.shared.peripheral.modem;
 
+import com.google.errorprone.annotations.concurrent.GuardedBy;
 import dan200.computercraft.api.lua.LuaException;
 import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
 import it.unimi.dsi.fastutil.ints.IntSet;
 
 import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 public class ModemState {
@@ -17,6 +20,7 @@ public class ModemState {
 
     private boolean open = false;
     private final IntSet channels = new IntOpenHashSet();
+    private final @GuardedBy("channels") List<ChannelListener> listeners = new ArrayList<>(0);
 
     public ModemState() {
         onChanged = null;
@@ -52,21 +56,73 @@ public void open(int channel) throws LuaException {
                 if (channels.size() >= 128) throw new LuaException("Too many open channels");
                 channels.add(channel);
                 setOpen(true);
+                for (var listener : listeners) listener.onChannelOpened(channel);
             }
         }
     }
 
     public void close(int channel) {
         synchronized (channels) {
-            channels.remove(channel);
+            if (channels.remove(channel)) {
+                for (var listener : listeners) listener.onChannelClosed(channel);
+            }
             if (channels.isEmpty()) setOpen(false);
         }
     }
 
     public void closeAll() {
         synchronized (channels) {
+            if (!listeners.isEmpty()) {
+                for (var it = channels.iterator(); it.hasNext(); ) {
+                    var channel = it.nextInt();
+                    for (var listener : listeners) listener.onChannelClosed(channel);
+                }
+            }
+
             channels.clear();
             setOpen(false);
         }
     }
+
+    /**
+     * Add a listener, which will be notified when channels are opened or closed.
+     * <p>
+     * The listener is immediately notified of any channels which are already open, and so will always have a
+     * consistent view of the open channels.
+     *
+     * @param listener The listener to add.
+     */
+    public void addListener(ChannelListener listener) {
+        synchronized (channels) {
+            listeners.add(listener);
+            for (var it = channels.iterator(); it.hasNext(); ) listener.onChannelOpened(it.nextInt());
+        }
+    }
+
+    /**
+     * Remove a listener previously added with {@link #addListener(ChannelListener)}.
+     * <p>
+     * The listener is notified that all currently open channels have been closed.
+     *
+     * @param listener The listener to remove.
+     */
+    public void removeListener(ChannelListener listener) {
+        synchronized (channels) {
+            if (!listeners.remove(listener)) return;
+            for (var it = channels.iterator(); it.hasNext(); ) listener.onChannelClosed(it.nextInt());
+        }
+    }
+
+    /**
+     * A listener for when channels are opened or closed.
+     * <p>
+     * These methods are called while holding a lock on the modem state, and so should not call back into it.
+     *
+     * @see #addListener(ChannelListener)
+     */
+    public interface ChannelListener {
+        void onChannelOpened(int channel);
+
+        void onChannelClosed(int channel);
+    }
 }
@@ -7,37 +7,65 @@
 import dan200.computercraft.api.network.Packet;
 import dan200.computercraft.api.network.PacketNetwork;
 import dan200.computercraft.api.network.PacketReceiver;
+import dan200.computercraft.shared.peripheral.modem.ModemPeripheral;
+import dan200.computercraft.shared.peripheral.modem.ModemState;
 
 import java.util.Collections;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * The network used by wireless and ender modems.
+ * <p>
+ * {@linkplain ModemPeripheral Modems} are indexed by the channels they have open, so transmitting a packet only needs to
+ * visit the modems which are listening on its channel. Other receivers are unaware of channels, and so are sent every
+ * packet.
+ */
 public class WirelessNetwork implements PacketNetwork {
     private final Set<PacketReceiver> receivers = Collections.newSetFromMap(new ConcurrentHashMap<>());
+    private final Map<ModemPeripheral, ChannelListener> modems = new ConcurrentHashMap<>();
+    private final Map<Integer, Set<PacketReceiver>> channels = new ConcurrentHashMap<>();
 
     @Override
     public void addReceiver(PacketReceiver receiver) {
         Objects.requireNonNull(receiver, "device cannot be null");
-        receivers.add(receiver);
+        if (receiver instanceof ModemPeripheral modem) {
+            var listener = new ChannelListener(modem);
+            if (modems.putIfAbsent(modem, listener) == null) modem.getModemState().addListener(listener);
+        } else {
+            receivers.add(receiver);
+        }
     }
 
     @Override
     public void removeReceiver(PacketReceiver receiver) {
         Objects.requireNonNull(receiver, "device cannot be null");
-        receivers.remove(receiver);
+        if (receiver instanceof ModemPeripheral modem) {
+            var listener = modems.remove(modem);
+            if (listener != null) modem.getModemState().removeListener(listener);
+        } else {
+            receivers.remove(receiver);
+        }
     }
 
     @Override
     public void transmitSameDimension(Packet packet, double range) {
         Objects.requireNonNull(packet, "packet cannot be null");
         for (var device : receivers) tryTransmit(device, packet, range, false);
+
+        var listening = channels.get(packet.channel());
+        if (listening != null) for (var device : listening) tryTransmit(device, packet, range, false);
     }
 
     @Override
     public void transmitInterdimensional(Packet packet) {
         Objects.requireNonNull(packet, "packet cannot be null");
         for (var device : receivers) tryTransmit(device, packet, 0, true);
+
+        var listening = channels.get(packet.channel());
+        if (listening != null) for (var device : listening) tryTransmit(device, packet, 0, true);
     }
 
     private static void tryTransmit(PacketReceiver receiver, Packet packet, double range, boolean interdimensional) {
@@ -59,4 +87,30 @@ private static void tryTransmit(PacketReceiver receiver, Packet packet, double r
     public boolean isWireless() {
         return true;
     }
+
+    private final class ChannelListener implements ModemState.ChannelListener {
+        private final ModemPeripheral modem;
+
+        private ChannelListener(ModemPeripheral modem) {
+            this.modem = modem;
+        }
+
+        @Override
+        public void onChannelOpened(int channel) {
+            // Use compute rather than computeIfAbsent, so we can't add to a set which is concurrently being removed.
+            channels.compute(channel, (x, listening) -> {
+                if (listening == null) listening = ConcurrentHashMap.newKeySet();
+                listening.add(modem);
+                return listening;
+            });
+        }
+
+        @Override
+        public void onChannelClosed(int channel) {
+            channels.computeIfPresent(channel, (x, listening) -> {
+                listening.remove(modem);
+                return listening.isEmpty() ? null : listening;
+            });
+        }
+    }
 }
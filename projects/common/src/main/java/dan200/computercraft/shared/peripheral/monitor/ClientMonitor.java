@@ -57,6 +57,9 @@ public boolean pollTerminalChanged() {
     void read(@Nullable TerminalState state) {
         if (state != null) {
             if (terminal == null) {
+                // We can't do anything with a set of changes until we've received the full terminal. This shouldn't
+                // happen, as the server always sends a full snapshot when a player starts watching the monitor.
+                if (state.isChanges()) return;
                 terminal = state.create();
             } else {
                 state.apply(terminal);
@@ -31,13 +31,13 @@ static void enqueue(MonitorBlockEntity monitor) {
     }
 
     public static void onWatch(LevelChunk chunk, ServerPlayer player) {
-        // Find all origin monitors who are not already on the queue and send the
-        // monitor data to the player.
+        // Find all origin monitors and send the full monitor data to the player. Monitors on the queue only send their
+        // changes, so we must do this even if the monitor is enqueued.
         for (var te : chunk.getBlockEntities().values()) {
             if (!(te instanceof MonitorBlockEntity monitor)) continue;
 
             var serverMonitor = getMonitor(monitor);
-            if (serverMonitor == null || monitor.enqueued) continue;
+            if (serverMonitor == null) continue;
 
             var state = getState(monitor, serverMonitor);
             ServerNetworking.sendToPlayer(new MonitorClientMessage(monitor.getBlockPos(), state), player);
@@ -65,7 +65,7 @@ public static void onTick() {
                 continue;
             }
 
-            var state = getState(tile, monitor);
+            var state = TerminalState.createChanges(monitor.getTerminal());
             ServerNetworking.sendToAllTracking(new MonitorClientMessage(pos, state), chunk);
 
             limit -= state == null ? 0 : state.size();
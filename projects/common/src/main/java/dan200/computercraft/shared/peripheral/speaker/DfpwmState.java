@@ -42,51 +42,92 @@ class DfpwmState {
     synchronized boolean pushBuffer(LuaTable<?, ?> table, int size, Optional<Double> volume) throws LuaException {
         if (pendingAudio != null) return false;
 
-        var outSize = size / 8;
-        var buffer = ByteBuffer.allocate(outSize);
+        // Read and validate all samples before encoding, so a malformed table does not leave the encoder half-updated.
+        var samples = new int[size - size % 8];
+        for (var i = 0; i < samples.length; i++) {
+            var level = table.getInt(i + 1);
+            if (level < -128 || level > 127) throw new LuaException("table item #" + (i + 1) + " must be between -128 and 127");
+            samples[i] = level;
+        }
 
         var initialCharge = charge;
         var initialStrength = strength;
         var initialPreviousBit = previousBit;
 
-        for (var i = 0; i < outSize; i++) {
-            var thisByte = 0;
-            for (var j = 1; j <= 8; j++) {
-                var level = table.getInt(i * 8 + j);
-                if (level < -128 || level > 127) {
-                    throw new LuaException("table item #" + (i * 8 + j) + " must be between -128 and 127");
-                }
-
-                var currentBit = level > charge || (level == charge && charge == 127);
+        pendingAudio = new EncodedAudio(initialCharge, initialStrength, initialPreviousBit, ByteBuffer.wrap(encode(samples)));
+        pendingVolume = (float) clampVolume(volume.orElse((double) pendingVolume));
+        return true;
+    }
 
-                // Identical to DfpwmStream. Not happy with this, but saves some inheritance.
-                var target = currentBit ? 127 : -128;
+    /**
+     * Queue some already-encoded DFPWM audio. This is sent to the client as-is, we just need to track the decoder's
+     * state so the next chunk of audio carries on from where this one left off.
+     *
+     * @param audio  The DFPWM audio to play.
+     * @param volume The volume to play this audio at.
+     * @return Whether the audio was queued.
+     */
+    synchronized boolean pushEncoded(ByteBuffer audio, Optional<Double> volume) {
+        if (pendingAudio != null) return false;
 
-                // q' <- q + (s * (t - q) + 128)/256
-                var nextCharge = charge + ((strength * (target - charge) + (1 << (PREC - 1))) >> PREC);
-                if (nextCharge == charge && nextCharge != target) nextCharge += currentBit ? 1 : -1;
+        var bytes = new byte[audio.remaining()];
+        audio.duplicate().get(bytes);
 
-                var z = currentBit == previousBit ? (1 << PREC) - 1 : 0;
+        var initialCharge = charge;
+        var initialStrength = strength;
+        var initialPreviousBit = previousBit;
 
-                var nextStrength = strength;
-                if (strength != z) nextStrength += currentBit == previousBit ? 1 : -1;
-                if (nextStrength < 2 << (PREC - 8)) nextStrength = 2 << (PREC - 8);
+        for (var inputByte : bytes) {
+            for (var j = 0; j < 8; j++) {
+                step((inputByte & 1) != 0);
+                inputByte >>= 1;
+            }
+        }
 
-                charge = nextCharge;
-                strength = nextStrength;
-                previousBit = currentBit;
+        pendingAudio = new EncodedAudio(initialCharge, initialStrength, initialPreviousBit, ByteBuffer.wrap(bytes));
+        pendingVolume = (float) clampVolume(volume.orElse((double) pendingVolume));
+        return true;
+    }
 
+    private byte[] encode(int[] samples) {
+        var output = new byte[samples.length / 8];
+        for (var i = 0; i < output.length; i++) {
+            var thisByte = 0;
+            for (var j = 0; j < 8; j++) {
+                var level = samples[i * 8 + j];
+                var currentBit = level > charge || (level == charge && charge == 127);
+                step(currentBit);
                 thisByte = (thisByte >> 1) + (currentBit ? 128 : 0);
             }
 
-            buffer.put((byte) thisByte);
+            output[i] = (byte) thisByte;
         }
 
-        buffer.flip();
+        return output;
+    }
 
-        pendingAudio = new EncodedAudio(initialCharge, initialStrength, initialPreviousBit, buffer);
-        pendingVolume = (float) clampVolume(volume.orElse((double) pendingVolume));
-        return true;
+    /**
+     * Update the encoder's state after emitting a single bit.
+     *
+     * @param currentBit The bit which was emitted.
+     */
+    private void step(boolean currentBit) {
+        // Identical to DfpwmStream. Not happy with this, but saves some inheritance.
+        var target = currentBit ? 127 : -128;
+
+        // q' <- q + (s * (t - q) + 128)/256
+        var nextCharge = charge + ((strength * (target - charge) + (1 << (PREC - 1))) >> PREC);
+        if (nextCharge == charge && nextCharge != target) nextCharge += currentBit ? 1 : -1;
+
+        var z = currentBit == previousBit ? (1 << PREC) - 1 : 0;
+
+        var nextStrength = strength;
+        if (strength != z) nextStrength += currentBit == previousBit ? 1 : -1;
+        if (nextStrength < 2 << (PREC - 8)) nextStrength = 2 << (PREC - 8);
+
+        charge = nextCharge;
+        strength = nextStrength;
+        previousBit = currentBit;
     }
 
     boolean shouldSendPending(long now) {
@@ -5,10 +5,12 @@
 package dan200.computercraft.shared.peripheral.speaker;
 
 import com.google.errorprone.annotations.concurrent.GuardedBy;
+import dan200.computercraft.api.lua.IArguments;
 import dan200.computercraft.api.lua.ILuaContext;
 import dan200.computercraft.api.lua.LuaException;
 import dan200.computercraft.api.lua.LuaFunction;
 import dan200.computercraft.api.lua.LuaTable;
+import dan200.computercraft.api.lua.LuaValues;
 import dan200.computercraft.api.peripheral.IComputerAccess;
 import dan200.computercraft.api.peripheral.IPeripheral;
 import dan200.computercraft.core.util.Nullability;
@@ -276,6 +278,10 @@ public final boolean playSound(ILuaContext context, String name, Optional<Double
      * and played back at 48kHz. If this buffer is full, this function will return {@literal false}. You should wait for
      * a [`speaker_audio_empty`] event before trying again.
      * <p>
+     * Alternatively, this accepts a string of DFPWM-encoded audio (such as a chunk read from a {@code .dfpwm} file),
+     * holding up to 16×1024 bytes. This is sent to the client as-is, which is much cheaper than decoding the audio with
+     * [`cc.audio.dfpwm`] and passing the samples to the speaker.
+     * <p>
      * > [!NOTE]
      * > The speaker only buffers a single call to {@link #playAudio} at once. This means if you try to play a small
      * > number of samples, you'll have a lot of stutter. You should try to play as many samples in one call as possible
@@ -285,14 +291,16 @@ public final boolean playSound(ILuaContext context, String name, Optional<Double
      * [`speaker_audio`] provides a more complete guide to using speakers
      *
      * @param context The Lua context.
-     * @param audio   The audio data to play.
-     * @param volume  The volume to play this audio at.
+     * @param args    The audio data to play, and the volume to play it at.
      * @return If there was room to accept this audio data.
      * @throws LuaException If the audio data is malformed.
-     * @cc.tparam {number...} audio A list of amplitudes.
-     * @cc.tparam [opt] number volume The volume to play this audio at. If not given, defaults to the previous volume
+     * @cc.tparam [1] {number...} audio A list of amplitudes.
+     * @cc.tparam [1, opt] number volume The volume to play this audio at. If not given, defaults to the previous volume
      * given to {@link #playAudio}.
+     * @cc.tparam [2] string audio DFPWM-encoded audio.
+     * @cc.tparam [2, opt] number volume The volume to play this audio at.
      * @cc.since 1.100
+     * @cc.changed 1.112.0 Accept pre-encoded DFPWM audio.
      * @cc.usage Read an audio file, decode it using [`cc.audio.dfpwm`], and play it using the speaker.
      *
      * <pre data-peripheral="speaker">{@code
@@ -308,28 +316,53 @@ public final boolean playSound(ILuaContext context, String name, Optional<Double
      *     end
      * end
      * }</pre>
+     * @cc.usage Read an audio file and play it directly, without decoding it first.
+     *
+     * <pre data-peripheral="speaker">{@code
+     * local speaker = peripheral.find("speaker")
+     *
+     * for chunk in io.lines("data/example.dfpwm", 16 * 1024) do
+     *     while not speaker.playAudio(chunk) do
+     *         os.pullEvent("speaker_audio_empty")
+     *     end
+     * end
+     * }</pre>
      * @cc.see cc.audio.dfpwm Provides utilities for decoding DFPWM audio files into a format which can be played by
      * the speaker.
      * @cc.see speaker_audio For a more complete introduction to the {@link #playAudio} function.
      */
     @LuaFunction(unsafe = true)
-    public final boolean playAudio(ILuaContext context, LuaTable<?, ?> audio, Optional<Double> volume) throws LuaException {
-        checkFinite(1, volume.orElse(0.0));
+    public final boolean playAudio(ILuaContext context, IArguments args) throws LuaException {
+        var volume = args.optFiniteDouble(1);
+
+        // Pre-encoded audio is passed straight through, otherwise we need to encode the samples ourselves.
+        var type = args.getType(0);
+        if (type.equals("string")) {
+            var audio = args.getBytes(0);
+            if (audio.remaining() <= 0) throw new LuaException("Cannot play empty audio");
+            if (audio.remaining() > 128 * 1024 / 8) throw new LuaException("Audio data is too large");
+
+            return getDfpwmState().pushEncoded(audio, volume);
+        } else if (!type.equals("table")) {
+            throw LuaValues.badArgumentOf(args, 0, "string or table");
+        }
+
+        var audio = args.getTableUnsafe(0);
 
         // TODO: Use ArgumentHelpers instead?
         var length = audio.length();
         if (length <= 0) throw new LuaException("Cannot play empty audio");
         if (length > 128 * 1024) throw new LuaException("Audio data is too large");
 
-        DfpwmState state;
+        return getDfpwmState().pushBuffer(audio, length, volume);
+    }
+
+    private DfpwmState getDfpwmState() {
         synchronized (lock) {
             if (dfpwmState == null || !dfpwmState.isPlaying()) dfpwmState = new DfpwmState();
-            state = dfpwmState;
-
             pendingSound = null;
+            return dfpwmState;
         }
-
-        return state.pushBuffer(audio, length, volume);
     }
 
     /**
@@ -15,6 +15,9 @@
 import dan200.computercraft.shared.peripheral.generic.methods.AbstractInventoryMethods;
 import dan200.computercraft.shared.turtle.core.*;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -65,6 +68,11 @@
  * @cc.since 1.3
  */
 public class TurtleAPI implements ILuaAPI {
+    /**
+     * The maximum number of commands which may be submitted in one {@link #batch(Map)}.
+     */
+    private static final int MAX_BATCH_SIZE = 256;
+
     private final MetricsObserver metrics;
     private final TurtleAccessInternal turtle;
 
@@ -83,6 +91,42 @@ private MethodResult trackCommand(TurtleCommand command) {
         return turtle.executeCommand(command);
     }
 
+    /**
+     * Run a command which only reads the world or the turtle's inventory.
+     * <p>
+     * Unlike {@link #trackCommand(TurtleCommand)}, this does not go through the turtle's command queue, and so does not
+     * wait for the current animation to finish. Instead, the command is run as a main thread task, so completes within
+     * the same tick.
+     * <p>
+     * If there are commands waiting in the queue (for instance, started by another coroutine), the query is queued
+     * behind them instead, so that it sees their effects.
+     *
+     * @param context The current Lua context.
+     * @param command The command to run. This must not modify the turtle or the world.
+     * @return The turtle command result.
+     * @throws LuaException If the task could not be queued.
+     */
+    private MethodResult trackQuery(ILuaContext context, TurtleCommand command) throws LuaException {
+        if (turtle.hasQueuedCommands()) return trackCommand(command);
+
+        metrics.observe(Metrics.TURTLE_OPS);
+        return context.executeMainThreadTask(() -> {
+            var result = command.execute(turtle);
+            if (!result.isSuccess()) {
+                var message = result.getErrorMessage();
+                return message == null ? new Object[]{ false } : new Object[]{ false, message };
+            }
+
+            var results = result.getResults();
+            if (results == null) return new Object[]{ true };
+
+            var arguments = new Object[results.length + 1];
+            arguments[0] = true;
+            System.arraycopy(results, 0, arguments, 1, results.length);
+            return arguments;
+        });
+    }
+
     /**
      * Move the turtle forward one block.
      *
@@ -320,11 +364,7 @@ public final MethodResult dropDown(Optional<Integer> count) throws LuaException
 
     @LuaFunction
     public final MethodResult select(int slot) throws LuaException {
-        var actualSlot = checkSlot(slot);
-        return turtle.executeCommand(turtle -> {
-            turtle.setSelectedSlot(actualSlot);
-            return TurtleCommandResult.success();
-        });
+        return turtle.executeCommand(selectCommand(checkSlot(slot)));
     }
 
     /**
@@ -360,70 +400,82 @@ public final int getItemSpace(Optional<Integer> slot) throws LuaException {
      * Check if there is a solid block in front of the turtle. In this case, solid refers to any non-air or liquid
      * block.
      *
+     * @param context The Lua context.
      * @return The turtle command result.
+     * @throws LuaException If the task could not be queued.
      * @cc.treturn boolean If there is a solid block in front.
      */
     @LuaFunction
-    public final MethodResult detect() {
-        return trackCommand(new TurtleDetectCommand(InteractDirection.FORWARD));
+    public final MethodResult detect(ILuaContext context) throws LuaException {
+        return trackQuery(context, new TurtleDetectCommand(InteractDirection.FORWARD));
     }
 
     /**
      * Check if there is a solid block above the turtle. In this case, solid refers to any non-air or liquid block.
      *
+     * @param context The Lua context.
      * @return The turtle command result.
+     * @throws LuaException If the task could not be queued.
      * @cc.treturn boolean If there is a solid block above.
      */
     @LuaFunction
-    public final MethodResult detectUp() {
-        return trackCommand(new TurtleDetectCommand(InteractDirection.UP));
+    public final MethodResult detectUp(ILuaContext context) throws LuaException {
+        return trackQuery(context, new TurtleDetectCommand(InteractDirection.UP));
     }
 
     /**
      * Check if there is a solid block below the turtle. In this case, solid refers to any non-air or liquid block.
      *
+     * @param context The Lua context.
      * @return The turtle command result.
+     * @throws LuaException If the task could not be queued.
      * @cc.treturn boolean If there is a solid block below.
      */
     @LuaFunction
-    public final MethodResult detectDown() {
-        return trackCommand(new TurtleDetectCommand(InteractDirection.DOWN));
+    public final MethodResult detectDown(ILuaContext context) throws LuaException {
+        return trackQuery(context, new TurtleDetectCommand(InteractDirection.DOWN));
     }
 
     /**
      * Check if the block in front of the turtle is equal to the item in the currently selected slot.
      *
+     * @param context The Lua context.
      * @return If the block and item are equal.
+     * @throws LuaException If the task could not be queued.
      * @cc.treturn boolean If the block and item are equal.
      * @cc.since 1.31
      */
     @LuaFunction
-    public final MethodResult compare() {
-        return trackCommand(new TurtleCompareCommand(InteractDirection.FORWARD));
+    public final MethodResult compare(ILuaContext context) throws LuaException {
+        return trackQuery(context, new TurtleCompareCommand(InteractDirection.FORWARD));
     }
 
     /**
      * Check if the block above the turtle is equal to the item in the currently selected slot.
      *
+     * @param context The Lua context.
      * @return If the block and item are equal.
+     * @throws LuaException If the task could not be queued.
      * @cc.treturn boolean If the block and item are equal.
      * @cc.since 1.31
      */
     @LuaFunction
-    public final MethodResult compareUp() {
-        return trackCommand(new TurtleCompareCommand(InteractDirection.UP));
+    public final MethodResult compareUp(ILuaContext context) throws LuaException {
+        return trackQuery(context, new TurtleCompareCommand(InteractDirection.UP));
     }
 
     /**
      * Check if the block below the turtle is equal to the item in the currently selected slot.
      *
+     * @param context The Lua context.
      * @return If the block and item are equal.
+     * @throws LuaException If the task could not be queued.
      * @cc.treturn boolean If the block and item are equal.
      * @cc.since 1.31
      */
     @LuaFunction
-    public final MethodResult compareDown() {
-        return trackCommand(new TurtleCompareCommand(InteractDirection.DOWN));
+    public final MethodResult compareDown(ILuaContext context) throws LuaException {
+        return trackQuery(context, new TurtleCompareCommand(InteractDirection.DOWN));
     }
 
     /**
@@ -575,23 +627,22 @@ public final Object getFuelLevel() {
      */
     @LuaFunction
     public final MethodResult refuel(Optional<Integer> countA) throws LuaException {
-        int count = countA.orElse(Integer.MAX_VALUE);
-        if (count < 0) throw new LuaException("Refuel count " + count + " out of range");
-        return trackCommand(new TurtleRefuelCommand(count));
+        return trackCommand(new TurtleRefuelCommand(checkRefuelCount(countA)));
     }
 
     /**
      * Compare the item in the currently selected slot to the item in another slot.
      *
-     * @param slot The slot to compare to.
+     * @param context The Lua context.
+     * @param slot    The slot to compare to.
      * @return If the items are the same.
      * @throws LuaException If the slot is out of range.
      * @cc.treturn boolean If the two items are equal.
      * @cc.since 1.4
      */
     @LuaFunction
-    public final MethodResult compareTo(int slot) throws LuaException {
-        return trackCommand(new TurtleCompareToCommand(checkSlot(slot)));
+    public final MethodResult compareTo(ILuaContext context, int slot) throws LuaException {
+        return trackQuery(context, new TurtleCompareToCommand(checkSlot(slot)));
     }
 
     /**
@@ -682,7 +733,9 @@ public final MethodResult equipRight() {
     /**
      * Get information about the block in front of the turtle.
      *
+     * @param context The Lua context.
      * @return The turtle command result.
+     * @throws LuaException If the task could not be queued.
      * @cc.treturn boolean Whether there is a block in front of the turtle.
      * @cc.treturn table|string Information about the block in front, or a message explaining that there is no block.
      * @cc.since 1.64
@@ -701,34 +754,38 @@ public final MethodResult equipRight() {
      * end}</pre>
      */
     @LuaFunction
-    public final MethodResult inspect() {
-        return trackCommand(new TurtleInspectCommand(InteractDirection.FORWARD));
+    public final MethodResult inspect(ILuaContext context) throws LuaException {
+        return trackQuery(context, new TurtleInspectCommand(InteractDirection.FORWARD));
     }
 
     /**
      * Get information about the block above the turtle.
      *
+     * @param context The Lua context.
      * @return The turtle command result.
+     * @throws LuaException If the task could not be queued.
      * @cc.treturn boolean Whether there is a block above the turtle.
      * @cc.treturn table|string Information about the above below, or a message explaining that there is no block.
      * @cc.since 1.64
      */
     @LuaFunction
-    public final MethodResult inspectUp() {
-        return trackCommand(new TurtleInspectCommand(InteractDirection.UP));
+    public final MethodResult inspectUp(ILuaContext context) throws LuaException {
+        return trackQuery(context, new TurtleInspectCommand(InteractDirection.UP));
     }
 
     /**
      * Get information about the block below the turtle.
      *
+     * @param context The Lua context.
      * @return The turtle command result.
+     * @throws LuaException If the task could not be queued.
      * @cc.treturn boolean Whether there is a block below the turtle.
      * @cc.treturn table|string Information about the block below, or a message explaining that there is no block.
      * @cc.since 1.64
      */
     @LuaFunction
-    public final MethodResult inspectDown() {
-        return trackCommand(new TurtleInspectCommand(InteractDirection.DOWN));
+    public final MethodResult inspectDown(ILuaContext context) throws LuaException {
+        return trackQuery(context, new TurtleInspectCommand(InteractDirection.DOWN));
     }
 
     /**
@@ -767,6 +824,110 @@ public final MethodResult getItemDetail(ILuaContext context, Optional<Integer> s
         }
     }
 
+    /**
+     * Run several turtle commands one after another.
+     * <p>
+     * Normally, each turtle function waits for its command to finish before returning to your program, which then
+     * starts the next one. This adds a small delay between each command. Instead, this submits a whole list of commands
+     * at once, which the turtle runs back-to-back. Commands still take as long as they normally would (for instance,
+     * moving still takes 8 ticks).
+     * <p>
+     * Each command is either the name of a turtle function (such as {@code "forward"}), or a table containing the name
+     * followed by its arguments (such as `{ "dig", "left" }`). The following functions are supported:
+     * [`turtle.forward`], [`turtle.back`], [`turtle.up`], [`turtle.down`], [`turtle.turnLeft`], [`turtle.turnRight`],
+     * [`turtle.dig`], [`turtle.digUp`], [`turtle.digDown`], [`turtle.place`], [`turtle.placeUp`],
+     * [`turtle.placeDown`], [`turtle.attack`], [`turtle.attackUp`], [`turtle.attackDown`], [`turtle.drop`],
+     * [`turtle.dropUp`], [`turtle.dropDown`], [`turtle.suck`], [`turtle.suckUp`], [`turtle.suckDown`],
+     * [`turtle.select`], [`turtle.refuel`] and [`turtle.transferTo`].
+     * <p>
+     * Commands are run in order, stopping at the first one which fails.
+     *
+     * @param commands The list of commands to run.
+     * @return The command result.
+     * @throws LuaException If a command is not supported, or has invalid arguments.
+     * @cc.treturn [1] true If every command succeeded.
+     * @cc.treturn [2] false If a command failed.
+     * @cc.treturn [2] string The reason the command failed.
+     * @cc.treturn [2] number The position of the failed command in the list.
+     * @cc.since 1.112.0
+     * @cc.usage Dig a 1x2 tunnel 3 blocks long.
+     * <pre>{@code
+     * local ok, err, index = turtle.batch {
+     *   "dig", "digUp", "forward",
+     *   "dig", "digUp", "forward",
+     *   "dig", "digUp", "forward",
+     * }
+     * if not ok then printError(("Command %d failed: %s"):format(index, err)) end
+     * }</pre>
+     */
+    @LuaFunction
+    public final MethodResult batch(Map<?, ?> commands) throws LuaException {
+        var count = commands.size();
+        if (count > MAX_BATCH_SIZE) throw new LuaException("Too many commands (at most " + MAX_BATCH_SIZE + ")");
+
+        List<TurtleCommand> batch = new ArrayList<>(count);
+        for (var i = 1; i <= count; i++) {
+            var entry = commands.get((double) i);
+
+            IArguments args;
+            if (entry instanceof String) {
+                args = new ObjectArguments(entry);
+            } else if (entry instanceof Map<?, ?> table) {
+                var values = new Object[table.size()];
+                for (var j = 0; j < values.length; j++) values[j] = table.get((double) (j + 1));
+                args = new ObjectArguments(values);
+            } else {
+                throw LuaValues.badTableItem(i, "string or table", LuaValues.getType(entry));
+            }
+
+            try {
+                batch.add(getBatchCommand(args));
+            } catch (LuaException e) {
+                throw new LuaException("Command " + i + ": " + e.getMessage());
+            }
+        }
+
+        for (var i = 0; i < count; i++) metrics.observe(Metrics.TURTLE_OPS);
+        return turtle.executeCommands(batch);
+    }
+
+    private static TurtleCommand getBatchCommand(IArguments args) throws LuaException {
+        var name = args.getString(0);
+        return switch (name) {
+            case "forward" -> new TurtleMoveCommand(MoveDirection.FORWARD);
+            case "back" -> new TurtleMoveCommand(MoveDirection.BACK);
+            case "up" -> new TurtleMoveCommand(MoveDirection.UP);
+            case "down" -> new TurtleMoveCommand(MoveDirection.DOWN);
+            case "turnLeft" -> new TurtleTurnCommand(TurnDirection.LEFT);
+            case "turnRight" -> new TurtleTurnCommand(TurnDirection.RIGHT);
+            case "dig" -> TurtleToolCommand.dig(InteractDirection.FORWARD, args.optEnum(1, TurtleSide.class).orElse(null));
+            case "digUp" -> TurtleToolCommand.dig(InteractDirection.UP, args.optEnum(1, TurtleSide.class).orElse(null));
+            case "digDown" -> TurtleToolCommand.dig(InteractDirection.DOWN, args.optEnum(1, TurtleSide.class).orElse(null));
+            case "place" -> new TurtlePlaceCommand(InteractDirection.FORWARD, args.drop(1).getAll());
+            case "placeUp" -> new TurtlePlaceCommand(InteractDirection.UP, args.drop(1).getAll());
+            case "placeDown" -> new TurtlePlaceCommand(InteractDirection.DOWN, args.drop(1).getAll());
+            case "attack" -> TurtleToolCommand.attack(InteractDirection.FORWARD, args.optEnum(1, TurtleSide.class).orElse(null));
+            case "attackUp" -> TurtleToolCommand.attack(InteractDirection.UP, args.optEnum(1, TurtleSide.class).orElse(null));
+            case "attackDown" -> TurtleToolCommand.attack(InteractDirection.DOWN, args.optEnum(1, TurtleSide.class).orElse(null));
+            case "drop" -> new TurtleDropCommand(InteractDirection.FORWARD, checkCount(args.optInt(1)));
+            case "dropUp" -> new TurtleDropCommand(InteractDirection.UP, checkCount(args.optInt(1)));
+            case "dropDown" -> new TurtleDropCommand(InteractDirection.DOWN, checkCount(args.optInt(1)));
+            case "suck" -> new TurtleSuckCommand(InteractDirection.FORWARD, checkCount(args.optInt(1)));
+            case "suckUp" -> new TurtleSuckCommand(InteractDirection.UP, checkCount(args.optInt(1)));
+            case "suckDown" -> new TurtleSuckCommand(InteractDirection.DOWN, checkCount(args.optInt(1)));
+            case "select" -> selectCommand(checkSlot(args.getInt(1)));
+            case "refuel" -> new TurtleRefuelCommand(checkRefuelCount(args.optInt(1)));
+            case "transferTo" -> new TurtleTransferToCommand(checkSlot(args.getInt(1)), checkCount(args.optInt(2)));
+            default -> throw new LuaException("Unsupported command '" + name + "'");
+        };
+    }
+
+    private static TurtleCommand selectCommand(int slot) {
+        return turtle -> {
+            turtle.setSelectedSlot(slot);
+            return TurtleCommandResult.success();
+        };
+    }
 
     private static int checkSlot(int slot) throws LuaException {
         if (slot < 1 || slot > 16) throw new LuaException("Slot number " + slot + " out of range");
@@ -782,4 +943,10 @@ private static int checkCount(Optional<Integer> countArg) throws LuaException {
         if (count < 0 || count > 64) throw new LuaException("Item count " + count + " out of range");
         return count;
     }
+
+    private static int checkRefuelCount(Optional<Integer> countArg) throws LuaException {
+        int count = countArg.orElse(Integer.MAX_VALUE);
+        if (count < 0) throw new LuaException("Refuel count " + count + " out of range");
+        return count;
+    }
 }
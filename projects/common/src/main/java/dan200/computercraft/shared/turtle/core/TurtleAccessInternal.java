@@ -4,9 +4,13 @@
 
 package dan200.computercraft.shared.turtle.core;
 
+import dan200.computercraft.api.lua.MethodResult;
 import dan200.computercraft.api.turtle.ITurtleAccess;
+import dan200.computercraft.api.turtle.TurtleCommand;
 import net.minecraft.world.item.ItemStack;
 
+import java.util.List;
+
 /**
  * An internal version of {@link ITurtleAccess}.
  * <p>
@@ -23,4 +27,22 @@ public interface TurtleAccessInternal extends ITurtleAccess {
      * @see net.minecraft.world.Container#getItem(int)
      */
     ItemStack getItemSnapshot(int slot);
+
+    /**
+     * Add a batch of commands to the turtle's command queue. Unlike {@link #executeCommand(TurtleCommand)}, the
+     * commands are executed one after another without returning to Lua, stopping at the first one which fails.
+     *
+     * @param commands The commands to execute.
+     * @return The Lua result. This yields until every command has finished (or one has failed), and then returns
+     * {@code true}, or {@code false}, the error message and the (1-based) index of the command which failed.
+     * @see dan200.computercraft.shared.turtle.apis.TurtleAPI#batch
+     */
+    MethodResult executeCommands(List<TurtleCommand> commands);
+
+    /**
+     * Whether there are any commands waiting to be run (or still running) in the turtle's command queue.
+     *
+     * @return Whether the command queue is non-empty.
+     */
+    boolean hasQueuedCommands();
 }
@@ -11,6 +11,7 @@
 import dan200.computercraft.api.turtle.ITurtleUpgrade;
 import dan200.computercraft.api.turtle.TurtleAnimation;
 import dan200.computercraft.api.turtle.TurtleCommand;
+import dan200.computercraft.api.turtle.TurtleCommandResult;
 import dan200.computercraft.api.turtle.TurtleSide;
 import dan200.computercraft.api.upgrades.UpgradeData;
 import dan200.computercraft.core.computer.ComputerSide;
@@ -67,6 +68,11 @@ public class TurtleBrain implements TurtleAccessInternal {
     private final Queue<TurtleCommandQueueEntry> commandQueue = new ArrayDeque<>();
     private int commandsIssued = 0;
 
+    /**
+     * The index of the next command to run from the batch at the head of {@link #commandQueue}.
+     */
+    private int batchProgress = 0;
+
     private final Map<TurtleSide, ITurtleUpgrade> upgrades = new EnumMap<>(TurtleSide.class);
     private final Map<TurtleSide, IPeripheral> peripherals = new EnumMap<>(TurtleSide.class);
     private final Map<TurtleSide, CompoundTag> upgradeNBTData = new EnumMap<>(TurtleSide.class);
@@ -427,6 +433,22 @@ public MethodResult executeCommand(TurtleCommand command) {
         return new CommandCallback(commandID).pull;
     }
 
+    @Override
+    public MethodResult executeCommands(List<TurtleCommand> commands) {
+        if (getLevel().isClientSide) throw new UnsupportedOperationException("Cannot run commands on the client");
+        if (commands.isEmpty()) return MethodResult.of(true);
+        if (commandQueue.size() > 16) return MethodResult.of(false, "Too many ongoing turtle commands");
+
+        commandQueue.offer(new TurtleCommandQueueEntry(++commandsIssued, List.copyOf(commands), true));
+        var commandID = commandsIssued;
+        return new CommandCallback(commandID).pull;
+    }
+
+    @Override
+    public boolean hasQueuedCommands() {
+        return !commandQueue.isEmpty();
+    }
+
     @Override
     public void playAnimation(TurtleAnimation animation) {
         if (getLevel().isClientSide) throw new UnsupportedOperationException("Cannot play animations on the client");
@@ -609,18 +631,20 @@ private void updateCommands() {
         var computer = owner.getServerComputer();
         if (computer != null && !computer.getMainThreadMonitor().canWork()) return;
 
-        // Pull a new command
-        var nextCommand = commandQueue.poll();
+        var nextCommand = commandQueue.peek();
         if (nextCommand == null) return;
 
-        // Execute the command
-        var start = System.nanoTime();
-        var result = nextCommand.command().execute(this);
-        var end = System.nanoTime();
+        if (nextCommand.batch()) {
+            updateBatch(computer, nextCommand);
+            return;
+        }
+
+        // Pull a new command and execute it
+        commandQueue.remove();
+        var result = runCommand(computer, nextCommand.commands().get(0));
 
         // Dispatch the callback
         if (computer == null) return;
-        computer.getMainThreadMonitor().trackWork(end - start, TimeUnit.NANOSECONDS);
         var callbackID = nextCommand.callbackID();
         if (callbackID < 0) return;
 
@@ -644,6 +668,52 @@ private void updateCommands() {
         }
     }
 
+    /**
+     * Run commands from the current batch.
+     * <p>
+     * We keep running commands until one plays an animation (or the computer runs out of time), at which point we wait
+     * for it to finish as normal. This means commands which don't animate (such as selecting a slot) run back-to-back,
+     * and we never wait on the computer between commands.
+     *
+     * @param computer The turtle's computer, if present.
+     * @param batch    The batch to run, at the head of the command queue.
+     */
+    private void updateBatch(@Nullable ServerComputer computer, TurtleCommandQueueEntry batch) {
+        var commands = batch.commands();
+        while (true) {
+            var index = batchProgress++;
+            var result = runCommand(computer, commands.get(index));
+
+            // The turtle may have been destroyed by this command, in which case there's nothing more to do.
+            if (owner.isRemoved()) return;
+
+            var failed = result == null || !result.isSuccess();
+            if (failed || batchProgress >= commands.size()) {
+                commandQueue.remove();
+                batchProgress = 0;
+
+                if (computer != null && batch.callbackID() >= 0) {
+                    computer.queueEvent("turtle_response", failed
+                        ? new Object[]{ batch.callbackID(), false, result != null ? result.getErrorMessage() : null, index + 1 }
+                        : new Object[]{ batch.callbackID(), true });
+                }
+                return;
+            }
+
+            if (animation != TurtleAnimation.NONE) return;
+            if (computer != null && !computer.getMainThreadMonitor().canWork()) return;
+        }
+    }
+
+    private @Nullable TurtleCommandResult runCommand(@Nullable ServerComputer computer, TurtleCommand command) {
+        var start = System.nanoTime();
+        var result = command.execute(this);
+        var end = System.nanoTime();
+
+        if (computer != null) computer.getMainThreadMonitor().trackWork(end - start, TimeUnit.NANOSECONDS);
+        return result;
+    }
+
     private void updateAnimation() {
         if (animation != TurtleAnimation.NONE) {
             var world = getLevel();
@@ -6,5 +6,17 @@
 
 import dan200.computercraft.api.turtle.TurtleCommand;
 
-public record TurtleCommandQueueEntry(int callbackID, TurtleCommand command) {
+import java.util.List;
+
+/**
+ * A command (or batch of commands) waiting to be executed by a turtle.
+ *
+ * @param callbackID The ID of the {@code turtle_response} event queued once this entry has finished.
+ * @param commands   The commands to execute. This will be a single command, unless {@code batch} is set.
+ * @param batch      Whether this is a batch of commands, submitted with {@link TurtleAccessInternal#executeCommands(List)}.
+ */
+public record TurtleCommandQueueEntry(int callbackID, List<TurtleCommand> commands, boolean batch) {
+    public TurtleCommandQueueEntry(int callbackID, TurtleCommand command) {
+        this(callbackID, List.of(command), false);
+    }
 }
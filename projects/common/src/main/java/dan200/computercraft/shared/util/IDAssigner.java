@@ -4,6 +4,7 @@
 
 package dan200.computercraft.shared.util;
 
+import com.google.errorprone.annotations.concurrent.GuardedBy;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.reflect.TypeToken;
@@ -22,33 +23,152 @@
 import java.nio.file.*;
 import java.util.HashMap;
 import java.util.Map;
-
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.function.ToIntFunction;
+
+/**
+ * Assigns unique IDs to computers, disks and other objects.
+ * <p>
+ * Rather than saving the ID file every time a new ID is assigned, we reserve IDs in blocks of {@link #BLOCK_SIZE}. The
+ * ID file stores the end of the reserved block, and so is only saved once per block. Before a block runs out, we
+ * reserve the next one and save the file in the background, which means the server thread rarely has to wait for the
+ * file to be written.
+ * <p>
+ * The ID file always stores an ID at least as large as any ID we've handed out. If the server crashes, we may skip the
+ * unused part of a block, but will never reuse an ID. When the server stops normally, we save the last ID which was
+ * actually used, so no IDs are skipped.
+ */
 public final class IDAssigner {
     private static final Logger LOG = LoggerFactory.getLogger(IDAssigner.class);
     public static final String COMPUTER = "computer";
 
+    /**
+     * The number of IDs to reserve at once.
+     */
+    private static final int BLOCK_SIZE = 16;
+
     private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
     private static final Type ID_TOKEN = new TypeToken<Map<String, Integer>>() {
     }.getType();
 
     private final Path idFile;
     private final Path newIdFile;
-    private @Nullable Map<String, Integer> ids;
+    private final Executor executor;
+
+    @GuardedBy("this")
+    private @Nullable Map<String, Counter> ids;
+
+    /**
+     * The version of the last snapshot of the IDs, used to ensure older snapshots never overwrite newer ones.
+     */
+    @GuardedBy("this")
+    private long version;
+
+    /**
+     * Whether a background save is queued.
+     */
+    @GuardedBy("this")
+    private boolean saveQueued;
 
-    public IDAssigner(Path path) {
+    @GuardedBy("this")
+    private boolean closed;
+
+    /**
+     * A lock held while writing the ID file. This must never be acquired while holding the lock on {@code this}, other
+     * than by {@link #getNextId(String)} and {@link #close()}.
+     */
+    private final Object writeLock = new Object();
+
+    @GuardedBy("writeLock")
+    private long writtenVersion = -1;
+
+    public IDAssigner(Path path, Executor executor) {
         idFile = path;
         newIdFile = path.resolveSibling(path.getFileName() + ".new");
+        this.executor = executor;
     }
 
     public synchronized int getNextId(String kind) {
         if (ids == null) ids = loadIds();
 
-        var existing = ids.get(kind);
-        var next = existing == null ? 0 : existing + 1;
-        ids.put(kind, next);
+        var counter = ids.computeIfAbsent(kind, k -> new Counter(-1));
+        var next = counter.next++;
+
+        if (closed) {
+            // Once closed, the ID file only holds the IDs which have been used, and we no longer save in the
+            // background. Save this ID immediately, so it is never handed out again.
+            save(snapshot(Counter::used));
+        } else if (next > counter.saved) {
+            // We've run out of saved IDs, so reserve a new block and wait for it to be written. This should only
+            // happen for the first ID of each kind, or if IDs are being assigned faster than we can save them.
+            counter.reserved = Math.max(counter.reserved, next + BLOCK_SIZE - 1);
+            save(snapshot(Counter::reserved));
+        } else if (counter.reserved - next < BLOCK_SIZE / 2) {
+            // We're getting close to the end of our block, so reserve the next one in the background.
+            counter.reserved += BLOCK_SIZE;
+            if (!saveQueued) {
+                saveQueued = true;
+                executor.execute(this::saveInBackground);
+            }
+        }
+
+        return next;
+    }
+
+    /**
+     * Save the IDs which have actually been used, rather than the reserved ones. This should be called when the server
+     * stops, so that unused reserved IDs are not skipped.
+     * <p>
+     * IDs may still be assigned after this is called, but each one will be saved immediately.
+     */
+    public synchronized void close() {
+        closed = true;
+        if (ids == null) return;
+        save(snapshot(Counter::used));
+    }
+
+    private void saveInBackground() {
+        Snapshot snapshot;
+        synchronized (this) {
+            saveQueued = false;
+            if (closed) return;
+            snapshot = snapshot(Counter::reserved);
+        }
+
+        save(snapshot);
+    }
+
+    @GuardedBy("this")
+    private Snapshot snapshot(ToIntFunction<Counter> getId) {
+        Map<String, Integer> snapshot = new HashMap<>();
+        for (var entry : Objects.requireNonNull(ids).entrySet()) {
+            var id = getId.applyAsInt(entry.getValue());
+            if (id >= 0) snapshot.put(entry.getKey(), id);
+        }
+        return new Snapshot(++version, snapshot);
+    }
+
+    private void save(Snapshot snapshot) {
+        synchronized (writeLock) {
+            // If a newer snapshot has already been written, there's nothing to do.
+            if (snapshot.version() <= writtenVersion) return;
+            if (!write(snapshot.ids())) return;
+            writtenVersion = snapshot.version();
+        }
+
+        synchronized (this) {
+            var ids = Objects.requireNonNull(this.ids);
+            for (var entry : snapshot.ids().entrySet()) {
+                var counter = ids.get(entry.getKey());
+                if (counter != null) counter.saved = Math.max(counter.saved, entry.getValue());
+            }
+        }
+    }
 
-        // We've changed the ID file, so save it back again. We save to a temporary ".new" file, then move that over the
-        // original. This should reduce the risk of corrupting the file if Minecraft (or the computer!) is stopped.
+    private boolean write(Map<String, Integer> ids) {
+        // We save to a temporary ".new" file, then move that over the original. This should reduce the risk of
+        // corrupting the file if Minecraft (or the computer!) is stopped.
         try {
             try (var channel = FileChannel.open(newIdFile, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
                 Writer writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8));
@@ -63,18 +183,23 @@ public synchronized int getNextId(String kind) {
             } catch (AtomicMoveNotSupportedException | UnsupportedOperationException e) {
                 Files.move(newIdFile, idFile, StandardCopyOption.REPLACE_EXISTING);
             }
+
+            return true;
         } catch (IOException e) {
             LOG.error("Cannot update ID file '{}'", idFile, e);
+            return false;
         }
-
-        return next;
     }
 
-    private Map<String, Integer> loadIds() {
+    private Map<String, Counter> loadIds() {
         if (Files.isRegularFile(idFile)) {
             try (Reader reader = Files.newBufferedReader(idFile, StandardCharsets.UTF_8)) {
                 Map<String, Integer> result = GSON.fromJson(reader, ID_TOKEN);
-                if (result != null) return result;
+                if (result != null) {
+                    Map<String, Counter> counters = new HashMap<>();
+                    for (var entry : result.entrySet()) counters.put(entry.getKey(), new Counter(entry.getValue()));
+                    return counters;
+                }
 
                 // This happens when the file is empty. Odd, I know!
                 LOG.error("ID file {} is corrupted, computer IDs may be duplicated", idFile);
@@ -91,4 +216,40 @@ private Map<String, Integer> loadIds() {
 
         return new HashMap<>();
     }
+
+    /**
+     * The state of IDs of a single kind.
+     */
+    private static final class Counter {
+        /**
+         * The next ID to hand out.
+         */
+        int next;
+
+        /**
+         * The last ID we have reserved. This may not have been saved yet.
+         */
+        int reserved;
+
+        /**
+         * The last ID which has been saved to disk. IDs up to this one can be handed out without saving.
+         */
+        int saved;
+
+        Counter(int last) {
+            next = last + 1;
+            reserved = saved = last;
+        }
+
+        int reserved() {
+            return reserved;
+        }
+
+        int used() {
+            return next - 1;
+        }
+    }
+
+    private record Snapshot(long version, Map<String, Integer> ids) {
+    }
 }
@@ -199,6 +199,25 @@ public static String getNBTHash(@Nullable CompoundTag tag) {
         }
     }
 
+    /**
+     * Get the size of a tag when serialised, such as when it is saved to disk.
+     *
+     * @param tag The tag to measure.
+     * @return The size of the tag in bytes, or {@code 0} if it is {@code null}.
+     */
+    public static int getNBTSize(@Nullable CompoundTag tag) {
+        if (tag == null) return 0;
+
+        try {
+            var output = new DataOutputStream(OutputStream.nullOutputStream());
+            writeNamedTag(output, "", tag);
+            return output.size();
+        } catch (IOException e) {
+            LOG.error("Cannot measure NBT", e);
+            return 0;
+        }
+    }
+
     /**
      * An alternative version of {@link NbtIo#write(CompoundTag, DataOutput)}, which sorts keys. This
      * should make the output slightly more deterministic.
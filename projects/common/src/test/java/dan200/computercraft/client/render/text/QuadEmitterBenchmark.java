@@ -0,0 +1,103 @@
+// SPDX-FileCopyrightText: 2024 The CC: Tweaked Developers
+//
+// SPDX-License-Identifier: MPL-2.0
+
+package dan200.computercraft.client.render.text;
+
+import dan200.computercraft.core.terminal.Terminal;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long it takes {@link DirectFixedWidthFontRenderer} to emit the quads for a monitor, comparing drawing
+ * the whole terminal against redrawing a single row.
+ * <p>
+ * This writes directly to a {@link ByteBuffer}, and so does not need a GPU (or even a running Minecraft client).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@State(Scope.Thread)
+public class QuadEmitterBenchmark {
+    /**
+     * The size of a terminal on an 8x6 monitor, with a text scale of 0.5.
+     */
+    private static final int WIDTH = 164, HEIGHT = 81;
+
+    private static final int QUAD_SIZE = 112;
+
+    private static final String HEX = "0123456789abcdef";
+
+    private final Terminal terminal = new Terminal(WIDTH, HEIGHT, true);
+    private DirectFixedWidthFontRenderer.ByteBufferEmitter emitter;
+    private int row;
+
+    public static void main(String[] args) throws RunnerException {
+        var opts = new OptionsBuilder()
+            .include(QuadEmitterBenchmark.class.getName() + "\\..*")
+            .build();
+        new Runner(opts).run();
+    }
+
+    @Setup
+    public void setup() {
+        var random = new Random(0);
+        for (var y = 0; y < HEIGHT; y++) {
+            var text = new StringBuilder(WIDTH);
+            var textColour = new StringBuilder(WIDTH);
+            var backgroundColour = new StringBuilder(WIDTH);
+            for (var x = 0; x < WIDTH; x++) {
+                text.append((char) (random.nextInt(8) == 0 ? ' ' : 32 + random.nextInt(95)));
+                textColour.append(HEX.charAt(random.nextInt(16)));
+                // Use runs of background colours, as is more typical of real programs.
+                backgroundColour.append(HEX.charAt((x / 8 + y) % 16));
+            }
+            terminal.setLine(y, text.toString(), textColour.toString(), backgroundColour.toString());
+        }
+
+        var rowQuads = DirectFixedWidthFontRenderer.getRowQuadCount(terminal);
+        var buffer = ByteBuffer.allocateDirect((HEIGHT + 2) * rowQuads * QUAD_SIZE).order(ByteOrder.nativeOrder());
+        emitter = new DirectFixedWidthFontRenderer.ByteBufferEmitter(buffer);
+    }
+
+    @Benchmark
+    public void drawTerminal(Blackhole blackhole) {
+        var buffer = emitter.buffer();
+
+        buffer.clear();
+        DirectFixedWidthFontRenderer.drawTerminalBackground(emitter, 0, 0, terminal, 1, 1, 1, 1);
+        blackhole.consume(buffer.position());
+
+        buffer.clear();
+        DirectFixedWidthFontRenderer.drawTerminalForeground(emitter, 0, 0, terminal);
+        DirectFixedWidthFontRenderer.drawCursor(emitter, 0, 0, terminal);
+        blackhole.consume(buffer.position());
+    }
+
+    @Benchmark
+    public void drawRow(Blackhole blackhole) {
+        var buffer = emitter.buffer();
+        var rowQuads = DirectFixedWidthFontRenderer.getRowQuadCount(terminal);
+        row = (row + 1) % HEIGHT;
+
+        buffer.clear();
+        DirectFixedWidthFontRenderer.drawTerminalBackgroundRow(emitter, 0, 0, terminal, row, 1, 1, 1, 1);
+        DirectFixedWidthFontRenderer.drawEmptyQuads(emitter, rowQuads - buffer.position() / QUAD_SIZE);
+        blackhole.consume(buffer.position());
+
+        buffer.clear();
+        DirectFixedWidthFontRenderer.drawTerminalForegroundRow(emitter, 0, 0, terminal, row);
+        DirectFixedWidthFontRenderer.drawEmptyQuads(emitter, rowQuads - buffer.position() / QUAD_SIZE);
+        blackhole.consume(buffer.position());
+    }
+}
@@ -4,12 +4,15 @@
 
 package dan200.computercraft.impl.network.wired;
 
+import dan200.computercraft.api.network.Packet;
 import dan200.computercraft.api.network.wired.WiredNetwork;
 import dan200.computercraft.impl.network.wired.NetworkTest.NetworkElement;
+import dan200.computercraft.impl.network.wired.NetworkTest.PositionedElement;
 import dan200.computercraft.shared.util.DirectionUtil;
 import it.unimi.dsi.fastutil.objects.Object2IntMap;
 import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import net.minecraft.core.BlockPos;
+import net.minecraft.world.phys.Vec3;
 import org.openjdk.jmh.annotations.*;
 import org.openjdk.jmh.runner.Runner;
 import org.openjdk.jmh.runner.RunnerException;
@@ -72,6 +75,13 @@ public void connectAndRemove(SplitGrid connectedGrid) {
         assertNotEquals(left.getNetwork(), right.getNetwork());
     }
 
+    @Benchmark
+    @Warmup(time = 1, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 2, timeUnit = TimeUnit.SECONDS)
+    public void transmitPacket(TransmitGrid grid) {
+        grid.sender.getNode().transmitSameDimension(grid.packet, 64);
+    }
+
     /**
      * Create a grid where all nodes are connected to their neighbours.
      */
@@ -136,6 +146,35 @@ public void setup() {
         }
     }
 
+    /**
+     * Create a grid where all nodes are connected to their neighbours, and every node can receive packets.
+     */
+    @State(Scope.Thread)
+    public static class TransmitGrid {
+        PositionedElement sender;
+        Packet packet;
+
+        @Setup
+        public void setup() {
+            var grid = new Grid<WiredNodeImpl>(BRUTE_SIZE);
+            grid.map((existing, pos) -> new PositionedElement(Vec3.atCenterOf(pos)).getNode());
+
+            // Connect every node
+            grid.forEach((node, pos) -> {
+                for (var facing : DirectionUtil.FACINGS) {
+                    var other = grid.get(pos.relative(facing));
+                    if (other != null) node.connectTo(other);
+                }
+            });
+
+            var networks = countNetworks(grid);
+            if (networks.size() != 1) throw new AssertionError("Expected exactly one network.");
+
+            sender = (PositionedElement) Objects.requireNonNull(grid.get(BlockPos.ZERO)).element;
+            packet = new Packet(1, 1, "Hello", sender);
+        }
+    }
+
     private static Object2IntMap<WiredNetwork> countNetworks(Grid<WiredNodeImpl> grid) {
         Object2IntMap<WiredNetwork> networks = new Object2IntOpenHashMap<>();
         grid.forEach((node, pos) -> networks.put(node.network, networks.getOrDefault(node.network, 0) + 1));
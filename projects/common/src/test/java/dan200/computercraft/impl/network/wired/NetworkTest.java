@@ -4,6 +4,8 @@
 
 package dan200.computercraft.impl.network.wired;
 
+import dan200.computercraft.api.network.Packet;
+import dan200.computercraft.api.network.PacketReceiver;
 import dan200.computercraft.api.network.wired.WiredElement;
 import dan200.computercraft.api.network.wired.WiredNetwork;
 import dan200.computercraft.api.network.wired.WiredNetworkChange;
@@ -223,6 +225,37 @@ public void testRemoveSplit() {
         assertEquals(Set.of(), cE.allPeripherals().keySet(), "C's peripheral set should be empty");
     }
 
+    @Test
+    public void testTransmitPacket() {
+        PositionedElement
+            aE = new PositionedElement(new Vec3(0, 0, 0)),
+            bE = new PositionedElement(new Vec3(1, 0, 0)),
+            cE = new PositionedElement(new Vec3(2, 0, 0));
+
+        aE.getNode().connectTo(bE.getNode());
+        bE.getNode().connectTo(cE.getNode());
+
+        aE.transmit();
+        assertEquals(0, aE.lastDistance, 1e-9, "A receives its own packet");
+        assertEquals(1, bE.lastDistance, 1e-9, "Packet travels from A to B");
+        assertEquals(2, cE.lastDistance, 1e-9, "Packet travels from A to C via B");
+        assertEquals(1, cE.received, "C receives the packet once");
+
+        // Moving a node should invalidate any cached distances.
+        cE.position = new Vec3(1, 3, 0);
+        aE.transmit();
+        assertEquals(4, cE.lastDistance, 1e-9, "Packet travels from A to C via B after moving");
+
+        // As should adding or removing connections.
+        aE.getNode().connectTo(cE.getNode());
+        aE.transmit();
+        assertEquals(Math.sqrt(10), cE.lastDistance, 1e-9, "Packet travels directly from A to C");
+
+        aE.getNode().disconnectFrom(cE.getNode());
+        aE.transmit();
+        assertEquals(4, cE.lastDistance, 1e-9, "Packet travels from A to C via B after disconnecting");
+    }
+
     static final class NetworkElement implements WiredElement {
         private final String id;
         private final WiredNodeImpl node;
@@ -281,6 +314,67 @@ public Map<String, IPeripheral> allPeripherals() {
         }
     }
 
+    /**
+     * A {@link WiredElement} with a position, which records the number and distance of any packets it receives.
+     */
+    static final class PositionedElement implements WiredElement, PacketReceiver {
+        private final WiredNodeImpl node;
+        Vec3 position;
+        int received;
+        double lastDistance = Double.NaN;
+
+        PositionedElement(Vec3 position) {
+            this.position = position;
+            node = new WiredNodeImpl(this);
+            node.addReceiver(this);
+        }
+
+        void transmit() {
+            node.transmitSameDimension(new Packet(1, 1, "Hello", this), 100);
+        }
+
+        @Override
+        public WiredNodeImpl getNode() {
+            return node;
+        }
+
+        @Override
+        public String getSenderID() {
+            return "positioned";
+        }
+
+        @Override
+        public @Nullable Level getLevel() {
+            return null;
+        }
+
+        @Override
+        public Vec3 getPosition() {
+            return position;
+        }
+
+        @Override
+        public double getRange() {
+            return 100;
+        }
+
+        @Override
+        public boolean isInterdimensional() {
+            return false;
+        }
+
+        @Override
+        public void receiveSameDimension(Packet packet, double distance) {
+            received++;
+            lastDistance = distance;
+        }
+
+        @Override
+        public void receiveDifferentDimension(Packet packet) {
+            throw new IllegalStateException("Unexpected packet from a different dimension");
+        }
+    }
+
     private static final class NetworkPeripheral implements IPeripheral {
         @Override
         public String getType() {
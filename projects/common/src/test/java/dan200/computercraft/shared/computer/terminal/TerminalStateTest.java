@@ -11,8 +11,9 @@
 
 import java.util.Random;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.jupiter.api.Assertions.*;
 
 /**
  * Tests {@link TerminalState} round tripping works as expected.
@@ -29,6 +30,48 @@ public void testRoundTrip() {
         assertEquals(0, buffer.readableBytes());
     }
 
+    @RepeatedTest(5)
+    public void testChangesRoundTrip() {
+        var terminal = randomTerminal();
+
+        // The first set of changes is a full snapshot.
+        var initial = TerminalState.createChanges(terminal);
+        assertFalse(initial.isChanges(), "Initial state should be a full snapshot");
+        var copy = initial.create();
+
+        terminal.setCursorPos(3, 2);
+        terminal.write("Hello");
+        terminal.getPalette().setColour(4, 0.5, 0.25, 0.75);
+
+        var changes = TerminalState.createChanges(terminal);
+        assertTrue(changes.isChanges(), "Should only send changes");
+        assertThat("Changes should be smaller than a full snapshot", changes.size(), lessThan(initial.size()));
+
+        var buffer = new FriendlyByteBuf(Unpooled.directBuffer());
+        changes.write(buffer);
+        new TerminalState(buffer).apply(copy);
+        assertEquals(0, buffer.readableBytes());
+
+        checkEqual(terminal, copy);
+        assertArrayEquals(terminal.getPalette().getColour(4), copy.getPalette().getColour(4), 1 / 255.0);
+    }
+
+    @RepeatedTest(5)
+    public void testChangesAfterResize() {
+        var terminal = randomTerminal();
+        var copy = TerminalState.createChanges(terminal).create();
+
+        terminal.resize(12, 6);
+        terminal.setCursorPos(0, 5);
+        terminal.write("Resized");
+
+        var changes = TerminalState.createChanges(terminal);
+        assertFalse(changes.isChanges(), "Resizing should send a full snapshot");
+        changes.apply(copy);
+
+        checkEqual(terminal, copy);
+    }
+
     private static NetworkedTerminal randomTerminal() {
         var random = new Random();
         var terminal = new NetworkedTerminal(10, 5, true);
@@ -0,0 +1,77 @@
+// SPDX-FileCopyrightText: 2024 The CC: Tweaked Developers
+//
+// SPDX-License-Identifier: MPL-2.0
+
+package dan200.computercraft.shared.details;
+
+import dan200.computercraft.test.shared.WithMinecraft;
+import net.minecraft.network.chat.Component;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+import net.minecraft.world.item.enchantment.Enchantments;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@WithMinecraft
+public class ItemDetailsTest {
+    private long misses;
+
+    @BeforeEach
+    public void setup() {
+        ItemDetails.clearCache();
+        misses = ItemDetails.getCacheStats().missCount();
+    }
+
+    @Test
+    public void testReusesDetails() {
+        var first = getDetails(new ItemStack(Items.DIAMOND, 3));
+        var second = getDetails(new ItemStack(Items.DIAMOND, 5));
+
+        assertEquals(1, ItemDetails.getCacheStats().missCount() - misses, "Cache misses");
+        assertEquals(3, first.get("count"));
+        assertEquals(5, second.get("count"));
+        assertEquals(first.get("displayName"), second.get("displayName"));
+    }
+
+    @Test
+    public void testDetailsChangeWithNbt() {
+        var stack = new ItemStack(Items.DIAMOND);
+        var original = getDetails(stack);
+
+        stack.setHoverName(Component.literal("Shiny"));
+        var renamed = getDetails(stack);
+
+        assertEquals("Diamond", original.get("displayName"));
+        assertEquals("Shiny", renamed.get("displayName"));
+        assertEquals(2, ItemDetails.getCacheStats().missCount() - misses, "Cache misses");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testDetailsAreImmutable() {
+        var stack = new ItemStack(Items.DIAMOND_SWORD);
+        stack.enchant(Enchantments.SHARPNESS, 1);
+        var details = getDetails(stack);
+
+        var tags = (Map<String, Object>) details.get("tags");
+        assertThrows(UnsupportedOperationException.class, () -> tags.put("computercraft:test", true));
+
+        var enchantments = (List<Map<String, Object>>) details.get("enchantments");
+        assertThrows(UnsupportedOperationException.class, enchantments::clear);
+        assertThrows(UnsupportedOperationException.class, () -> enchantments.get(0).put("level", 2));
+    }
+
+    private static Map<String, Object> getDetails(ItemStack stack) {
+        Map<String, Object> details = new HashMap<>();
+        ItemDetails.fillBasic(details, stack);
+        ItemDetails.fill(details, stack);
+        return details;
+    }
+}
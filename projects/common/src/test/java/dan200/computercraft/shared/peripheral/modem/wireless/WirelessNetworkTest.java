@@ -0,0 +1,288 @@
+// SPDX-FileCopyrightText: 2024 The CC: Tweaked Developers
+//
+// SPDX-License-Identifier: MPL-2.0
+
+package dan200.computercraft.shared.peripheral.modem.wireless;
+
+import dan200.computercraft.api.lua.LuaException;
+import dan200.computercraft.api.network.Packet;
+import dan200.computercraft.api.network.PacketNetwork;
+import dan200.computercraft.api.network.PacketReceiver;
+import dan200.computercraft.api.peripheral.IPeripheral;
+import dan200.computercraft.shared.peripheral.modem.ModemPeripheral;
+import dan200.computercraft.shared.peripheral.modem.ModemState;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.phys.Vec3;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class WirelessNetworkTest {
+    private final WirelessNetwork network = new WirelessNetwork();
+    private final TestModem sender = new TestModem("sender");
+
+    @Test
+    public void testOnlyTransmitsToOpenChannel() throws LuaException {
+        TestModem a = new TestModem("a"), b = new TestModem("b"), c = new TestModem("c");
+        a.open(1);
+        b.open(2);
+        network.addReceiver(a);
+        network.addReceiver(b);
+        network.addReceiver(c);
+
+        transmit(1);
+        assertEquals(1, a.received.size(), "A is listening on channel 1");
+        assertEquals(0, b.received.size(), "B is only listening on channel 2");
+        assertEquals(0, c.received.size(), "C has no channels open");
+
+        transmit(2);
+        assertEquals(1, a.received.size(), "A is not listening on channel 2");
+        assertEquals(1, b.received.size(), "B is listening on channel 2");
+        assertEquals(0, c.received.size(), "C has no channels open");
+    }
+
+    @Test
+    public void testOpenCloseReopen() throws LuaException {
+        var modem = new TestModem("modem");
+        network.addReceiver(modem);
+
+        modem.open(1);
+        transmit(1);
+        assertEquals(1, modem.received.size(), "Receives once channel is opened");
+
+        modem.close(1);
+        transmit(1);
+        assertEquals(1, modem.received.size(), "Does not receive once channel is closed");
+
+        modem.open(1);
+        modem.open(2);
+        transmit(1);
+        transmit(2);
+        assertEquals(3, modem.received.size(), "Receives once channels are reopened");
+
+        modem.closeAll();
+        transmit(1);
+        transmit(2);
+        assertEquals(3, modem.received.size(), "Does not receive once all channels are closed");
+    }
+
+    @Test
+    public void testAddAndRemoveReceiver() throws LuaException {
+        var modem = new TestModem("modem");
+        modem.open(1);
+
+        network.addReceiver(modem);
+        transmit(1);
+        assertEquals(1, modem.received.size(), "Channels opened before joining the network are used");
+
+        network.removeReceiver(modem);
+        transmit(1);
+        assertEquals(1, modem.received.size(), "Does not receive once removed from the network");
+
+        // Changing channels while not on the network shouldn't affect anything.
+        modem.close(1);
+        modem.open(2);
+        transmit(1);
+        transmit(2);
+        assertEquals(1, modem.received.size(), "Does not receive while not on the network");
+
+        network.addReceiver(modem);
+        transmit(1);
+        transmit(2);
+        assertEquals(2, modem.received.size(), "Receives on the new channel once re-added");
+    }
+
+    @Test
+    public void testRemoveDuringTransmit() throws LuaException {
+        TestModem a = new TestModem("a"), b = new TestModem("b"), c = new TestModem("c");
+        var modems = List.of(a, b, c);
+        for (var modem : modems) {
+            modem.open(1);
+            network.addReceiver(modem);
+        }
+
+        // Remove every modem (including the one currently receiving) while the packet is being delivered. The network
+        // may still deliver this packet to some of the removed modems, but should not deliver any later ones.
+        Consumer<Packet> remove = packet -> {
+            for (var modem : modems) network.removeReceiver(modem);
+        };
+        for (var modem : modems) modem.onReceive = remove;
+
+        transmit(1);
+        var received = countReceived(modems);
+        assertTrue(received >= 1, "At least one modem should receive the packet");
+        for (var modem : modems) assertTrue(modem.received.size() <= 1, "Each modem receives the packet at most once");
+
+        transmit(1);
+        assertEquals(received, countReceived(modems), "No modems should receive packets once removed");
+    }
+
+    @Test
+    public void testCloseDuringTransmit() throws LuaException {
+        TestModem a = new TestModem("a"), b = new TestModem("b");
+        var modems = List.of(a, b);
+        for (var modem : modems) {
+            modem.open(1);
+            network.addReceiver(modem);
+        }
+
+        // Close channel 1 on both modems while the packet is being delivered, and open channel 2 on A.
+        Consumer<Packet> close = packet -> {
+            try {
+                a.close(1);
+                b.close(1);
+                a.open(2);
+            } catch (LuaException e) {
+                throw new IllegalStateException(e);
+            }
+        };
+        for (var modem : modems) modem.onReceive = close;
+
+        transmit(1);
+        var aReceived = a.received.size();
+        var bReceived = b.received.size();
+        assertTrue(aReceived + bReceived >= 1, "At least one modem should receive the packet");
+
+        transmit(1);
+        assertEquals(aReceived + bReceived, countReceived(modems), "No modems should receive on channel 1 once closed");
+
+        transmit(2);
+        assertEquals(aReceived + 1, a.received.size(), "A should receive on channel 2");
+        assertEquals(bReceived, b.received.size(), "B should not receive on channel 2");
+    }
+
+    @Test
+    public void testOtherReceiversGetEveryPacket() throws LuaException {
+        var modem = new TestModem("modem");
+        modem.open(1);
+        network.addReceiver(modem);
+
+        var receiver = new TestReceiver();
+        network.addReceiver(receiver);
+
+        transmit(1);
+        transmit(2);
+        assertEquals(1, modem.received.size(), "Modem only receives on channel 1");
+        assertEquals(2, receiver.received.size(), "Other receivers are sent every packet");
+
+        network.removeReceiver(receiver);
+        transmit(1);
+        assertEquals(2, receiver.received.size(), "Does not receive once removed from the network");
+    }
+
+    private void transmit(int channel) {
+        network.transmitSameDimension(new Packet(channel, channel, "Hello", sender), 64);
+    }
+
+    private static int countReceived(List<TestModem> modems) {
+        var count = 0;
+        for (var modem : modems) count += modem.received.size();
+        return count;
+    }
+
+    /**
+     * A modem which records every packet the network sends it, regardless of whether it has the channel open.
+     */
+    private final class TestModem extends ModemPeripheral {
+        private final String id;
+        final List<Packet> received = new ArrayList<>();
+        Consumer<Packet> onReceive = packet -> {
+        };
+
+        TestModem(String id) {
+            super(new ModemState());
+            this.id = id;
+        }
+
+        @Override
+        protected PacketNetwork getNetwork() {
+            return network;
+        }
+
+        @Override
+        public @Nullable Level getLevel() {
+            return null;
+        }
+
+        @Override
+        public Vec3 getPosition() {
+            return Vec3.ZERO;
+        }
+
+        @Override
+        public double getRange() {
+            return 64;
+        }
+
+        @Override
+        public boolean isInterdimensional() {
+            return false;
+        }
+
+        @Override
+        public String getSenderID() {
+            return id;
+        }
+
+        @Override
+        public void receiveSameDimension(Packet packet, double distance) {
+            received.add(packet);
+            onReceive.accept(packet);
+        }
+
+        @Override
+        public void receiveDifferentDimension(Packet packet) {
+            throw new IllegalStateException("Unexpected packet from a different dimension");
+        }
+
+        @Override
+        public boolean equals(@Nullable IPeripheral other) {
+            return this == other;
+        }
+
+        @Override
+        public String toString() {
+            return "TestModem{" + id + "}";
+        }
+    }
+
+    private static final class TestReceiver implements PacketReceiver {
+        final List<Packet> received = new ArrayList<>();
+
+        @Override
+        public @Nullable Level getLevel() {
+            return null;
+        }
+
+        @Override
+        public Vec3 getPosition() {
+            return Vec3.ZERO;
+        }
+
+        @Override
+        public double getRange() {
+            return 64;
+        }
+
+        @Override
+        public boolean isInterdimensional() {
+            return false;
+        }
+
+        @Override
+        public void receiveSameDimension(Packet packet, double distance) {
+            received.add(packet);
+        }
+
+        @Override
+        public void receiveDifferentDimension(Packet packet) {
+            throw new IllegalStateException("Unexpected packet from a different dimension");
+        }
+    }
+}
@@ -13,6 +13,7 @@
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 
 class DfpwmStateTest {
     @Test
@@ -32,4 +33,24 @@ public void testEncoder() throws LuaException {
             contents
         );
     }
+
+    @Test
+    public void testEncodedAudioContinuesState() throws LuaException {
+        Map<Object, Object> inputTbl = new HashMap<>();
+        for (var i = 0; i < 1024; i++) inputTbl.put((double) (i + 1), (int) (Math.sin(i / 10.0) * 100));
+        var input = new ObjectLuaTable(inputTbl);
+
+        var encoder = new DfpwmState();
+        encoder.pushBuffer(input, 1024, Optional.empty());
+        var first = encoder.pullPending(0);
+        encoder.pushBuffer(input, 1024, Optional.empty());
+        var second = encoder.pullPending(0);
+
+        // Passing the first chunk through as-is should leave us in the same state as if we'd encoded it ourselves.
+        var passthrough = new DfpwmState();
+        passthrough.pushEncoded(first.audio(), Optional.empty());
+        assertEquals(first, passthrough.pullPending(0));
+        passthrough.pushBuffer(input, 1024, Optional.empty());
+        assertEquals(second, passthrough.pullPending(0));
+    }
 }
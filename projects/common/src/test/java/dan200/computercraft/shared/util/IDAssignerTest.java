@@ -0,0 +1,85 @@
+// SPDX-FileCopyrightText: 2024 The CC: Tweaked Developers
+//
+// SPDX-License-Identifier: MPL-2.0
+
+package dan200.computercraft.shared.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class IDAssignerTest {
+    @TempDir
+    Path dir;
+
+    private final Queue<Runnable> tasks = new ArrayDeque<>();
+
+    @Test
+    public void testAssignsSequentialIds() {
+        var assigner = new IDAssigner(dir.resolve("ids.json"), tasks::add);
+        for (var i = 0; i < 100; i++) {
+            assertEquals(i, assigner.getNextId("computer"));
+            runTasks();
+        }
+
+        assertEquals(0, assigner.getNextId("disk"));
+    }
+
+    @Test
+    public void testContinuesAfterClose() throws IOException {
+        var file = dir.resolve("ids.json");
+
+        var assigner = new IDAssigner(file, tasks::add);
+        for (var i = 0; i < 5; i++) assigner.getNextId("computer");
+        assigner.close();
+        runTasks();
+
+        assertThat(Files.readString(file), containsString("\"computer\": 4"));
+        assertEquals(5, new IDAssigner(file, tasks::add).getNextId("computer"));
+    }
+
+    @Test
+    public void testSavesIdsAssignedAfterClose() throws IOException {
+        var file = dir.resolve("ids.json");
+
+        var assigner = new IDAssigner(file, tasks::add);
+        for (var i = 0; i < 5; i++) assigner.getNextId("computer");
+        assigner.close();
+
+        assertEquals(5, assigner.getNextId("computer"));
+        assertEquals(0, assigner.getNextId("disk"));
+        assertEquals(0, tasks.size(), "No background saves are queued once closed");
+
+        assertThat(Files.readString(file), containsString("\"computer\": 5"));
+        assertThat(Files.readString(file), containsString("\"disk\": 0"));
+        assertEquals(6, new IDAssigner(file, tasks::add).getNextId("computer"));
+    }
+
+    @Test
+    public void testNeverReusesIdsAfterCrash() {
+        var file = dir.resolve("ids.json");
+
+        // Assign lots of IDs without ever running background saves, or closing the assigner.
+        var assigner = new IDAssigner(file, tasks::add);
+        var last = -1;
+        for (var i = 0; i < 100; i++) last = assigner.getNextId("computer");
+        tasks.clear();
+
+        assertThat(new IDAssigner(file, tasks::add).getNextId("computer"), greaterThan(last));
+    }
+
+    private void runTasks() {
+        Runnable task;
+        while ((task = tasks.poll()) != null) task.run();
+    }
+}
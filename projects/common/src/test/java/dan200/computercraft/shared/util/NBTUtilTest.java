@@ -15,6 +15,7 @@
 import java.io.DataOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.List;
@@ -89,6 +90,16 @@ private static CompoundTag makeCompoundTag(boolean grow) {
         return nbt;
     }
 
+    @Test
+    public void testSizeMatchesSerialisedTag() throws IOException {
+        assertEquals(0, NBTUtil.getNBTSize(null));
+
+        var tag = makeCompoundTag(false);
+        var output = new DataOutputStream(OutputStream.nullOutputStream());
+        NbtIo.write(tag, output);
+        assertEquals(output.size(), NBTUtil.getNBTSize(tag));
+    }
+
     private static ListTag makeListTag(boolean reverse) {
         var list = new ListTag();
 
@@ -0,0 +1,21 @@
+// SPDX-FileCopyrightText: 2024 The CC: Tweaked Developers
+//
+// SPDX-License-Identifier: MPL-2.0
+
+package dan200.computercraft.gametest.core;
+
+import dan200.computercraft.shared.computer.blocks.AbstractComputerBlockEntity;
+
+/**
+ * Counts how many times a computer has read its redstone inputs from the world.
+ * <p>
+ * This is implemented by {@link AbstractComputerBlockEntity} via a mixin.
+ */
+public interface RedstoneInputCounter {
+    /**
+     * Get the number of redstone inputs this computer has read.
+     *
+     * @return The number of times {@code updateRedstoneInput} has been called.
+     */
+    int computercraft$getRedstoneInputReads();
+}
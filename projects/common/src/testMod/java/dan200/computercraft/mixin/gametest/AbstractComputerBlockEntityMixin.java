@@ -0,0 +1,33 @@
+// SPDX-FileCopyrightText: 2024 The CC: Tweaked Developers
+//
+// SPDX-License-Identifier: MPL-2.0
+
+package dan200.computercraft.mixin.gametest;
+
+import dan200.computercraft.gametest.core.RedstoneInputCounter;
+import dan200.computercraft.shared.computer.blocks.AbstractComputerBlockEntity;
+import dan200.computercraft.shared.computer.core.ServerComputer;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+@Mixin(AbstractComputerBlockEntity.class)
+class AbstractComputerBlockEntityMixin implements RedstoneInputCounter {
+    @Unique
+    private int computercraft$redstoneInputReads;
+
+    @Inject(method = "updateRedstoneInput", at = @At("HEAD"), remap = false)
+    @SuppressWarnings("unused")
+    private void onUpdateRedstoneInput(ServerComputer computer, Direction dir, BlockPos targetPos, CallbackInfo ci) {
+        computercraft$redstoneInputReads++;
+    }
+
+    @Override
+    public int computercraft$getRedstoneInputReads() {
+        return computercraft$redstoneInputReads;
+    }
+}
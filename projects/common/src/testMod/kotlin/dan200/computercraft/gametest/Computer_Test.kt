@@ -10,8 +10,11 @@
 import dan200.computercraft.core.apis.TermAPI
 import dan200.computercraft.core.computer.ComputerSide
 import dan200.computercraft.gametest.api.*
+import dan200.computercraft.gametest.core.RedstoneInputCounter
 import dan200.computercraft.shared.ModRegistry
+import dan200.computercraft.shared.computer.apis.CommandAPI
 import dan200.computercraft.test.core.assertArrayEquals
+import dan200.computercraft.test.core.computer.LuaTaskContext
 import dan200.computercraft.test.core.computer.getApi
 import net.minecraft.core.BlockPos
 import net.minecraft.core.Direction
@@ -25,6 +28,7 @@
 import org.junit.jupiter.api.Assertions.assertEquals
 import org.junit.jupiter.api.Assertions.assertTrue
 import org.lwjgl.glfw.GLFW
+import java.util.*
 import kotlin.time.Duration.Companion.milliseconds
 
 class Computer_Test {
@@ -93,6 +97,54 @@ fun Self_output_update(context: GameTestHelper) = context.sequence {
         }
     }
 
+    /**
+     * Check that several redstone inputs changing in the same tick are all read, and only queue a single `redstone`
+     * event.
+     *
+     * Each side is changed several times, to check that its input is only read from the world once (see
+     * [RedstoneInputCounter]).
+     */
+    @GameTest
+    fun Coalesces_redstone_inputs(context: GameTestHelper) = context.sequence {
+        val computerPos = BlockPos(2, 1, 2)
+        val inputs = listOf(BlockPos(2, 2, 2), BlockPos(2, 0, 2), BlockPos(2, 1, 3))
+
+        var started = false
+        var received = false
+        var reads = 0
+        thenStartComputer {
+            // thenOnComputer discards events, so instead we need to track our state transitions.
+            started = true
+
+            pullEvent("redstone")
+            val redstone = getApi<RedstoneAPI>()
+            assertEquals(true, redstone.getInput(ComputerSide.TOP), "Top input should be on")
+            assertEquals(true, redstone.getInput(ComputerSide.BOTTOM), "Bottom input should be on")
+            assertEquals(true, redstone.getInput(ComputerSide.BACK), "Back input should be on")
+
+            assertEquals(null, pullEventOrTimeout(200.milliseconds, "redstone"), "Should only receive one redstone event")
+            received = true
+        }
+
+        thenWaitUntil { context.assertTrue(started, "Computer not started") }
+        thenExecute {
+            reads = context.getRedstoneInputReads(computerPos)
+            for (pos in inputs) {
+                context.setBlock(pos, Blocks.REDSTONE_BLOCK)
+                context.setBlock(pos, Blocks.AIR)
+                context.setBlock(pos, Blocks.REDSTONE_BLOCK)
+            }
+        }
+        thenWaitUntil { context.assertTrue(received, "Computer has not received redstone event") }
+        thenExecute {
+            assertEquals(
+                inputs.size,
+                context.getRedstoneInputReads(computerPos) - reads,
+                "Each input should only be read once",
+            )
+        }
+    }
+
     /**
      * Check computers and turtles expose peripherals.
      */
@@ -171,4 +223,56 @@ fun Open_on_client(context: GameTestHelper) = context.sequence {
             )
         }
     }
+
+    /**
+     * Check [CommandAPI.getBlockPalette] shares palette entries between identical blocks, but not block entities.
+     */
+    @GameTest
+    fun Get_block_palette(context: GameTestHelper) = context.sequence {
+        thenOnComputer {
+            val (x, y, z) = getApi<CommandAPI>().blockPosition.map { it as Int }
+
+            // Air, a chest, this computer, and then air again.
+            val (palette, blocks) = getBlockPalette(x - 2, y, z, x + 1, y, z)
+            val entries = palette as List<*>
+            assertEquals(
+                listOf("minecraft:air", "minecraft:chest", "computercraft:computer_command"),
+                entries.map { (it as Map<*, *>)["name"] },
+                "Palette has one entry for air and one for each block entity",
+            )
+            assertTrue((entries[1] as Map<*, *>).containsKey("nbt"), "Block entities include their NBT")
+            assertEquals(listOf(1, 2, 3, 1), blocks, "Blocks are indices into the palette")
+        }
+    }
+
+    /**
+     * Check [CommandAPI.getBlockPalette] rejects areas which would be expensive to query.
+     */
+    @GameTest
+    fun Get_block_palette_limits(context: GameTestHelper) = context.sequence {
+        thenOnComputer {
+            val (x, y, z) = getApi<CommandAPI>().blockPosition.map { it as Int }
+
+            val tooManyChunks = runCatching { getBlockPalette(x, y, z, x + 4095, y, z) }.exceptionOrNull()
+            assertEquals("Too many chunks", tooManyChunks?.message, "A long, thin area is rejected")
+
+            val notLoaded = runCatching { getBlockPalette(x + 100_000, y, z, x + 100_000, y, z) }.exceptionOrNull()
+            assertEquals("Area is not loaded", notLoaded?.message, "An unloaded area is rejected")
+        }
+    }
 }
+
+/**
+ * Call [CommandAPI.getBlockPalette] on the main thread, as it would be from Lua.
+ */
+private suspend fun LuaTaskContext.getBlockPalette(
+    minX: Int, minY: Int, minZ: Int, maxX: Int, maxY: Int, maxZ: Int,
+): Array<out Any?> = context.executeMainThreadTask {
+    getApi<CommandAPI>().getBlockPalette(minX, minY, minZ, maxX, maxY, maxZ, Optional.empty())
+}.await()!!
+
+/**
+ * Get the number of times the computer at [pos] has read its redstone inputs.
+ */
+private fun GameTestHelper.getRedstoneInputReads(pos: BlockPos): Int =
+    (getBlockEntity(pos) as RedstoneInputCounter).`computercraft$getRedstoneInputReads`()
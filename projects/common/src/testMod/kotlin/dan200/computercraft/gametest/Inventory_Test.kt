@@ -85,4 +85,22 @@ fun Double_chest_size(helper: GameTestHelper) = helper.sequence {
                 .assertArrayEquals(32, message = "Moved 32 items into a double chest")
         }
     }
+
+    /**
+     * Ensures several transfers can be performed in one call.
+     */
+    @GameTest
+    fun Transfers_items(helper: GameTestHelper) = helper.sequence {
+        thenOnComputer {
+            val transfers = mapOf(
+                1.0 to mapOf("to" to "right", "slot" to 1.0, "count" to 8.0),
+                2.0 to mapOf("to" to "right", "slot" to 1.0, "count" to 8.0),
+            )
+            getApi<PeripheralAPI>().call(context, ObjectArguments("left", "transferItems", transfers)).await()
+                .assertArrayEquals(listOf(8, 8), message = "Performs both transfers")
+        }
+        thenExecute {
+            helper.assertContainerExactly(BlockPos(4, 2, 2), listOf(ItemStack(Items.DIRT, 16)))
+        }
+    }
 }
@@ -28,6 +28,7 @@
 import dan200.computercraft.test.core.computer.LuaTaskContext
 import dan200.computercraft.test.core.computer.getApi
 import net.minecraft.core.BlockPos
+import net.minecraft.core.Direction
 import net.minecraft.gametest.framework.GameTest
 import net.minecraft.gametest.framework.GameTestHelper
 import net.minecraft.world.entity.EntityType
@@ -518,6 +519,53 @@ fun Move_preserves_state(helper: GameTestHelper) = helper.sequence {
         }
     }
 
+    /**
+     * Test several commands can be run in a single batch.
+     */
+    @GameTest
+    fun Batch(helper: GameTestHelper) = helper.sequence {
+        thenOnComputer {
+            val commands = mapOf(1.0 to "turnLeft", 2.0 to "turnRight", 3.0 to "forward")
+            turtle.batch(commands).await().assertArrayEquals(true, message = "Ran all commands")
+        }
+        thenExecute {
+            helper.assertContainerExactly(BlockPos(2, 2, 3), listOf(ItemStack(Items.DIRT, 32)))
+
+            val turtle = helper.getBlockEntity(BlockPos(2, 2, 3), ModRegistry.BlockEntities.TURTLE_NORMAL.get())
+            assertEquals(79, turtle.access.fuelLevel)
+        }
+    }
+
+    /**
+     * Test a batch stops at the first command which fails, returning the error and the index of that command.
+     */
+    @GameTest
+    fun Batch_failure(helper: GameTestHelper) = helper.sequence {
+        thenOnComputer {
+            val commands = mapOf(
+                1.0 to "turnLeft", 2.0 to "turnRight", 3.0 to "forward", 4.0 to "turnLeft", 5.0 to "placeUp",
+            )
+            turtle.batch(commands).await()
+                .assertArrayEquals(false, "Movement obstructed", 3, message = "Failed on the third command")
+        }
+        thenExecute {
+            // The commands after the failing one should not have run.
+            val turtle = helper.getBlockEntity(BlockPos(2, 2, 2), ModRegistry.BlockEntities.TURTLE_NORMAL.get())
+            assertEquals(Direction.SOUTH, turtle.access.direction, "Turtle has not turned")
+            helper.assertBlockPresent(Blocks.AIR, BlockPos(2, 3, 2))
+            helper.assertContainerExactly(BlockPos(2, 2, 2), listOf(ItemStack(Items.DIRT, 32)))
+            assertEquals(80, turtle.access.fuelLevel)
+        }
+        thenOnComputer {
+            // And later commands are run as normal.
+            turtle.turnLeft().await().assertArrayEquals(true, message = "Turned left")
+        }
+        thenExecute {
+            val turtle = helper.getBlockEntity(BlockPos(2, 2, 2), ModRegistry.BlockEntities.TURTLE_NORMAL.get())
+            assertEquals(Direction.EAST, turtle.access.direction, "Turtle has turned")
+        }
+    }
+
     /**
      * Test turtles are not obstructed by plants and instead replace them.
      */
@@ -557,6 +605,33 @@ fun Move_obstruct(helper: GameTestHelper) = helper.sequence {
         }
     }
 
+    /**
+     * Test turtles can query the blocks around them.
+     */
+    @GameTest
+    fun Query_block(helper: GameTestHelper) = helper.sequence {
+        thenOnComputer {
+            turtle.detect(context).await().assertArrayEquals(true, message = "Block is present")
+            turtle.detectUp(context).await().assertArrayEquals(false, message = "No block above")
+
+            val (hasBlock, details) = turtle.inspect(context).await()!!
+            assertEquals(true, hasBlock, "Block is present")
+            assertEquals("minecraft:dirt", (details as Map<*, *>)["name"], "Inspected block is dirt")
+        }
+    }
+
+    /**
+     * Test turtle queries wait for any commands which were queued before them.
+     */
+    @GameTest
+    fun Query_waits_for_commands(helper: GameTestHelper) = helper.sequence {
+        thenOnComputer {
+            // Queue a turn without waiting for it, as another coroutine would.
+            turtle.turnLeft()
+            turtle.detect(context).await().assertArrayEquals(false, message = "Detects after turning")
+        }
+    }
+
     /**
      * Test a turtle can attack an entity and capture its drops.
      */
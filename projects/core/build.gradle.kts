@@ -36,6 +36,9 @@
     testImplementation(libs.bundles.test)
     testRuntimeOnly(libs.bundles.testRuntime)
     testRuntimeOnly(libs.slf4j.simple)
+
+    testImplementation(libs.jmh)
+    testAnnotationProcessor(libs.jmh.processor)
 }
 
 tasks.processResources {
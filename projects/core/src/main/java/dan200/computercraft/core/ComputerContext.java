@@ -11,8 +11,10 @@
 import dan200.computercraft.core.computer.GlobalEnvironment;
 import dan200.computercraft.core.computer.computerthread.ComputerScheduler;
 import dan200.computercraft.core.computer.computerthread.ComputerThread;
+import dan200.computercraft.core.computer.computerthread.WorkStealingComputerThread;
 import dan200.computercraft.core.computer.mainthread.MainThreadScheduler;
 import dan200.computercraft.core.computer.mainthread.NoWorkMainThreadScheduler;
+import dan200.computercraft.core.lua.ChunkCache;
 import dan200.computercraft.core.lua.CobaltLuaMachine;
 import dan200.computercraft.core.lua.ILuaMachine;
 import dan200.computercraft.core.lua.MachineEnvironment;
@@ -38,6 +40,7 @@ public final class ComputerContext {
     private final List<ILuaAPIFactory> apiFactories;
     private final MethodSupplier<LuaMethod> luaMethods;
     private final MethodSupplier<PeripheralMethod> peripheralMethods;
+    private final ChunkCache chunkCache = new ChunkCache();
 
     ComputerContext(
         GlobalEnvironment globalEnvironment, ComputerScheduler computerScheduler,
@@ -119,6 +122,16 @@ public MethodSupplier<PeripheralMethod> peripheralMethods() {
         return peripheralMethods;
     }
 
+    /**
+     * Get the cache of compiled Lua chunks, shared between all computers in this context.
+     *
+     * @return The compiled chunk cache.
+     * @see MachineEnvironment#chunkCache()
+     */
+    public ChunkCache chunkCache() {
+        return chunkCache;
+    }
+
     /**
      * Close the current {@link ComputerContext}, disposing of any resources inside.
      *
@@ -185,6 +198,22 @@ public Builder computerThreads(int threads) {
             return computerScheduler(new ComputerThread(threads));
         }
 
+        /**
+         * Set the {@link #computerScheduler()} to use {@link WorkStealingComputerThread} with a given number of
+         * threads.
+         * <p>
+         * This gives each thread its own run queue, which reduces lock contention when running large numbers of
+         * computers across many threads, at the cost of fairness only being approximately global.
+         *
+         * @param threads The number of threads to use.
+         * @return {@code this}, for chaining
+         * @see ComputerContext#computerScheduler()
+         */
+        public Builder workStealingComputerThreads(int threads) {
+            if (threads < 1) throw new IllegalArgumentException("Threads must be >= 1");
+            return computerScheduler(new WorkStealingComputerThread(threads));
+        }
+
         /**
          * Set the {@link ComputerScheduler} for this context.
          *
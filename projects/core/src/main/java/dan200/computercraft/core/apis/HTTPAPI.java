@@ -74,7 +74,7 @@ public final Object[] request(IArguments args) throws LuaException {
         String address, requestMethod;
         ByteBuffer postBody;
         Map<?, ?> headerTable;
-        boolean binary, redirect;
+        boolean binary, stream, redirect;
         Optional<Double> timeoutArg;
 
         if (args.get(0) instanceof Map) {
@@ -84,6 +84,7 @@ public final Object[] request(IArguments args) throws LuaException {
             postBody = postString == null ? null : LuaValues.encode(postString);
             headerTable = optTableField(options, "headers", Map.of());
             binary = optBooleanField(options, "binary", false);
+            stream = optBooleanField(options, "stream", false);
             requestMethod = optStringField(options, "method", null);
             redirect = optBooleanField(options, "redirect", true);
             timeoutArg = optRealField(options, "timeout");
@@ -93,6 +94,7 @@ public final Object[] request(IArguments args) throws LuaException {
             postBody = args.optBytes(1).orElse(null);
             headerTable = args.optTable(2, Map.of());
             binary = args.optBoolean(3, false);
+            stream = false;
             requestMethod = null;
             redirect = true;
             timeoutArg = Optional.empty();
@@ -113,7 +115,7 @@ public final Object[] request(IArguments args) throws LuaException {
 
         try {
             var uri = HttpRequest.checkUri(address);
-            var request = new HttpRequest(requests, apiEnvironment, address, postBody, headers, binary, redirect, timeout);
+            var request = new HttpRequest(requests, apiEnvironment, address, postBody, headers, binary, stream, redirect, timeout);
 
             // Make the request
             if (!request.queue(r -> r.request(uri, httpMethod))) {
@@ -149,16 +151,19 @@ public final Object[] websocket(IArguments args) throws LuaException {
         String address;
         Map<?, ?> headerTable;
         Optional<Double> timeoutArg;
+        boolean buffered;
 
         if (args.get(0) instanceof Map) {
             var options = args.getTable(0);
             address = getStringField(options, "url");
             headerTable = optTableField(options, "headers", Map.of());
             timeoutArg = optRealField(options, "timeout");
+            buffered = optBooleanField(options, "buffered", false);
         } else {
             address = args.getString(0);
             headerTable = args.optTable(1, Map.of());
             timeoutArg = Optional.empty();
+            buffered = false;
         }
 
         var headers = getHeaders(headerTable);
@@ -166,7 +171,7 @@ public final Object[] websocket(IArguments args) throws LuaException {
 
         try {
             var uri = WebsocketClient.parseUri(address);
-            if (!new Websocket(websockets, apiEnvironment, uri, address, headers, timeout).queue(Websocket::connect)) {
+            if (!new Websocket(websockets, apiEnvironment, uri, address, headers, buffered, timeout).queue(Websocket::connect)) {
                 throw new LuaException("Too many websockets already open");
             }
 
@@ -31,18 +31,21 @@ public class OSAPI implements ILuaAPI {
     private final IAPIEnvironment apiEnvironment;
 
     private final Int2ObjectMap<Alarm> alarms = new Int2ObjectOpenHashMap<>();
+    private final NavigableSet<Alarm> alarmQueue = new TreeSet<>(Alarm.ORDER);
     private int clock;
     private double time;
     private int day;
 
     private int nextAlarmToken = 0;
 
-    private record Alarm(double time, int day) implements Comparable<Alarm> {
-        @Override
-        public int compareTo(Alarm o) {
-            var t = day * 24.0 + time;
-            var ot = day * 24.0 + time;
-            return Double.compare(t, ot);
+    private record Alarm(int id, double time, int day) {
+        /**
+         * Orders alarms by when they go off, so we only need to look at the first alarm in {@link #alarmQueue}.
+         */
+        static final Comparator<Alarm> ORDER = Comparator.comparingDouble(Alarm::absoluteTime).thenComparingInt(Alarm::id);
+
+        double absoluteTime() {
+            return day * 24.0 + time;
         }
     }
 
@@ -63,6 +66,7 @@ public void startup() {
 
         synchronized (alarms) {
             alarms.clear();
+            alarmQueue.clear();
         }
     }
 
@@ -79,15 +83,10 @@ public void update() {
 
             if (time > previousTime || day > previousDay) {
                 var now = this.day * 24.0 + this.time;
-                Iterator<Int2ObjectMap.Entry<Alarm>> it = alarms.int2ObjectEntrySet().iterator();
-                while (it.hasNext()) {
-                    var entry = it.next();
-                    var alarm = entry.getValue();
-                    var t = alarm.day * 24.0 + alarm.time;
-                    if (now >= t) {
-                        apiEnvironment.queueEvent("alarm", entry.getIntKey());
-                        it.remove();
-                    }
+                while (!alarmQueue.isEmpty() && now >= alarmQueue.first().absoluteTime()) {
+                    var alarm = alarmQueue.pollFirst();
+                    alarms.remove(alarm.id());
+                    apiEnvironment.queueEvent("alarm", alarm.id());
                 }
             }
 
@@ -100,6 +99,7 @@ public void update() {
     public void shutdown() {
         synchronized (alarms) {
             alarms.clear();
+            alarmQueue.clear();
         }
     }
 
@@ -192,7 +192,10 @@ public final int setAlarm(double time) throws LuaException {
         if (time < 0.0 || time >= 24.0) throw new LuaException("Number out of range");
         synchronized (alarms) {
             var day = time > this.time ? this.day : this.day + 1;
-            alarms.put(nextAlarmToken, new Alarm(time, day));
+            var alarm = new Alarm(nextAlarmToken, time, day);
+            var existing = alarms.put(alarm.id(), alarm);
+            if (existing != null) alarmQueue.remove(existing);
+            alarmQueue.add(alarm);
             return nextAlarmToken++;
         }
     }
@@ -208,7 +211,8 @@ public final int setAlarm(double time) throws LuaException {
     @LuaFunction
     public final void cancelAlarm(int token) {
         synchronized (alarms) {
-            alarms.remove(token);
+            var alarm = alarms.remove(token);
+            if (alarm != null) alarmQueue.remove(alarm);
         }
     }
 
@@ -18,6 +18,7 @@
 import java.nio.channels.FileChannel;
 import java.nio.channels.SeekableByteChannel;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
@@ -33,6 +34,16 @@ public abstract class AbstractHandle {
 
     private final ByteBuffer single = ByteBuffer.allocate(1);
 
+    /**
+     * A buffer of bytes which have been read from the channel, but not yet consumed. The channel's position is at the
+     * end of this buffer, and so the handle's "logical" position is {@code channel.position() - readBuffer.remaining()}.
+     * <p>
+     * This allows us to read lines and single bytes without reading from the underlying channel for each byte. Any
+     * other operations which depend on the channel's position (seeking, writing) should call
+     * {@link #discardReadBuffer()} first.
+     */
+    private @Nullable ByteBuffer readBuffer;
+
     protected AbstractHandle(SeekableByteChannel channel, TrackingCloseable closeable, boolean binary) {
         this.channel = channel;
         this.closeable = closeable;
@@ -82,6 +93,7 @@ public Object[] seek(Optional<String> whence, Optional<Long> offset) throws LuaE
         checkOpen();
         long actualOffset = offset.orElse(0L);
         try {
+            discardReadBuffer();
             switch (whence.orElse("cur")) {
                 case "set" -> channel.position(actualOffset);
                 case "cur" -> channel.position(channel.position() + actualOffset);
@@ -116,25 +128,24 @@ public Object[] read(Optional<Integer> countArg) throws LuaException {
         checkOpen();
         try {
             if (binary && countArg.isEmpty()) {
-                single.clear();
-                var b = channel.read(single);
-                return b == -1 ? null : new Object[]{ single.get(0) & 0xFF };
+                var buffer = fillReadBuffer();
+                return buffer == null ? null : new Object[]{ buffer.get() & 0xFF };
             } else {
                 int count = countArg.orElse(1);
                 if (count < 0) throw new LuaException("Cannot read a negative number of bytes");
-                if (count == 0) return channel.position() >= channel.size() ? null : new Object[]{ "" };
+                if (count == 0) return position() >= channel.size() ? null : new Object[]{ "" };
 
                 if (count <= BUFFER_SIZE) {
                     var buffer = ByteBuffer.allocate(count);
 
-                    var read = channel.read(buffer);
+                    var read = read(buffer);
                     if (read < 0) return null;
                     buffer.flip();
                     return new Object[]{ buffer };
                 } else {
                     // Read the initial set of characters, failing if none are read.
                     var buffer = ByteBuffer.allocate(BUFFER_SIZE);
-                    var read = channel.read(buffer);
+                    var read = read(buffer);
                     if (read < 0) return null;
                     buffer.flip();
 
@@ -148,7 +159,7 @@ public Object[] read(Optional<Integer> countArg) throws LuaException {
                     parts.add(buffer);
                     while (read >= BUFFER_SIZE && totalRead < count) {
                         buffer = ByteBuffer.allocateDirect(Math.min(BUFFER_SIZE, count - totalRead));
-                        read = channel.read(buffer);
+                        read = read(buffer);
                         if (read < 0) break;
                         buffer.flip();
 
@@ -187,13 +198,13 @@ public Object[] readAll() throws LuaException {
         checkOpen();
         try {
             var expected = 32;
-            expected = Math.max(expected, (int) (channel.size() - channel.position()));
+            expected = Math.max(expected, (int) (channel.size() - position()));
             var stream = new ByteArrayOutputStream(expected);
 
             var buf = ByteBuffer.allocate(8192);
             while (true) {
                 buf.clear();
-                var r = channel.read(buf);
+                var r = read(buf);
                 if (r == -1) break;
 
                 stream.write(buf.array(), 0, r);
@@ -219,37 +230,51 @@ public Object[] readLine(Optional<Boolean> withTrailingArg) throws LuaException
         checkOpen();
         boolean withTrailing = withTrailingArg.orElse(false);
         try {
-            var stream = new ByteArrayOutputStream();
-
-            boolean readAnything = false, readRc = false;
+            ByteArrayOutputStream stream = null;
+            var readRc = false;
             while (true) {
-                single.clear();
-                var read = channel.read(single);
-                if (read <= 0) {
+                var buffer = fillReadBuffer();
+                if (buffer == null) {
                     // Nothing else to read, and we saw no \n. Return the array. If we saw a \r, then add it
                     // back.
+                    if (stream == null) return null;
                     if (readRc) stream.write('\r');
-                    return readAnything ? new Object[]{ stream.toByteArray() } : null;
+                    return new Object[]{ stream.toByteArray() };
                 }
 
-                readAnything = true;
+                var bytes = buffer.array();
+                var start = buffer.position();
+                var end = buffer.limit();
 
-                var chr = single.get(0);
-                if (chr == '\n') {
-                    if (withTrailing) {
-                        if (readRc) stream.write('\r');
-                        stream.write(chr);
-                    }
-                    return new Object[]{ stream.toByteArray() };
-                } else {
-                    // We want to skip \r\n, but obviously need to include cases where \r is not followed by \n.
-                    // Note, this behaviour is non-standard compliant (strictly speaking we should have no
-                    // special logic for \r), but we preserve compatibility with EncodedReadableHandle and
-                    // previous behaviour of the io library.
+                var newline = start;
+                while (newline < end && bytes[newline] != '\n') newline++;
+
+                if (newline == end) {
+                    // No \n in this chunk, so copy it all across and read some more. We hold back any trailing \r,
+                    // as we want to skip it if it is followed by \n.
+                    if (stream == null) stream = new ByteArrayOutputStream(end - start + 16);
                     if (readRc) stream.write('\r');
-                    readRc = chr == '\r';
-                    if (!readRc) stream.write(chr);
+                    readRc = bytes[end - 1] == '\r';
+                    stream.write(bytes, start, end - start - (readRc ? 1 : 0));
+                    buffer.position(end);
+                    continue;
                 }
+
+                buffer.position(newline + 1);
+
+                // We want to skip \r\n, but obviously need to include cases where \r is not followed by \n.
+                // Note, this behaviour is non-standard compliant (strictly speaking we should have no special logic
+                // for \r), but we preserve compatibility with EncodedReadableHandle and previous behaviour of the io
+                // library.
+                var lineEnd = withTrailing ? newline + 1
+                    : newline > start && bytes[newline - 1] == '\r' ? newline - 1 : newline;
+
+                // Avoid the intermediate stream if the whole line was in our buffer.
+                if (stream == null) return new Object[]{ Arrays.copyOfRange(bytes, start, lineEnd) };
+
+                if (readRc && (withTrailing || newline != start)) stream.write('\r');
+                stream.write(bytes, start, lineEnd - start);
+                return new Object[]{ stream.toByteArray() };
             }
         } catch (IOException e) {
             return null;
@@ -268,6 +293,7 @@ public Object[] readLine(Optional<Boolean> withTrailingArg) throws LuaException
     public void write(IArguments arguments) throws LuaException {
         checkOpen();
         try {
+            discardReadBuffer();
             var arg = arguments.get(0);
             if (binary && arg instanceof Number) {
                 var number = ((Number) arg).intValue();
@@ -289,6 +315,7 @@ public void write(IArguments arguments) throws LuaException {
     public void writeLine(Coerced<ByteBuffer> text) throws LuaException {
         checkOpen();
         try {
+            discardReadBuffer();
             channel.write(text.value());
             writeSingle((byte) '\n');
         } catch (IOException e) {
@@ -296,6 +323,71 @@ public void writeLine(Coerced<ByteBuffer> text) throws LuaException {
         }
     }
 
+    /**
+     * Get the current position in the file, taking into account any bytes in the read buffer.
+     *
+     * @return The current position.
+     * @throws IOException If the position could not be read.
+     */
+    private long position() throws IOException {
+        var readBuffer = this.readBuffer;
+        return channel.position() - (readBuffer == null ? 0 : readBuffer.remaining());
+    }
+
+    /**
+     * Get the read buffer, reading more data from the channel if it is empty.
+     *
+     * @return The read buffer, with at least one byte remaining, or {@code null} if at the end of the file.
+     * @throws IOException If the channel could not be read from.
+     */
+    private @Nullable ByteBuffer fillReadBuffer() throws IOException {
+        var buffer = readBuffer;
+        if (buffer == null) {
+            buffer = readBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+        } else if (buffer.hasRemaining()) {
+            return buffer;
+        }
+
+        buffer.clear();
+        var read = channel.read(buffer);
+        buffer.flip();
+        return read <= 0 ? null : buffer;
+    }
+
+    /**
+     * Read from the read buffer and then the underlying channel into a buffer.
+     *
+     * @param target The buffer to read into.
+     * @return The number of bytes read, or {@code -1} if at the end of the file.
+     * @throws IOException If the channel could not be read from.
+     * @see SeekableByteChannel#read(ByteBuffer)
+     */
+    private int read(ByteBuffer target) throws IOException {
+        var buffer = readBuffer;
+        if (buffer == null || !buffer.hasRemaining()) return channel.read(target);
+
+        var length = Math.min(buffer.remaining(), target.remaining());
+        target.put(buffer.array(), buffer.position(), length);
+        buffer.position(buffer.position() + length);
+        if (!target.hasRemaining()) return length;
+
+        var read = channel.read(target);
+        return read < 0 ? length : length + read;
+    }
+
+    /**
+     * Discard any unconsumed bytes in the read buffer, moving the channel back to the handle's logical position.
+     *
+     * @throws IOException If the channel's position could not be changed.
+     */
+    private void discardReadBuffer() throws IOException {
+        var buffer = readBuffer;
+        if (buffer == null || !buffer.hasRemaining()) return;
+
+        channel.position(channel.position() - buffer.remaining());
+        buffer.position(buffer.limit());
+    }
+
     private void writeSingle(byte value) throws IOException {
         single.clear();
         single.put(value);
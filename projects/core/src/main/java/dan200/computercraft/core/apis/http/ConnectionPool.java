@@ -0,0 +1,215 @@
+// SPDX-FileCopyrightText: 2024 The CC: Tweaked Developers
+//
+// SPDX-License-Identifier: MPL-2.0
+
+package dan200.computercraft.core.apis.http;
+
+import com.google.errorprone.annotations.concurrent.GuardedBy;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.concurrent.ScheduledFuture;
+
+import javax.annotation.Nullable;
+import java.net.InetSocketAddress;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A pool of idle HTTP/1.1 connections, which may be reused by later requests to the same server.
+ * <p>
+ * Connections are only added to the pool once a request has finished, and so this only tracks idle connections.
+ * Connections which are in use belong to their {@link dan200.computercraft.core.apis.http.request.HttpRequest}, and so
+ * are still limited by the computer's {@link ResourceGroup}.
+ * <p>
+ * Connections are keyed by the address they are connected to. Requests should still resolve the address and check it
+ * against the {@linkplain NetworkUtils#getOptions(String, InetSocketAddress) address rules} before looking up a
+ * connection, which ensures the rules are enforced for every request.
+ */
+public final class ConnectionPool {
+    /**
+     * The name of the handler added to idle connections.
+     */
+    private static final String IDLE_HANDLER = "cc:idle";
+
+    private final int maxPerHost;
+    private final int maxIdle;
+    private final long idleTimeout;
+
+    private final @GuardedBy("this") Map<Key, ArrayDeque<Channel>> connections = new HashMap<>();
+    private final @GuardedBy("this") LinkedHashMap<Channel, Key> idle = new LinkedHashMap<>();
+
+    /**
+     * Create a new connection pool.
+     *
+     * @param maxPerHost  The maximum number of idle connections to a single host.
+     * @param maxIdle     The maximum number of idle connections across all hosts.
+     * @param idleTimeout The time (in milliseconds) after which an idle connection is closed.
+     */
+    public ConnectionPool(int maxPerHost, int maxIdle, long idleTimeout) {
+        this.maxPerHost = maxPerHost;
+        this.maxIdle = maxIdle;
+        this.idleTimeout = idleTimeout;
+    }
+
+    /**
+     * Take an idle connection from the pool.
+     * <p>
+     * The connection is removed from the pool. It should be {@linkplain #release(Key, Channel) returned} once the next
+     * request has finished, or closed otherwise.
+     *
+     * @param key The host to connect to.
+     * @return An idle connection, or {@code null} if none is available.
+     */
+    public @Nullable Channel acquire(Key key) {
+        while (true) {
+            Channel channel;
+            synchronized (this) {
+                var channels = connections.get(key);
+                if (channels == null) return null;
+
+                // Prefer the most recently used connection, as it's the least likely to have been closed by the server.
+                channel = removeLocked(channels.getLast());
+            }
+
+            // Remove the idle handler. If the channel was closed in the meantime, then try the next one.
+            var handler = channel.pipeline().get(IDLE_HANDLER);
+            if (handler != null && channel.isActive()) {
+                channel.pipeline().remove(handler);
+                return channel;
+            }
+
+            channel.close();
+        }
+    }
+
+    /**
+     * Return a connection to the pool once a request has finished.
+     * <p>
+     * The channel's pipeline should only contain the handlers needed to send another request - any handlers specific
+     * to the previous request should have been removed.
+     *
+     * @param key     The host this channel is connected to.
+     * @param channel The channel to return.
+     */
+    public void release(Key key, Channel channel) {
+        if (!channel.isActive()) {
+            channel.close();
+            return;
+        }
+
+        channel.pipeline().addLast(IDLE_HANDLER, new IdleHandler());
+
+        List<Channel> evicted = new ArrayList<>(0);
+        synchronized (this) {
+            var channels = connections.computeIfAbsent(key, k -> new ArrayDeque<>());
+            channels.addLast(channel);
+            idle.put(channel, key);
+
+            // Close the oldest connections if we're over either limit.
+            if (channels.size() > maxPerHost) evicted.add(removeLocked(channels.getFirst()));
+            while (idle.size() > maxIdle) evicted.add(removeLocked(idle.keySet().iterator().next()));
+        }
+
+        for (var oldChannel : evicted) oldChannel.close();
+    }
+
+    /**
+     * Close all idle connections.
+     */
+    public void clear() {
+        List<Channel> channels;
+        synchronized (this) {
+            channels = new ArrayList<>(idle.keySet());
+            idle.clear();
+            connections.clear();
+        }
+
+        for (var channel : channels) channel.close();
+    }
+
+    /**
+     * Get the number of idle connections in the pool.
+     *
+     * @return The number of idle connections.
+     */
+    public synchronized int size() {
+        return idle.size();
+    }
+
+    private synchronized void remove(Channel channel) {
+        removeLocked(channel);
+    }
+
+    @GuardedBy("this")
+    private Channel removeLocked(Channel channel) {
+        var key = idle.remove(channel);
+        if (key == null) return channel;
+
+        var channels = connections.get(key);
+        if (channels != null) {
+            channels.remove(channel);
+            if (channels.isEmpty()) connections.remove(key);
+        }
+        return channel;
+    }
+
+    /**
+     * The key for a pooled connection.
+     *
+     * @param ssl     Whether this is a secure connection.
+     * @param host    The host name, as used for the {@code Host} header and SSL.
+     * @param address The address we connected to.
+     * @param proxy   Whether this connection goes through the configured proxy.
+     */
+    public record Key(boolean ssl, String host, InetSocketAddress address, boolean proxy) {
+    }
+
+    /**
+     * A handler added to idle connections, which removes them from the pool once they are closed or time out.
+     * <p>
+     * Servers should not send anything on an idle connection, so we also close the connection if it receives any data.
+     */
+    private final class IdleHandler extends ChannelInboundHandlerAdapter {
+        private @Nullable ScheduledFuture<?> timeout;
+
+        @Override
+        public void handlerAdded(ChannelHandlerContext ctx) {
+            timeout = ctx.executor().schedule(() -> {
+                remove(ctx.channel());
+                ctx.close();
+            }, idleTimeout, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public void handlerRemoved(ChannelHandlerContext ctx) {
+            if (timeout != null) timeout.cancel(false);
+            timeout = null;
+        }
+
+        @Override
+        public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+            remove(ctx.channel());
+            super.channelInactive(ctx);
+        }
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+            ReferenceCountUtil.release(msg);
+            remove(ctx.channel());
+            ctx.close();
+        }
+
+        @Override
+        public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+            remove(ctx.channel());
+            ctx.close();
+        }
+    }
+}
@@ -48,6 +48,11 @@ public final class NetworkUtils {
     public static final ScheduledThreadPoolExecutor EXECUTOR = new ScheduledThreadPoolExecutor(4, ThreadUtils.lowPriorityFactory("Network"));
     public static final EventLoopGroup LOOP_GROUP = new NioEventLoopGroup(4, ThreadUtils.lowPriorityFactory("Netty"));
 
+    /**
+     * Idle HTTP connections, which may be reused by later requests to the same server.
+     */
+    public static final ConnectionPool CONNECTION_POOL = new ConnectionPool(4, 64, TimeUnit.SECONDS.toMillis(30));
+
     private static final AbstractTrafficShapingHandler SHAPING_HANDLER = new GlobalTrafficShapingHandler(
         EXECUTOR, CoreConfig.httpUploadBandwidth, CoreConfig.httpDownloadBandwidth
     );
@@ -86,10 +91,14 @@ public static SslContext getSslContext() throws HTTPRequestException {
 
     public static void reloadConfig() {
         SHAPING_HANDLER.configure(CoreConfig.httpUploadBandwidth, CoreConfig.httpDownloadBandwidth);
+
+        // Drop any existing connections, as they may no longer be allowed by the new proxy settings.
+        CONNECTION_POOL.clear();
     }
 
     public static void reset() {
         SHAPING_HANDLER.trafficCounter().resetCumulativeTime();
+        CONNECTION_POOL.clear();
     }
 
     /**
@@ -6,6 +6,7 @@
 
 import dan200.computercraft.core.Logging;
 import dan200.computercraft.core.apis.IAPIEnvironment;
+import dan200.computercraft.core.apis.http.ConnectionPool;
 import dan200.computercraft.core.apis.http.HTTPRequestException;
 import dan200.computercraft.core.apis.http.NetworkUtils;
 import dan200.computercraft.core.apis.http.Resource;
@@ -14,8 +15,10 @@
 import io.netty.bootstrap.Bootstrap;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelPipeline;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.channel.socket.nio.NioSocketChannel;
 import io.netty.handler.codec.http.*;
@@ -42,8 +45,14 @@ public class HttpRequest extends Resource<HttpRequest> {
 
     private static final int MAX_REDIRECTS = 16;
 
+    /**
+     * The name of the {@link ReadTimeoutHandler} for the current request. This is removed before the connection is
+     * returned to the {@linkplain NetworkUtils#CONNECTION_POOL connection pool}.
+     */
+    static final String TIMEOUT_HANDLER = "cc:timeout";
+
     private @Nullable Future<?> executorFuture;
-    private @Nullable ChannelFuture connectFuture;
+    private volatile @Nullable ChannelFuture connectFuture;
     private @Nullable HttpRequestHandler currentRequest;
 
     private final IAPIEnvironment environment;
@@ -52,13 +61,14 @@ public class HttpRequest extends Resource<HttpRequest> {
     private final ByteBuf postBuffer;
     private final HttpHeaders headers;
     private final boolean binary;
+    private final boolean stream;
     private final int timeout;
 
     final AtomicInteger redirects;
 
     public HttpRequest(
         ResourceGroup<HttpRequest> limiter, IAPIEnvironment environment, String address, @Nullable ByteBuffer postBody,
-        HttpHeaders headers, boolean binary, boolean followRedirects, int timeout
+        HttpHeaders headers, boolean binary, boolean stream, boolean followRedirects, int timeout
     ) {
         super(limiter);
         this.environment = environment;
@@ -68,6 +78,7 @@ public HttpRequest(
             : Unpooled.buffer(0);
         this.headers = headers;
         this.binary = binary;
+        this.stream = stream;
         redirects = new AtomicInteger(followRedirects ? MAX_REDIRECTS : 0);
         this.timeout = timeout;
 
@@ -110,12 +121,29 @@ public static void checkUri(URI url) throws HTTPRequestException {
     }
 
     public void request(URI uri, HttpMethod method) {
+        request(uri, method, false);
+    }
+
+    /**
+     * Retry a request on a new connection, after a {@linkplain NetworkUtils#CONNECTION_POOL pooled connection} was
+     * closed by the server.
+     * <p>
+     * This was already counted towards the request metrics by the original attempt, and so is not counted again.
+     *
+     * @param uri    The URI to request.
+     * @param method The method to use.
+     */
+    void retry(URI uri, HttpMethod method) {
+        request(uri, method, true);
+    }
+
+    private void request(URI uri, HttpMethod method, boolean isRetry) {
         if (isClosed()) return;
-        executorFuture = NetworkUtils.EXECUTOR.submit(() -> doRequest(uri, method));
+        executorFuture = NetworkUtils.EXECUTOR.submit(() -> doRequest(uri, method, isRetry));
         checkClosed();
     }
 
-    private void doRequest(URI uri, HttpMethod method) {
+    private void doRequest(URI uri, HttpMethod method, boolean isRetry) {
         // If we're cancelled, abort.
         if (isClosed()) return;
 
@@ -136,10 +164,25 @@ private void doRequest(URI uri, HttpMethod method) {
             }
 
             // Add request size to the tracker before opening the connection
-            environment.observe(Metrics.HTTP_REQUESTS);
-            environment.observe(Metrics.HTTP_UPLOAD, requestBody);
+            if (!isRetry) {
+                environment.observe(Metrics.HTTP_REQUESTS);
+                environment.observe(Metrics.HTTP_UPLOAD, requestBody);
+            }
+
+            // Try to reuse an existing connection to this server. We've already resolved the address and checked it
+            // against our rules, so this is safe to do.
+            var connection = new ConnectionPool.Key(ssl, uri.getHost(), socketAddress, options.useProxy());
+            var channel = isRetry ? null : NetworkUtils.CONNECTION_POOL.acquire(connection);
+            if (channel != null) {
+                var handler = currentRequest = new HttpRequestHandler(this, uri, method, options, connection, true);
+                connectFuture = channel.newSucceededFuture();
+                addRequestHandlers(channel.pipeline(), handler);
 
-            var handler = currentRequest = new HttpRequestHandler(this, uri, method, options);
+                checkClosed();
+                return;
+            }
+
+            var handler = currentRequest = new HttpRequestHandler(this, uri, method, options, connection, false);
             connectFuture = new Bootstrap()
                 .group(NetworkUtils.LOOP_GROUP)
                 .channelFactory(NioSocketChannel::new)
@@ -149,13 +192,8 @@ protected void initChannel(SocketChannel ch) {
                         NetworkUtils.initChannel(ch, uri, socketAddress, sslContext, proxy, timeout);
 
                         var p = ch.pipeline();
-                        if (timeout > 0) p.addLast(new ReadTimeoutHandler(timeout, TimeUnit.MILLISECONDS));
-
-                        p.addLast(
-                            new HttpClientCodec(),
-                            new HttpContentDecompressor(),
-                            handler
-                        );
+                        p.addLast(new HttpClientCodec(), new HttpContentDecompressor());
+                        addRequestHandlers(p, handler);
                     }
                 })
                 .remoteAddress(socketAddress)
@@ -174,6 +212,27 @@ protected void initChannel(SocketChannel ch) {
         }
     }
 
+    private void addRequestHandlers(ChannelPipeline pipeline, HttpRequestHandler handler) {
+        if (timeout > 0) pipeline.addLast(TIMEOUT_HANDLER, new ReadTimeoutHandler(timeout, TimeUnit.MILLISECONDS));
+        pipeline.addLast(handler);
+    }
+
+    /**
+     * Release the connection used by this request, once the response has been received.
+     *
+     * @param channel    The channel to release.
+     * @param connection The key of this connection in the pool.
+     */
+    void release(Channel channel, ConnectionPool.Key connection) {
+        // Detach the channel from this request, so that it is not closed when the request is disposed.
+        connectFuture = null;
+        if (isClosed()) {
+            channel.close();
+        } else {
+            NetworkUtils.CONNECTION_POOL.release(connection, channel);
+        }
+    }
+
     void failure(String message) {
         if (tryClose()) environment.queueEvent(FAILURE_EVENT, address, message);
     }
@@ -186,6 +245,30 @@ void success(HttpResponseHandle object) {
         if (tryClose()) environment.queueEvent(SUCCESS_EVENT, address, object);
     }
 
+    /**
+     * Return a {@linkplain #isStreaming() streamed} response, once its headers have been received.
+     * <p>
+     * Unlike {@link #success(HttpResponseHandle)}, this does not close the request, as the body is still being read
+     * from the connection. The request is instead closed once the body has been received, or when the body is closed
+     * (or garbage collected).
+     *
+     * @param object  The response handle.
+     * @param body    The response's body.
+     * @param failure The failure message, if this was not a successful response.
+     */
+    void stream(HttpResponseHandle object, HttpStreamHandle body, @Nullable String failure) {
+        if (isClosed()) return;
+
+        if (failure == null) {
+            environment.queueEvent(SUCCESS_EVENT, address, object);
+        } else {
+            environment.queueEvent(FAILURE_EVENT, address, failure, object);
+        }
+        createOwnerReference(body);
+
+        checkClosed();
+    }
+
     @Override
     protected void dispose() {
         super.dispose();
@@ -215,4 +298,12 @@ public HttpHeaders headers() {
     public boolean isBinary() {
         return binary;
     }
+
+    public boolean isStreaming() {
+        return stream;
+    }
+
+    String address() {
+        return address;
+    }
 }
@@ -7,6 +7,7 @@
 import dan200.computercraft.core.Logging;
 import dan200.computercraft.core.apis.handles.ArrayByteChannel;
 import dan200.computercraft.core.apis.handles.ReadHandle;
+import dan200.computercraft.core.apis.http.ConnectionPool;
 import dan200.computercraft.core.apis.http.HTTPRequestException;
 import dan200.computercraft.core.apis.http.NetworkUtils;
 import dan200.computercraft.core.apis.http.options.Options;
@@ -20,6 +21,7 @@
 
 import javax.annotation.Nullable;
 import java.io.Closeable;
+import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.charset.Charset;
@@ -46,22 +48,47 @@ public final class HttpRequestHandler extends SimpleChannelInboundHandler<HttpOb
     private final URI uri;
     private final HttpMethod method;
     private final Options options;
+    private final ConnectionPool.Key connection;
+    private final boolean reused;
+    private boolean requestWritten = false;
+    private boolean keepAlive = false;
 
     private @Nullable Charset responseCharset;
     private final HttpHeaders responseHeaders = new DefaultHttpHeaders();
     private @Nullable HttpResponseStatus responseStatus;
     private @Nullable CompositeByteBuf responseBody;
 
-    HttpRequestHandler(HttpRequest request, URI uri, HttpMethod method, Options options) {
+    /**
+     * The body of a {@linkplain HttpRequest#isStreaming() streamed} response, once its headers have been received.
+     */
+    private @Nullable HttpStreamHandle streamBody;
+    private long streamedBytes;
+
+    HttpRequestHandler(HttpRequest request, URI uri, HttpMethod method, Options options, ConnectionPool.Key connection, boolean reused) {
         this.request = request;
 
         this.uri = uri;
         this.method = method;
         this.options = options;
+        this.connection = connection;
+        this.reused = reused;
+    }
+
+    @Override
+    public void handlerAdded(ChannelHandlerContext ctx) throws Exception {
+        super.handlerAdded(ctx);
+
+        // If we're reusing an existing connection, it's already active, so send the request immediately.
+        if (ctx.channel().isActive()) sendRequest(ctx);
     }
 
     @Override
     public void channelActive(ChannelHandlerContext ctx) throws Exception {
+        sendRequest(ctx);
+        super.channelActive(ctx);
+    }
+
+    private void sendRequest(ChannelHandlerContext ctx) {
         if (request.checkClosed()) return;
 
         var body = request.body();
@@ -79,19 +106,55 @@ public void channelActive(ChannelHandlerContext ctx) throws Exception {
             request.headers().set(HttpHeaderNames.ACCEPT_CHARSET, "UTF-8");
         }
         request.headers().set(HttpHeaderNames.HOST, uri.getPort() < 0 ? uri.getHost() : uri.getHost() + ":" + uri.getPort());
-        request.headers().set(HttpHeaderNames.CONNECTION, HttpHeaderValues.CLOSE);
-
-        ctx.channel().writeAndFlush(request);
 
-        super.channelActive(ctx);
+        ctx.channel().writeAndFlush(request).addListener(f -> {
+            if (f.isSuccess()) requestWritten = true;
+        });
     }
 
     @Override
     public void channelInactive(ChannelHandlerContext ctx) throws Exception {
-        if (!closed) request.failure("Could not connect");
+        if (!closed) {
+            if (streamBody != null) {
+                failStream("Connection closed");
+            } else if (canRetry()) {
+                // The server closed a pooled connection before we could use it. Try again on a new connection.
+                closed = true;
+                request.retry(uri, method);
+            } else {
+                request.failure("Could not connect");
+            }
+        }
         super.channelInactive(ctx);
     }
 
+    /**
+     * Whether we can retry this request on a new connection. This is only possible if we were reusing an existing
+     * connection, and the server closed it before sending any response.
+     * <p>
+     * If the request was fully written, the server may have already acted on it, so we only retry requests which are
+     * safe to send twice.
+     *
+     * @return Whether to retry this request.
+     */
+    private boolean canRetry() {
+        return reused && responseStatus == null && (!requestWritten || isIdempotent());
+    }
+
+    /**
+     * Whether this request can safely be sent more than once. We treat {@code PUT} and {@code DELETE} requests as
+     * idempotent only when they have no body.
+     *
+     * @return Whether this request is idempotent.
+     */
+    private boolean isIdempotent() {
+        if (method.equals(HttpMethod.GET) || method.equals(HttpMethod.HEAD) || method.equals(HttpMethod.OPTIONS)) {
+            return true;
+        }
+
+        return (method.equals(HttpMethod.PUT) || method.equals(HttpMethod.DELETE)) && request.body().capacity() == 0;
+    }
+
     @Override
     public void channelRead0(ChannelHandlerContext ctx, HttpObject message) {
         if (closed || request.checkClosed()) return;
@@ -124,9 +187,15 @@ public void channelRead0(ChannelHandlerContext ctx, HttpObject message) {
             responseCharset = HttpUtil.getCharset(response, StandardCharsets.UTF_8);
             responseStatus = response.status();
             responseHeaders.add(response.headers());
+            keepAlive = HttpUtil.isKeepAlive(response)
+                && !request.headers().contains(HttpHeaderNames.CONNECTION, HttpHeaderValues.CLOSE, true);
+
+            if (request.isStreaming()) sendStreamResponse(ctx);
         }
 
-        if (message instanceof HttpContent content) {
+        if (message instanceof HttpContent content && streamBody != null) {
+            readStream(ctx, streamBody, content);
+        } else if (message instanceof HttpContent content) {
 
             if (responseBody == null) {
                 responseBody = ctx.alloc().compositeBuffer(DEFAULT_MAX_COMPOSITE_BUFFER_COMPONENTS);
@@ -154,7 +223,18 @@ public void channelRead0(ChannelHandlerContext ctx, HttpObject message) {
                     responseHeaders.set(HttpHeaderNames.CONTENT_LENGTH, responseBody.readableBytes());
                 }
 
-                ctx.close();
+                if (requestWritten && keepAlive) {
+                    // Return the connection to the pool, so it can be used by a later request. We mark ourselves as
+                    // closed first, so we don't fire any events when removed.
+                    closed = true;
+                    var pipeline = ctx.pipeline();
+                    if (pipeline.get(HttpRequest.TIMEOUT_HANDLER) != null) pipeline.remove(HttpRequest.TIMEOUT_HANDLER);
+                    pipeline.remove(this);
+                    request.release(ctx.channel(), connection);
+                } else {
+                    ctx.close();
+                }
+
                 sendResponse();
             }
         }
@@ -162,10 +242,82 @@ public void channelRead0(ChannelHandlerContext ctx, HttpObject message) {
 
     @Override
     public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+        if (!closed && streamBody != null) {
+            closed = true;
+            ctx.close();
+            failStream(NetworkUtils.toFriendlyError(cause));
+            return;
+        }
+
+        if (!closed && canRetry() && cause instanceof IOException) {
+            // The connection was reset before we received a response, so try again (see channelInactive).
+            closed = true;
+            ctx.close();
+            request.retry(uri, method);
+            return;
+        }
+
         LOG.error(Logging.HTTP_ERROR, "Error handling HTTP response", cause);
         request.failure(NetworkUtils.toFriendlyError(cause));
     }
 
+    /**
+     * Return a streamed response as soon as its headers have been received.
+     *
+     * @param ctx The current channel context.
+     */
+    private void sendStreamResponse(ChannelHandlerContext ctx) {
+        var status = Objects.requireNonNull(responseStatus, "Status has not been set");
+
+        // The timeout only applies to receiving the response's headers. We may stop reading from the connection when
+        // the computer is not consuming the body, which would otherwise trigger the timeout.
+        var pipeline = ctx.pipeline();
+        if (pipeline.get(HttpRequest.TIMEOUT_HANDLER) != null) pipeline.remove(HttpRequest.TIMEOUT_HANDLER);
+
+        var body = streamBody = new HttpStreamHandle(request, request.address(), request.isBinary(), ctx.channel());
+        var response = new HttpResponseHandle(body, status.code(), status.reasonPhrase(), getHeaders());
+        request.stream(response, body, status.code() >= 200 && status.code() < 400 ? null : status.reasonPhrase());
+    }
+
+    private void readStream(ChannelHandlerContext ctx, HttpStreamHandle body, HttpContent content) {
+        var partial = content.content();
+        if (partial.isReadable()) {
+            // If we've read more than we're allowed to handle, abort as soon as possible.
+            streamedBytes += partial.readableBytes();
+            if (options.maxDownload() != 0 && streamedBytes > options.maxDownload()) {
+                closed = true;
+                ctx.close();
+                failStream("Response is too large");
+                return;
+            }
+
+            body.offer(partial);
+        }
+
+        if (content instanceof LastHttpContent) {
+            request.environment().observe(Metrics.HTTP_DOWNLOAD, getHeaderSize(responseHeaders) + streamedBytes);
+
+            closed = true;
+            body.finish();
+            if (requestWritten && keepAlive) {
+                var pipeline = ctx.pipeline();
+                pipeline.remove(this);
+                request.release(ctx.channel(), connection);
+            } else {
+                ctx.close();
+            }
+
+            // The body has been received, so we no longer count towards the computer's request limit.
+            request.close();
+        }
+    }
+
+    private void failStream(String message) {
+        var body = Objects.requireNonNull(streamBody, "Not streaming");
+        body.fail(message);
+        request.close();
+    }
+
     private void sendResponse() {
         Objects.requireNonNull(responseStatus, "Status has not been set");
         Objects.requireNonNull(responseCharset, "Charset has not been set");
@@ -176,11 +328,7 @@ private void sendResponse() {
 
         // Decode the headers
         var status = responseStatus;
-        Map<String, String> headers = new HashMap<>();
-        for (var header : responseHeaders) {
-            var existing = headers.get(header.getKey());
-            headers.put(header.getKey(), existing == null ? header.getValue() : existing + "," + header.getValue());
-        }
+        var headers = getHeaders();
 
         // Fire off a stats event
         request.environment().observe(Metrics.HTTP_DOWNLOAD, getHeaderSize(responseHeaders) + bytes.length);
@@ -197,6 +345,15 @@ private void sendResponse() {
         }
     }
 
+    private Map<String, String> getHeaders() {
+        Map<String, String> headers = new HashMap<>();
+        for (var header : responseHeaders) {
+            var existing = headers.get(header.getKey());
+            headers.put(header.getKey(), existing == null ? header.getValue() : existing + "," + header.getValue());
+        }
+        return headers;
+    }
+
     /**
      * Determine the redirect from this response.
      *
@@ -222,6 +379,7 @@ private URI getRedirect(HttpResponseStatus status, HttpHeaders headers) {
     @Override
     public void close() {
         closed = true;
+        if (streamBody != null) streamBody.fail("Request closed");
         if (responseBody != null) {
             responseBody.release();
             responseBody = null;
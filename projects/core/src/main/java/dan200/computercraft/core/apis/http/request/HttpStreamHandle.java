@@ -0,0 +1,367 @@
+// SPDX-FileCopyrightText: 2024 The CC: Tweaked Developers
+//
+// SPDX-License-Identifier: MPL-2.0
+
+package dan200.computercraft.core.apis.http.request;
+
+import com.google.errorprone.annotations.concurrent.GuardedBy;
+import dan200.computercraft.api.lua.ILuaCallback;
+import dan200.computercraft.api.lua.LuaException;
+import dan200.computercraft.api.lua.LuaFunction;
+import dan200.computercraft.api.lua.MethodResult;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+
+import javax.annotation.Nullable;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * The body of a streamed HTTP response, returned when making a request with {@code stream = true}.
+ * <p>
+ * Unlike a normal response, the body is not downloaded up-front. Instead, the response is returned as soon as the
+ * headers are received, and the body is read from the connection as the computer consumes it. If the computer falls
+ * behind, we stop reading from the connection until it catches up, so only a small amount of the body is held in
+ * memory at once.
+ * <p>
+ * If not enough data has been received yet, the read methods will wait until it is available (or the response has
+ * finished), much like {@link dan200.computercraft.core.apis.http.websocket.WebsocketHandle#receive(Optional)}.
+ * <p>
+ * These methods are provided by the {@linkplain HttpResponseHandle response} itself, in place of the usual
+ * {@linkplain dan200.computercraft.core.apis.handles.ReadHandle file handle} methods.
+ *
+ * @cc.module http.ResponseStream
+ */
+public class HttpStreamHandle {
+    /**
+     * The event queued when more data is available to a waiting reader.
+     */
+    static final String DATA_EVENT = "http_stream";
+
+    /**
+     * Stop reading from the connection once this many bytes are buffered.
+     */
+    static final int HIGH_WATER = 256 * 1024;
+
+    /**
+     * Start reading from the connection again once we have fewer than this many bytes buffered.
+     */
+    static final int LOW_WATER = 64 * 1024;
+
+    private final HttpRequest request;
+    private final String address;
+    private final boolean binary;
+
+    @GuardedBy("this")
+    private final ArrayDeque<byte[]> chunks = new ArrayDeque<>();
+
+    /**
+     * The offset into the first chunk in {@link #chunks}.
+     */
+    @GuardedBy("this")
+    private int chunkOffset;
+
+    /**
+     * The total number of bytes left in {@link #chunks}.
+     */
+    @GuardedBy("this")
+    private int buffered;
+
+    /**
+     * The channel we are reading from. This is cleared once the response has finished, as the connection may be
+     * reused by another request.
+     */
+    @GuardedBy("this")
+    private @Nullable Channel channel;
+
+    @GuardedBy("this")
+    private boolean finished;
+
+    @GuardedBy("this")
+    private @Nullable String error;
+
+    /**
+     * Whether a reader is waiting for more data, and so a {@link #DATA_EVENT} should be queued.
+     */
+    @GuardedBy("this")
+    private boolean waiting;
+
+    private volatile boolean closed;
+
+    HttpStreamHandle(HttpRequest request, String address, boolean binary, Channel channel) {
+        this.request = request;
+        this.address = address;
+        this.binary = binary;
+        this.channel = channel;
+    }
+
+    /**
+     * Add some data to the body. This should only be called from the channel's event loop.
+     *
+     * @param content The data received.
+     */
+    void offer(ByteBuf content) {
+        if (closed || !content.isReadable()) return;
+
+        var bytes = new byte[content.readableBytes()];
+        content.getBytes(content.readerIndex(), bytes);
+
+        synchronized (this) {
+            if (finished) return;
+
+            chunks.addLast(bytes);
+            buffered += bytes.length;
+
+            // Stop reading from the connection if the computer has not kept up.
+            var channel = this.channel;
+            if (buffered >= HIGH_WATER && channel != null) channel.config().setAutoRead(false);
+
+            wakeLocked();
+        }
+    }
+
+    /**
+     * Mark the body as having been fully received.
+     */
+    void finish() {
+        synchronized (this) {
+            if (finished) return;
+            finished = true;
+
+            // The connection may now be reused, so make sure we're not holding it up.
+            var channel = this.channel;
+            this.channel = null;
+            if (channel != null) channel.config().setAutoRead(true);
+
+            wakeLocked();
+        }
+    }
+
+    /**
+     * Mark the body as having failed. Any data which has already been received can still be read.
+     *
+     * @param message The reason the body could not be read.
+     */
+    void fail(String message) {
+        synchronized (this) {
+            if (finished) return;
+            finished = true;
+            error = message;
+            channel = null;
+
+            wakeLocked();
+        }
+    }
+
+    @GuardedBy("this")
+    private void wakeLocked() {
+        if (!waiting) return;
+        waiting = false;
+        request.environment().queueEvent(DATA_EVENT, address);
+    }
+
+    /**
+     * Read a number of bytes from this response, waiting until they have been received.
+     *
+     * @param countArg The number of bytes to read. This may be 0 to determine we are at the end of the response. When
+     *                 absent, a single byte will be read.
+     * @return The read bytes.
+     * @throws LuaException When trying to read a negative number of bytes.
+     * @throws LuaException If the response has been closed, or could not be received.
+     * @cc.treturn [1] nil If we are at the end of the response.
+     * @cc.treturn [2] number The value of the byte read. This is returned if the response is in binary mode and
+     * {@code count} is absent.
+     * @cc.treturn [3] string The bytes read as a string. This is returned when the {@code count} is given.
+     * @see dan200.computercraft.core.apis.handles.ReadHandle#read(Optional)
+     */
+    @LuaFunction
+    public final MethodResult read(Optional<Integer> countArg) throws LuaException {
+        checkOpen();
+        int count = countArg.orElse(1);
+        if (count < 0) throw new LuaException("Cannot read a negative number of bytes");
+        if (count == 0) return readEmpty();
+        return readCount(count, binary && countArg.isEmpty(), new ByteArrayOutputStream(Math.min(count, 8192)));
+    }
+
+    private MethodResult readEmpty() throws LuaException {
+        checkOpen();
+        synchronized (this) {
+            if (buffered > 0) return MethodResult.of("");
+            if (!finished) return waitLocked(this::readEmpty);
+            return endLocked();
+        }
+    }
+
+    private MethodResult readCount(int count, boolean single, ByteArrayOutputStream output) throws LuaException {
+        checkOpen();
+        synchronized (this) {
+            takeLocked(Math.min(count - output.size(), buffered), output);
+            if (output.size() < count && !finished) return waitLocked(() -> readCount(count, single, output));
+            if (output.size() == 0) return endLocked();
+
+            var bytes = output.toByteArray();
+            return single ? MethodResult.of(bytes[0] & 0xFF) : MethodResult.of((Object) bytes);
+        }
+    }
+
+    /**
+     * Read the remainder of the response, waiting until it has all been received.
+     *
+     * @return The remaining contents of the response.
+     * @throws LuaException If the response has been closed, or could not be received.
+     * @cc.treturn string The remaining contents of the response.
+     * @see dan200.computercraft.core.apis.handles.ReadHandle#readAll()
+     */
+    @LuaFunction
+    public final MethodResult readAll() throws LuaException {
+        return readAll(new ByteArrayOutputStream());
+    }
+
+    private MethodResult readAll(ByteArrayOutputStream output) throws LuaException {
+        checkOpen();
+        synchronized (this) {
+            takeLocked(buffered, output);
+            if (!finished) return waitLocked(() -> readAll(output));
+            if (error != null) throw new LuaException(error);
+            return MethodResult.of((Object) output.toByteArray());
+        }
+    }
+
+    /**
+     * Read a line from the response, waiting until it has been received.
+     *
+     * @param withTrailingArg Whether to include the newline characters with the returned string. Defaults to {@code false}.
+     * @return The read string.
+     * @throws LuaException If the response has been closed, or could not be received.
+     * @cc.treturn string|nil The read line or {@code nil} if at the end of the response.
+     * @see dan200.computercraft.core.apis.handles.ReadHandle#readLine(Optional)
+     */
+    @LuaFunction
+    public final MethodResult readLine(Optional<Boolean> withTrailingArg) throws LuaException {
+        return readLine(withTrailingArg.orElse(false), new ByteArrayOutputStream());
+    }
+
+    private MethodResult readLine(boolean withTrailing, ByteArrayOutputStream output) throws LuaException {
+        checkOpen();
+        synchronized (this) {
+            var newline = findNewlineLocked();
+            if (newline < 0) {
+                // Consume what we have so far, so we don't stop reading from the connection in the middle of a line.
+                takeLocked(buffered, output);
+                if (!finished) return waitLocked(() -> readLine(withTrailing, output));
+                if (output.size() == 0) return endLocked();
+                return MethodResult.of((Object) output.toByteArray());
+            }
+
+            takeLocked(newline + 1, output);
+            var line = output.toByteArray();
+            if (withTrailing) return MethodResult.of((Object) line);
+
+            var end = line.length - 1;
+            if (end > 0 && line[end - 1] == '\r') end--;
+            return MethodResult.of((Object) Arrays.copyOf(line, end));
+        }
+    }
+
+    /**
+     * Close this response, freeing any resources it uses.
+     * <p>
+     * If the response has not been fully received, this closes the underlying connection.
+     *
+     * @throws LuaException If the response has already been closed.
+     */
+    @LuaFunction
+    public final void close() throws LuaException {
+        checkOpen();
+        closed = true;
+        synchronized (this) {
+            chunks.clear();
+            buffered = 0;
+        }
+        request.close();
+    }
+
+    private void checkOpen() throws LuaException {
+        if (closed) throw new LuaException("attempt to use a closed file");
+    }
+
+    @GuardedBy("this")
+    private MethodResult endLocked() throws LuaException {
+        if (error != null) throw new LuaException(error);
+        return MethodResult.of();
+    }
+
+    @GuardedBy("this")
+    private MethodResult waitLocked(Retry retry) {
+        waiting = true;
+        return new WaitCallback(retry).pull;
+    }
+
+    @GuardedBy("this")
+    private int findNewlineLocked() {
+        var position = 0;
+        var offset = chunkOffset;
+        for (var chunk : chunks) {
+            for (var i = offset; i < chunk.length; i++) {
+                if (chunk[i] == '\n') return position + (i - offset);
+            }
+            position += chunk.length - offset;
+            offset = 0;
+        }
+        return -1;
+    }
+
+    /**
+     * Remove some bytes from the start of the buffer.
+     *
+     * @param count  The number of bytes to take. This should be at most {@link #buffered}.
+     * @param output The stream to write the removed bytes to.
+     */
+    @GuardedBy("this")
+    private void takeLocked(int count, ByteArrayOutputStream output) {
+        var remaining = count;
+        while (remaining > 0) {
+            var chunk = Objects.requireNonNull(chunks.peekFirst());
+            var length = Math.min(chunk.length - chunkOffset, remaining);
+            output.write(chunk, chunkOffset, length);
+            remaining -= length;
+            chunkOffset += length;
+
+            if (chunkOffset == chunk.length) {
+                chunks.removeFirst();
+                chunkOffset = 0;
+            }
+        }
+        buffered -= count;
+
+        // If we had paused the connection, and have now caught up, start reading again.
+        var channel = this.channel;
+        if (buffered <= LOW_WATER && channel != null && !channel.config().isAutoRead()) {
+            channel.config().setAutoRead(true);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Retry {
+        MethodResult retry() throws LuaException;
+    }
+
+    private final class WaitCallback implements ILuaCallback {
+        final MethodResult pull = MethodResult.pullEvent(null, this);
+        private final Retry retry;
+
+        WaitCallback(Retry retry) {
+            this.retry = retry;
+        }
+
+        @Override
+        public MethodResult resume(Object[] event) throws LuaException {
+            // Check for more data on any event, not just DATA_EVENT. Retrying is cheap, and means we can't get stuck
+            // if our event was dropped from a full event queue.
+            return retry.retry();
+        }
+    }
+}
@@ -53,17 +53,21 @@ public class Websocket extends Resource<Websocket> implements WebsocketClient {
     private final URI uri;
     private final String address;
     private final HttpHeaders headers;
+    private final boolean buffered;
     private final int timeout;
 
+    private @Nullable WebsocketBuffer buffer;
+
     private final AtomicInteger inFlight = new AtomicInteger(0);
     private final GenericFutureListener<? extends io.netty.util.concurrent.Future<? super Void>> onSend = f -> inFlight.decrementAndGet();
 
-    public Websocket(ResourceGroup<Websocket> limiter, IAPIEnvironment environment, URI uri, String address, HttpHeaders headers, int timeout) {
+    public Websocket(ResourceGroup<Websocket> limiter, IAPIEnvironment environment, URI uri, String address, HttpHeaders headers, boolean buffered, int timeout) {
         super(limiter);
         this.environment = environment;
         this.uri = uri;
         this.address = address;
         this.headers = headers;
+        this.buffered = buffered;
         this.timeout = timeout;
     }
 
@@ -127,10 +131,11 @@ protected void initChannel(SocketChannel ch) {
         }
     }
 
-    void success(Options options) {
+    void success(Options options, Channel channel) {
         if (isClosed()) return;
 
-        var handle = new WebsocketHandle(environment, address, this, options);
+        var buffer = this.buffer = buffered ? new WebsocketBuffer(environment, address, channel) : null;
+        var handle = new WebsocketHandle(environment, address, this, options, buffer);
         environment().queueEvent(SUCCESS_EVENT, address, handle);
         createOwnerReference(handle);
 
@@ -165,6 +170,16 @@ String address() {
         return address;
     }
 
+    /**
+     * Get the buffer messages should be added to, if this is a buffered websocket.
+     *
+     * @return This websocket's message buffer, or {@code null} if messages should be queued as events.
+     */
+    @Nullable
+    WebsocketBuffer buffer() {
+        return buffer;
+    }
+
     private @Nullable Channel channel() {
         var channel = channelFuture;
         return channel == null ? null : channel.channel();
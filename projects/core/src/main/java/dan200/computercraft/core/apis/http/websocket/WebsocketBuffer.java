@@ -0,0 +1,138 @@
+// SPDX-FileCopyrightText: 2024 The CC: Tweaked Developers
+//
+// SPDX-License-Identifier: MPL-2.0
+
+package dan200.computercraft.core.apis.http.websocket;
+
+import com.google.errorprone.annotations.concurrent.GuardedBy;
+import dan200.computercraft.core.apis.IAPIEnvironment;
+import io.netty.channel.Channel;
+
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Holds messages received on a buffered websocket until they are read by {@link WebsocketHandle}.
+ * <p>
+ * Unlike normal websockets, messages are not queued as {@link WebsocketClient#MESSAGE_EVENT} events, and so cannot be
+ * lost if the computer's event queue is full. Instead, if the computer falls behind, we stop reading from the
+ * connection until it catches up, leaving the remaining messages with the server.
+ */
+final class WebsocketBuffer {
+    /**
+     * The event queued when a message is available to a waiting reader.
+     */
+    static final String DATA_EVENT = "websocket_buffered";
+
+    /**
+     * Stop reading from the connection once this many messages are buffered.
+     */
+    static final int MAX_MESSAGES = 128;
+
+    /**
+     * Stop reading from the connection once this many bytes are buffered.
+     */
+    static final int MAX_BYTES = 256 * 1024;
+
+    private final IAPIEnvironment environment;
+    private final String address;
+    private final Channel channel;
+
+    @GuardedBy("this")
+    private final ArrayDeque<Message> messages = new ArrayDeque<>();
+
+    @GuardedBy("this")
+    private int bytes;
+
+    /**
+     * Whether a reader is waiting for a message, and so a {@link #DATA_EVENT} should be queued.
+     */
+    @GuardedBy("this")
+    private boolean waiting;
+
+    WebsocketBuffer(IAPIEnvironment environment, String address, Channel channel) {
+        this.environment = environment;
+        this.address = address;
+        this.channel = channel;
+    }
+
+    /**
+     * Add a message to the buffer. This should only be called from the channel's event loop.
+     * <p>
+     * Messages are always accepted, even if the buffer is full, as netty may have already decoded several frames before
+     * we pause the connection.
+     *
+     * @param contents The contents of the message.
+     * @param binary   Whether this is a binary message.
+     */
+    synchronized void offer(byte[] contents, boolean binary) {
+        messages.addLast(new Message(contents, binary));
+        bytes += contents.length;
+
+        if (messages.size() >= MAX_MESSAGES || bytes >= MAX_BYTES) channel.config().setAutoRead(false);
+
+        if (waiting) {
+            waiting = false;
+            environment.queueEvent(DATA_EVENT, address);
+        }
+    }
+
+    /**
+     * Take the next message from the buffer. If there are no messages, a {@link #DATA_EVENT} will be queued once the
+     * next one is received.
+     *
+     * @return The next message, or {@code null} if the buffer is empty.
+     */
+    synchronized @Nullable Message pollOrWait() {
+        var message = messages.pollFirst();
+        if (message == null) {
+            waiting = true;
+            return null;
+        }
+
+        bytes -= message.contents().length;
+        resumeLocked();
+        return message;
+    }
+
+    /**
+     * Take all messages from the buffer. If there are no messages, a {@link #DATA_EVENT} will be queued once the next
+     * one is received.
+     *
+     * @return The buffered messages. This may be empty.
+     */
+    synchronized List<Message> drainOrWait() {
+        if (messages.isEmpty()) {
+            waiting = true;
+            return List.of();
+        }
+
+        var result = new ArrayList<>(messages);
+        messages.clear();
+        bytes = 0;
+        resumeLocked();
+        return result;
+    }
+
+    /**
+     * Mark that no reader is waiting any more (for instance, because its receive timed out), so the next message does
+     * not queue a {@link #DATA_EVENT}.
+     */
+    synchronized void stopWaiting() {
+        waiting = false;
+    }
+
+    @GuardedBy("this")
+    private void resumeLocked() {
+        // Start reading again once we've made some space. We wait until the buffer is half empty, so we're not
+        // constantly toggling reads on and off.
+        if (messages.size() <= MAX_MESSAGES / 2 && bytes <= MAX_BYTES / 2 && !channel.config().isAutoRead()) {
+            channel.config().setAutoRead(true);
+        }
+    }
+
+    record Message(byte[] contents, boolean binary) {
+    }
+}
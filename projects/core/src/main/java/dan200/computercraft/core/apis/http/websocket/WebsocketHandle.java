@@ -8,12 +8,15 @@
 import dan200.computercraft.core.apis.IAPIEnvironment;
 import dan200.computercraft.core.apis.http.options.Options;
 
+import javax.annotation.Nullable;
 import java.nio.ByteBuffer;
 import java.nio.charset.CharacterCodingException;
 import java.nio.charset.CharsetDecoder;
 import java.nio.charset.CodingErrorAction;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 
@@ -24,6 +27,9 @@
 
 /**
  * A websocket, which can be used to send and receive messages with a web server.
+ * <p>
+ * If the websocket was opened with {@code buffered = true}, received messages are held by the websocket until they are
+ * read with {@link #receive} or {@link #receiveBatch}, rather than being queued as {@code websocket_message} events.
  *
  * @cc.module http.Websocket
  * @see dan200.computercraft.core.apis.HTTPAPI#websocket On how to open a websocket.
@@ -35,12 +41,18 @@ public class WebsocketHandle {
     private final String address;
     private final WebsocketClient websocket;
     private final Options options;
+    private final @Nullable WebsocketBuffer buffer;
 
     public WebsocketHandle(IAPIEnvironment environment, String address, WebsocketClient websocket, Options options) {
+        this(environment, address, websocket, options, null);
+    }
+
+    WebsocketHandle(IAPIEnvironment environment, String address, WebsocketClient websocket, Options options, @Nullable WebsocketBuffer buffer) {
         this.environment = environment;
         this.address = address;
         this.websocket = websocket;
         this.options = options;
+        this.buffer = buffer;
     }
 
     /**
@@ -57,12 +69,74 @@ public WebsocketHandle(IAPIEnvironment environment, String address, WebsocketCli
      */
     @LuaFunction
     public final MethodResult receive(Optional<Double> timeout) throws LuaException {
+        return startReceive(timeout, false);
+    }
+
+    /**
+     * Wait for one or more messages from the server.
+     * <p>
+     * This waits until at least one message is available, and then returns every message which has been received. This
+     * is more efficient than calling {@link #receive} in a loop when the server sends lots of small messages.
+     * <p>
+     * Websockets opened without {@code buffered = true} only have one message available at a time, and so this always
+     * returns a single message.
+     *
+     * @param timeout The number of seconds to wait if no message is received.
+     * @return The result of receiving.
+     * @throws LuaException If the websocket has been closed.
+     * @cc.treturn [1] { string... } The received messages.
+     * @cc.treturn { boolean... } Whether each message was binary.
+     * @cc.treturn [2] nil If the websocket was closed while waiting, or if we timed out.
+     * @cc.usage Print every message sent by a server.
+     * <pre>{@code
+     * local ws = assert(http.websocket { url = "wss://example.tweaked.cc/echo", buffered = true })
+     * while true do
+     *   local messages = ws.receiveBatch()
+     *   if not messages then break end
+     *   for _, message in ipairs(messages) do print(message) end
+     * end
+     * }</pre>
+     * @cc.since 1.112.0
+     */
+    @LuaFunction
+    public final MethodResult receiveBatch(Optional<Double> timeout) throws LuaException {
+        return startReceive(timeout, true);
+    }
+
+    private MethodResult startReceive(Optional<Double> timeout, boolean batch) throws LuaException {
+        // Buffered messages may still be read after the websocket is closed.
+        if (buffer != null) {
+            var result = tryReceive(buffer, batch);
+            if (result != null) return result;
+
+            // No more messages will arrive, so don't leave the buffer waiting for one.
+            if (websocket.isClosed()) buffer.stopWaiting();
+        }
+
         checkOpen();
         var timeoutId = timeout.isPresent()
             ? environment.startTimer(Math.round(checkFinite(0, timeout.get()) / 0.05))
             : -1;
 
-        return new ReceiveCallback(timeoutId).pull;
+        return new ReceiveCallback(timeoutId, batch).pull;
+    }
+
+    private static @Nullable MethodResult tryReceive(WebsocketBuffer buffer, boolean batch) {
+        if (batch) {
+            var messages = buffer.drainOrWait();
+            if (messages.isEmpty()) return null;
+
+            List<byte[]> contents = new ArrayList<>(messages.size());
+            List<Boolean> binary = new ArrayList<>(messages.size());
+            for (var message : messages) {
+                contents.add(message.contents());
+                binary.add(message.binary());
+            }
+            return MethodResult.of(contents, binary);
+        } else {
+            var message = buffer.pollOrWait();
+            return message == null ? null : MethodResult.of(message.contents(), message.binary());
+        }
     }
 
     /**
@@ -111,25 +185,42 @@ private void checkOpen() throws LuaException {
     private final class ReceiveCallback implements ILuaCallback {
         final MethodResult pull = MethodResult.pullEvent(null, this);
         private final int timeoutId;
+        private final boolean batch;
 
-        ReceiveCallback(int timeoutId) {
+        ReceiveCallback(int timeoutId, boolean batch) {
             this.timeoutId = timeoutId;
+            this.batch = batch;
         }
 
         @Override
         public MethodResult resume(Object[] event) {
-            if (event.length >= 3 && Objects.equals(event[0], MESSAGE_EVENT) && Objects.equals(event[1], address)) {
-                return MethodResult.of(Arrays.copyOfRange(event, 2, event.length));
-            } else if (event.length >= 2 && Objects.equals(event[0], CLOSE_EVENT) && Objects.equals(event[1], address) && websocket.isClosed()) {
+            if (buffer != null) {
+                // WebsocketBuffer.DATA_EVENT only carries our address, so can't distinguish us from another buffered
+                // websocket connected to the same URL. Instead, just poll the buffer after every event - this is a
+                // single synchronised check, and also copes with the wake-up being dropped from a full event queue.
+                var result = tryReceive(buffer, batch);
+                if (result != null) return result;
+            } else if (event.length >= 3 && Objects.equals(event[0], MESSAGE_EVENT) && Objects.equals(event[1], address)) {
+                if (!batch) return MethodResult.of(Arrays.copyOfRange(event, 2, event.length));
+                return MethodResult.of(List.of(event[2]), List.of(event.length >= 4 ? event[3] : false));
+            }
+
+            if (event.length >= 2 && Objects.equals(event[0], CLOSE_EVENT) && Objects.equals(event[1], address) && websocket.isClosed()) {
                 // If the socket is closed abort.
-                return MethodResult.of();
+                return stopReceiving();
             } else if (event.length >= 2 && timeoutId != -1 && Objects.equals(event[0], TIMER_EVENT)
                 && event[1] instanceof Number id && id.intValue() == timeoutId) {
                 // If we received a matching timer event then abort.
-                return MethodResult.of();
+                return stopReceiving();
             }
 
             return pull;
         }
+
+        private MethodResult stopReceiving() {
+            // We're no longer waiting for a message, so make sure the next one doesn't queue a stray event.
+            if (buffer != null) buffer.stopWaiting();
+            return MethodResult.of();
+        }
     }
 }
@@ -34,7 +34,7 @@ public void channelInactive(ChannelHandlerContext ctx) throws Exception {
     @Override
     public void userEventTriggered(ChannelHandlerContext ctx, Object evt) {
         if (evt == WebSocketClientProtocolHandler.ClientHandshakeStateEvent.HANDSHAKE_COMPLETE) {
-            websocket.success(options);
+            websocket.success(options, ctx.channel());
             handshakeComplete = true;
         } else if (evt == WebSocketClientProtocolHandler.ClientHandshakeStateEvent.HANDSHAKE_TIMEOUT) {
             websocket.failure("Timed out");
@@ -53,18 +53,26 @@ public void channelRead0(ChannelHandlerContext ctx, Object msg) {
         if (frame instanceof TextWebSocketFrame textFrame) {
             var data = NetworkUtils.toBytes(textFrame.content());
 
-            websocket.environment().observe(Metrics.WEBSOCKET_INCOMING, data.length);
-            websocket.environment().queueEvent(MESSAGE_EVENT, websocket.address(), data, false);
+            onMessage(data, false);
         } else if (frame instanceof BinaryWebSocketFrame) {
             var data = NetworkUtils.toBytes(frame.content());
-
-            websocket.environment().observe(Metrics.WEBSOCKET_INCOMING, data.length);
-            websocket.environment().queueEvent(MESSAGE_EVENT, websocket.address(), data, true);
+            onMessage(data, true);
         } else if (frame instanceof CloseWebSocketFrame closeFrame) {
             websocket.close(closeFrame.statusCode(), closeFrame.reasonText());
         }
     }
 
+    private void onMessage(byte[] data, boolean binary) {
+        websocket.environment().observe(Metrics.WEBSOCKET_INCOMING, data.length);
+
+        var buffer = websocket.buffer();
+        if (buffer != null) {
+            buffer.offer(data, binary);
+        } else {
+            websocket.environment().queueEvent(MESSAGE_EVENT, websocket.address(), data, binary);
+        }
+    }
+
     @Override
     public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
         ctx.close();
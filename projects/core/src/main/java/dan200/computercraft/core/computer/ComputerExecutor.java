@@ -14,6 +14,7 @@
 import dan200.computercraft.core.computer.computerthread.ComputerThread;
 import dan200.computercraft.core.filesystem.FileSystem;
 import dan200.computercraft.core.filesystem.FileSystemException;
+import dan200.computercraft.core.lua.ChunkCache;
 import dan200.computercraft.core.lua.ILuaMachine;
 import dan200.computercraft.core.lua.MachineEnvironment;
 import dan200.computercraft.core.lua.MachineException;
@@ -33,6 +34,7 @@
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Queue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
 
 /**
@@ -59,13 +61,30 @@ final class ComputerExecutor implements ComputerScheduler.Worker {
     private static final Logger LOG = LoggerFactory.getLogger(ComputerExecutor.class);
     private static final int QUEUE_LIMIT = 256;
 
+    /**
+     * The maximum number of events to run in a single call to {@link #work()}.
+     *
+     * @see #drainEvents()
+     */
+    static final int MAX_EVENTS_PER_SLICE = 64;
+
+    /**
+     * The maximum time to spend running events in a single call to {@link #work()}, even if no other computers are
+     * waiting to run.
+     *
+     * @see #drainEvents()
+     */
+    private static final long MAX_SLICE_TIME = TimeUnit.MILLISECONDS.toNanos(50);
+
     private final Computer computer;
     private final ComputerEnvironment computerEnvironment;
     private final MetricsObserver metrics;
     private final List<ApiWrapper> apis = new ArrayList<>();
     private final MethodSupplier<LuaMethod> luaMethods;
+    private final ChunkCache chunkCache;
 
     private @Nullable FileSystem fileSystem;
+    private @Nullable Mount romMount;
 
     private @Nullable ILuaMachine machine;
 
@@ -151,6 +170,7 @@ final class ComputerExecutor implements ComputerScheduler.Worker {
         metrics = computerEnvironment.getMetrics();
         luaFactory = context.luaFactory();
         luaMethods = context.luaMethods();
+        chunkCache = context.chunkCache();
         executor = context.computerScheduler().createExecutor(this, metrics);
 
         var environment = computer.getEnvironment();
@@ -341,6 +361,7 @@ private FileSystem createFileSystem() {
             }
 
             filesystem.mount("rom", "rom", romMount);
+            this.romMount = romMount;
             return filesystem;
         } catch (FileSystemException e) {
             if (filesystem != null) filesystem.close();
@@ -353,6 +374,9 @@ private FileSystem createFileSystem() {
 
     @Nullable
     private ILuaMachine createLuaMachine() {
+        var romMount = this.romMount;
+        if (romMount == null) throw new IllegalStateException("FileSystem has not been created yet");
+
         // Load the bios resource
         InputStream biosStream = null;
         try {
@@ -372,7 +396,8 @@ private ILuaMachine createLuaMachine() {
                 new LuaContext(computer), metrics, executor.timeoutState(),
                 () -> apis.stream().map(ApiWrapper::api).iterator(),
                 luaMethods,
-                computer.getGlobalEnvironment().getHostString()
+                computer.getGlobalEnvironment().getHostString(),
+                chunkCache, romMount
             ), bios);
         } catch (IOException e) {
             LOG.error("Failed to read bios.lua", e);
@@ -443,6 +468,7 @@ private void shutdown() throws InterruptedException {
                 fileSystem.close();
                 fileSystem = null;
             }
+            romMount = null;
 
             computer.getEnvironment().resetOutput();
         } finally {
@@ -453,7 +479,7 @@ private void shutdown() throws InterruptedException {
     /**
      * The main worker function, called by {@link ComputerThread}.
      * <p>
-     * This either executes a {@link StateCommand} or attempts to run an event
+     * This either executes a {@link StateCommand} or attempts to run one or more events.
      *
      * @throws InterruptedException If various locks could not be acquired.
      * @see #command
@@ -522,6 +548,45 @@ private void workImpl() throws InterruptedException {
         } else if (event != null) {
             executor.setRemainingTime(TimeoutState.TIMEOUT);
             resumeMachine(event.name, event.args);
+            drainEvents();
+        }
+    }
+
+    /**
+     * Continue running queued events until this computer's timeslice has been used up.
+     * <p>
+     * This avoids going back through the {@link ComputerScheduler} after every event, which is relatively expensive
+     * when a computer has a large backlog of events. The time spent running these events is still counted towards this
+     * computer's runtime, so this does not affect how fairly computers are scheduled.
+     * <p>
+     * We always return to the scheduler after {@link #MAX_EVENTS_PER_SLICE} events or {@link #MAX_SLICE_TIME}, even if
+     * no other computers are waiting. Otherwise a computer which keeps queuing events for itself would never leave this
+     * loop.
+     *
+     * @throws InterruptedException If various locks could not be acquired.
+     */
+    private void drainEvents() throws InterruptedException {
+        var timeout = executor.timeoutState();
+        var allowedTime = TimeoutState.TIMEOUT;
+        var start = System.nanoTime();
+        // We've already run one event before draining the queue.
+        for (var events = 1; events < MAX_EVENTS_PER_SLICE && System.nanoTime() - start < MAX_SLICE_TIME; events++) {
+            // Stop if the computer errored or paused, or if our timeslice has run out and other computers want to run.
+            if (!isOn || wasPaused) return;
+            timeout.refresh();
+            if (timeout.isPaused() || timeout.isSoftAborted()) return;
+
+            Event event;
+            synchronized (queueLock) {
+                if (command != null) return;
+                event = eventQueue.poll();
+            }
+            if (event == null) return;
+
+            // Give each event the full timeout, rather than whatever was left over from the previous one.
+            allowedTime += TimeoutState.TIMEOUT - executor.getRemainingTime();
+            executor.setRemainingTime(allowedTime);
+            resumeMachine(event.name, event.args);
         }
     }
 
@@ -12,12 +12,9 @@
 import dan200.computercraft.core.metrics.MetricsObserver;
 import dan200.computercraft.core.terminal.Terminal;
 import dan200.computercraft.core.util.PeripheralHelpers;
-import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
-import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
 
 import javax.annotation.Nullable;
 import java.util.Arrays;
-import java.util.Iterator;
 
 /**
  * Represents the "environment" that a {@link Computer} exists in.
@@ -57,7 +54,7 @@ public final class Environment implements IAPIEnvironment {
     private final IPeripheral[] peripherals = new IPeripheral[ComputerSide.COUNT];
     private @Nullable IPeripheralChangeListener peripheralListener = null;
 
-    private final Int2ObjectMap<Timer> timers = new Int2ObjectOpenHashMap<>();
+    private final TimerWheel timers = new TimerWheel();
     private int nextTimerToken = 0;
 
     Environment(Computer computer, ComputerEnvironment environment) {
@@ -203,18 +200,8 @@ void tick() {
         }
 
         synchronized (timers) {
-            // Countdown all of our active timers
-            Iterator<Int2ObjectMap.Entry<Timer>> it = timers.int2ObjectEntrySet().iterator();
-            while (it.hasNext()) {
-                var entry = it.next();
-                var timer = entry.getValue();
-                timer.ticksLeft--;
-                if (timer.ticksLeft <= 0) {
-                    // Queue the "timer" event
-                    queueEvent(TIMER_EVENT, entry.getIntKey());
-                    it.remove();
-                }
-            }
+            // Advance our timers, queuing a "timer" event for any which have finished.
+            timers.tick(id -> queueEvent(TIMER_EVENT, id));
         }
     }
 
@@ -297,7 +284,7 @@ public void setLabel(@Nullable String label) {
     @Override
     public int startTimer(long ticks) {
         synchronized (timers) {
-            timers.put(nextTimerToken, new Timer(ticks));
+            timers.add(nextTimerToken, ticks);
             return nextTimerToken++;
         }
     }
@@ -313,12 +300,4 @@ public void cancelTimer(int id) {
     public MetricsObserver metrics() {
         return metrics;
     }
-
-    private static class Timer {
-        long ticksLeft;
-
-        Timer(long ticksLeft) {
-            this.ticksLeft = ticksLeft;
-        }
-    }
 }
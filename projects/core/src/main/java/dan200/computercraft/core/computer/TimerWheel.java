@@ -0,0 +1,164 @@
+// SPDX-FileCopyrightText: 2024 The CC: Tweaked Developers
+//
+// SPDX-License-Identifier: MPL-2.0
+
+package dan200.computercraft.core.computer;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * A hierarchical timer wheel, used to store a computer's {@linkplain Environment#startTimer(long) timers}.
+ * <p>
+ * Timers are stored in one of several levels of slots, with each level covering a range {@value #SLOTS} times larger
+ * than the previous. Timers are moved to a lower level as their deadline gets closer, and fired once they reach the
+ * lowest one. This means {@linkplain #tick(IntConsumer) ticking} the wheel only visits timers which are about to fire
+ * (or need to be moved), rather than every active timer.
+ * <p>
+ * This class is not thread safe, and should be guarded by an external lock.
+ */
+final class TimerWheel {
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+
+    private final @Nullable Timer[] heads = new Timer[LEVELS * SLOTS];
+    private final @Nullable Timer[] tails = new Timer[LEVELS * SLOTS];
+    private final Int2ObjectMap<Timer> timers = new Int2ObjectOpenHashMap<>();
+    private long now;
+
+    /**
+     * Add a new timer.
+     *
+     * @param id    The timer's id. This replaces any active timer with the same id.
+     * @param ticks The number of ticks until this timer fires. Timers with a delay of 0 or less fire on the next tick.
+     */
+    void add(int id, long ticks) {
+        var deadline = ticks <= 1 ? now + 1 : ticks >= Long.MAX_VALUE - now ? Long.MAX_VALUE : now + ticks;
+        var timer = new Timer(id, deadline);
+        var existing = timers.put(id, timer);
+        if (existing != null) unlink(existing);
+        insert(timer);
+    }
+
+    /**
+     * Remove a timer, if it has not already fired.
+     *
+     * @param id The timer to remove.
+     */
+    void remove(int id) {
+        var timer = timers.remove(id);
+        if (timer != null) unlink(timer);
+    }
+
+    /**
+     * Remove all timers.
+     */
+    void clear() {
+        if (timers.isEmpty()) return;
+        timers.clear();
+        Arrays.fill(heads, null);
+        Arrays.fill(tails, null);
+    }
+
+    /**
+     * Advance the wheel by a single tick, firing any timers which are now due.
+     *
+     * @param fire The function to call with the id of each timer which has fired.
+     */
+    void tick(IntConsumer fire) {
+        var now = ++this.now;
+        if (timers.isEmpty()) return;
+
+        // When a level wraps around, move the timers in the next level's current slot down into the lower levels.
+        for (var level = LEVELS - 1; level > 0; level--) {
+            if ((now & ((1L << (BITS * level)) - 1)) != 0) continue;
+
+            var index = level * SLOTS + (int) ((now >>> (BITS * level)) & MASK);
+            var timer = heads[index];
+            heads[index] = tails[index] = null;
+            while (timer != null) {
+                var next = timer.next;
+                insert(timer);
+                timer = next;
+            }
+        }
+
+        var index = (int) (now & MASK);
+        var timer = heads[index];
+        heads[index] = tails[index] = null;
+        while (timer != null) {
+            var next = timer.next;
+            timer.slot = -1;
+            timers.remove(timer.id);
+            fire.accept(timer.id);
+            timer = next;
+        }
+    }
+
+    private void insert(Timer timer) {
+        var delay = timer.deadline - now;
+
+        int index;
+        if (delay < SLOTS) {
+            index = (int) (timer.deadline & MASK);
+        } else {
+            var level = 1;
+            while (level < LEVELS - 1 && delay >= 1L << (BITS * (level + 1))) level++;
+
+            // Timers which are too far away for the top level are put in the slot which will be visited last, and then
+            // added back to the top level until they are close enough.
+            var time = delay >= 1L << (BITS * LEVELS) ? now : timer.deadline;
+            index = level * SLOTS + (int) ((time >>> (BITS * level)) & MASK);
+        }
+
+        var tail = tails[index];
+        timer.slot = index;
+        timer.prev = tail;
+        timer.next = null;
+        if (tail == null) {
+            heads[index] = timer;
+        } else {
+            tail.next = timer;
+        }
+        tails[index] = timer;
+    }
+
+    private void unlink(Timer timer) {
+        if (timer.slot < 0) return;
+
+        var prev = timer.prev;
+        var next = timer.next;
+        if (prev == null) {
+            heads[timer.slot] = next;
+        } else {
+            prev.next = next;
+        }
+        if (next == null) {
+            tails[timer.slot] = prev;
+        } else {
+            next.prev = prev;
+        }
+
+        timer.slot = -1;
+        timer.prev = timer.next = null;
+    }
+
+    private static final class Timer {
+        final int id;
+        final long deadline;
+        int slot = -1;
+        @Nullable Timer prev;
+        @Nullable Timer next;
+
+        Timer(int id, long deadline) {
+            this.id = id;
+            this.deadline = deadline;
+        }
+    }
+}
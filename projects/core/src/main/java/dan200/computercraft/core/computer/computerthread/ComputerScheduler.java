@@ -18,8 +18,9 @@
  * This API is composed of two interfaces, a {@link Worker} and {@link Executor}. The {@link ComputerScheduler}
  * implementation will supply an {@link Executor}, while consuming classes should implement {@link Worker}.
  * <p>
- * In practice, this interface is only implemented by {@link ComputerThread} (and consumed by {@link dan200.computercraft.core.computer.ComputerExecutor}),
- * however this interface is useful to enforce separation of the two.
+ * In practice, this interface is only implemented by {@link ComputerThread} and {@link WorkStealingComputerThread} (and
+ * consumed by {@link dan200.computercraft.core.computer.ComputerExecutor}), however this interface is useful to enforce
+ * separation of the two.
  *
  * @see ManagedTimeoutState
  */
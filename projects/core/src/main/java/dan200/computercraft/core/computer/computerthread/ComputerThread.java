@@ -452,10 +452,11 @@ private void workerFinished(WorkerThread worker) {
                 LOG.error("Worker {} closed, but new runner has been spawned.", worker.index);
             } else if (state.get() == RUNNING || (state.get() == STOPPING && hasPendingWork())) {
                 addWorker(worker.index);
-                workerCount++;
             } else {
                 workers[worker.index] = null;
             }
+
+            shutdown.signalAll();
         } finally {
             threadLock.unlock();
         }
@@ -916,6 +917,6 @@ protected boolean shouldPause() {
      * @param allocatedBytes The amount of memory this thread has allocated.
      * @param time           The time (in nanoseconds) when this time was computed.
      */
-    private record ThreadAllocation(long threadId, long allocatedBytes, long time) {
+    record ThreadAllocation(long threadId, long allocatedBytes, long time) {
     }
 }
@@ -0,0 +1,1054 @@
+// SPDX-FileCopyrightText: 2024 The CC: Tweaked Developers
+//
+// SPDX-License-Identifier: MPL-2.0
+
+package dan200.computercraft.core.computer.computerthread;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.errorprone.annotations.Keep;
+import dan200.computercraft.core.Logging;
+import dan200.computercraft.core.computer.TimeoutState;
+import dan200.computercraft.core.computer.computerthread.ComputerThread.ExecutorState;
+import dan200.computercraft.core.computer.computerthread.ComputerThread.ThreadAllocation;
+import dan200.computercraft.core.metrics.Metrics;
+import dan200.computercraft.core.metrics.MetricsObserver;
+import dan200.computercraft.core.metrics.ThreadAllocations;
+import dan200.computercraft.core.util.ThreadUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.*;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A {@link ComputerScheduler} which gives each worker thread its own run queue, rather than sharing a single queue
+ * between all workers like {@link ComputerThread}.
+ * <p>
+ * Each {@linkplain RunQueue run queue} is a miniature version of {@link ComputerThread}'s Completely Fair Scheduler:
+ * computers are ordered by their {@linkplain ExecutorImpl#virtualRuntime virtual runtime}, and each queue tracks its own
+ * {@linkplain RunQueue#minimumVirtualRuntime minimum runtime}. As each queue has its own lock, submitting a computer or
+ * requeuing it after it has run only contends with the one worker that owns that queue, rather than with every worker.
+ * <p>
+ * When a worker's queue is empty, it will attempt to steal the highest priority computer from the longest queue of
+ * another worker. Virtual runtimes are stored relative to the owning queue's minimum, and so are rebased when a
+ * computer moves between queues. This means fairness is only roughly global: within a queue computers are scheduled
+ * exactly as with {@link ComputerThread}, while across queues work stealing (and picking the shorter of two queues when
+ * {@linkplain #selectQueue(ExecutorImpl) submitting a computer}) keeps the load balanced.
+ * <p>
+ * Like {@link ComputerThread}, a single {@link Monitor} thread is responsible for updating computer timeouts and
+ * killing workers which have not responded to {@link TimeoutState#isSoftAborted()}.
+ *
+ * @see ComputerThread
+ */
+public final class WorkStealingComputerThread implements ComputerScheduler {
+    private static final Logger LOG = LoggerFactory.getLogger(WorkStealingComputerThread.class);
+
+    /**
+     * A factory for the monitor thread.
+     *
+     * @see ComputerThread
+     */
+    private static final ThreadFactory monitorFactory = ThreadUtils.builder("Computer-Monitor")
+        .setPriority((Thread.NORM_PRIORITY + Thread.MAX_PRIORITY) / 2)
+        .build();
+
+    private static final ThreadFactory workerFactory = ThreadUtils.lowPriorityFactory("Computer-Worker");
+
+    /**
+     * How often the computer thread monitor should run.
+     *
+     * @see Monitor
+     */
+    private static final long MONITOR_WAKEUP = TimeUnit.MILLISECONDS.toNanos(100);
+
+    /**
+     * The maximum time an idle worker will park for before checking the other queues again. Workers are normally woken
+     * when work is submitted, so this only acts as a safety net.
+     */
+    private static final long IDLE_WAKEUP = TimeUnit.MILLISECONDS.toNanos(100);
+
+    /**
+     * The target latency between executing two tasks on a single machine.
+     *
+     * @see ComputerThread
+     */
+    private static final long DEFAULT_LATENCY = TimeUnit.MILLISECONDS.toNanos(50);
+
+    /**
+     * The minimum value that {@link #DEFAULT_LATENCY} can have when scaled.
+     *
+     * @see ComputerThread
+     */
+    private static final long DEFAULT_MIN_PERIOD = TimeUnit.MILLISECONDS.toNanos(5);
+
+    /**
+     * The maximum number of tasks before we have to start scaling latency linearly.
+     */
+    private static final long LATENCY_MAX_TASKS = DEFAULT_LATENCY / DEFAULT_MIN_PERIOD;
+
+    /**
+     * Time difference between reporting crashed threads.
+     *
+     * @see WorkerThread#reportTimeout(ExecutorImpl, long)
+     */
+    private static final long REPORT_DEBOUNCE = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * Lock used for modifications to the array of current threads.
+     */
+    private final ReentrantLock threadLock = new ReentrantLock();
+
+    private static final int RUNNING = 0;
+    private static final int STOPPING = 1;
+    private static final int CLOSED = 2;
+
+    /**
+     * Whether the computer thread system is currently running.
+     */
+    private final AtomicInteger state = new AtomicInteger(RUNNING);
+
+    /**
+     * The current task manager.
+     */
+    private @Nullable Thread monitor;
+
+    /**
+     * The array of current workers, and their owning threads.
+     */
+    @GuardedBy("threadLock")
+    private final WorkerThread[] workers;
+
+    /**
+     * The number of workers in {@link #workers}.
+     */
+    @GuardedBy("threadLock")
+    private int workerCount = 0;
+
+    private final Condition shutdown = threadLock.newCondition();
+
+    /**
+     * The run queue for each worker. Unlike {@link #workers}, these live for the lifetime of the scheduler, and so
+     * persist when a worker is replaced after timing out.
+     */
+    private final RunQueue[] queues;
+
+    private final long latency;
+    private final long minPeriod;
+
+    private final ReentrantLock monitorLock = new ReentrantLock();
+    private final @GuardedBy("monitorLock") Condition monitorWakeup = monitorLock.newCondition();
+
+    /**
+     * The total number of computers across all {@linkplain #queues run queues}.
+     */
+    private final AtomicInteger queuedCount = new AtomicInteger(0);
+
+    private final AtomicInteger idleWorkers = new AtomicInteger(0);
+
+    @SuppressWarnings("GuardedBy")
+    private static int compareExecutors(ExecutorImpl a, ExecutorImpl b) {
+        if (a == b) return 0; // Should never happen, but let's be consistent here
+
+        long at = a.virtualRuntime, bt = b.virtualRuntime;
+        if (at == bt) return Integer.compare(a.hashCode(), b.hashCode());
+        return at < bt ? -1 : 1;
+    }
+
+    public WorkStealingComputerThread(int threadCount) {
+        workers = new WorkerThread[threadCount];
+        queues = new RunQueue[threadCount];
+        for (var i = 0; i < threadCount; i++) queues[i] = new RunQueue(i);
+
+        // latency and minPeriod are scaled by 1 + floor(log2(threads)), as in ComputerThread.
+        var factor = 64 - Long.numberOfLeadingZeros(workers.length);
+        latency = DEFAULT_LATENCY * factor;
+        minPeriod = DEFAULT_MIN_PERIOD * factor;
+    }
+
+    @Override
+    public Executor createExecutor(ComputerScheduler.Worker worker, MetricsObserver metrics) {
+        return new ExecutorImpl(worker, metrics);
+    }
+
+    @GuardedBy("threadLock")
+    private void addWorker(int index) {
+        LOG.trace("Spawning new worker {}.", index);
+        (workers[index] = new WorkerThread(index)).owner.start();
+        workerCount++;
+    }
+
+    @SuppressWarnings("GuardedBy")
+    private WorkerThread[] workersReadOnly() {
+        return workers;
+    }
+
+    /**
+     * Ensure the monitor and the worker for a specific queue are running.
+     *
+     * @param index The index of the queue which is about to receive work.
+     */
+    private void ensureRunning(int index) {
+        // Don't even enter the lock if we've a monitor and a worker for this queue.
+        if (monitor != null && workersReadOnly()[index] != null) return;
+
+        threadLock.lock();
+        try {
+            LOG.trace("Possibly spawning a worker or monitor.");
+
+            if (monitor == null || !monitor.isAlive()) (monitor = monitorFactory.newThread(new Monitor())).start();
+            if (workers[index] == null) addWorker(index);
+        } finally {
+            threadLock.unlock();
+        }
+    }
+
+    private void advanceState(int newState) {
+        while (true) {
+            var current = state.get();
+            if (current >= newState || state.compareAndSet(current, newState)) break;
+        }
+    }
+
+    /**
+     * Attempt to stop the computer thread. This interrupts each worker, and clears the task queues.
+     *
+     * @param timeout The maximum time to wait.
+     * @param unit    The unit {@code timeout} is in.
+     * @return Whether the thread was successfully shut down.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    @Override
+    public boolean stop(long timeout, TimeUnit unit) throws InterruptedException {
+        advanceState(STOPPING);
+
+        // Encourage any currently running runners to terminate, and wake any idle ones.
+        threadLock.lock();
+        try {
+            for (@Nullable var worker : workers) {
+                if (worker == null) continue;
+
+                var executor = worker.currentExecutor.get();
+                if (executor != null) executor.timeout.hardAbort();
+                LockSupport.unpark(worker.owner);
+            }
+        } finally {
+            threadLock.unlock();
+        }
+
+        // Wait for all workers to signal they have finished.
+        var timeoutNs = unit.toNanos(timeout);
+        threadLock.lock();
+        try {
+            while (workerCount > 0) {
+                if (timeoutNs <= 0) return false;
+                timeoutNs = shutdown.awaitNanos(timeoutNs);
+            }
+        } finally {
+            threadLock.unlock();
+        }
+
+        advanceState(CLOSED);
+
+        // Signal the monitor to finish, but don't wait for it to stop.
+        monitorLock.lock();
+        try {
+            monitorWakeup.signal();
+        } finally {
+            monitorLock.unlock();
+        }
+
+        return true;
+    }
+
+    /**
+     * Pick the queue to add a newly submitted computer to.
+     * <p>
+     * We prefer the queue the computer last ran on, as its state is more likely to still be in that core's cache.
+     * However, if a randomly chosen queue has less work than it, we use that instead. This "power of two choices"
+     * approach keeps queues balanced without needing to look at every queue.
+     *
+     * @param executor The computer to find a queue for.
+     * @return The queue to submit this computer to.
+     */
+    private RunQueue selectQueue(ExecutorImpl executor) {
+        var random = queues[ThreadLocalRandom.current().nextInt(queues.length)];
+        var last = executor.queueIndex;
+        if (last < 0) return random;
+
+        var previous = queues[last];
+        return random.load < previous.load ? random : previous;
+    }
+
+    /**
+     * Mark a computer as having work, enqueuing it on one of the run queues.
+     * <p>
+     * This should only be called from {@link ExecutorImpl#submit()}, when transitioning from the idle state.
+     *
+     * @param executor The computer to execute work on.
+     */
+    void queue(ExecutorImpl executor) {
+        if (state.get() != RUNNING) throw new IllegalStateException("ComputerThread is no longer running");
+
+        var queue = selectQueue(executor);
+
+        // Ensure we've got a worker running for this queue.
+        ensureRunning(queue.index);
+
+        var wasBusy = isBusy();
+
+        queue.lock.lock();
+        try {
+            queue.updateRuntimes(null);
+
+            // If the computer last ran on another queue, rebase its virtual runtime onto this one.
+            var previous = executor.queueIndex;
+            if (previous >= 0 && previous != queue.index && executor.virtualRuntime != 0) {
+                executor.virtualRuntime += queue.minimumVirtualRuntime - queues[previous].minimumVirtualRuntime;
+            }
+
+            // We're not currently on the queue, so update its current execution time to ensure its at least as high
+            // as the minimum.
+            var newRuntime = queue.minimumVirtualRuntime;
+
+            if (executor.virtualRuntime == 0) {
+                // Slow down new computers a little bit.
+                newRuntime += queue.scaledPeriod();
+            } else {
+                // Give a small boost to computers which have slept a little.
+                newRuntime -= latency / 2;
+            }
+
+            executor.virtualRuntime = Math.max(newRuntime, executor.virtualRuntime);
+            queue.add(executor);
+        } finally {
+            queue.lock.unlock();
+        }
+
+        wakeWorker(queue);
+
+        // If we've transitioned into a busy state, notify the monitor. This will cause it to sleep for scaledPeriod
+        // instead of the longer wakeup duration.
+        if (!wasBusy && isBusy()) {
+            monitorLock.lock();
+            try {
+                monitorWakeup.signal();
+            } finally {
+                monitorLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Wake a worker to process work which has been added to a queue.
+     * <p>
+     * If the queue's own worker is idle, we wake that. Otherwise, we wake any idle worker, so it may steal the work.
+     * <p>
+     * This must be called after {@link #queuedCount} has been incremented. Workers set their {@link WorkerThread#idle}
+     * flag before checking {@link #queuedCount} one last time, so either they will see this new work, or we will see
+     * that they are idle.
+     *
+     * @param queue The queue which work was added to.
+     */
+    private void wakeWorker(RunQueue queue) {
+        var workers = workersReadOnly();
+        var owner = workers[queue.index];
+        if (owner != null && owner.idle) {
+            LockSupport.unpark(owner.owner);
+            return;
+        }
+
+        if (idleWorkers.get() == 0) return;
+
+        var start = ThreadLocalRandom.current().nextInt(workers.length);
+        for (var i = 0; i < workers.length; i++) {
+            var worker = workers[(start + i) % workers.length];
+            if (worker != null && worker.idle) {
+                LockSupport.unpark(worker.owner);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Ensure the "currently working" state of the executor is reset, the timings are updated, and then requeue the
+     * executor on its current queue if needed.
+     *
+     * @param queue    The queue the executor was running from.
+     * @param executor The executor to requeue
+     */
+    private void afterWork(RunQueue queue, ExecutorImpl executor) {
+        queue.lock.lock();
+        try {
+            queue.running = null;
+            queue.updateRuntimes(executor);
+
+            // If we've no more tasks, just return.
+            if (!executor.afterWork() || state.get() != RUNNING) {
+                queue.updateLoad();
+                return;
+            }
+
+            // Otherwise, add back to the queue. This worker will be the next to poll it, so there's no need to wake
+            // anyone else.
+            queue.add(executor);
+        } finally {
+            queue.lock.unlock();
+        }
+    }
+
+    /**
+     * Determine if the thread has computers queued up.
+     *
+     * @return If we have work queued up.
+     */
+    @VisibleForTesting
+    boolean hasPendingWork() {
+        return queuedCount.get() > 0;
+    }
+
+    /**
+     * Check if we have more work queued than we have idle workers to steal it.
+     *
+     * @return If the computer threads are busy.
+     */
+    private boolean isBusy() {
+        return queuedCount.get() > idleWorkers.get();
+    }
+
+    /**
+     * The smallest {@linkplain RunQueue#scaledPeriod() scaled period} of any queue, used to determine how often the
+     * monitor should run.
+     *
+     * @return The scaled period of the busiest queue.
+     */
+    @VisibleForTesting
+    long minScaledPeriod() {
+        var period = Long.MAX_VALUE;
+        for (var queue : queues) period = Math.min(period, queue.scaledPeriod());
+        return period;
+    }
+
+    private void workerFinished(WorkerThread worker) {
+        // We should only shut down a worker once! This should only happen if we fail to abort a worker and then the
+        // worker finishes normally.
+        if (!worker.running.getAndSet(false)) return;
+
+        LOG.trace("Worker {} finished.", worker.index);
+
+        var executor = worker.currentExecutor.getAndSet(null);
+        if (executor != null) {
+            var queue = queues[worker.index];
+            queue.lock.lock();
+            try {
+                queue.running = null;
+                queue.updateLoad();
+            } finally {
+                queue.lock.unlock();
+            }
+            executor.afterWork();
+        }
+
+        threadLock.lock();
+        try {
+            workerCount--;
+
+            if (workers[worker.index] != worker) {
+                assert false : "workerFinished but inconsistent worker";
+                LOG.error("Worker {} closed, but new runner has been spawned.", worker.index);
+            } else if (state.get() == RUNNING || (state.get() == STOPPING && hasPendingWork())) {
+                addWorker(worker.index);
+            } else {
+                workers[worker.index] = null;
+            }
+
+            shutdown.signalAll();
+        } finally {
+            threadLock.unlock();
+        }
+    }
+
+    /**
+     * A run queue owned by a single worker.
+     */
+    private final class RunQueue {
+        /**
+         * The index of this queue, and the worker which owns it.
+         */
+        final int index;
+
+        final ReentrantLock lock = new ReentrantLock();
+
+        /**
+         * Computers waiting to execute on this queue.
+         */
+        @GuardedBy("lock")
+        private final TreeSet<ExecutorImpl> queue = new TreeSet<>(WorkStealingComputerThread::compareExecutors);
+
+        /**
+         * The executor currently being run by this queue's worker.
+         */
+        @GuardedBy("lock")
+        @Nullable
+        ExecutorImpl running;
+
+        /**
+         * The minimum {@link ExecutorImpl#virtualRuntime} time on this queue.
+         * <p>
+         * This is only written while holding {@link #lock}, but may be read (approximately) without it when moving
+         * computers between queues.
+         */
+        volatile long minimumVirtualRuntime = 0;
+
+        /**
+         * The number of queued computers. This is a copy of {@code queue.size()} which can be read without the lock.
+         */
+        volatile int size = 0;
+
+        /**
+         * The number of queued computers plus the currently running one, if present.
+         *
+         * @see #selectQueue(ExecutorImpl)
+         */
+        volatile int load = 0;
+
+        RunQueue(int index) {
+            this.index = index;
+        }
+
+        @GuardedBy("lock")
+        void add(ExecutorImpl executor) {
+            executor.queueIndex = index;
+            queue.add(executor);
+            queuedCount.incrementAndGet();
+            updateLoad();
+        }
+
+        @GuardedBy("lock")
+        @Nullable
+        ExecutorImpl poll() {
+            var executor = queue.pollFirst();
+            if (executor != null) queuedCount.decrementAndGet();
+            updateLoad();
+            return executor;
+        }
+
+        @GuardedBy("lock")
+        void updateLoad() {
+            var size = this.size = queue.size();
+            load = size + (running == null ? 0 : 1);
+        }
+
+        /**
+         * Mark an executor as running on this queue's worker.
+         *
+         * @param executor  The executor that is about to run.
+         * @param rebaseMin If this executor was stolen from another queue, that queue's minimum virtual runtime.
+         *                  Otherwise {@link Long#MIN_VALUE}.
+         */
+        void startRunning(ExecutorImpl executor, long rebaseMin) {
+            lock.lock();
+            try {
+                if (rebaseMin != Long.MIN_VALUE) executor.virtualRuntime += minimumVirtualRuntime - rebaseMin;
+                executor.queueIndex = index;
+                executor.vRuntimeStart = System.nanoTime();
+                running = executor;
+                updateLoad();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Update the {@link ExecutorImpl#virtualRuntime} of the running task, and then update the
+         * {@link #minimumVirtualRuntime} based on the current tasks.
+         *
+         * @param current The machine which we updating runtimes from.
+         * @see ComputerThread
+         */
+        @GuardedBy("lock")
+        void updateRuntimes(@Nullable ExecutorImpl current) {
+            var minRuntime = Long.MAX_VALUE;
+
+            // If we've a task on the queue, use that as our base time.
+            if (!queue.isEmpty()) minRuntime = queue.first().virtualRuntime;
+
+            var now = System.nanoTime();
+            var tasks = 1 + queue.size();
+
+            var running = this.running;
+            if (running != null) {
+                minRuntime = Math.min(minRuntime, running.virtualRuntime += (now - running.vRuntimeStart) / tasks);
+                running.vRuntimeStart = now;
+            }
+
+            // And update the most recently executed one (if set).
+            if (current != null) {
+                minRuntime = Math.min(minRuntime, current.virtualRuntime += (now - current.vRuntimeStart) / tasks);
+            }
+
+            if (minRuntime > minimumVirtualRuntime && minRuntime < Long.MAX_VALUE) {
+                minimumVirtualRuntime = minRuntime;
+            }
+        }
+
+        /**
+         * The scaled period for a single task on this queue.
+         *
+         * @return The scaled period for the task
+         * @see ComputerThread#scaledPeriod()
+         */
+        long scaledPeriod() {
+            // +1 to include the current task
+            var count = 1 + size;
+            return count < LATENCY_MAX_TASKS ? latency / count : minPeriod;
+        }
+    }
+
+    /**
+     * Observes all currently active {@link WorkerThread}s and terminates their tasks once they have exceeded the hard
+     * abort limit.
+     *
+     * @see TimeoutState
+     */
+    private final class Monitor implements Runnable {
+        @Override
+        public void run() {
+            LOG.trace("Monitor starting.");
+            try {
+                runImpl();
+            } finally {
+                LOG.trace("Monitor shutting down. Current state is {}.", state.get());
+            }
+        }
+
+        private void runImpl() {
+            var workerThreadIds = new long[workersReadOnly().length];
+            Arrays.fill(workerThreadIds, Thread.currentThread().getId());
+
+            while (state.get() < CLOSED) {
+                monitorLock.lock();
+                try {
+                    // If we've got more work than we have capacity for it, then we'll need to pause a task soon, so
+                    // sleep for a single pause duration. Otherwise we only need to wake up to set the soft/hard abort
+                    // flags, which are far less granular.
+                    monitorWakeup.awaitNanos(isBusy() ? minScaledPeriod() : MONITOR_WAKEUP);
+                } catch (InterruptedException e) {
+                    LOG.error("Monitor thread interrupted. Computers may behave very badly!", e);
+                    break;
+                } finally {
+                    monitorLock.unlock();
+                }
+
+                checkRunners(workerThreadIds);
+            }
+        }
+
+        private void checkRunners(long[] workerThreadIds) {
+            var workers = workersReadOnly();
+
+            long[] allocations;
+            if (ThreadAllocations.isSupported()) {
+                // See ComputerThread.Monitor.checkRunners for why we recompute this array each time.
+                for (var i = 0; i < workers.length; i++) {
+                    var runner = workers[i];
+                    if (runner != null) workerThreadIds[i] = runner.owner.getId();
+                }
+                allocations = ThreadAllocations.getAllocatedBytes(workerThreadIds);
+            } else {
+                allocations = null;
+            }
+            var allocationTime = System.nanoTime();
+
+            for (var i = 0; i < workers.length; i++) {
+                var runner = workers[i];
+                if (runner == null) continue;
+
+                // If the worker has no work, skip
+                var executor = runner.currentExecutor.get();
+                if (executor == null) continue;
+
+                // Refresh the timeout state. Will set the pause/soft timeout flags as appropriate.
+                executor.timeout.refresh();
+
+                // And track the allocated memory.
+                if (allocations != null) {
+                    executor.updateAllocations(new ThreadAllocation(workerThreadIds[i], allocations[i], allocationTime));
+                }
+
+                // If remainingTime > 0, then we're executing normally,
+                // If remainingTime > -ABORT_TIMEOUT, then we've soft aborted.
+                // Otherwise, remainingTime <= -ABORT_TIMEOUT, and we've run over by -ABORT_TIMEOUT - remainingTime.
+                var remainingTime = executor.timeout.getRemainingTime();
+                var afterHardAbort = -remainingTime - TimeoutState.ABORT_TIMEOUT;
+                if (afterHardAbort < 0) continue;
+
+                // Set the hard abort flag.
+                executor.timeout.hardAbort();
+                executor.worker.abortWithTimeout();
+
+                if (afterHardAbort >= TimeoutState.ABORT_TIMEOUT * 2) {
+                    // If we've hard aborted and interrupted, and we're still not dead, then mark the worker
+                    // as dead, finish off the task, and spawn a new runner.
+                    runner.reportTimeout(executor, remainingTime);
+                    runner.owner.interrupt();
+
+                    workerFinished(runner);
+                } else if (afterHardAbort >= TimeoutState.ABORT_TIMEOUT) {
+                    // If we've hard aborted but we're still not dead, dump the stack trace and interrupt
+                    // the task.
+                    runner.reportTimeout(executor, remainingTime);
+                    runner.owner.interrupt();
+                }
+            }
+        }
+    }
+
+    /**
+     * Pulls tasks from its own {@link RunQueue} (or steals them from other queues) and runs them.
+     */
+    private final class WorkerThread implements Runnable {
+        /**
+         * The index into the {@link #workers} and {@link #queues} arrays.
+         */
+        final int index;
+
+        /**
+         * The thread this runner runs on.
+         */
+        final Thread owner;
+
+        /**
+         * Whether this runner is currently executing.
+         *
+         * @see #workerFinished(WorkerThread)
+         */
+        final AtomicBoolean running = new AtomicBoolean(true);
+
+        /**
+         * Whether this runner is idle and (about to be) parked, waiting for work.
+         *
+         * @see #wakeWorker(RunQueue)
+         */
+        volatile boolean idle = false;
+
+        /**
+         * The computer we're currently running.
+         */
+        final AtomicReference<ExecutorImpl> currentExecutor = new AtomicReference<>(null);
+
+        /**
+         * The last time we reported a stack trace, used to avoid spamming the logs.
+         */
+        AtomicLong lastReport = new AtomicLong(Long.MIN_VALUE);
+
+        WorkerThread(int index) {
+            this.index = index;
+            owner = workerFactory.newThread(this);
+        }
+
+        @Override
+        public void run() {
+            try {
+                runImpl();
+            } finally {
+                workerFinished(this);
+            }
+        }
+
+        private void runImpl() {
+            var queue = queues[index];
+            while (running.get()) {
+                // Wait for an executor to run.
+                var executor = take(queue);
+                if (executor == null) return;
+
+                // Mark this computer as executing.
+                if (!ExecutorImpl.STATE.compareAndSet(executor, ExecutorState.ON_QUEUE, ExecutorState.RUNNING)) {
+                    assert false : "Running computer on the wrong thread";
+                    LOG.error(
+                        "Trying to run computer #{} on thread {}, but already running on another thread. This is a SERIOUS " +
+                            "bug, please report with your debug.log.",
+                        executor.worker.getComputerID(), owner.getName()
+                    );
+                }
+
+                // If we're stopping, the only thing this executor should be doing is shutting down.
+                if (state.get() >= STOPPING) executor.worker.unload();
+
+                // Reset the timers
+                executor.beforeWork(queue);
+
+                // And then set the current executor. It's important to do it afterwards, as otherwise we introduce
+                // race conditions with the monitor.
+                currentExecutor.set(executor);
+
+                // Execute the task
+                try {
+                    executor.worker.work();
+                } catch (Exception | LinkageError | VirtualMachineError e) {
+                    LOG.error("Error running task on computer #" + executor.worker.getComputerID(), e);
+                    // Tear down the computer immediately. There's no guarantee it's well-behaved from now on.
+                    executor.worker.abortWithError();
+                } finally {
+                    var thisExecutor = currentExecutor.getAndSet(null);
+                    if (thisExecutor != null) afterWork(queue, executor);
+                }
+            }
+        }
+
+        /**
+         * Wait for an executor to become available, either on our own queue or by stealing one from another queue.
+         *
+         * @param queue This worker's queue.
+         * @return The executor to run, or {@code null} if the scheduler is stopping and there is no more work.
+         */
+        private @Nullable ExecutorImpl take(RunQueue queue) {
+            while (true) {
+                ExecutorImpl executor;
+                queue.lock.lock();
+                try {
+                    executor = queue.poll();
+                } finally {
+                    queue.lock.unlock();
+                }
+
+                if (executor != null) {
+                    queue.startRunning(executor, Long.MIN_VALUE);
+                    return executor;
+                }
+
+                if ((executor = steal(queue)) != null) return executor;
+
+                if (state.get() >= STOPPING) return null;
+
+                idle = true;
+                idleWorkers.getAndIncrement();
+                try {
+                    // Check for work once more after publishing our idle flag. See wakeWorker for why this is needed.
+                    if (queuedCount.get() > 0 || state.get() >= STOPPING) continue;
+
+                    // We should never interrupt() the worker, so we don't need to worry about interruption here.
+                    LockSupport.parkNanos(this, IDLE_WAKEUP);
+                } finally {
+                    idle = false;
+                    idleWorkers.getAndDecrement();
+                }
+            }
+        }
+
+        /**
+         * Steal the highest-priority executor from the longest queue.
+         *
+         * @param queue This worker's queue.
+         * @return The stolen executor, or {@code null} if there was nothing to steal.
+         */
+        private @Nullable ExecutorImpl steal(RunQueue queue) {
+            RunQueue victim = null;
+            var victimSize = 0;
+            var start = ThreadLocalRandom.current().nextInt(queues.length);
+            for (var i = 0; i < queues.length; i++) {
+                var other = queues[(start + i) % queues.length];
+                if (other == queue) continue;
+
+                var size = other.size;
+                if (size > victimSize) {
+                    victim = other;
+                    victimSize = size;
+                }
+            }
+
+            if (victim == null) return null;
+
+            ExecutorImpl executor;
+            long victimMin;
+            victim.lock.lock();
+            try {
+                executor = victim.poll();
+                if (executor == null) return null;
+                victimMin = victim.minimumVirtualRuntime;
+            } finally {
+                victim.lock.unlock();
+            }
+
+            queue.startRunning(executor, victimMin);
+            return executor;
+        }
+
+        private void reportTimeout(ExecutorImpl executor, long time) {
+            if (!LOG.isErrorEnabled(Logging.COMPUTER_ERROR)) return;
+
+            // Attempt to debounce stack trace reporting, limiting ourselves to one every second.
+            var now = System.nanoTime();
+            var then = lastReport.get();
+            if (then != Long.MIN_VALUE && now - then - REPORT_DEBOUNCE <= 0) return;
+            if (!lastReport.compareAndSet(then, now)) return;
+
+            var owner = Objects.requireNonNull(this.owner);
+
+            var builder = new StringBuilder()
+                .append("Terminating computer #").append(executor.worker.getComputerID())
+                .append(" due to timeout (ran over by ").append(time * -1e-9)
+                .append(" seconds). This is NOT a bug, but may mean a computer is misbehaving.\n")
+                .append("Thread ")
+                .append(owner.getName())
+                .append(" is currently ")
+                .append(owner.getState())
+                .append('\n');
+            var blocking = LockSupport.getBlocker(owner);
+            if (blocking != null) builder.append("  on ").append(blocking).append('\n');
+
+            for (var element : owner.getStackTrace()) {
+                builder.append("  at ").append(element).append('\n');
+            }
+
+            executor.worker.writeState(builder);
+
+            LOG.warn(builder.toString());
+        }
+    }
+
+    private final class ExecutorImpl implements Executor {
+        public static final AtomicReferenceFieldUpdater<ExecutorImpl, ExecutorState> STATE = AtomicReferenceFieldUpdater.newUpdater(
+            ExecutorImpl.class, ExecutorState.class, "$state"
+        );
+        public static final AtomicReferenceFieldUpdater<ExecutorImpl, ThreadAllocation> THREAD_ALLOCATION = AtomicReferenceFieldUpdater.newUpdater(
+            ExecutorImpl.class, ThreadAllocation.class, "$threadAllocation"
+        );
+
+        final Worker worker;
+        private final MetricsObserver metrics;
+        final TimeoutImpl timeout;
+
+        /**
+         * The current state of this worker.
+         */
+        @Keep
+        private volatile ExecutorState $state = ExecutorState.IDLE;
+
+        /**
+         * Information about allocations on the currently executing thread.
+         *
+         * @see ComputerThread
+         */
+        @Keep
+        private volatile @Nullable ThreadAllocation $threadAllocation = null;
+
+        /**
+         * The amount of time this computer has used on a theoretical machine which shares work evenly amongst
+         * computers. This is relative to the {@linkplain RunQueue#minimumVirtualRuntime minimum runtime} of the
+         * queue identified by {@link #queueIndex}.
+         */
+        long virtualRuntime = 0;
+
+        /**
+         * The last time at which we updated {@link #virtualRuntime}.
+         */
+        long vRuntimeStart;
+
+        /**
+         * The index of the queue this computer was last queued on, or {@code -1} if it has never been queued.
+         */
+        volatile int queueIndex = -1;
+
+        ExecutorImpl(Worker worker, MetricsObserver metrics) {
+            this.worker = worker;
+            this.metrics = metrics;
+            timeout = new TimeoutImpl();
+        }
+
+        /**
+         * Called before calling {@link Worker#work()}, setting up any important state.
+         *
+         * @param queue The queue this executor is running on.
+         */
+        void beforeWork(RunQueue queue) {
+            timeout.startTimer(queue.scaledPeriod());
+
+            if (ThreadAllocations.isSupported()) {
+                var current = Thread.currentThread().getId();
+                THREAD_ALLOCATION.set(this, new ThreadAllocation(current, ThreadAllocations.getAllocatedBytes(current), System.nanoTime()));
+            }
+        }
+
+        /**
+         * Called after executing {@link Worker#work()}.
+         *
+         * @return If we have more work to do.
+         */
+        boolean afterWork() {
+            timeout.reset();
+            metrics.observe(Metrics.COMPUTER_TASKS, timeout.getExecutionTime());
+
+            if (ThreadAllocations.isSupported()) {
+                var current = Thread.currentThread().getId();
+                var info = THREAD_ALLOCATION.getAndSet(this, null);
+                assert info.threadId() == current;
+
+                var allocated = ThreadAllocations.getAllocatedBytes(current) - info.allocatedBytes();
+                if (allocated > 0) metrics.observe(Metrics.JAVA_ALLOCATION, allocated);
+            }
+
+            var state = STATE.getAndUpdate(this, ExecutorState::requeue);
+            return state == ExecutorState.REPEAT;
+        }
+
+        /**
+         * Update the per-thread allocation information.
+         *
+         * @param allocation The latest allocation information.
+         * @see ComputerThread
+         */
+        void updateAllocations(ThreadAllocation allocation) {
+            ThreadAllocation current;
+            long allocated;
+            do {
+                current = THREAD_ALLOCATION.get(this);
+                if (current == null || current.threadId() != allocation.threadId()) return;
+
+                allocated = allocation.allocatedBytes() - current.allocatedBytes();
+                if (allocated <= 0) return;
+            } while (!THREAD_ALLOCATION.compareAndSet(this, current, allocation));
+
+            metrics.observe(Metrics.JAVA_ALLOCATION, allocated);
+        }
+
+        @Override
+        public void submit() {
+            var state = STATE.getAndUpdate(this, ExecutorState::enqueue);
+            if (state == ExecutorState.IDLE) queue(this);
+        }
+
+        @Override
+        public TimeoutState timeoutState() {
+            return timeout;
+        }
+
+        @Override
+        public long getRemainingTime() {
+            return timeout.getRemainingTime();
+        }
+
+        @Override
+        public void setRemainingTime(long time) {
+            timeout.setRemainingTime(time);
+        }
+    }
+
+    private final class TimeoutImpl extends ManagedTimeoutState {
+        @Override
+        protected boolean shouldPause() {
+            // Only pause if there is more work than idle workers can steal.
+            return isBusy();
+        }
+    }
+}
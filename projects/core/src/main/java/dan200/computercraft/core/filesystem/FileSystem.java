@@ -4,7 +4,6 @@
 
 package dan200.computercraft.core.filesystem;
 
-import com.google.common.base.Splitter;
 import com.google.common.io.ByteStreams;
 import dan200.computercraft.api.filesystem.Mount;
 import dan200.computercraft.api.filesystem.WritableMount;
@@ -21,7 +20,6 @@
 import java.nio.file.OpenOption;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.*;
-import java.util.regex.Pattern;
 
 import static dan200.computercraft.api.filesystem.MountConstants.*;
 
@@ -35,6 +33,7 @@ public class FileSystem {
     private static final int MAX_COPY_DEPTH = 128;
 
     private final Map<String, MountWrapper> mounts = new HashMap<>();
+    private final MountTrie mountTrie = new MountTrie();
 
     private final HashMap<WeakReference<FileSystemWrapper<?>>, SeekableByteChannel> openFiles = new HashMap<>();
     private final ReferenceQueue<FileSystemWrapper<?>> openFileQueue = new ReferenceQueue<>();
@@ -77,12 +76,20 @@ private synchronized void mount(MountWrapper wrapper) {
         var location = wrapper.getLocation();
         mounts.remove(location);
         mounts.put(location, wrapper);
+        mountTrie.add(wrapper);
     }
 
     public synchronized void unmount(String path) {
         var mount = mounts.remove(sanitizePath(path));
         if (mount == null) return;
 
+        // Locations are case-insensitive, so re-add any other mount which shared this location.
+        mountTrie.remove(mount);
+        var location = mount.getLocation().toLowerCase(Locale.ROOT);
+        for (var other : mounts.values()) {
+            if (other.getLocation().toLowerCase(Locale.ROOT).equals(location)) mountTrie.add(other);
+        }
+
         cleanup();
 
         // Close any files which belong to this mount - don't want people writing to a disk after it's been ejected!
@@ -327,22 +334,8 @@ public synchronized OptionalLong getCapacity(String path) throws FileSystemExcep
 
     private synchronized MountWrapper getMount(String path) throws FileSystemException {
         // Return the deepest mount that contains a given path
-        var it = mounts.values().iterator();
-        MountWrapper match = null;
-        var matchLength = 999;
-        while (it.hasNext()) {
-            var mount = it.next();
-            if (contains(mount.getLocation(), path)) {
-                var len = toLocal(path, mount.getLocation()).length();
-                if (match == null || len < matchLength) {
-                    match = mount;
-                    matchLength = len;
-                }
-            }
-        }
-        if (match == null) {
-            throw new FileSystemException(path, "Invalid Path");
-        }
+        var match = mountTrie.get(path);
+        if (match == null) throw new FileSystemException(path, "Invalid Path");
         return match;
     }
 
@@ -350,58 +343,166 @@ private static String sanitizePath(String path) {
         return sanitizePath(path, false);
     }
 
-    private static final Pattern threeDotsPattern = Pattern.compile("^\\.{3,}$");
-
     // IMPORTANT: Both arrays are sorted by ASCII value.
     private static final char[] specialChars = new char[]{ '"', '*', ':', '<', '>', '?', '|' };
     private static final char[] specialCharsAllowWildcards = new char[]{ '"', ':', '<', '>', '|' };
 
-    public static String sanitizePath(String path, boolean allowWildcards) {
-        // Allow windowsy slashes
-        path = path.replace('\\', '/');
-
-        // Clean the path or illegal characters.
-        var cleanName = new StringBuilder();
-        var allowedChars = allowWildcards ? specialCharsAllowWildcards : specialChars;
-        for (var i = 0; i < path.length(); i++) {
-            var c = path.charAt(i);
-            if (c >= 32 && Arrays.binarySearch(allowedChars, c) < 0) cleanName.append(c);
-        }
-        path = cleanName.toString();
-
-        // Collapse the string into its component parts, removing ..'s
-        var outputParts = new ArrayDeque<String>();
-        for (var fullPart : Splitter.on('/').split(path)) {
-            var part = fullPart.strip();
+    /**
+     * The maximum length of a single path component. Any longer components are truncated.
+     */
+    private static final int MAX_COMPONENT_LENGTH = 255;
 
-            if (part.isEmpty() || part.equals(".") || threeDotsPattern.matcher(part).matches()) {
-                // . is redundant
-                // ... and more are treated as .
-                continue;
+    /**
+     * Normalise a path, removing illegal characters, and collapsing {@code .} and {@code ..} components.
+     * <p>
+     * This is called on almost every filesystem operation, so is written to avoid allocating where possible. If the
+     * path is already normalised, it is returned unchanged. Otherwise the normalised path is built up in a single
+     * character buffer.
+     *
+     * @param path           The path to sanitise.
+     * @param allowWildcards Whether to allow wildcard characters ({@code *} and {@code ?}).
+     * @return The sanitised path.
+     */
+    public static String sanitizePath(String path, boolean allowWildcards) {
+        var illegalChars = allowWildcards ? specialCharsAllowWildcards : specialChars;
+        if (isSanitized(path, illegalChars)) return path;
+
+        var length = path.length();
+        var output = new char[length];
+        var outputLength = 0;
+
+        for (var partStart = 0; partStart <= length; ) {
+            // Find the end of this component. We allow windowsy slashes as separators.
+            var partEnd = partStart;
+            while (partEnd < length && !isSeparator(path.charAt(partEnd))) partEnd++;
+
+            // Copy the component into the output buffer, removing illegal characters.
+            var start = outputLength == 0 ? 0 : outputLength + 1;
+            var end = start;
+            for (var i = partStart; i < partEnd; i++) {
+                var c = path.charAt(i);
+                if (isAllowed(c, illegalChars)) output[end++] = c;
             }
 
-            if (part.equals("..")) {
+            // Strip surrounding whitespace.
+            var contentStart = start;
+            while (contentStart < end && Character.isWhitespace(output[contentStart])) contentStart++;
+            while (end > contentStart && Character.isWhitespace(output[end - 1])) end--;
+            if (contentStart != start) System.arraycopy(output, contentStart, output, start, end - contentStart);
+            end -= contentStart - start;
+
+            var dots = countDots(output, start, end);
+            if (dots == end - start && dots != 2) {
+                // Empty components and . are redundant, and ... and more are treated as .
+            } else if (dots == 2 && end - start == 2) {
                 // .. can cancel out the last folder entered
-                if (!outputParts.isEmpty()) {
-                    var top = outputParts.peekLast();
-                    if (!top.equals("..")) {
-                        outputParts.removeLast();
-                    } else {
-                        outputParts.addLast("..");
-                    }
+                var lastStart = outputLength == 0 ? -1 : lastSeparator(output, outputLength) + 1;
+                if (lastStart < 0 || (outputLength - lastStart == 2 && countDots(output, lastStart, outputLength) == 2)) {
+                    outputLength = appendComponent(output, outputLength, start, end);
                 } else {
-                    outputParts.addLast("..");
+                    outputLength = Math.max(lastStart - 1, 0);
                 }
-            } else if (part.length() >= 255) {
-                // If part length > 255 and it is the last part
-                outputParts.addLast(part.substring(0, 255).strip());
             } else {
-                // Anything else we add to the stack
-                outputParts.addLast(part);
+                // Anything else we add to the stack, truncating overly long components. Note this happens after we
+                // check for . and .., so a truncated component is always kept as-is, even if it is now "." or "..".
+                if (end - start >= MAX_COMPONENT_LENGTH) {
+                    end = start + MAX_COMPONENT_LENGTH;
+                    while (end > start && Character.isWhitespace(output[end - 1])) end--;
+                }
+                outputLength = appendComponent(output, outputLength, start, end);
             }
+
+            partStart = partEnd + 1;
         }
 
-        return String.join("/", outputParts);
+        return new String(output, 0, outputLength);
+    }
+
+    /**
+     * Check whether a path is already sanitised, and so {@link #sanitizePath(String, boolean)} would return it
+     * unchanged.
+     *
+     * @param path         The path to check.
+     * @param illegalChars The characters which may not appear in the path.
+     * @return Whether this path is sanitised.
+     */
+    private static boolean isSanitized(String path, char[] illegalChars) {
+        var length = path.length();
+        if (length == 0) return true;
+
+        var seenName = false;
+        var partStart = 0;
+        var allDots = true;
+        for (var i = 0; i <= length; i++) {
+            var c = i == length ? '/' : path.charAt(i);
+            if (isSeparator(c)) {
+                if (c != '/') return false;
+
+                var partLength = i - partStart;
+                if (partLength == 0 || partLength > MAX_COMPONENT_LENGTH) return false;
+                if (Character.isWhitespace(path.charAt(partStart)) || Character.isWhitespace(path.charAt(i - 1))) {
+                    return false;
+                }
+
+                if (allDots) {
+                    // Only leading ".." components are preserved.
+                    if (partLength != 2 || seenName) return false;
+                } else {
+                    seenName = true;
+                }
+
+                partStart = i + 1;
+                allDots = true;
+            } else if (!isAllowed(c, illegalChars)) {
+                return false;
+            } else if (c != '.') {
+                allDots = false;
+            }
+        }
+
+        return true;
+    }
+
+    private static boolean isSeparator(char c) {
+        return c == '/' || c == '\\';
+    }
+
+    private static boolean isAllowed(char c, char[] illegalChars) {
+        return c >= 32 && Arrays.binarySearch(illegalChars, c) < 0;
+    }
+
+    private static int countDots(char[] chars, int start, int end) {
+        var dots = 0;
+        for (var i = start; i < end && chars[i] == '.'; i++) dots++;
+        return dots;
+    }
+
+    private static int lastSeparator(char[] chars, int end) {
+        for (var i = end - 1; i >= 0; i--) {
+            if (chars[i] == '/') return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Append a component (which has already been copied to {@code output[start..end]}) to the output path.
+     *
+     * @param output       The output buffer.
+     * @param outputLength The current length of the output path.
+     * @param start        The start of the component.
+     * @param end          The end of the component.
+     * @return The new length of the output path.
+     */
+    private static int appendComponent(char[] output, int outputLength, int start, int end) {
+        var partLength = end - start;
+        if (outputLength == 0) {
+            System.arraycopy(output, start, output, 0, partLength);
+            return partLength;
+        } else {
+            output[outputLength] = '/';
+            System.arraycopy(output, start, output, outputLength + 1, partLength);
+            return outputLength + 1 + partLength;
+        }
     }
 
     private static boolean contains(String pathA, String pathB) {
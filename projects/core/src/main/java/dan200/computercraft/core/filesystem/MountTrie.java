@@ -0,0 +1,105 @@
+// SPDX-FileCopyrightText: 2024 The CC: Tweaked Developers
+//
+// SPDX-License-Identifier: MPL-2.0
+
+package dan200.computercraft.core.filesystem;
+
+import javax.annotation.Nullable;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * An index of {@link MountWrapper}s, keyed by the (case-insensitive) segments of their location.
+ * <p>
+ * This allows us to find the deepest mount containing a path in time proportional to the depth of the mount, rather
+ * than the number of mounts.
+ */
+final class MountTrie {
+    private final Node root = new Node();
+
+    /**
+     * Add a mount to this trie, replacing any mount with the same location.
+     *
+     * @param mount The mount to add.
+     */
+    void add(MountWrapper mount) {
+        var location = mount.getLocation().toLowerCase(Locale.ROOT);
+        var node = root;
+        for (var start = 0; start < location.length(); ) {
+            var end = nextSeparator(location, start);
+            var segment = location.substring(start, end);
+
+            var children = node.children;
+            if (children == null) children = node.children = new HashMap<>();
+            node = children.computeIfAbsent(segment, x -> new Node());
+            start = end + 1;
+        }
+
+        node.mount = mount;
+    }
+
+    /**
+     * Remove a mount from this trie. This does nothing if the mount has since been replaced by another one.
+     *
+     * @param mount The mount to remove.
+     */
+    void remove(MountWrapper mount) {
+        remove(root, mount.getLocation().toLowerCase(Locale.ROOT), 0, mount);
+    }
+
+    private static boolean remove(Node node, String location, int start, MountWrapper mount) {
+        if (start >= location.length()) {
+            if (node.mount == mount) node.mount = null;
+        } else if (node.children != null) {
+            var children = node.children;
+            var end = nextSeparator(location, start);
+            var segment = location.substring(start, end);
+            var child = children.get(segment);
+            if (child != null && remove(child, location, end + 1, mount)) {
+                children.remove(segment);
+                if (children.isEmpty()) node.children = null;
+            }
+        }
+
+        return node.mount == null && node.children == null;
+    }
+
+    /**
+     * Find the deepest mount which contains a path.
+     *
+     * @param path The path to look up. This should have already been sanitised with
+     *             {@link FileSystem#sanitizePath(String, boolean)}.
+     * @return The deepest mount containing this path, or {@code null} if no mount contains it.
+     */
+    @Nullable MountWrapper get(String path) {
+        if (path.equals("..") || path.startsWith("../")) return null;
+
+        var lowerPath = path.toLowerCase(Locale.ROOT);
+        var node = root;
+        var match = root.mount;
+        for (var start = 0; start < lowerPath.length(); ) {
+            var children = node.children;
+            if (children == null) break;
+
+            var end = nextSeparator(lowerPath, start);
+            node = children.get(lowerPath.substring(start, end));
+            if (node == null) break;
+
+            if (node.mount != null) match = node.mount;
+            start = end + 1;
+        }
+
+        return match;
+    }
+
+    private static int nextSeparator(String path, int start) {
+        var end = path.indexOf('/', start);
+        return end < 0 ? path.length() : end;
+    }
+
+    private static final class Node {
+        @Nullable MountWrapper mount;
+        @Nullable Map<String, Node> children;
+    }
+}
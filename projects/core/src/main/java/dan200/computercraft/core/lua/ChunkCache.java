@@ -0,0 +1,158 @@
+// SPDX-FileCopyrightText: 2024 The CC: Tweaked Developers
+//
+// SPDX-License-Identifier: MPL-2.0
+
+package dan200.computercraft.core.lua;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import dan200.computercraft.api.filesystem.Mount;
+import dan200.computercraft.core.filesystem.FileSystem;
+import org.squiddev.cobalt.LuaError;
+import org.squiddev.cobalt.LuaState;
+import org.squiddev.cobalt.Prototype;
+import org.squiddev.cobalt.compiler.CompileException;
+import org.squiddev.cobalt.compiler.LuaC;
+
+import javax.annotation.Nullable;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A cache of compiled Lua chunks, shared between all computers in a {@link dan200.computercraft.core.ComputerContext}.
+ * <p>
+ * Every computer loads the same BIOS, APIs and programs when booting. Rather than parsing and compiling these each
+ * time, we compile them once and then create a new closure from the shared {@link Prototype}. Prototypes are immutable
+ * once compiled, so can safely be shared between multiple {@link LuaState}s.
+ * <p>
+ * Chunks are keyed by their name (which includes the path they were loaded from) and their full contents, so a
+ * modified file (such as one overridden by a datapack) will always be recompiled.
+ * <p>
+ * As any computer can call {@code load} with an arbitrary chunk name, chunks loaded by a computer are only added to
+ * the cache once we've checked they match a file in the ROM (see {@link #compileRom(LuaState, Mount, String,
+ * ByteBuffer, String)}). Otherwise, a computer could fill the cache with its own code, evicting the ROM.
+ */
+public final class ChunkCache {
+    /**
+     * Limit the cache to 16MiB of source code and bytecode (see {@link #weigh(Key, Prototype)}). The ROM is well under
+     * this, so we should never need to evict any of it.
+     */
+    private static final int MAX_CACHE_SIZE = 16 << 20;
+
+    private final Cache<Key, Prototype> cache = CacheBuilder.newBuilder()
+        .concurrencyLevel(4)
+        .expireAfterAccess(10, TimeUnit.MINUTES)
+        .maximumWeight(MAX_CACHE_SIZE)
+        .<Key, Prototype>weigher(ChunkCache::weigh)
+        .build();
+
+    /**
+     * Get the compiled prototype for a text chunk, compiling it if it is not already cached.
+     *
+     * @param state    The Lua state to compile this chunk with.
+     * @param contents The source code of this chunk.
+     * @param name     The name of this chunk, as used in error messages.
+     * @return The compiled prototype.
+     * @throws CompileException If the chunk could not be compiled.
+     * @throws LuaError         If the chunk could not be compiled.
+     */
+    Prototype compile(LuaState state, ByteBuffer contents, String name) throws CompileException, LuaError {
+        var prototype = cache.getIfPresent(new Key(name, contents.asReadOnlyBuffer()));
+        return prototype != null ? prototype : compileAndStore(state, contents, name);
+    }
+
+    /**
+     * Get the compiled prototype for a file in the ROM, compiling it if it is not already cached.
+     * <p>
+     * If this chunk is not already cached, we first check that its contents are the same as the file in the ROM.
+     * Chunks which do not match are not compiled, and should instead be loaded as normal.
+     *
+     * @param state    The Lua state to compile this chunk with.
+     * @param rom      The computer's ROM mount.
+     * @param path     The path to this file within the ROM.
+     * @param contents The source code of this chunk.
+     * @param name     The name of this chunk, as used in error messages.
+     * @return The compiled prototype, or {@code null} if this chunk does not match the file in the ROM.
+     * @throws CompileException If the chunk could not be compiled.
+     * @throws LuaError         If the chunk could not be compiled.
+     */
+    @Nullable
+    Prototype compileRom(LuaState state, Mount rom, String path, ByteBuffer contents, String name) throws CompileException, LuaError {
+        var prototype = cache.getIfPresent(new Key(name, contents.asReadOnlyBuffer()));
+        if (prototype != null) return prototype;
+
+        return isRomFile(rom, path, contents) ? compileAndStore(state, contents, name) : null;
+    }
+
+    private Prototype compileAndStore(LuaState state, ByteBuffer contents, String name) throws CompileException, LuaError {
+        var bytes = new byte[contents.remaining()];
+        contents.duplicate().get(bytes);
+        var prototype = LuaC.compile(state, new ByteArrayInputStream(bytes), name);
+
+        // Store a copy of the contents, so we don't hold on to (or observe changes to) the caller's buffer.
+        cache.put(new Key(name, ByteBuffer.wrap(bytes).asReadOnlyBuffer()), prototype);
+        return prototype;
+    }
+
+    private static boolean isRomFile(Mount rom, String path, ByteBuffer contents) {
+        // Reject anything which isn't a canonical path (such as "a/../b"), so the chunk's name matches the file.
+        if (!FileSystem.sanitizePath(path, false).equals(path)) return false;
+
+        try {
+            if (!rom.exists(path) || rom.isDirectory(path) || rom.getSize(path) != contents.remaining()) return false;
+
+            var file = ByteBuffer.allocate(contents.remaining());
+            try (var channel = rom.openForRead(path)) {
+                while (file.hasRemaining()) {
+                    if (channel.read(file) < 0) return false;
+                }
+            }
+
+            return file.flip().equals(contents);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Estimate the memory used by a cached chunk. This is the size of its source code, and of the bytecode and line
+     * information of each function within it.
+     *
+     * @param key       The cache key, holding the chunk's source code.
+     * @param prototype The compiled chunk.
+     * @return The approximate size of this chunk, in bytes.
+     */
+    private static int weigh(Key key, Prototype prototype) {
+        return key.contents().remaining() + weigh(prototype);
+    }
+
+    private static int weigh(Prototype prototype) {
+        var size = prototype.code.length * Integer.BYTES;
+        if (prototype.lineInfo != null) size += prototype.lineInfo.length * Integer.BYTES;
+        if (prototype.children != null) {
+            for (var child : prototype.children) size += weigh(child);
+        }
+        return size;
+    }
+
+    /**
+     * Remove all compiled chunks from the cache.
+     */
+    public void clear() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Get the number of chunks in this cache.
+     *
+     * @return The number of compiled chunks.
+     */
+    public long size() {
+        return cache.size();
+    }
+
+    private record Key(String name, ByteBuffer contents) {
+    }
+}
@@ -4,6 +4,7 @@
 
 package dan200.computercraft.core.lua;
 
+import dan200.computercraft.api.filesystem.Mount;
 import dan200.computercraft.api.lua.IDynamicLuaObject;
 import dan200.computercraft.api.lua.ILuaAPI;
 import dan200.computercraft.api.lua.ILuaContext;
@@ -13,28 +14,51 @@
 import dan200.computercraft.core.computer.TimeoutState;
 import dan200.computercraft.core.methods.LuaMethod;
 import dan200.computercraft.core.methods.MethodSupplier;
+import dan200.computercraft.core.methods.ObjectSource;
 import dan200.computercraft.core.util.Nullability;
 import dan200.computercraft.core.util.SanitisedError;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.squiddev.cobalt.*;
 import org.squiddev.cobalt.compiler.CompileException;
-import org.squiddev.cobalt.compiler.LoadState;
+import org.squiddev.cobalt.function.LuaClosure;
+import org.squiddev.cobalt.function.LuaFunction;
+import org.squiddev.cobalt.function.LuaInterpretedFunction;
+import org.squiddev.cobalt.function.Upvalue;
+import org.squiddev.cobalt.function.VarArgFunction;
 import org.squiddev.cobalt.interrupt.InterruptAction;
 import org.squiddev.cobalt.lib.Bit32Lib;
 import org.squiddev.cobalt.lib.CoreLibraries;
 
 import javax.annotation.Nullable;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.Serial;
 import java.nio.ByteBuffer;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class CobaltLuaMachine implements ILuaMachine {
     private static final Logger LOG = LoggerFactory.getLogger(CobaltLuaMachine.class);
 
     private static final LuaMethod FUNCTION_METHOD = (target, context, args) -> ((ILuaFunction) target).call(args);
 
+    /**
+     * A cache of the methods available on each class we have wrapped, shared between all machines.
+     * <p>
+     * The methods available on a class also depend on the {@link MethodSupplier} (and so the computer context) used to
+     * find them. There is normally only one context at a time, so we only store the table for the most recently used
+     * supplier, and rebuild it if a different one is used.
+     *
+     * @see #wrapLuaObject(Object)
+     */
+    private static final ClassValue<AtomicReference<MethodTable>> METHOD_TABLES = new ClassValue<>() {
+        @Override
+        protected AtomicReference<MethodTable> computeValue(Class<?> type) {
+            return new AtomicReference<>();
+        }
+    };
+
     private final TimeoutState timeout;
     private final Runnable timeoutListener = this::updateTimeout;
     private final ILuaContext context;
@@ -48,7 +72,7 @@ public class CobaltLuaMachine implements ILuaMachine {
 
     private @Nullable String eventFilter = null;
 
-    public CobaltLuaMachine(MachineEnvironment environment, InputStream bios) throws MachineException {
+    public CobaltLuaMachine(MachineEnvironment environment, InputStream bios) throws MachineException, IOException {
         timeout = environment.timeout();
         context = environment.context();
         luaMethods = environment.luaMethods();
@@ -79,11 +103,15 @@ public CobaltLuaMachine(MachineEnvironment environment, InputStream bios) throws
             globals.rawset("_HOST", ValueFactory.valueOf(environment.hostString()));
             globals.rawset("_CC_DEFAULT_SETTINGS", ValueFactory.valueOf(CoreConfig.defaultComputerSettings));
 
+            // Load files from the ROM using the shared chunk cache.
+            var chunkCache = environment.chunkCache();
+            globals.rawset("load", new CachedLoadFunction((LuaFunction) globals.rawget("load"), chunkCache, environment.romMount()));
+
             // Add default APIs
             for (var api : environment.apis()) addAPI(state, globals, api);
 
             // And load the BIOS
-            var value = LoadState.load(state, bios, "@bios.lua", globals);
+            var value = createClosure(chunkCache.compile(state, ByteBuffer.wrap(bios.readAllBytes()), "@bios.lua"), globals);
             mainRoutine = new LuaThread(state, value);
         } catch (LuaError | CompileException e) {
             throw new MachineException(Nullability.assertNonNull(e.getMessage()));
@@ -162,13 +190,38 @@ public void close() {
         timeout.removeListener(timeoutListener);
     }
 
+    /**
+     * Wrap a Java object as a Lua table, with a function for each of its methods.
+     * <p>
+     * Objects are wrapped very frequently (for instance, every file handle or HTTP response), so we cache the list of
+     * methods (and their names as Lua strings) for each class, across all computers. This means wrapping an object only
+     * needs to allocate a correctly sized table and the functions themselves. Objects whose methods may vary between
+     * instances ({@link ObjectSource}s and {@link IDynamicLuaObject}s) are not cached.
+     *
+     * @param object The object to wrap.
+     * @return The wrapped object, or {@code null} if it has no methods.
+     */
     @Nullable
     private LuaTable wrapLuaObject(Object object) {
-        var table = new LuaTable();
-        var found = luaMethods.forEachMethod(object, (target, name, method, info) ->
-            table.rawset(name, new ResultInterpreterFunction(this, method, target, context, name)));
+        if (object instanceof ObjectSource || object instanceof IDynamicLuaObject) {
+            var table = new LuaTable();
+            var found = luaMethods.forEachMethod(object, (target, name, method, info) ->
+                table.rawset(name, new ResultInterpreterFunction(this, method, target, context, name)));
+
+            return found ? table : null;
+        }
 
-        return found ? table : null;
+        var cached = METHOD_TABLES.get(object.getClass());
+        var methods = cached.get();
+        if (methods == null || methods.supplier() != luaMethods) cached.set(methods = MethodTable.of(luaMethods, object));
+        if (methods.names().length == 0) return null;
+
+        var names = methods.names();
+        var table = new LuaTable(0, names.length);
+        for (var i = 0; i < names.length; i++) {
+            table.rawset(names[i], new ResultInterpreterFunction(this, methods.methods()[i], object, context, methods.functionNames()[i]));
+        }
+        return table;
     }
 
     private LuaValue toValue(@Nullable Object object, @Nullable IdentityHashMap<Object, LuaValue> values) throws LuaError {
@@ -301,6 +354,104 @@ static Object[] toObjects(Varargs values) {
         return objects;
     }
 
+    /**
+     * The methods available on a class.
+     * <p>
+     * This is shared between every machine, and so must be immutable. {@link LuaString}s do not belong to any
+     * particular {@link LuaState}, so are safe to share.
+     *
+     * @param supplier      The method supplier these methods were found with.
+     * @param names         The name of each method, as a Lua string.
+     * @param functionNames The name of each method, used in error messages.
+     * @param methods       The method implementations.
+     * @see #wrapLuaObject(Object)
+     */
+    private record MethodTable(
+        MethodSupplier<LuaMethod> supplier, LuaString[] names, String[] functionNames, LuaMethod[] methods
+    ) {
+        static MethodTable of(MethodSupplier<LuaMethod> supplier, Object object) {
+            var names = new ArrayList<String>();
+            var methods = new ArrayList<LuaMethod>();
+            supplier.forEachSelfMethod(object, (name, method, info) -> {
+                names.add(name);
+                methods.add(method);
+            });
+
+            var luaNames = new LuaString[names.size()];
+            for (var i = 0; i < luaNames.length; i++) luaNames[i] = ValueFactory.valueOf(names.get(i));
+            return new MethodTable(supplier, luaNames, names.toArray(new String[0]), methods.toArray(new LuaMethod[0]));
+        }
+    }
+
+    /**
+     * Create a new closure from a compiled chunk.
+     *
+     * @param prototype The compiled chunk.
+     * @param env       The environment of this closure.
+     * @return The newly created closure.
+     */
+    private static LuaClosure createClosure(Prototype prototype, LuaTable env) {
+        var closure = new LuaInterpretedFunction(prototype);
+        closure.nilUpvalues();
+        if (prototype.upvalues() > 0) closure.setUpvalue(0, new Upvalue(env));
+        return closure;
+    }
+
+    /**
+     * A wrapper around Lua's {@code load} function, which uses the {@link ChunkCache} when loading text chunks from
+     * the ROM. Anything else (functions, binary chunks, other files) is passed through to the original function.
+     * <p>
+     * We only cache files from the ROM, as they are loaded by every computer and do not change. Programs on a
+     * computer's own drive are rarely loaded by more than one computer, so caching them would just waste memory.
+     * <p>
+     * Any program can pass a chunk name starting with {@code @/rom/}, so we can't trust the name alone. Instead,
+     * {@link ChunkCache#compileRom(LuaState, Mount, String, ByteBuffer, String)} checks the chunk matches the file in
+     * the ROM before caching it.
+     */
+    private static final class CachedLoadFunction extends VarArgFunction {
+        private static final String ROM_PREFIX = "@/rom/";
+        private static final byte BINARY_SIGNATURE = 27;
+
+        private final LuaFunction load;
+        private final ChunkCache cache;
+        private final Mount rom;
+
+        CachedLoadFunction(LuaFunction load, ChunkCache cache, Mount rom) {
+            this.load = load;
+            this.cache = cache;
+            this.rom = rom;
+        }
+
+        @Override
+        public Varargs invoke(LuaState state, Varargs args) throws LuaError, UnwindThrowable {
+            if (!(args.arg(1) instanceof LuaString contents) || !(args.arg(2) instanceof LuaString chunkName)) {
+                return load.invoke(state, args);
+            }
+
+            var name = chunkName.toString();
+            var mode = args.arg(3);
+            var env = args.arg(4);
+            var source = contents.toBuffer();
+            if (!name.startsWith(ROM_PREFIX)
+                || !(mode.isNil() || (mode instanceof LuaString modeStr && modeStr.toString().indexOf('t') >= 0))
+                // An explicit nil environment is not the same as no environment, so leave that to load too.
+                || !(args.count() < 4 || env instanceof LuaTable)
+                || (source.hasRemaining() && source.get(source.position()) == BINARY_SIGNATURE)) {
+                return load.invoke(state, args);
+            }
+
+            Prototype prototype;
+            try {
+                prototype = cache.compileRom(state, rom, name.substring(ROM_PREFIX.length()), source, name);
+            } catch (LuaError | CompileException e) {
+                return ValueFactory.varargsOf(Constants.NIL, ValueFactory.valueOf(e.getMessage()));
+            }
+
+            if (prototype == null) return load.invoke(state, args);
+            return createClosure(prototype, env instanceof LuaTable table ? table : state.globals());
+        }
+    }
+
     private static final class HardAbortError extends Error {
         @Serial
         private static final long serialVersionUID = 7954092008586367501L;
@@ -4,6 +4,7 @@
 
 package dan200.computercraft.core.lua;
 
+import dan200.computercraft.api.filesystem.Mount;
 import dan200.computercraft.api.lua.ILuaAPI;
 import dan200.computercraft.api.lua.ILuaContext;
 import dan200.computercraft.core.computer.GlobalEnvironment;
@@ -22,6 +23,9 @@
  *                   (following the same rules as any other value), and then set to all names in {@link ILuaAPI#getNames()}.
  * @param luaMethods A {@link MethodSupplier} to find methods on returned values.
  * @param hostString A {@linkplain GlobalEnvironment#getHostString() host string} to identify the current environment.
+ * @param chunkCache A cache of compiled Lua chunks, shared between all computers.
+ * @param romMount   The mount for this computer's ROM. Only files read from this mount are stored in the
+ *                   {@link #chunkCache()}.
  * @see ILuaMachine.Factory
  */
 public record MachineEnvironment(
@@ -30,6 +34,8 @@ public record MachineEnvironment(
     TimeoutState timeout,
     Iterable<ILuaAPI> apis,
     MethodSupplier<LuaMethod> luaMethods,
-    String hostString
+    String hostString,
+    ChunkCache chunkCache,
+    Mount romMount
 ) {
 }
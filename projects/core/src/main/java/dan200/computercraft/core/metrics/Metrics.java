@@ -11,6 +11,10 @@ public final class Metrics {
     private Metrics() {
     }
 
+    /**
+     * The time spent each time a computer is run by the computer thread. A computer may handle several events when it
+     * is run (see {@code ComputerExecutor#drainEvents()}), so this counts timeslices rather than individual events.
+     */
     public static final Metric.Event COMPUTER_TASKS = new Metric.Event("computer_tasks", "ns", Metric::formatTime);
     public static final Metric.Event SERVER_TASKS = new Metric.Event("server_tasks", "ns", Metric::formatTime);
 
@@ -8,6 +8,8 @@
 
 import javax.annotation.Nullable;
 import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Objects;
 
 public class Terminal {
     protected static final String BASE_16 = "0123456789abcdef";
@@ -22,9 +24,13 @@ public class Terminal {
     protected int cursorColour = 0;
     protected int cursorBackgroundColour = 15;
 
-    protected TextBuffer[] text;
-    protected TextBuffer[] textColour;
-    protected TextBuffer[] backgroundColour;
+    /**
+     * The contents of the terminal. Each line is stored as {@link #width} bytes of text, followed by {@link #width}
+     * bytes of colour, with the background colour in the upper four bits and the text colour in the lower four.
+     *
+     * @see #getLineOffset(int)
+     */
+    protected byte[] cells;
 
     protected final Palette palette;
 
@@ -41,14 +47,8 @@ public Terminal(int width, int height, boolean colour, @Nullable Runnable change
         palette = new Palette(colour);
         onChanged = changedCallback;
 
-        text = new TextBuffer[height];
-        textColour = new TextBuffer[height];
-        backgroundColour = new TextBuffer[height];
-        for (var i = 0; i < this.height; i++) {
-            text[i] = new TextBuffer(' ', this.width);
-            textColour[i] = new TextBuffer(BASE_16.charAt(cursorColour), this.width);
-            backgroundColour[i] = new TextBuffer(BASE_16.charAt(cursorBackgroundColour), this.width);
-        }
+        cells = new byte[width * height * 2];
+        clearLines(0, height);
     }
 
     public synchronized void reset() {
@@ -81,34 +81,22 @@ public synchronized void resize(int width, int height) {
 
         var oldHeight = this.height;
         var oldWidth = this.width;
-        var oldText = text;
-        var oldTextColour = textColour;
-        var oldBackgroundColour = backgroundColour;
+        var oldCells = cells;
 
         this.width = width;
         this.height = height;
 
-        text = new TextBuffer[height];
-        textColour = new TextBuffer[height];
-        backgroundColour = new TextBuffer[height];
-        for (var i = 0; i < this.height; i++) {
-            if (i >= oldHeight) {
-                text[i] = new TextBuffer(' ', this.width);
-                textColour[i] = new TextBuffer(BASE_16.charAt(cursorColour), this.width);
-                backgroundColour[i] = new TextBuffer(BASE_16.charAt(cursorBackgroundColour), this.width);
-            } else if (this.width == oldWidth) {
-                text[i] = oldText[i];
-                textColour[i] = oldTextColour[i];
-                backgroundColour[i] = oldBackgroundColour[i];
-            } else {
-                text[i] = new TextBuffer(' ', this.width);
-                textColour[i] = new TextBuffer(BASE_16.charAt(cursorColour), this.width);
-                backgroundColour[i] = new TextBuffer(BASE_16.charAt(cursorBackgroundColour), this.width);
-                text[i].write(oldText[i]);
-                textColour[i].write(oldTextColour[i]);
-                backgroundColour[i].write(oldBackgroundColour[i]);
-            }
+        cells = new byte[width * height * 2];
+        clearLines(0, height);
+
+        var copyWidth = Math.min(width, oldWidth);
+        for (var y = 0; y < Math.min(height, oldHeight); y++) {
+            var oldOffset = y * oldWidth * 2;
+            var offset = getLineOffset(y);
+            System.arraycopy(oldCells, oldOffset, cells, offset, copyWidth);
+            System.arraycopy(oldCells, oldOffset + oldWidth, cells, offset + width, copyWidth);
         }
+        setAllLinesChanged();
         setChanged();
     }
 
@@ -169,9 +157,24 @@ public synchronized void blit(ByteBuffer text, ByteBuffer textColour, ByteBuffer
         var x = cursorX;
         var y = cursorY;
         if (y >= 0 && y < height) {
-            this.text[y].write(text, x);
-            this.textColour[y].write(textColour, x);
-            this.backgroundColour[y].write(backgroundColour, x);
+            var offset = getLineOffset(y);
+
+            // Text can be copied directly. Colours need to be converted from hex, so we do those a cell at a time.
+            var start = Math.max(x, 0);
+            var end = Math.min(x + text.remaining(), width);
+            if (start < end) text.get(text.position() + start - x, cells, offset + start, end - start);
+
+            end = Math.min(x + textColour.remaining(), width);
+            for (var i = start; i < end; i++) {
+                setCellTextColour(offset, i, (char) (textColour.get(textColour.position() + i - x) & 0xFF));
+            }
+
+            end = Math.min(x + backgroundColour.remaining(), width);
+            for (var i = start; i < end; i++) {
+                setCellBackgroundColour(offset, i, (char) (backgroundColour.get(backgroundColour.position() + i - x) & 0xFF));
+            }
+
+            setLineChanged(y);
             setChanged();
         }
     }
@@ -180,79 +183,201 @@ public synchronized void write(String text) {
         var x = cursorX;
         var y = cursorY;
         if (y >= 0 && y < height) {
-            this.text[y].write(text, x);
-            textColour[y].fill(BASE_16.charAt(cursorColour), x, x + text.length());
-            backgroundColour[y].fill(BASE_16.charAt(cursorBackgroundColour), x, x + text.length());
+            var offset = getLineOffset(y);
+            var start = Math.max(x, 0);
+            var end = Math.min(x + text.length(), width);
+            if (start < end) {
+                for (var i = start; i < end; i++) setCellText(offset, i, text.charAt(i - x));
+                Arrays.fill(cells, offset + width + start, offset + width + end, getCurrentColour());
+            }
+            setLineChanged(y);
             setChanged();
         }
     }
 
     public synchronized void scroll(int yDiff) {
         if (yDiff != 0) {
-            var newText = new TextBuffer[height];
-            var newTextColour = new TextBuffer[height];
-            var newBackgroundColour = new TextBuffer[height];
-            for (var y = 0; y < height; y++) {
-                var oldY = y + yDiff;
-                if (oldY >= 0 && oldY < height) {
-                    newText[y] = text[oldY];
-                    newTextColour[y] = textColour[oldY];
-                    newBackgroundColour[y] = backgroundColour[oldY];
-                } else {
-                    newText[y] = new TextBuffer(' ', width);
-                    newTextColour[y] = new TextBuffer(BASE_16.charAt(cursorColour), width);
-                    newBackgroundColour[y] = new TextBuffer(BASE_16.charAt(cursorBackgroundColour), width);
-                }
+            if (yDiff >= height || yDiff <= -height) {
+                clearLines(0, height);
+            } else if (yDiff > 0) {
+                System.arraycopy(cells, getLineOffset(yDiff), cells, 0, getLineOffset(height - yDiff));
+                clearLines(height - yDiff, height);
+            } else {
+                System.arraycopy(cells, 0, cells, getLineOffset(-yDiff), getLineOffset(height + yDiff));
+                clearLines(0, -yDiff);
             }
-            text = newText;
-            textColour = newTextColour;
-            backgroundColour = newBackgroundColour;
+            setAllLinesChanged();
             setChanged();
         }
     }
 
     public synchronized void clear() {
-        for (var y = 0; y < height; y++) {
-            text[y].fill(' ');
-            textColour[y].fill(BASE_16.charAt(cursorColour));
-            backgroundColour[y].fill(BASE_16.charAt(cursorBackgroundColour));
-        }
+        clearLines(0, height);
+        setAllLinesChanged();
         setChanged();
     }
 
     public synchronized void clearLine() {
         var y = cursorY;
         if (y >= 0 && y < height) {
-            text[y].fill(' ');
-            textColour[y].fill(BASE_16.charAt(cursorColour));
-            backgroundColour[y].fill(BASE_16.charAt(cursorBackgroundColour));
+            clearLines(y, y + 1);
+            setLineChanged(y);
             setChanged();
         }
     }
 
+    /**
+     * Get a view of the text on a given line.
+     * <p>
+     * The returned buffer reads from (and writes to) the terminal directly, and so will reflect any later changes to
+     * this line.
+     * <p>
+     * This is kept for compatibility with code which used {@link TextBuffer}s. Code which reads the whole terminal should
+     * prefer {@link #getCells()}, which does not allocate.
+     *
+     * @param y The line to get.
+     * @return The text on this line.
+     */
     public synchronized TextBuffer getLine(int y) {
-        return text[y];
+        return new TerminalLine(this, Objects.checkIndex(y, height), TerminalLine.Kind.TEXT);
     }
 
     public synchronized void setLine(int y, String text, String textColour, String backgroundColour) {
-        this.text[y].write(text);
-        this.textColour[y].write(textColour);
-        this.backgroundColour[y].write(backgroundColour);
+        var offset = getLineOffset(Objects.checkIndex(y, height));
+        for (var x = 0; x < Math.min(text.length(), width); x++) setCellText(offset, x, text.charAt(x));
+        for (var x = 0; x < Math.min(textColour.length(), width); x++) {
+            setCellTextColour(offset, x, textColour.charAt(x));
+        }
+        for (var x = 0; x < Math.min(backgroundColour.length(), width); x++) {
+            setCellBackgroundColour(offset, x, backgroundColour.charAt(x));
+        }
+        setLineChanged(y);
         setChanged();
     }
 
+    /**
+     * Get a view of the text colours on a given line, as a series of hexadecimal characters.
+     *
+     * @param y The line to get.
+     * @return The text colours on this line.
+     * @see #getLine(int)
+     */
     public synchronized TextBuffer getTextColourLine(int y) {
-        return textColour[y];
+        return new TerminalLine(this, Objects.checkIndex(y, height), TerminalLine.Kind.TEXT_COLOUR);
     }
 
+    /**
+     * Get a view of the background colours on a given line, as a series of hexadecimal characters.
+     *
+     * @param y The line to get.
+     * @return The background colours on this line.
+     * @see #getLine(int)
+     */
     public synchronized TextBuffer getBackgroundColourLine(int y) {
-        return backgroundColour[y];
+        return new TerminalLine(this, Objects.checkIndex(y, height), TerminalLine.Kind.BACKGROUND_COLOUR);
+    }
+
+    /**
+     * Get the raw contents of this terminal. This allows code which reads the whole terminal (such as renderers) to do
+     * so without creating a view of each line with {@link #getLine(int)} and friends.
+     * <p>
+     * Each line starts at {@link #getLineOffset(int)}, and consists of {@link #getWidth()} bytes of text, followed by
+     * {@link #getWidth()} bytes of colours. Use {@link #getCellTextColour(byte)} and
+     * {@link #getCellBackgroundColour(byte)} to read the individual colours.
+     * <p>
+     * The returned array must not be modified, and is replaced when the terminal is resized.
+     *
+     * @return The contents of this terminal.
+     */
+    public final byte[] getCells() {
+        return cells;
+    }
+
+    /**
+     * Get the offset of a line within {@link #getCells()}.
+     *
+     * @param y The line.
+     * @return The index of the first cell of this line.
+     */
+    public final int getLineOffset(int y) {
+        return y * width * 2;
+    }
+
+    /**
+     * Get the text colour of a cell, from its colour byte in {@link #getCells()}.
+     *
+     * @param colour The cell's colour byte.
+     * @return The text colour, in the same format as {@link #getTextColour()}.
+     */
+    public static int getCellTextColour(byte colour) {
+        return colour & 0xF;
+    }
+
+    /**
+     * Get the background colour of a cell, from its colour byte in {@link #getCells()}.
+     *
+     * @param colour The cell's colour byte.
+     * @return The background colour, in the same format as {@link #getBackgroundColour()}.
+     */
+    public static int getCellBackgroundColour(byte colour) {
+        return (colour >> 4) & 0xF;
+    }
+
+    private byte getCurrentColour() {
+        return (byte) ((cursorBackgroundColour & 0xF) << 4 | (cursorColour & 0xF));
+    }
+
+    /**
+     * Clear a range of lines, filling them with spaces in the current text and background colour.
+     *
+     * @param start The first line to clear.
+     * @param end   The line after the last one to clear.
+     */
+    private void clearLines(int start, int end) {
+        var colour = getCurrentColour();
+        for (var y = start; y < end; y++) {
+            var offset = getLineOffset(y);
+            Arrays.fill(cells, offset, offset + width, (byte) ' ');
+            Arrays.fill(cells, offset + width, offset + width * 2, colour);
+        }
+    }
+
+    void setCellText(int offset, int x, char c) {
+        // Characters outside of our font are drawn as "?" anyway, so we just store that.
+        cells[offset + x] = (byte) (c <= 0xFF ? c : '?');
+    }
+
+    void setCellTextColour(int offset, int x, char c) {
+        var index = offset + width + x;
+        cells[index] = (byte) (cells[index] & 0xF0 | getColour(c, Colour.WHITE));
+    }
+
+    void setCellBackgroundColour(int offset, int x, char c) {
+        var index = offset + width + x;
+        cells[index] = (byte) (cells[index] & 0x0F | getColour(c, Colour.BLACK) << 4);
     }
 
     public final void setChanged() {
         if (onChanged != null) onChanged.run();
     }
 
+    /**
+     * Mark a single line of the terminal as having changed. This is called (alongside {@link #setChanged()}) by any
+     * method which only modifies one line, allowing subclasses to track which parts of the terminal are out-of-date.
+     *
+     * @param y The line which changed.
+     */
+    protected void setLineChanged(int y) {
+    }
+
+    /**
+     * Mark every line of the terminal as having changed, for instance after clearing, scrolling or resizing it.
+     *
+     * @see #setLineChanged(int)
+     */
+    protected void setAllLinesChanged() {
+    }
+
     public static int getColour(char c, Colour def) {
         if (c >= '0' && c <= '9') return c - '0';
         if (c >= 'a' && c <= 'f') return c - 'a' + 10;
@@ -0,0 +1,71 @@
+// SPDX-FileCopyrightText: 2024 The CC: Tweaked Developers
+//
+// SPDX-License-Identifier: MPL-2.0
+
+package dan200.computercraft.core.terminal;
+
+import java.util.Objects;
+
+/**
+ * A {@link TextBuffer} which views a single line of a {@link Terminal}'s text, text colour or background colour.
+ * <p>
+ * Colours are exposed as hexadecimal characters ({@code 0-9a-f}), as they were when terminals stored each line as a
+ * separate {@link TextBuffer}.
+ *
+ * @see Terminal#getLine(int)
+ * @see Terminal#getTextColourLine(int)
+ * @see Terminal#getBackgroundColourLine(int)
+ */
+final class TerminalLine extends TextBuffer {
+    enum Kind {
+        TEXT,
+        TEXT_COLOUR,
+        BACKGROUND_COLOUR,
+    }
+
+    private final Terminal terminal;
+    private final int y;
+    private final Kind kind;
+
+    TerminalLine(Terminal terminal, int y, Kind kind) {
+        this.terminal = terminal;
+        this.y = y;
+        this.kind = kind;
+    }
+
+    @Override
+    public int length() {
+        return terminal.width;
+    }
+
+    @Override
+    public char charAt(int i) {
+        var width = terminal.width;
+        Objects.checkIndex(i, width);
+
+        var offset = terminal.getLineOffset(y);
+        var cells = terminal.cells;
+        return switch (kind) {
+            case TEXT -> (char) (cells[offset + i] & 0xFF);
+            case TEXT_COLOUR -> Terminal.BASE_16.charAt(Terminal.getCellTextColour(cells[offset + width + i]));
+            case BACKGROUND_COLOUR -> Terminal.BASE_16.charAt(Terminal.getCellBackgroundColour(cells[offset + width + i]));
+        };
+    }
+
+    @Override
+    void set(int i, char c) {
+        var offset = terminal.getLineOffset(y);
+        switch (kind) {
+            case TEXT -> terminal.setCellText(offset, i, c);
+            case TEXT_COLOUR -> terminal.setCellTextColour(offset, i, c);
+            case BACKGROUND_COLOUR -> terminal.setCellBackgroundColour(offset, i, c);
+        }
+    }
+
+    @Override
+    public String toString() {
+        var chars = new char[length()];
+        for (var i = 0; i < chars.length; i++) chars[i] = charAt(i);
+        return new String(chars);
+    }
+}
@@ -6,7 +6,14 @@
 
 import java.nio.ByteBuffer;
 
+/**
+ * A fixed-length line of text.
+ * <p>
+ * This is either a standalone buffer, or a view over a line of a {@link Terminal} (see {@link Terminal#getLine(int)}).
+ */
 public class TextBuffer {
+    private static final char[] EMPTY = new char[0];
+
     private final char[] text;
 
     public TextBuffer(char c, int length) {
@@ -18,6 +25,14 @@ public TextBuffer(String text) {
         this.text = text.toCharArray();
     }
 
+    /**
+     * Create a text buffer whose contents are stored elsewhere. Subclasses must override {@link #length()},
+     * {@link #charAt(int)}, {@link #set(int, char)} and {@link #toString()}.
+     */
+    TextBuffer() {
+        text = EMPTY;
+    }
+
     public int length() {
         return text.length;
     }
@@ -30,9 +45,9 @@ public void write(String text, int start) {
         var pos = start;
         start = Math.max(start, 0);
         var end = Math.min(start + text.length(), pos + text.length());
-        end = Math.min(end, this.text.length);
+        end = Math.min(end, length());
         for (var i = start; i < end; i++) {
-            this.text[i] = text.charAt(i - pos);
+            set(i, text.charAt(i - pos));
         }
     }
 
@@ -43,28 +58,28 @@ public void write(ByteBuffer text, int start) {
         start = Math.max(start, 0);
         var length = text.remaining();
         var end = Math.min(start + length, pos + length);
-        end = Math.min(end, this.text.length);
+        end = Math.min(end, length());
         for (var i = start; i < end; i++) {
-            this.text[i] = (char) (text.get(bufferPos + i - pos) & 0xFF);
+            set(i, (char) (text.get(bufferPos + i - pos) & 0xFF));
         }
     }
 
     public void write(TextBuffer text) {
-        var end = Math.min(text.length(), this.text.length);
+        var end = Math.min(text.length(), length());
         for (var i = 0; i < end; i++) {
-            this.text[i] = text.charAt(i);
+            set(i, text.charAt(i));
         }
     }
 
     public void fill(char c) {
-        fill(c, 0, text.length);
+        fill(c, 0, length());
     }
 
     public void fill(char c, int start, int end) {
         start = Math.max(start, 0);
-        end = Math.min(end, text.length);
+        end = Math.min(end, length());
         for (var i = start; i < end; i++) {
-            text[i] = c;
+            set(i, c);
         }
     }
 
@@ -73,11 +88,21 @@ public char charAt(int i) {
     }
 
     public void setChar(int i, char c) {
-        if (i >= 0 && i < text.length) {
-            text[i] = c;
+        if (i >= 0 && i < length()) {
+            set(i, c);
         }
     }
 
+    /**
+     * Set a character in this buffer, without any bounds checks.
+     *
+     * @param i The index to set, between 0 and {@link #length()}.
+     * @param c The character to set.
+     */
+    void set(int i, char c) {
+        text[i] = c;
+    }
+
     @Override
     public String toString() {
         return new String(text);
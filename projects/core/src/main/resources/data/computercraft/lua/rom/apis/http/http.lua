@@ -40,6 +40,7 @@ local function check_request_options(options, body)
     check_key(options, "method", "string", true)
     check_key(options, "redirect", "boolean", true)
     check_key(options, "timeout", "number", true)
+    check_key(options, "stream", "boolean", true)
 
     if options.method and not methods[options.method] then
         error("Unsupported HTTP method", 3)
@@ -72,7 +73,7 @@ should be opened in binary mode.
 @tparam[2] {
   url = string, headers? = { [string] = string },
   binary? = boolean, method? = string, redirect? = boolean,
-  timeout? = number,
+  timeout? = number, stream? = boolean,
 } request Options for the request. See [`http.request`] for details on how
 these options behave.
 
@@ -125,7 +126,7 @@ should be opened in binary mode.
 @tparam[2] {
   url = string, body? = string, headers? = { [string] = string },
   binary? = boolean, method? = string, redirect? = boolean,
-  timeout? = number,
+  timeout? = number, stream? = boolean,
 } request Options for the request. See [`http.request`] for details on how
 these options behave.
 
@@ -174,7 +175,7 @@ should be opened in binary mode.
 @tparam[2] {
   url = string, body? = string, headers? = { [string] = string },
   binary? = boolean, method? = string, redirect? = boolean,
-  timeout? = number,
+  timeout? = number, stream? = boolean,
 } request Options for the request.
 
 This table form is an expanded version of the previous syntax. All arguments
@@ -186,6 +187,10 @@ from above are passed in as fields instead (for instance,
  - `method`: Which HTTP method to use, for instance `"PATCH"` or `"DELETE"`.
  - `redirect`: Whether to follow HTTP redirects. Defaults to true.
  - `timeout`: The connection timeout, in seconds.
+ - `stream`: Whether to stream the response body. When true, the response is
+   returned as soon as its headers are received, and the body is downloaded as
+   it is read. Reading from the response may then need to wait for more of the
+   body to arrive (see [`http.ResponseStream`]). Defaults to false.
 
 @see http.get  For a synchronous way to make GET requests.
 @see http.post For a synchronous way to make POST requests.
@@ -197,6 +202,7 @@ from above are passed in as fields instead (for instance,
 @changed 1.105.0 Added support for custom timeouts.
 @changed 1.109.0 The returned response now reads the body as raw bytes, rather
                  than decoding from UTF-8.
+@changed 1.112.0 Added support for streaming responses.
 ]]
 function request(_url, _post, _headers, _binary)
     local url
@@ -278,6 +284,7 @@ local function check_websocket_options(options, body)
     check_key(options, "url", "string")
     check_key(options, "headers", "table", true)
     check_key(options, "timeout", "number", true)
+    check_key(options, "buffered", "boolean", true)
 end
 
 
@@ -293,6 +300,7 @@ of the initial websocket connection.
 
 @tparam[2] {
   url = string, headers? = { [string] = string }, timeout ?= number,
+  buffered? = boolean,
 } request Options for the websocket.  See [`http.websocket`] for details on how
 these options behave.
 
@@ -333,6 +341,7 @@ of the initial websocket connection.
 
 @tparam[2] {
   url = string, headers? = { [string] = string }, timeout ?= number,
+  buffered? = boolean,
 } request Options for the websocket.
 
 This table form is an expanded version of the previous syntax. All arguments
@@ -342,6 +351,11 @@ from above are passed in as fields instead (for instance,
  This table also accepts the following additional options:
 
   - `timeout`: The connection timeout, in seconds.
+  - `buffered`: Whether to buffer received messages. When true, messages are
+    not queued as [`websocket_message`] events, and must instead be read with
+    [`Websocket.receive`] or [`Websocket.receiveBatch`]. If the computer falls
+    behind, the websocket will stop reading from the connection until it catches
+    up, rather than dropping messages.
 
 @treturn Websocket The websocket connection.
 @treturn[2] false If the websocket connection failed.
@@ -353,6 +367,7 @@ from above are passed in as fields instead (for instance,
 @changed 1.105.0 Added support for table argument and custom timeout.
 @changed 1.109.0 Non-binary websocket messages now use the raw bytes rather than
                  using UTF-8.
+@changed 1.112.0 Added support for buffered websockets.
 
 @usage Connect to an echo websocket and send a message.
 
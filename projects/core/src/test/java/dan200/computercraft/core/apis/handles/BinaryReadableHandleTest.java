@@ -68,6 +68,29 @@ public void testReadLineTrailing() throws LuaException {
         assertNull(handle.readLine(Optional.of(true)));
     }
 
+    @Test
+    public void testReadLineAcrossBuffer() throws LuaException {
+        // Place the \r\n on either side of the read buffer's boundary.
+        var line = "A".repeat(8191);
+        var handle = new ReadHandle(new ArrayByteChannel((line + "\r\n" + line + line + "\r!").getBytes(StandardCharsets.UTF_8)), false);
+        assertArrayEquals(line.getBytes(StandardCharsets.UTF_8), cast(byte[].class, handle.readLine(Optional.empty())));
+        assertArrayEquals((line + line + "\r!").getBytes(StandardCharsets.UTF_8), cast(byte[].class, handle.readLine(Optional.empty())));
+        assertNull(handle.readLine(Optional.empty()));
+    }
+
+    @Test
+    public void testReadLineThenSeek() throws LuaException {
+        var handle = new ReadHandle(new ArrayByteChannel("hello\nworld\n!".getBytes(StandardCharsets.UTF_8)), true);
+        assertArrayEquals("hello".getBytes(StandardCharsets.UTF_8), cast(byte[].class, handle.readLine(Optional.empty())));
+        assertEquals(6L, cast(Long.class, handle.seek(Optional.empty(), Optional.empty())));
+        assertEquals('w', cast(Integer.class, handle.read(Optional.empty())));
+        assertEquals("orld", StandardCharsets.UTF_8.decode(cast(ByteBuffer.class, handle.read(Optional.of(4)))).toString());
+        assertArrayEquals("\n!".getBytes(StandardCharsets.UTF_8), cast(byte[].class, handle.readAll()));
+
+        assertEquals(0L, cast(Long.class, handle.seek(Optional.of("set"), Optional.empty())));
+        assertArrayEquals("hello".getBytes(StandardCharsets.UTF_8), cast(byte[].class, handle.readLine(Optional.empty())));
+    }
+
     private static ReadHandle fromLength(int length) {
         var input = new byte[length];
         Arrays.fill(input, (byte) 'A');
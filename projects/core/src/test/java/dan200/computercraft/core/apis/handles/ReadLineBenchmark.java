@@ -0,0 +1,98 @@
+// SPDX-FileCopyrightText: 2024 The CC: Tweaked Developers
+//
+// SPDX-License-Identifier: MPL-2.0
+
+package dan200.computercraft.core.apis.handles;
+
+import dan200.computercraft.api.filesystem.Mount;
+import dan200.computercraft.api.lua.LuaException;
+import dan200.computercraft.core.TestFiles;
+import dan200.computercraft.core.filesystem.FileMount;
+import dan200.computercraft.core.filesystem.JarMount;
+import dan200.computercraft.core.filesystem.MemoryMount;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Measures the throughput of {@link AbstractHandle#readLine(Optional)} on channels from each kind of mount.
+ * <p>
+ * Each invocation reads a ~1MiB file, made up of lines of varying lengths, one line at a time.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReadLineBenchmark {
+    private static final String FILE = "log.txt";
+    private static final int SIZE = 1024 * 1024;
+
+    @Param({ "FileMount", "JarMount", "MemoryMount" })
+    String mountType;
+
+    private Mount mount;
+
+    public static void main(String[] args) throws RunnerException {
+        var opts = new OptionsBuilder()
+            .include(ReadLineBenchmark.class.getName() + "\\..*")
+            .build();
+        new Runner(opts).run();
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        var contents = new StringBuilder(SIZE + 128);
+        for (var line = 0; contents.length() < SIZE; line++) {
+            contents.append("[").append(line).append("] ").append("x".repeat(line % 120)).append('\n');
+        }
+        var bytes = contents.toString().getBytes(StandardCharsets.UTF_8);
+
+        var root = TestFiles.get("read-line-benchmark");
+        Files.createDirectories(root);
+        mount = switch (mountType) {
+            case "FileMount" -> {
+                Files.write(root.resolve(FILE), bytes);
+                yield new FileMount(root);
+            }
+            case "JarMount" -> {
+                var zip = root.resolve("log.zip");
+                try (var stream = new ZipOutputStream(Files.newOutputStream(zip))) {
+                    stream.putNextEntry(new ZipEntry("root/"));
+                    stream.closeEntry();
+
+                    stream.putNextEntry(new ZipEntry("root/" + FILE));
+                    stream.write(bytes);
+                    stream.closeEntry();
+                }
+                yield new JarMount(zip.toFile(), "root");
+            }
+            case "MemoryMount" -> new MemoryMount().addFile(FILE, bytes);
+            default -> throw new IllegalArgumentException("Unknown mount " + mountType);
+        };
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        if (mount instanceof JarMount jarMount) jarMount.close();
+    }
+
+    @Benchmark
+    public void readLines(Blackhole blackhole) throws IOException, LuaException {
+        var handle = new ReadHandle(mount.openForRead(FILE), false);
+        Object[] line;
+        while ((line = handle.readLine(Optional.empty())) != null) blackhole.consume(line);
+        handle.close();
+    }
+}
@@ -0,0 +1,194 @@
+// SPDX-FileCopyrightText: 2024 The CC: Tweaked Developers
+//
+// SPDX-License-Identifier: MPL-2.0
+
+package dan200.computercraft.core.apis.http.request;
+
+import dan200.computercraft.api.lua.LuaException;
+import dan200.computercraft.api.lua.MethodResult;
+import dan200.computercraft.core.apis.http.ResourceGroup;
+import dan200.computercraft.test.core.apis.BasicApiEnvironment;
+import dan200.computercraft.test.core.computer.BasicEnvironment;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.Nullable;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link HttpStreamHandle}, feeding the body in directly rather than going through a real connection.
+ */
+public class HttpStreamHandleTest {
+    private static final String URL = "http://127.0.0.1/";
+    private static final int CHUNK_SIZE = 8192;
+
+    private final List<String> events = new ArrayList<>();
+    private final BasicApiEnvironment environment = new BasicApiEnvironment(new BasicEnvironment()) {
+        @Override
+        public void queueEvent(String event, @Nullable Object... args) {
+            events.add(event);
+        }
+    };
+
+    private final EmbeddedChannel channel = new EmbeddedChannel();
+    private final HttpRequest request = new HttpRequest(
+        new ResourceGroup<>(() -> ResourceGroup.DEFAULT_LIMIT), environment, URL, null, new DefaultHttpHeaders(),
+        true, true, false, 0
+    );
+    private final HttpStreamHandle handle = new HttpStreamHandle(request, URL, true, channel);
+
+    @AfterEach
+    public void tearDown() {
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testPausesWhenBufferFull() throws LuaException {
+        var body = body(HttpStreamHandle.HIGH_WATER * 2);
+        var offered = 0;
+        while (channel.config().isAutoRead()) {
+            offer(body, offered, CHUNK_SIZE);
+            offered += CHUNK_SIZE;
+        }
+        assertEquals(HttpStreamHandle.HIGH_WATER, offered, "Stops reading once HIGH_WATER bytes are buffered");
+
+        // Reading a little should not resume reading, as we're still above LOW_WATER.
+        var output = new ByteArrayOutputStream();
+        output.writeBytes(read(CHUNK_SIZE));
+        assertFalse(channel.config().isAutoRead(), "Still paused above LOW_WATER");
+
+        // Read slowly until we drop below LOW_WATER.
+        while (offered - output.size() > HttpStreamHandle.LOW_WATER) {
+            assertFalse(channel.config().isAutoRead(), "Still paused above LOW_WATER");
+            output.writeBytes(read(1000));
+        }
+        assertTrue(channel.config().isAutoRead(), "Resumes once below LOW_WATER");
+
+        // Then receive and read the remainder of the body.
+        while (offered < body.length) {
+            offer(body, offered, Math.min(CHUNK_SIZE, body.length - offered));
+            offered += CHUNK_SIZE;
+            output.writeBytes(read(CHUNK_SIZE / 2));
+        }
+        handle.finish();
+
+        output.writeBytes(cast(byte[].class, handle.readAll()));
+        assertArrayEquals(body, output.toByteArray());
+        assertTrue(channel.config().isAutoRead(), "Reading is resumed once finished");
+    }
+
+    @Test
+    public void testReadWaitsAcrossChunks() throws LuaException {
+        offer("hel");
+
+        var result = handle.read(Optional.of(5));
+        assertNotNull(result.getCallback(), "Waits for more data");
+        assertEquals(List.of(), events, "No event is queued until data is received");
+
+        offer("lo world");
+        assertEquals(List.of(HttpStreamHandle.DATA_EVENT), events, "Event is queued when data is received");
+
+        result = result.getCallback().resume(new Object[]{ HttpStreamHandle.DATA_EVENT, URL });
+        assertNull(result.getCallback());
+        assertArrayEquals(bytes("hello"), cast(byte[].class, result));
+
+        // Reading more than is available waits until the body has finished, and then returns what we have.
+        result = handle.read(Optional.of(100));
+        assertNotNull(result.getCallback(), "Waits for more data");
+        handle.finish();
+        assertArrayEquals(bytes(" world"), cast(byte[].class, result.getCallback().resume(new Object[0])));
+
+        assertNull(handle.read(Optional.of(1)).getResult(), "Returns nil at the end");
+    }
+
+    @Test
+    public void testReadLineAcrossChunks() throws LuaException {
+        offer("hel");
+        offer("lo\r");
+        offer("\nwor");
+
+        assertArrayEquals(bytes("hello"), cast(byte[].class, handle.readLine(Optional.empty())));
+
+        var result = handle.readLine(Optional.of(true));
+        assertNotNull(result.getCallback(), "Waits for a newline");
+
+        offer("ld\nagain");
+        result = result.getCallback().resume(new Object[0]);
+        assertArrayEquals(bytes("world\n"), cast(byte[].class, result));
+
+        // The last line is returned when the body finishes, even without a newline.
+        result = handle.readLine(Optional.empty());
+        assertNotNull(result.getCallback(), "Waits for a newline");
+        handle.finish();
+        assertArrayEquals(bytes("again"), cast(byte[].class, result.getCallback().resume(new Object[0])));
+
+        assertNull(handle.readLine(Optional.empty()).getResult(), "Returns nil at the end");
+    }
+
+    @Test
+    public void testReadsAfterFailure() throws LuaException {
+        offer("partial");
+        handle.fail("Response is too large");
+
+        assertArrayEquals(bytes("partial"), cast(byte[].class, handle.read(Optional.of(100))));
+        var error = assertThrows(LuaException.class, () -> handle.read(Optional.of(100)));
+        assertEquals("Response is too large", error.getMessage());
+    }
+
+    @Test
+    public void testCloseMidStream() throws LuaException {
+        offer("hello");
+        var result = handle.read(Optional.of(100));
+        assertNotNull(result.getCallback(), "Waits for more data");
+
+        handle.close();
+        assertTrue(request.isClosed(), "Closing the body closes the request");
+
+        // Any data received after closing is discarded, and pending reads fail.
+        offer("world");
+        var callback = result.getCallback();
+        var error = assertThrows(LuaException.class, () -> callback.resume(new Object[0]));
+        assertEquals("attempt to use a closed file", error.getMessage());
+        assertThrows(LuaException.class, () -> handle.readLine(Optional.empty()));
+        assertThrows(LuaException.class, handle::close);
+    }
+
+    private void offer(String contents) {
+        handle.offer(Unpooled.wrappedBuffer(bytes(contents)));
+    }
+
+    private void offer(byte[] body, int offset, int length) {
+        handle.offer(Unpooled.wrappedBuffer(body, offset, length));
+    }
+
+    private byte[] read(int count) throws LuaException {
+        var result = handle.read(Optional.of(count));
+        assertNull(result.getCallback(), "Data is available without waiting");
+        return cast(byte[].class, result);
+    }
+
+    private static byte[] body(int length) {
+        var body = new byte[length];
+        for (var i = 0; i < length; i++) body[i] = (byte) (i * 31 + (i >> 8));
+        return body;
+    }
+
+    private static byte[] bytes(String contents) {
+        return contents.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static <T> T cast(Class<T> type, MethodResult result) {
+        var values = result.getResult();
+        assertEquals(1, values.length, "Expected a single result");
+        return type.cast(values[0]);
+    }
+}
@@ -0,0 +1,124 @@
+// SPDX-FileCopyrightText: 2024 The CC: Tweaked Developers
+//
+// SPDX-License-Identifier: MPL-2.0
+
+package dan200.computercraft.core.apis.http.websocket;
+
+import dan200.computercraft.test.core.apis.BasicApiEnvironment;
+import dan200.computercraft.test.core.computer.BasicEnvironment;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.Nullable;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WebsocketBufferTest {
+    private static final String URL = "ws://127.0.0.1/";
+
+    private final List<String> events = new ArrayList<>();
+    private final BasicApiEnvironment environment = new BasicApiEnvironment(new BasicEnvironment()) {
+        @Override
+        public void queueEvent(String event, @Nullable Object... args) {
+            events.add(event);
+        }
+    };
+
+    private final EmbeddedChannel channel = new EmbeddedChannel();
+    private final WebsocketBuffer buffer = new WebsocketBuffer(environment, URL, channel);
+
+    @AfterEach
+    public void tearDown() {
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testPausesWhenFlooded() {
+        var count = WebsocketBuffer.MAX_MESSAGES * 3;
+        var sent = 0;
+        while (channel.config().isAutoRead()) offer(sent++);
+        assertEquals(WebsocketBuffer.MAX_MESSAGES, sent, "Stops reading once MAX_MESSAGES are buffered");
+
+        // Netty may still deliver frames it had already decoded, and these should not be dropped.
+        for (var i = 0; i < 10; i++) offer(sent++);
+        assertFalse(channel.config().isAutoRead());
+
+        // Read one message at a time, until we're below half of the buffer.
+        var received = 0;
+        while (sent - received > WebsocketBuffer.MAX_MESSAGES / 2) {
+            assertFalse(channel.config().isAutoRead(), "Still paused while the buffer is over half full");
+            assertMessage(received++, buffer.pollOrWait());
+        }
+        assertTrue(channel.config().isAutoRead(), "Resumes once the buffer is half empty");
+
+        // Then flood the buffer again, reading everything in batches.
+        while (received < count) {
+            while (sent < count && channel.config().isAutoRead()) offer(sent++);
+
+            var batch = buffer.drainOrWait();
+            assertFalse(batch.isEmpty(), "Batch should not be empty");
+            for (var message : batch) assertMessage(received++, message);
+            assertTrue(channel.config().isAutoRead(), "Resumes once the buffer is drained");
+        }
+
+        assertEquals(List.of(), events, "No events are queued when no-one is waiting");
+    }
+
+    @Test
+    public void testPausesOnLargeMessages() {
+        var message = new byte[WebsocketBuffer.MAX_BYTES / 4];
+        for (var i = 0; i < 3; i++) buffer.offer(message, true);
+        assertTrue(channel.config().isAutoRead());
+
+        buffer.offer(message, true);
+        assertFalse(channel.config().isAutoRead(), "Stops reading once MAX_BYTES are buffered");
+
+        assertNotNull(buffer.pollOrWait());
+        assertFalse(channel.config().isAutoRead(), "Still paused while the buffer is over half full");
+
+        assertNotNull(buffer.pollOrWait());
+        assertTrue(channel.config().isAutoRead(), "Resumes once the buffer is half empty");
+    }
+
+    @Test
+    public void testQueuesEventWhenWaiting() {
+        assertNull(buffer.pollOrWait());
+        assertEquals(List.of(), buffer.drainOrWait());
+        assertEquals(List.of(), events);
+
+        offer(0);
+        assertEquals(List.of(WebsocketBuffer.DATA_EVENT), events, "Queues an event for a waiting reader");
+
+        offer(1);
+        assertEquals(List.of(WebsocketBuffer.DATA_EVENT), events, "Only queues one event");
+
+        var batch = buffer.drainOrWait();
+        assertEquals(2, batch.size());
+        assertMessage(0, batch.get(0));
+        assertMessage(1, batch.get(1));
+    }
+
+    @Test
+    public void testNoEventOnceStoppedWaiting() {
+        assertNull(buffer.pollOrWait());
+        buffer.stopWaiting();
+
+        offer(0);
+        assertEquals(List.of(), events, "No event is queued once the reader has stopped waiting");
+        assertMessage(0, buffer.pollOrWait());
+    }
+
+    private void offer(int index) {
+        buffer.offer(Integer.toString(index).getBytes(StandardCharsets.UTF_8), false);
+    }
+
+    private static void assertMessage(int index, @Nullable WebsocketBuffer.Message message) {
+        assertNotNull(message, "Expected a message");
+        assertEquals(Integer.toString(index), new String(message.contents(), StandardCharsets.UTF_8));
+        assertFalse(message.binary());
+    }
+}
@@ -13,6 +13,7 @@
 import dan200.computercraft.core.computer.mainthread.MainThread;
 import dan200.computercraft.core.computer.mainthread.MainThreadConfig;
 import dan200.computercraft.core.filesystem.MemoryMount;
+import dan200.computercraft.core.metrics.MetricsObserver;
 import dan200.computercraft.core.terminal.Terminal;
 import dan200.computercraft.test.core.computer.BasicEnvironment;
 import org.intellij.lang.annotations.Language;
@@ -45,10 +46,28 @@ public static void run(@Language("lua") String program, int maxTimes) {
         }, maxTimes);
     }
 
+    public static void run(@Language("lua") String program, MetricsObserver metrics, int maxTimes) {
+        var mount = new MemoryMount()
+            .addFile("test.lua", program)
+            .addFile("startup.lua", "assertion.assert(pcall(loadfile('test.lua', nil, _ENV))) os.shutdown()");
+
+        run(mount, x -> {
+        }, metrics, maxTimes);
+    }
+
     public static void run(WritableMount mount, Consumer<Computer> setup, int maxTicks) {
+        run(mount, setup, MetricsObserver.discard(), maxTicks);
+    }
+
+    public static void run(WritableMount mount, Consumer<Computer> setup, MetricsObserver metrics, int maxTicks) {
         var term = new Terminal(51, 19, true);
         var mainThread = new MainThread(new MainThreadConfig.Basic(Integer.MAX_VALUE, Integer.MAX_VALUE));
-        var environment = new BasicEnvironment(mount);
+        var environment = new BasicEnvironment(mount) {
+            @Override
+            public MetricsObserver getMetrics() {
+                return metrics;
+            }
+        };
         var context = ComputerContext.builder(environment).mainThreadScheduler(mainThread).build();
         final var computer = new Computer(context, environment, term, 0);
 
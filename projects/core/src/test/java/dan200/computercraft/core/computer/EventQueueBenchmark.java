@@ -0,0 +1,116 @@
+// SPDX-FileCopyrightText: 2024 The CC: Tweaked Developers
+//
+// SPDX-License-Identifier: MPL-2.0
+
+package dan200.computercraft.core.computer;
+
+import dan200.computercraft.core.ComputerContext;
+import dan200.computercraft.core.lua.ILuaMachine;
+import dan200.computercraft.core.lua.MachineResult;
+import dan200.computercraft.core.terminal.Terminal;
+import dan200.computercraft.test.core.ConcurrentHelpers;
+import dan200.computercraft.test.core.computer.BasicEnvironment;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how quickly computers can process a burst of events, such as a flood of {@code modem_message}s.
+ * <p>
+ * Each invocation queues {@link #EVENTS} events on every computer, and waits until they have all been handled. This
+ * uses a dummy {@link ILuaMachine} (which does a small amount of work per event), so we are only measuring the cost of
+ * the {@link ComputerExecutor} and scheduler.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EventQueueBenchmark {
+    private static final int EVENTS = 200;
+    private static final long EVENT_WORK = 100;
+
+    @Param({ "1", "8" })
+    int computers;
+
+    private ComputerContext context;
+    private final List<Computer> computerList = new ArrayList<>();
+    private volatile @Nullable CountDownLatch remaining;
+
+    public static void main(String[] args) throws RunnerException {
+        var opts = new OptionsBuilder()
+            .include(EventQueueBenchmark.class.getName() + "\\..*")
+            .build();
+        new Runner(opts).run();
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        var environment = new BasicEnvironment();
+        context = ComputerContext.builder(environment)
+            .computerThreads(2)
+            .luaFactory((env, bios) -> new EventMachine())
+            .build();
+
+        for (var i = 0; i < computers; i++) {
+            var computer = new Computer(context, environment, new Terminal(51, 19, true), i);
+            computer.turnOn();
+            computerList.add(computer);
+        }
+
+        // Computers are only started when ticked, so tick them until they're all on.
+        for (var computer : computerList) {
+            ConcurrentHelpers.waitUntil(() -> {
+                computer.tick();
+                return computer.isOn();
+            });
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        for (var computer : computerList) computer.shutdown();
+        context.ensureClosed(1, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    public void queueEvents() throws InterruptedException {
+        var latch = remaining = new CountDownLatch(computers * EVENTS);
+        for (var computer : computerList) {
+            for (var i = 0; i < EVENTS; i++) computer.queueEvent("benchmark", new Object[]{ i });
+        }
+
+        latch.await();
+    }
+
+    private final class EventMachine implements ILuaMachine {
+        @Override
+        public MachineResult handleEvent(@Nullable String eventName, @Nullable Object[] arguments) {
+            if ("benchmark".equals(eventName)) {
+                Blackhole.consumeCPU(EVENT_WORK);
+
+                var latch = remaining;
+                if (latch != null) latch.countDown();
+            }
+
+            return MachineResult.OK;
+        }
+
+        @Override
+        public void printExecutionState(StringBuilder out) {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
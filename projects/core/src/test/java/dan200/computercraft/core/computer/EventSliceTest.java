@@ -0,0 +1,48 @@
+// SPDX-FileCopyrightText: 2024 The CC: Tweaked Developers
+//
+// SPDX-License-Identifier: MPL-2.0
+
+package dan200.computercraft.core.computer;
+
+import dan200.computercraft.core.metrics.Metric;
+import dan200.computercraft.core.metrics.Metrics;
+import dan200.computercraft.core.metrics.MetricsObserver;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+
+/**
+ * Checks that a computer running several events in one timeslice still returns to the scheduler regularly.
+ */
+public class EventSliceTest {
+    private static final int EVENTS = 1000;
+
+    @Test
+    public void testSelfQueuedEventsReturnToScheduler() {
+        var tasks = new AtomicInteger();
+        var metrics = new MetricsObserver() {
+            @Override
+            public void observe(Metric.Counter counter) {
+            }
+
+            @Override
+            public void observe(Metric.Event event, long value) {
+                if (event == Metrics.COMPUTER_TASKS) tasks.incrementAndGet();
+            }
+        };
+
+        ComputerBootstrap.run("""
+            for i = 1, %d do
+                os.queueEvent("loop")
+                os.pullEvent("loop")
+            end
+            """.formatted(EVENTS), metrics, ComputerBootstrap.MAX_TIME);
+
+        // No other computers are running, so the only reason to stop is the per-slice limit.
+        assertThat("Ran events over several timeslices", tasks.get(),
+            greaterThanOrEqualTo(EVENTS / ComputerExecutor.MAX_EVENTS_PER_SLICE - 1));
+    }
+}
@@ -0,0 +1,108 @@
+// SPDX-FileCopyrightText: 2024 The CC: Tweaked Developers
+//
+// SPDX-License-Identifier: MPL-2.0
+
+package dan200.computercraft.core.computer;
+
+import it.unimi.dsi.fastutil.ints.Int2LongOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TimerWheelTest {
+    @Test
+    public void testFiresAfterDelay() {
+        var wheel = new TimerWheel();
+        wheel.add(0, 0);
+        wheel.add(1, 1);
+        wheel.add(2, 3);
+
+        assertThat(tick(wheel), contains(0, 1));
+        assertThat(tick(wheel), empty());
+        assertThat(tick(wheel), contains(2));
+        assertThat(tick(wheel), empty());
+    }
+
+    @Test
+    public void testRemove() {
+        var wheel = new TimerWheel();
+        wheel.add(0, 5);
+        wheel.add(1, 5);
+        wheel.add(2, 5);
+        wheel.remove(1);
+
+        for (var i = 0; i < 4; i++) assertThat(tick(wheel), empty());
+        assertThat(tick(wheel), contains(0, 2));
+    }
+
+    @Test
+    public void testLongTimer() {
+        var wheel = new TimerWheel();
+        var delay = (1L << 24) + 12345;
+        wheel.add(0, delay);
+        wheel.add(1, Long.MAX_VALUE);
+
+        for (long i = 1; i < delay; i++) {
+            if (!tick(wheel).isEmpty()) throw new AssertionError("Timer fired early at tick " + i);
+        }
+        assertThat(tick(wheel), contains(0));
+    }
+
+    /**
+     * Compare the wheel against counting down every timer on every tick (which is what {@link Environment} used to do).
+     */
+    @Test
+    public void testMatchesCountdown() {
+        var random = new Random(0x5eed);
+        var wheel = new TimerWheel();
+        var countdown = new Int2LongOpenHashMap();
+        var nextId = 0;
+
+        for (var tick = 0; tick < 200_000; tick++) {
+            var action = random.nextInt(10);
+            if (action < 3) {
+                var delay = switch (random.nextInt(4)) {
+                    case 0 -> random.nextInt(4) - 1;
+                    case 1 -> random.nextInt(64);
+                    case 2 -> random.nextInt(4096);
+                    default -> random.nextInt(100_000);
+                };
+                wheel.add(nextId, delay);
+                countdown.put(nextId, delay);
+                nextId++;
+            } else if (action < 4 && nextId > 0) {
+                var id = random.nextInt(nextId);
+                wheel.remove(id);
+                countdown.remove(id);
+            }
+
+            var expected = new IntArrayList();
+            for (var it = countdown.int2LongEntrySet().iterator(); it.hasNext(); ) {
+                var entry = it.next();
+                var ticksLeft = entry.getLongValue() - 1;
+                entry.setValue(ticksLeft);
+                if (ticksLeft <= 0) {
+                    expected.add(entry.getIntKey());
+                    it.remove();
+                }
+            }
+
+            var actual = tick(wheel);
+            expected.sort(null);
+            actual.sort(null);
+            assertEquals(expected, actual, "Timers fired on tick " + tick);
+        }
+    }
+
+    private static IntArrayList tick(TimerWheel wheel) {
+        var fired = new IntArrayList();
+        wheel.tick(fired::add);
+        return fired;
+    }
+}
@@ -0,0 +1,128 @@
+// SPDX-FileCopyrightText: 2024 The CC: Tweaked Developers
+//
+// SPDX-License-Identifier: MPL-2.0
+
+package dan200.computercraft.core.computer.computerthread;
+
+import dan200.computercraft.core.metrics.Metric;
+import dan200.computercraft.core.metrics.MetricsObserver;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+/**
+ * Compares the throughput of {@link ComputerThread} and {@link WorkStealingComputerThread}.
+ * <p>
+ * Each invocation submits {@link #COMPUTERS} computers, each of which runs {@link #TASKS} short tasks (resubmitting
+ * themselves after each one). This is a rough approximation of a server with many computers all handling events.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ComputerSchedulerBenchmark {
+    private static final int COMPUTERS = 2000;
+    private static final int TASKS = 10;
+    private static final long TASK_WORK = 1_000;
+
+    @Param({ "1", "2", "4", "8", "16", "32" })
+    int threads;
+
+    @Param({ "ComputerThread", "WorkStealingComputerThread" })
+    String scheduler;
+
+    private ComputerScheduler computerScheduler;
+
+    public static void main(String[] args) throws RunnerException {
+        var opts = new OptionsBuilder()
+            .include(ComputerSchedulerBenchmark.class.getName() + "\\..*")
+            .build();
+        new Runner(opts).run();
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        IntFunction<ComputerScheduler> factory = switch (scheduler) {
+            case "ComputerThread" -> ComputerThread::new;
+            case "WorkStealingComputerThread" -> WorkStealingComputerThread::new;
+            default -> throw new IllegalArgumentException("Unknown scheduler " + scheduler);
+        };
+        computerScheduler = factory.apply(threads);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        if (!computerScheduler.stop(10, TimeUnit.SECONDS)) throw new IllegalStateException("Failed to stop scheduler");
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COMPUTERS * TASKS)
+    public void runTasks() throws InterruptedException {
+        var finished = new CountDownLatch(COMPUTERS);
+        var workers = new CountingWorker[COMPUTERS];
+        for (var i = 0; i < COMPUTERS; i++) workers[i] = new CountingWorker(computerScheduler, i, finished);
+        for (var worker : workers) worker.executor.submit();
+
+        if (!finished.await(1, TimeUnit.MINUTES)) throw new IllegalStateException("Computers did not finish in time");
+    }
+
+    private static final class CountingWorker implements ComputerScheduler.Worker, MetricsObserver {
+        private final int id;
+        private final CountDownLatch finished;
+        private final ComputerScheduler.Executor executor;
+        private int remaining = TASKS;
+
+        CountingWorker(ComputerScheduler scheduler, int id, CountDownLatch finished) {
+            this.id = id;
+            this.finished = finished;
+            executor = scheduler.createExecutor(this, this);
+        }
+
+        @Override
+        public void work() {
+            Blackhole.consumeCPU(TASK_WORK);
+            if (--remaining > 0) {
+                executor.submit();
+            } else {
+                finished.countDown();
+            }
+        }
+
+        @Override
+        public int getComputerID() {
+            return id;
+        }
+
+        @Override
+        public void writeState(StringBuilder output) {
+        }
+
+        @Override
+        public void abortWithTimeout() {
+        }
+
+        @Override
+        public void abortWithError() {
+        }
+
+        @Override
+        public void unload() {
+        }
+
+        @Override
+        public void observe(Metric.Counter counter) {
+        }
+
+        @Override
+        public void observe(Metric.Event event, long value) {
+        }
+    }
+}
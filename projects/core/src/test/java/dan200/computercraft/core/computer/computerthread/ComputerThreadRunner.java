@@ -18,7 +18,7 @@
 import java.util.function.BiConsumer;
 
 public class ComputerThreadRunner implements AutoCloseable {
-    private final ComputerThread thread;
+    private final ComputerScheduler scheduler;
 
     private final Lock errorLock = new ReentrantLock();
     private final @GuardedBy("errorLock") Condition hasError = errorLock.newCondition();
@@ -26,17 +26,40 @@ public class ComputerThreadRunner implements AutoCloseable {
     private @MonotonicNonNull Throwable error = null;
 
     public ComputerThreadRunner() {
-        this.thread = new ComputerThread(1);
+        this(new ComputerThread(1));
     }
 
-    public ComputerThread thread() {
-        return thread;
+    public ComputerThreadRunner(ComputerScheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    public ComputerScheduler scheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Get the scaled period of the current scheduler.
+     *
+     * @return The scaled period of a single task.
+     * @see ComputerThread#scaledPeriod()
+     * @see WorkStealingComputerThread#minScaledPeriod()
+     */
+    public long scaledPeriod() {
+        if (scheduler instanceof ComputerThread thread) return thread.scaledPeriod();
+        if (scheduler instanceof WorkStealingComputerThread thread) return thread.minScaledPeriod();
+        throw new IllegalStateException("Unknown scheduler " + scheduler);
+    }
+
+    private boolean hasPendingWork() {
+        if (scheduler instanceof ComputerThread thread) return thread.hasPendingWork();
+        if (scheduler instanceof WorkStealingComputerThread thread) return thread.hasPendingWork();
+        throw new IllegalStateException("Unknown scheduler " + scheduler);
     }
 
     @Override
     public void close() {
         try {
-            if (!thread.stop(10, TimeUnit.SECONDS)) {
+            if (!scheduler.stop(10, TimeUnit.SECONDS)) {
                 throw new IllegalStateException("Failed to shutdown ComputerContext in time.");
             }
         } catch (InterruptedException e) {
@@ -45,11 +68,11 @@ public void close() {
     }
 
     public Worker createWorker(BiConsumer<ComputerScheduler.Executor, TimeoutState> action) {
-        return new Worker(thread, e -> action.accept(e, e.timeoutState()));
+        return new Worker(scheduler, e -> action.accept(e, e.timeoutState()));
     }
 
     public void createLoopingComputer() {
-        new Worker(thread, e -> {
+        new Worker(scheduler, e -> {
             Thread.sleep(100);
             e.submit();
         }).executor().submit();
@@ -65,7 +88,7 @@ public void startAndWait(Worker worker) throws Exception {
             } finally {
                 errorLock.unlock();
             }
-        } while (!worker.executed || thread.hasPendingWork());
+        } while (!worker.executed || hasPendingWork());
     }
 
     @GuardedBy("errorLock")
@@ -88,6 +111,7 @@ public final class Worker implements ComputerScheduler.Worker, MetricsObserver {
         private final ComputerScheduler.Executor executor;
         private long[] totals = new long[16];
         private volatile boolean executed = false;
+        private volatile boolean abortedWithTimeout = false;
 
         private Worker(ComputerScheduler scheduler, Task run) {
             this.run = run;
@@ -132,6 +156,11 @@ public void writeState(StringBuilder output) {
 
         @Override
         public void abortWithTimeout() {
+            abortedWithTimeout = true;
+        }
+
+        public boolean abortedWithTimeout() {
+            return abortedWithTimeout;
         }
 
         @Override
@@ -16,21 +16,33 @@
 
 import java.util.Locale;
 import java.util.Objects;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.junit.jupiter.api.Assertions.*;
 
+/**
+ * Tests for {@link ComputerThread}.
+ * <p>
+ * These tests are also run against other {@link ComputerScheduler}s, by overriding {@link #createScheduler(int)}.
+ *
+ * @see WorkStealingComputerThreadTest
+ */
 @Timeout(value = 15)
 @Execution(ExecutionMode.CONCURRENT)
 public class ComputerThreadTest {
     private static final Logger LOG = LoggerFactory.getLogger(ComputerThreadTest.class);
-    private ComputerThreadRunner manager;
+    protected ComputerThreadRunner manager;
+
+    protected ComputerScheduler createScheduler(int threads) {
+        return new ComputerThread(threads);
+    }
 
     @BeforeEach
     public void before() {
-        manager = new ComputerThreadRunner();
+        manager = new ComputerThreadRunner(createScheduler(1));
     }
 
     @AfterEach
@@ -63,6 +75,30 @@ public void testHardAbort() throws Exception {
         });
 
         manager.startAndWait(computer);
+        assertTrue(computer.abortedWithTimeout(), "Computer should be aborted");
+    }
+
+    @Test
+    public void testReplacesUnresponsiveThread() throws Exception {
+        var otherRan = new CountDownLatch(1);
+        var stuck = manager.createWorker((executor, timeout) -> {
+            // Start off soft-aborted, so we don't need to wait too long.
+            executor.setRemainingTime(0);
+
+            // Ignore any interrupts, until the scheduler gives up on this thread and runs the other computer elsewhere.
+            while (true) {
+                try {
+                    if (otherRan.await(100, TimeUnit.MILLISECONDS)) break;
+                } catch (InterruptedException ignored) {
+                    // Keep going!
+                }
+            }
+        });
+        var other = manager.createWorker((executor, timeout) -> otherRan.countDown());
+
+        stuck.executor().submit();
+        manager.startAndWait(other);
+        assertTrue(stuck.abortedWithTimeout(), "Computer should be aborted");
     }
 
     @Test
@@ -78,7 +114,7 @@ public void testNoPauseIfNoOtherMachines() throws Exception {
     @Test
     public void testPauseIfSomeOtherMachine() throws Exception {
         var computer = manager.createWorker((executor, timeout) -> {
-            var budget = manager.thread().scaledPeriod();
+            var budget = manager.scaledPeriod();
             assertEquals(budget, TimeUnit.MILLISECONDS.toNanos(25), "Budget should be 25ms");
 
             var delay = ConcurrentHelpers.waitUntil(timeout::isPaused);
@@ -0,0 +1,60 @@
+// SPDX-FileCopyrightText: 2024 The CC: Tweaked Developers
+//
+// SPDX-License-Identifier: MPL-2.0
+
+package dan200.computercraft.core.computer.computerthread;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the {@link ComputerThreadTest} suite against {@link WorkStealingComputerThread}, along with some tests specific
+ * to having multiple run queues.
+ */
+public class WorkStealingComputerThreadTest extends ComputerThreadTest {
+    @Override
+    protected ComputerScheduler createScheduler(int threads) {
+        return new WorkStealingComputerThread(threads);
+    }
+
+    @Test
+    public void testRunsAllComputers() throws InterruptedException {
+        try (var runner = new ComputerThreadRunner(createScheduler(4))) {
+            var computers = 100;
+            var tasks = 10;
+            var finished = new CountDownLatch(computers);
+            var threads = ConcurrentHashMap.<Thread>newKeySet();
+            var runs = new ArrayList<AtomicInteger>(computers);
+            var workers = new ArrayList<ComputerThreadRunner.Worker>(computers);
+            for (var i = 0; i < computers; i++) {
+                var count = new AtomicInteger();
+                runs.add(count);
+                workers.add(runner.createWorker((executor, timeout) -> {
+                    threads.add(Thread.currentThread());
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+                    if (count.incrementAndGet() < tasks) {
+                        executor.submit();
+                    } else {
+                        finished.countDown();
+                    }
+                }));
+            }
+            for (var worker : workers) worker.executor().submit();
+
+            assertTrue(finished.await(10, TimeUnit.SECONDS), "All computers should finish");
+            for (var count : runs) assertEquals(tasks, count.get(), "Each computer should run every task");
+            assertThat("Work should be spread across threads", threads.size(), greaterThan(1));
+        }
+    }
+}
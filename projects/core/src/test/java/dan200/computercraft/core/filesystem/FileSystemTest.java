@@ -11,6 +11,7 @@
 import dan200.computercraft.api.lua.ObjectArguments;
 import dan200.computercraft.core.TestFiles;
 import dan200.computercraft.core.apis.handles.WriteHandle;
+import net.jqwik.api.*;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
@@ -77,6 +78,55 @@ public void testUnmountCloses() throws FileSystemException {
         assertEquals("attempt to use a closed file", err.getMessage());
     }
 
+    @Test
+    public void testDeepestMount() throws FileSystemException {
+        var fs = new FileSystem("hdd", new MemoryMount());
+        fs.mount("rom", "rom", new MemoryMount());
+        fs.mount("programs", "rom/programs", new MemoryMount());
+
+        assertEquals("hdd", fs.getMountLabel(""));
+        assertEquals("hdd", fs.getMountLabel("romfile"));
+        assertEquals("rom", fs.getMountLabel("rom"));
+        assertEquals("rom", fs.getMountLabel("ROM/apis/colors.lua"));
+        assertEquals("programs", fs.getMountLabel("rom/Programs/shell.lua"));
+        assertEquals("programs", fs.getMountLabel("rom/programs"));
+
+        fs.unmount("rom");
+        assertEquals("hdd", fs.getMountLabel("rom/apis"));
+        assertEquals("programs", fs.getMountLabel("rom/programs/shell.lua"));
+
+        var err = assertThrows(FileSystemException.class, () -> fs.getMountLabel("../x"));
+        assertEquals("/../x: Invalid Path", err.getMessage());
+    }
+
+    /**
+     * Check {@link FileSystem#sanitizePath(String, boolean)} matches
+     * {@linkplain SanitizePathBenchmark#sanitizePathOriginal(String, boolean) its original implementation}.
+     *
+     * @param path           The path to sanitise.
+     * @param allowWildcards Whether to allow wildcards.
+     */
+    @Property(tries = 10_000)
+    public void testSanitizeMatchesOriginal(@ForAll("paths") String path, @ForAll boolean allowWildcards) {
+        assertEquals(
+            SanitizePathBenchmark.sanitizePathOriginal(path, allowWildcards),
+            FileSystem.sanitizePath(path, allowWildcards)
+        );
+    }
+
+    @Provide
+    Arbitrary<String> paths() {
+        var component = Arbitraries.oneOf(
+            Arbitraries.of("", ".", "..", "...", " .. ", "*", "?", "a*", "?b", "rom", "ROM"),
+            Arbitraries.strings().withChars("ab. *?:|\"\t\\").ofMaxLength(8),
+            // Long components, which may be truncated to something containing whitespace or dots.
+            Arbitraries.strings().withChars("a. ").ofMinLength(250).ofMaxLength(260),
+            Combinators.combine(Arbitraries.of(".", "..", "a", " ."), Arbitraries.integers().between(240, 270))
+                .as((prefix, padding) -> prefix + " ".repeat(padding) + "x")
+        );
+        return component.list().ofMaxSize(6).map(parts -> String.join("/", parts));
+    }
+
     @ParameterizedTest(name = "{0}")
     @MethodSource("sanitiseCases")
     public void testSanitize(String input, String output) {
@@ -91,6 +141,20 @@ public static String[][] sanitiseCases() {
             new String[]{ "a/.../b", "a/b" },
             new String[]{ " a ", "a" },
             new String[]{ "a b c", "a b c" },
+            new String[]{ "a\\b", "a/b" },
+            new String[]{ "/a/b/", "a/b" },
+            new String[]{ "a/../../b", "../b" },
+            new String[]{ "../../a", "../../a" },
+            new String[]{ "a/b/../..", "" },
+            new String[]{ " . / .... /a", "a" },
+            new String[]{ "a*b?c|d", "abcd" },
+            new String[]{ "a/\tb", "a/b" },
+            new String[]{ "a".repeat(300), "a".repeat(255) },
+            new String[]{ "a".repeat(254) + " b", "a".repeat(254) },
+            // Components are truncated after checking for . and .., and so may be kept as a literal "." or "..".
+            new String[]{ "a/." + " ".repeat(300) + "b", "a/." },
+            new String[]{ "a/.." + " ".repeat(300) + "b", "a/.." },
+            new String[]{ "a/.." + " ".repeat(300) + "b/..", "a/../.." },
         };
     }
 }
@@ -0,0 +1,116 @@
+// SPDX-FileCopyrightText: 2024 The CC: Tweaked Developers
+//
+// SPDX-License-Identifier: MPL-2.0
+
+package dan200.computercraft.core.filesystem;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares finding the mount for a path using {@link MountTrie}, against the previous approach of scanning every mount.
+ * <p>
+ * This mounts the rom and a number of disks (much like a computer with many disk drives attached), and then looks up a
+ * mix of paths on the root mount, the rom and the disks.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MountLookupBenchmark {
+    @Param({ "2", "20", "200" })
+    int mounts;
+
+    private final List<MountWrapper> mountList = new ArrayList<>();
+    private final MountTrie mountTrie = new MountTrie();
+    private String[] paths;
+
+    public static void main(String[] args) throws RunnerException {
+        var opts = new OptionsBuilder()
+            .include(MountLookupBenchmark.class.getName() + "\\..*")
+            .build();
+        new Runner(opts).run();
+    }
+
+    @Setup
+    public void setup() {
+        addMount(new MountWrapper("hdd", "", new MemoryMount()));
+        addMount(new MountWrapper("rom", "rom", new MemoryMount()));
+        for (var i = 2; i < mounts; i++) {
+            addMount(new MountWrapper("disk", i == 2 ? "disk" : "disk" + (i - 1), new MemoryMount()));
+        }
+
+        paths = new String[]{
+            "startup.lua",
+            "rom/programs/shell.lua",
+            "rom/apis/colors.lua",
+            "disk/startup",
+            "disk" + (mounts / 2) + "/data/file.txt",
+            "disk" + (mounts - 2) + "/a/b/c/d",
+        };
+    }
+
+    private void addMount(MountWrapper mount) {
+        mountList.add(mount);
+        mountTrie.add(mount);
+    }
+
+    @Benchmark
+    public void trie(Blackhole blackhole) {
+        for (var path : paths) blackhole.consume(mountTrie.get(path));
+    }
+
+    @Benchmark
+    public void linearScan(Blackhole blackhole) {
+        for (var path : paths) blackhole.consume(linearScan(path));
+    }
+
+    /**
+     * The original implementation of {@code FileSystem.getMount}.
+     *
+     * @param path The path to find.
+     * @return The deepest mount containing this path.
+     */
+    private @Nullable MountWrapper linearScan(String path) {
+        MountWrapper match = null;
+        var matchLength = 999;
+        for (var mount : mountList) {
+            if (contains(mount.getLocation(), path)) {
+                var len = FileSystem.toLocal(path, mount.getLocation()).length();
+                if (match == null || len < matchLength) {
+                    match = mount;
+                    matchLength = len;
+                }
+            }
+        }
+        return match;
+    }
+
+    private static boolean contains(String pathA, String pathB) {
+        pathA = FileSystem.sanitizePath(pathA, false).toLowerCase(Locale.ROOT);
+        pathB = FileSystem.sanitizePath(pathB, false).toLowerCase(Locale.ROOT);
+
+        if (pathB.equals("..")) {
+            return false;
+        } else if (pathB.startsWith("../")) {
+            return false;
+        } else if (pathB.equals(pathA)) {
+            return true;
+        } else if (pathA.isEmpty()) {
+            return true;
+        } else {
+            return pathB.startsWith(pathA + "/");
+        }
+    }
+}
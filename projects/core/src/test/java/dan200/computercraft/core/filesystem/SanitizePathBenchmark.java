@@ -0,0 +1,104 @@
+// SPDX-FileCopyrightText: 2024 The CC: Tweaked Developers
+//
+// SPDX-License-Identifier: MPL-2.0
+
+package dan200.computercraft.core.filesystem;
+
+import com.google.common.base.Splitter;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Compares {@link FileSystem#sanitizePath(String, boolean)} against its original implementation, on a range of paths
+ * you might see from Lua code.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SanitizePathBenchmark {
+    @Param({
+        "startup.lua",
+        "rom/programs/shell.lua",
+        "/disk/data/config.txt",
+        "rom/apis/../programs/./edit.lua",
+        "C:\\Users\\dan200\\file.txt",
+        " spaces / everywhere .lua ",
+    })
+    String path;
+
+    public static void main(String[] args) throws RunnerException {
+        var opts = new OptionsBuilder()
+            .include(SanitizePathBenchmark.class.getName() + "\\..*")
+            .build();
+        new Runner(opts).run();
+    }
+
+    @Benchmark
+    public String sanitizePath() {
+        return FileSystem.sanitizePath(path, false);
+    }
+
+    @Benchmark
+    public String sanitizePathOriginal() {
+        return sanitizePathOriginal(path, false);
+    }
+
+    private static final Pattern threeDotsPattern = Pattern.compile("^\\.{3,}$");
+    private static final char[] specialChars = new char[]{ '"', '*', ':', '<', '>', '?', '|' };
+    private static final char[] specialCharsAllowWildcards = new char[]{ '"', ':', '<', '>', '|' };
+
+    /**
+     * The original implementation of {@link FileSystem#sanitizePath(String, boolean)}.
+     *
+     * @param path           The path to sanitise.
+     * @param allowWildcards Whether to allow wildcards.
+     * @return The sanitised path.
+     */
+    static String sanitizePathOriginal(String path, boolean allowWildcards) {
+        path = path.replace('\\', '/');
+
+        var cleanName = new StringBuilder();
+        var allowedChars = allowWildcards ? specialCharsAllowWildcards : specialChars;
+        for (var i = 0; i < path.length(); i++) {
+            var c = path.charAt(i);
+            if (c >= 32 && Arrays.binarySearch(allowedChars, c) < 0) cleanName.append(c);
+        }
+        path = cleanName.toString();
+
+        var outputParts = new ArrayDeque<String>();
+        for (var fullPart : Splitter.on('/').split(path)) {
+            var part = fullPart.strip();
+
+            if (part.isEmpty() || part.equals(".") || threeDotsPattern.matcher(part).matches()) continue;
+
+            if (part.equals("..")) {
+                if (!outputParts.isEmpty()) {
+                    var top = outputParts.peekLast();
+                    if (!top.equals("..")) {
+                        outputParts.removeLast();
+                    } else {
+                        outputParts.addLast("..");
+                    }
+                } else {
+                    outputParts.addLast("..");
+                }
+            } else if (part.length() >= 255) {
+                outputParts.addLast(part.substring(0, 255).strip());
+            } else {
+                outputParts.addLast(part);
+            }
+        }
+
+        return String.join("/", outputParts);
+    }
+}
@@ -0,0 +1,76 @@
+// SPDX-FileCopyrightText: 2024 The CC: Tweaked Developers
+//
+// SPDX-License-Identifier: MPL-2.0
+
+package dan200.computercraft.core.lua;
+
+import dan200.computercraft.core.filesystem.MemoryMount;
+import org.junit.jupiter.api.Test;
+import org.squiddev.cobalt.LuaError;
+import org.squiddev.cobalt.LuaState;
+import org.squiddev.cobalt.compiler.CompileException;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChunkCacheTest {
+    private static final String PROGRAM = "print('Hello, world!')";
+
+    private final LuaState state = new LuaState();
+    private final ChunkCache cache = new ChunkCache();
+    private final MemoryMount rom = new MemoryMount()
+        .addFile("programs/hello.lua", PROGRAM)
+        .addFile("programs/broken.lua", "print(");
+
+    @Test
+    public void testCachesRomFiles() throws CompileException, LuaError {
+        var prototype = cache.compileRom(state, rom, "programs/hello.lua", bytes(PROGRAM), "@/rom/programs/hello.lua");
+        assertNotNull(prototype, "Compiles files from the ROM");
+        assertEquals(1, cache.size());
+
+        var other = cache.compileRom(state, rom, "programs/hello.lua", bytes(PROGRAM), "@/rom/programs/hello.lua");
+        assertSame(prototype, other, "Reuses the cached prototype");
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testIgnoresOtherChunks() throws CompileException, LuaError {
+        assertNull(
+            cache.compileRom(state, rom, "programs/hello.lua", bytes("print('Goodbye')"), "@/rom/programs/hello.lua"),
+            "Contents do not match the ROM"
+        );
+        assertNull(
+            cache.compileRom(state, rom, "programs/hello.lua", bytes(PROGRAM + " "), "@/rom/programs/hello.lua"),
+            "Contents are a different length to the ROM"
+        );
+        assertNull(
+            cache.compileRom(state, rom, "programs/missing.lua", bytes(PROGRAM), "@/rom/programs/missing.lua"),
+            "File does not exist"
+        );
+        assertNull(
+            cache.compileRom(state, rom, "programs", bytes(PROGRAM), "@/rom/programs"),
+            "File is a directory"
+        );
+        assertNull(
+            cache.compileRom(state, rom, "programs/../programs/hello.lua", bytes(PROGRAM), "@/rom/programs/../programs/hello.lua"),
+            "Path is not canonical"
+        );
+
+        assertEquals(0, cache.size(), "Nothing should have been cached");
+    }
+
+    @Test
+    public void testDoesNotCacheErrors() {
+        assertThrows(
+            CompileException.class,
+            () -> cache.compileRom(state, rom, "programs/broken.lua", bytes("print("), "@/rom/programs/broken.lua")
+        );
+        assertEquals(0, cache.size());
+    }
+
+    private static ByteBuffer bytes(String contents) {
+        return ByteBuffer.wrap(contents.getBytes(StandardCharsets.UTF_8));
+    }
+}
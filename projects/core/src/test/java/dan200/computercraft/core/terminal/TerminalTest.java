@@ -338,6 +338,38 @@ public void testBlitPartialBuffer() {
         assertThat(terminal.getLine(0).toString(), equalTo("2345"));
     }
 
+    @Test
+    void testBlitInvalidColours() {
+        var terminal = new Terminal(4, 3, true);
+
+        blit(terminal, "test", "AB!z", "CD!z");
+
+        // Colours are normalised when stored, with invalid colours falling back to the default.
+        assertThat(terminal.getTextColourLine(0).toString(), equalTo("ab00"));
+        assertThat(terminal.getBackgroundColourLine(0).toString(), equalTo("cdff"));
+    }
+
+    @Test
+    void testLineViewWritesThrough() {
+        var terminal = new Terminal(4, 3, true);
+
+        terminal.getLine(1).write("test");
+        terminal.getTextColourLine(1).setChar(2, 'e');
+
+        assertThat(terminal, allOf(
+            textMatches(new String[]{
+                "    ",
+                "test",
+                "    ",
+            }),
+            textColourMatches(new String[]{
+                "0000",
+                "00e0",
+                "0000",
+            })
+        ));
+    }
+
     @Test
     void testWriteFromOrigin() {
         var callCounter = new CallCounter();
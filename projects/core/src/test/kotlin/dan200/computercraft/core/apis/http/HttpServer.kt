@@ -18,6 +18,8 @@
 import io.netty.handler.codec.http.websocketx.WebSocketServerProtocolHandler.HandshakeComplete
 import io.netty.handler.codec.http.websocketx.extensions.compression.WebSocketServerCompressionHandler
 import java.nio.charset.StandardCharsets
+import java.util.*
+import java.util.concurrent.atomic.AtomicInteger
 
 /**
  * Runs a small HTTP server to run alongside [TestHttpApi]
@@ -27,7 +29,22 @@
     const val URL: String = "http://127.0.0.1:$PORT"
     const val WS_URL: String = "ws://127.0.0.1:$PORT/ws"
 
+    /** The number of connections opened to the currently running server. */
+    val connections = AtomicInteger()
+
+    /** The number of connections to the currently running server which have since been closed. */
+    val closedConnections = AtomicInteger()
+
+    /** The body of `/large`, a response much larger than we would normally buffer in memory. */
+    val LARGE_CONTENT: ByteArray = (0 until 100_000).joinToString("") { "line $it\n" }.toByteArray(StandardCharsets.UTF_8)
+
+    /** The method and path of every request received by the currently running server. */
+    val requests: MutableList<String> = Collections.synchronizedList(mutableListOf())
+
     fun runServer(run: (stop: () -> Unit) -> Unit) {
+        connections.set(0)
+        closedConnections.set(0)
+        requests.clear()
         val workerGroup: EventLoopGroup = NioEventLoopGroup(2)
         try {
             val ch = ServerBootstrap()
@@ -36,6 +53,8 @@ fun runServer(run: (stop: () -> Unit) -> Unit) {
                 .childHandler(
                     object : ChannelInitializer<SocketChannel>() {
                         override fun initChannel(ch: SocketChannel) {
+                            connections.incrementAndGet()
+                            ch.closeFuture().addListener { closedConnections.incrementAndGet() }
                             val p: ChannelPipeline = ch.pipeline()
                             p.addLast(HttpServerCodec())
                             p.addLast(HttpContentCompressor())
@@ -59,7 +78,8 @@ override fun initChannel(ch: SocketChannel) {
 }
 
 /**
- * A HTTP handler which hosts `/` (a simple static page) and `/ws` (see [WebSocketFrameHandler])
+ * A HTTP handler which hosts `/` (a simple static page), `/large` (see [HttpServer.LARGE_CONTENT]), `/drop` (which
+ * closes the connection without responding) and `/ws` (see [WebSocketFrameHandler])
  */
 private class HttpServerHandler : SimpleChannelInboundHandler<FullHttpRequest>() {
     companion object {
@@ -71,8 +91,15 @@ override fun channelReadComplete(ctx: ChannelHandlerContext) {
     }
 
     public override fun channelRead0(ctx: ChannelHandlerContext, request: FullHttpRequest) {
+        HttpServer.requests.add("${request.method()} ${request.uri()}")
         when (request.uri()) {
             "/", "/index.html" -> handleIndex(ctx, request)
+            "/large" -> sendHttpResponse(
+                ctx,
+                request,
+                DefaultFullHttpResponse(request.protocolVersion(), HttpResponseStatus.OK, Unpooled.wrappedBuffer(HttpServer.LARGE_CONTENT)),
+            )
+            "/drop" -> ctx.close()
             "/ws" -> handleWebsocket(ctx, request)
             else -> sendHttpResponse(ctx, request, DefaultFullHttpResponse(request.protocolVersion(), HttpResponseStatus.NOT_FOUND))
         }
@@ -111,14 +138,20 @@ private fun sendHttpResponse(ctx: ChannelHandlerContext, request: FullHttpReques
 }
 
 /**
- * A basic WS server which just sends back the original message.
+ * A basic WS server which just sends back the original message (in upper case). Sending `flood N` instead makes the
+ * server send N messages (`0` to `N - 1`) in quick succession.
  */
 private class WebSocketFrameHandler : SimpleChannelInboundHandler<WebSocketFrame>() {
     override fun channelRead0(ctx: ChannelHandlerContext, frame: WebSocketFrame) {
         if (frame is TextWebSocketFrame) {
             // Send the uppercase string back.
             val request = frame.text()
-            ctx.channel().writeAndFlush(TextWebSocketFrame(request.uppercase()))
+            if (request.startsWith("flood ")) {
+                for (i in 0 until request.removePrefix("flood ").toInt()) ctx.channel().write(TextWebSocketFrame(i.toString()))
+                ctx.channel().flush()
+            } else {
+                ctx.channel().writeAndFlush(TextWebSocketFrame(request.uppercase()))
+            }
         } else {
             throw UnsupportedOperationException("unsupported frame type: ${frame.javaClass.name}")
         }
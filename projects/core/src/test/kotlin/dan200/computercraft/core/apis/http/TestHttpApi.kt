@@ -16,15 +16,19 @@
 import dan200.computercraft.core.apis.http.HttpServer.runServer
 import dan200.computercraft.core.apis.http.options.Action
 import dan200.computercraft.core.apis.http.options.AddressRule
+import dan200.computercraft.core.apis.http.options.PartialOptions
 import dan200.computercraft.core.apis.http.request.HttpResponseHandle
+import dan200.computercraft.core.apis.http.request.HttpStreamHandle
 import dan200.computercraft.core.apis.http.websocket.WebsocketHandle
 import dan200.computercraft.test.core.computer.LuaTaskRunner
+import kotlinx.coroutines.delay
 import org.hamcrest.MatcherAssert.assertThat
 import org.hamcrest.Matchers.*
 import org.junit.jupiter.api.AfterAll
 import org.junit.jupiter.api.BeforeAll
 import org.junit.jupiter.api.Test
 import org.junit.jupiter.api.assertThrows
+import java.io.ByteArrayOutputStream
 import java.util.*
 import kotlin.time.Duration.Companion.milliseconds
 
@@ -65,6 +69,176 @@ fun after() {
         }
     }
 
+    @Test
+    fun `Streams a HTTP response`() {
+        runServer {
+            LuaTaskRunner.runTest {
+                val httpApi = addApi(HTTPAPI(environment))
+                val options = mapOf("url" to URL, "stream" to true)
+                assertThat("http.request succeeded", httpApi.request(ObjectArguments(options)), array(equalTo(true)))
+
+                val result = pullEvent("http_success")
+                assertThat(result, array(equalTo("http_success"), equalTo(URL), isA(HttpResponseHandle::class.java)))
+
+                val handle = result[2] as HttpResponseHandle
+                val reader = handle.extra.iterator().next() as HttpStreamHandle
+                assertThat(reader.readAll().await(), array(equalTo("Hello, world!".toByteArray())))
+                reader.close()
+            }
+        }
+    }
+
+    @Test
+    fun `Streams a large HTTP response which is read slowly`() {
+        runServer {
+            LuaTaskRunner.runTest {
+                val httpApi = addApi(HTTPAPI(environment))
+                val options = mapOf("url" to "$URL/large", "stream" to true)
+                assertThat("http.request succeeded", httpApi.request(ObjectArguments(options)), array(equalTo(true)))
+
+                val result = pullEvent("http_success")
+                val reader = (result[2] as HttpResponseHandle).extra.iterator().next() as HttpStreamHandle
+
+                // Give the server time to fill our buffer, so we have to stop and start reading from the connection.
+                delay(200.milliseconds)
+
+                val body = ByteArrayOutputStream()
+                for (i in 0 until 1000) {
+                    val line = reader.readLine(Optional.of(true)).await()!![0] as ByteArray
+                    assertThat(String(line), equalTo("line $i\n"))
+                    body.write(line)
+                }
+
+                while (true) {
+                    val chunk = reader.read(Optional.of(1000)).await() ?: break
+                    body.write(chunk[0] as ByteArray)
+                }
+
+                assertThat("Received the whole body", body.toByteArray(), equalTo(HttpServer.LARGE_CONTENT))
+                reader.close()
+            }
+        }
+    }
+
+    @Test
+    fun `Errors when a streamed HTTP response is too large`() {
+        val rules = CoreConfig.httpRules
+        CoreConfig.httpRules = listOf(
+            AddressRule.parse(
+                "*", OptionalInt.empty(),
+                PartialOptions(Action.ALLOW, OptionalLong.empty(), OptionalLong.of(100_000), OptionalInt.empty(), Optional.empty()),
+            ),
+        )
+        try {
+            runServer {
+                LuaTaskRunner.runTest {
+                    val httpApi = addApi(HTTPAPI(environment))
+                    val options = mapOf("url" to "$URL/large", "stream" to true)
+                    assertThat("http.request succeeded", httpApi.request(ObjectArguments(options)), array(equalTo(true)))
+
+                    val result = pullEvent("http_success")
+                    val reader = (result[2] as HttpResponseHandle).extra.iterator().next() as HttpStreamHandle
+
+                    val error = runCatching { reader.readAll().await() }.exceptionOrNull()
+                    assertThat(error, instanceOf(LuaException::class.java))
+                    assertThat(error!!.message, equalTo("Response is too large"))
+                }
+            }
+        } finally {
+            CoreConfig.httpRules = rules
+        }
+    }
+
+    @Test
+    fun `Closes the connection when a streamed HTTP response is closed early`() {
+        NetworkUtils.CONNECTION_POOL.clear()
+        runServer {
+            LuaTaskRunner.runTest {
+                val httpApi = addApi(HTTPAPI(environment))
+                val options = mapOf("url" to "$URL/large", "stream" to true)
+                assertThat("http.request succeeded", httpApi.request(ObjectArguments(options)), array(equalTo(true)))
+
+                val result = pullEvent("http_success")
+                val reader = (result[2] as HttpResponseHandle).extra.iterator().next() as HttpStreamHandle
+                assertThat(reader.readLine(Optional.empty()).await(), array(equalTo("line 0".toByteArray())))
+
+                reader.close()
+                assertThrows<LuaException>("Cannot read once closed") { reader.read(Optional.empty()) }
+
+                // The rest of the body will never be read, so the connection should be closed rather than reused.
+                while (HttpServer.closedConnections.get() == 0) delay(10.milliseconds)
+
+                assertThat("http.request succeeded", httpApi.request(ObjectArguments(URL)), array(equalTo(true)))
+                pullEvent("http_success")
+                assertThat("Opened a new connection", HttpServer.connections.get(), equalTo(2))
+            }
+        }
+    }
+
+    @Test
+    fun `Reuses connections to the same server`() {
+        NetworkUtils.CONNECTION_POOL.clear()
+        runServer {
+            LuaTaskRunner.runTest {
+                val httpApi = addApi(HTTPAPI(environment))
+                for (i in 0 until 3) {
+                    assertThat("http.request succeeded", httpApi.request(ObjectArguments(URL)), array(equalTo(true)))
+
+                    val result = pullEvent("http_success")
+                    assertThat(result, array(equalTo("http_success"), equalTo(URL), isA(HttpResponseHandle::class.java)))
+                }
+
+                assertThat("Only opened one connection", HttpServer.connections.get(), equalTo(1))
+            }
+        }
+    }
+
+    @Test
+    fun `Retries idempotent requests when a pooled connection is closed`() {
+        NetworkUtils.CONNECTION_POOL.clear()
+        runServer {
+            LuaTaskRunner.runTest {
+                val httpApi = addApi(HTTPAPI(environment))
+
+                // Make an initial request, so there is a connection in the pool.
+                assertThat("http.request succeeded", httpApi.request(ObjectArguments(URL)), array(equalTo(true)))
+                pullEvent("http_success")
+
+                // The server closes the pooled connection after receiving the request, so we retry on a new one (where
+                // it is closed again).
+                assertThat("http.request succeeded", httpApi.request(ObjectArguments("$URL/drop")), array(equalTo(true)))
+                val result = pullEvent("http_failure")
+                assertThat(result, array(equalTo("http_failure"), equalTo("$URL/drop"), isA(String::class.java)))
+
+                assertThat("Request was retried", HttpServer.requests.count { it == "GET /drop" }, equalTo(2))
+            }
+        }
+    }
+
+    @Test
+    fun `Does not retry POST requests when a pooled connection is closed`() {
+        NetworkUtils.CONNECTION_POOL.clear()
+        runServer {
+            LuaTaskRunner.runTest {
+                val httpApi = addApi(HTTPAPI(environment))
+
+                // Make an initial request, so there is a connection in the pool.
+                assertThat("http.request succeeded", httpApi.request(ObjectArguments(URL)), array(equalTo(true)))
+                pullEvent("http_success")
+
+                // The server closes the pooled connection after receiving the request. It may have acted on the
+                // request, so we must not send it again.
+                val options = mapOf("url" to "$URL/drop", "body" to "Hello")
+                assertThat("http.request succeeded", httpApi.request(ObjectArguments(options)), array(equalTo(true)))
+                val result = pullEvent("http_failure")
+                assertThat(result, array(equalTo("http_failure"), equalTo("$URL/drop"), isA(String::class.java)))
+
+                assertThat("Request was not retried", HttpServer.requests.count { it == "POST /drop" }, equalTo(1))
+                assertThat("Only opened one connection", HttpServer.connections.get(), equalTo(1))
+            }
+        }
+    }
+
     @Test
     fun `Connects to websocket`() {
         runServer {
@@ -89,6 +263,63 @@ fun after() {
         }
     }
 
+    @Test
+    fun `Receives messages from a buffered websocket`() {
+        runServer {
+            LuaTaskRunner.runTest {
+                val httpApi = addApi(HTTPAPI(environment))
+                val options = mapOf("url" to WS_URL, "buffered" to true)
+                assertThat("http.websocket succeeded", httpApi.websocket(ObjectArguments(options)), array(equalTo(true)))
+
+                val connectEvent = pullEvent()
+                assertThat(connectEvent, array(equalTo("websocket_success"), equalTo(WS_URL), isA(WebsocketHandle::class.java)))
+
+                val websocket = connectEvent[2] as WebsocketHandle
+                for (message in listOf("a", "b", "c")) {
+                    websocket.send(Coerced(LuaValues.encode(message)), Optional.of(false))
+                }
+
+                val received = mutableListOf<String>()
+                while (received.size < 3) {
+                    val batch = websocket.receiveBatch(Optional.empty()).await()!!
+                    for (message in batch[0] as List<*>) received.add(String(message as ByteArray))
+                }
+                assertThat("Received every message in order", received, contains("A", "B", "C"))
+
+                websocket.close()
+            }
+        }
+    }
+
+    @Test
+    fun `Receives a flood of messages from a buffered websocket`() {
+        runServer {
+            LuaTaskRunner.runTest {
+                val httpApi = addApi(HTTPAPI(environment))
+                val options = mapOf("url" to WS_URL, "buffered" to true)
+                assertThat("http.websocket succeeded", httpApi.websocket(ObjectArguments(options)), array(equalTo(true)))
+
+                val connectEvent = pullEvent()
+                assertThat(connectEvent, array(equalTo("websocket_success"), equalTo(WS_URL), isA(WebsocketHandle::class.java)))
+
+                // Send many more messages than the buffer holds, and wait for them to fill the buffer. This means we
+                // have to stop and start reading from the connection.
+                val websocket = connectEvent[2] as WebsocketHandle
+                websocket.send(Coerced(LuaValues.encode("flood 2000")), Optional.of(false))
+                delay(200.milliseconds)
+
+                val received = mutableListOf<String>()
+                while (received.size < 2000) {
+                    val batch = websocket.receiveBatch(Optional.empty()).await()!!
+                    for (message in batch[0] as List<*>) received.add(String(message as ByteArray))
+                }
+                assertThat("Received every message in order", received, equalTo((0 until 2000).map { it.toString() }))
+
+                websocket.close()
+            }
+        }
+    }
+
     @Test
     fun `Errors if too many websocket messages are sent`() {
         runServer {
@@ -94,5 +94,54 @@ describe("The Lua base library", function()
             info = debug.getinfo(load(generator { "return 1" }, "name"), "S")
             expect(info):matches { short_src = "[string \"name\"]", source = "name" }
         end)
+
+        -- Files from the ROM are loaded from a shared cache, so check this behaves the same as the normal load.
+        describe("with files from the ROM", function()
+            local name = "@/rom/startup.lua"
+            local function read_rom()
+                local h = fs.open("/rom/startup.lua", "rb")
+                local contents = h.readAll()
+                h.close()
+                return contents
+            end
+
+            local function get_env(fn) return select(2, debug.getupvalue(fn, 1)) end
+
+            it("uses the global environment", function()
+                local fn = load(read_rom(), name)
+                expect(get_env(fn)):eq(_G)
+                expect(debug.getinfo(fn, "S")):matches { short_src = "/rom/startup.lua", source = name }
+            end)
+
+            it("uses a specific environment", function()
+                local env = {}
+                expect(get_env(load(read_rom(), name, "t", env))):eq(env)
+                expect(get_env(load(read_rom(), name, nil, env))):eq(env)
+            end)
+
+            it("uses an explicit nil environment", function()
+                local contents = read_rom()
+                expect(get_env(load(contents, name, "t", nil))):eq(get_env(load(contents, "=startup.lua", "t", nil)))
+            end)
+
+            it("respects the mode", function()
+                local contents = read_rom()
+                local fn, err = load(contents, name, "b")
+                expect(fn):eq(nil)
+                expect(err):eq(select(2, load(contents, "=startup.lua", "b")))
+            end)
+
+            it("returns nil and an error for invalid chunks", function()
+                local contents = read_rom() .. "\n+"
+                local fn, err = load(contents, name)
+                expect(fn):eq(nil)
+                expect(err):type("string"):eq(select(2, load(contents, "=/rom/startup.lua")))
+            end)
+
+            it("does not confuse chunks with the same name", function()
+                expect(load(read_rom(), name)):type("function")
+                expect(load("return 123", name)()):eq(123)
+            end)
+        end)
     end)
 end)
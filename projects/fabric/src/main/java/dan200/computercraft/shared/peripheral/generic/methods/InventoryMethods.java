@@ -25,6 +25,7 @@
 
 import javax.annotation.Nullable;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
@@ -159,6 +160,23 @@ public int pullItems(
         return moveItem(from, fromSlot - 1, toStorage, toSlot.orElse(0) - 1, actualLimit);
     }
 
+    @Override
+    @LuaFunction(mainThread = true)
+    public List<Integer> transferItems(StorageWrapper inventory, IComputerAccess computer, Map<?, ?> transfers) throws LuaException {
+        return transferItemsImpl(inventory, computer, transfers);
+    }
+
+    @Override
+    protected @Nullable StorageWrapper extractInventory(IPeripheral peripheral) {
+        var storage = extractHandler(peripheral);
+        return storage == null ? null : new StorageWrapper(storage);
+    }
+
+    @Override
+    protected int moveItems(StorageWrapper from, int fromSlot, StorageWrapper to, int toSlot, int limit) {
+        return moveItem(from.storage(), fromSlot, to.storage(), toSlot, limit);
+    }
+
     public static @Nullable StorageWrapper extractContainer(Level level, BlockPos pos, BlockState state, @Nullable BlockEntity blockEntity, @Nullable Direction direction) {
         var storage = extractContainerImpl(level, pos, state, blockEntity, direction);
         return storage == null ? null : new StorageWrapper(storage);
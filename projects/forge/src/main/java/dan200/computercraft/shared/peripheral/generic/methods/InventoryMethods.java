@@ -20,6 +20,7 @@
 
 import javax.annotation.Nullable;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
@@ -109,6 +110,22 @@ public int pullItems(
         return moveItem(from, fromSlot - 1, to, toSlot.orElse(0) - 1, actualLimit);
     }
 
+    @Override
+    @LuaFunction(mainThread = true)
+    public List<Integer> transferItems(IItemHandler inventory, IComputerAccess computer, Map<?, ?> transfers) throws LuaException {
+        return transferItemsImpl(inventory, computer, transfers);
+    }
+
+    @Override
+    protected @Nullable IItemHandler extractInventory(IPeripheral peripheral) {
+        return extractHandler(peripheral);
+    }
+
+    @Override
+    protected int moveItems(IItemHandler from, int fromSlot, IItemHandler to, int toSlot, int limit) {
+        return moveItem(from, fromSlot, to, toSlot, limit);
+    }
+
     @Nullable
     private static IItemHandler extractHandler(IPeripheral peripheral) {
         var object = peripheral.getTarget();
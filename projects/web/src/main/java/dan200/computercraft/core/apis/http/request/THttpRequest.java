@@ -48,7 +48,7 @@ public class THttpRequest extends Resource<THttpRequest> {
 
     public THttpRequest(
         ResourceGroup<THttpRequest> limiter, IAPIEnvironment environment, String address, @Nullable ByteBuffer postBody,
-        HttpHeaders headers, boolean binary, boolean followRedirects, int timeout
+        HttpHeaders headers, boolean binary, boolean stream, boolean followRedirects, int timeout
     ) {
         super(limiter);
         this.environment = environment;
@@ -30,7 +30,7 @@ public class TWebsocket extends Resource<TWebsocket> implements WebsocketClient
 
     private @Nullable WebSocket websocket;
 
-    public TWebsocket(ResourceGroup<TWebsocket> limiter, IAPIEnvironment environment, URI uri, String address, HttpHeaders headers, int timeout) {
+    public TWebsocket(ResourceGroup<TWebsocket> limiter, IAPIEnvironment environment, URI uri, String address, HttpHeaders headers, boolean buffered, int timeout) {
         super(limiter);
         this.environment = environment;
         this.uri = uri;